@@ -39,6 +39,7 @@ public class AggregationAppModule extends DropwizardAwareModule<DPCAggregationCo
         binder.bind(AggregationEngine.class);
         binder.bind(AggregationManager.class).asEagerSingleton();
         binder.bind(JobBatchProcessor.class);
+        binder.bind(OptOutIndex.class);
         binder.bind(AggregationEngineHealthCheck.class);
 
         // Healthchecks
@@ -96,15 +97,14 @@ public class AggregationAppModule extends DropwizardAwareModule<DPCAggregationCo
     OperationsConfig provideOperationsConfig() {
         final var config = configuration();
 
-        return new OperationsConfig(
-                config.getResourcesPerFileCount(),
-                config.getExportPath(),
-                config.getRetryCount(),
-                config.getPollingFrequency(),
-                config.getLookBackMonths(),
-                config.getLookBackDate(),
-                config.getLookBackExemptOrgs()
-        );
+        return OperationsConfig.builder(config.getResourcesPerFileCount(), config.getExportPath(), config.getPollingFrequency(), config.getLookBackDate())
+                .withRetryCount(config.getRetryCount())
+                .withLookBackMonths(config.getLookBackMonths())
+                .withLookBackExemptOrgs(config.getLookBackExemptOrgs())
+                .withPatientParallelism(config.getPatientParallelism())
+                .withBatchParallelism(config.getBatchParallelism())
+                .withListenForBatches(config.isListenForBatches())
+                .build();
     }
 
     @Provides
@@ -138,6 +138,11 @@ public class AggregationAppModule extends DropwizardAwareModule<DPCAggregationCo
         return ctx.newRestfulGenericClient(serviceUrl);
     }
 
+    @Provides
+    OptOutIndexConfiguration provideOptOutIndexConfiguration() {
+        return configuration().getOptOutIndexConfiguration();
+    }
+
     @Provides
     ConsentService provideConsentService(@Named("consentClient") IGenericClient consentClient) {
         return new ConsentServiceImpl(consentClient);
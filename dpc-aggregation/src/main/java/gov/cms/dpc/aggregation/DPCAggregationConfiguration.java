@@ -1,6 +1,7 @@
 package gov.cms.dpc.aggregation;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import gov.cms.dpc.aggregation.service.OptOutIndexConfiguration;
 import gov.cms.dpc.bluebutton.config.BBClientConfiguration;
 import gov.cms.dpc.bluebutton.config.BlueButtonBundleConfiguration;
 import gov.cms.dpc.common.hibernate.attribution.IDPCDatabase;
@@ -42,6 +43,11 @@ public class DPCAggregationConfiguration extends Configuration implements BlueBu
     @JsonProperty("consentClient")
     private final FHIRClientConfiguration consentClientConfiguration = new FHIRClientConfiguration();
 
+    @Valid
+    @NotNull
+    @JsonProperty("optOutIndex")
+    private final OptOutIndexConfiguration optOutIndexConfiguration = new OptOutIndexConfiguration();
+
     @NotNull
     @JsonProperty("awsQueue")
     private final DPCAwsQueueConfiguration dpcAwsQueueConfiguration = new DPCAwsQueueConfiguration();
@@ -72,6 +78,19 @@ public class DPCAggregationConfiguration extends Configuration implements BlueBu
     @Min(1)
     private final int jobTimeoutInSeconds = 5;
 
+    // The number of patients within a batch that are fetched from BlueButton concurrently
+    @Min(1)
+    @Max(32)
+    private int patientParallelism = 1;
+
+    // The number of batches an aggregator processes concurrently, when listening for batches
+    @Min(1)
+    @Max(16)
+    private int batchParallelism = 1;
+
+    // Wait for notifications of newly queued batches, instead of polling the queue
+    private boolean listenForBatches = false;
+
     @Min(-1)
     @SuppressWarnings("unused")
     private int lookBackMonths;
@@ -119,6 +138,8 @@ public class DPCAggregationConfiguration extends Configuration implements BlueBu
 
     public FHIRClientConfiguration getConsentClientConfiguration() { return this.consentClientConfiguration; }
 
+    public OptOutIndexConfiguration getOptOutIndexConfiguration() { return this.optOutIndexConfiguration; }
+
     @Override
     public int getPollingFrequency() {
         return pollingFrequency;
@@ -128,6 +149,18 @@ public class DPCAggregationConfiguration extends Configuration implements BlueBu
         return jobTimeoutInSeconds;
     }
 
+    public int getPatientParallelism() {
+        return patientParallelism;
+    }
+
+    public int getBatchParallelism() {
+        return batchParallelism;
+    }
+
+    public boolean isListenForBatches() {
+        return listenForBatches;
+    }
+
     public int getLookBackMonths() {
         return lookBackMonths;
     }
@@ -6,10 +6,15 @@ import gov.cms.dpc.common.MDCConstants;
 import gov.cms.dpc.queue.IJobQueue;
 import gov.cms.dpc.queue.annotations.AggregatorID;
 import gov.cms.dpc.queue.models.JobQueueBatch;
+import gov.cms.dpc.queue.exceptions.JobQueueFailure;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.UndeliverableException;
 import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import org.hl7.fhir.dstu3.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -17,8 +22,15 @@ import org.slf4j.MDC;
 import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -28,18 +40,29 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * <p>
  * Implementation Notes:
  * - There is a single flow that does the work for a job
+ * - The queue is either polled for one batch at a time, or batches are claimed in bulk when the queue notifies us they were queued
+ * - Patients of a batch can optionally be fetched concurrently, but are always written in batch order
  * - It starts with an iteration of resource types in a job and produces a series of JobQueueBatchFile for that resource type
  * - Partial job batches are saved out and written along the way
  * - When the aggregator shuts down, a batch is paused and another aggregator can claim the batch to continue processing
  */
 public class AggregationEngine implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(AggregationEngine.class);
+    // How often to look for batches that are stuck in the running state, when listening for batches
+    private static final long STUCK_BATCH_CHECK_SECONDS = 60;
+    // How long to wait for a notification before checking the queue anyway, in case a notification was missed
+    private static final long LISTEN_FALLBACK_SECONDS = 30;
+    // How long to wait for in-flight batches to pause themselves, when listening for batches and the engine is stopped
+    private static final long WORKER_SHUTDOWN_SECONDS = 60;
+    // How many resources to buffer for each patient that's being fetched ahead of the one being written
+    private static final int PATIENT_PREFETCH = 128;
 
     private final UUID aggregatorID;
     private final IJobQueue queue;
     private final OperationsConfig operationsConfig;
     private final JobBatchProcessor jobBatchProcessor;
     private Disposable subscribe;
+    private final Semaphore batchesQueued = new Semaphore(0);
 
     /**
      * The initial value is set to true so when the aggregation instance starts up,
@@ -74,7 +97,11 @@ public class AggregationEngine implements Runnable {
                 operationsConfig.getResourcesPerFileCount());
         setGlobalErrorHandler();
         queueRunning.set(true);
-        this.pollQueue();
+        if (operationsConfig.isListenForBatches() && this.queue.addBatchesQueuedListener(this.batchesQueued::release)) {
+            this.listenToQueue();
+        } else {
+            this.pollQueue();
+        }
     }
 
     /**
@@ -86,6 +113,8 @@ public class AggregationEngine implements Runnable {
         if (this.subscribe != null) {
             this.subscribe.dispose();
         }
+        // Wake up the listening loop, so it can exit
+        batchesQueued.release();
     }
 
     public Boolean isRunning() {
@@ -123,6 +152,91 @@ public class AggregationEngine implements Runnable {
                 );
     }
 
+    /**
+     * The run-loop of the engine when listening for batches. Claims as many batches as there are free workers with a
+     * single query, and then waits for the queue to notify us of new batches, rather than polling it. Looking for stuck
+     * batches is done on its own schedule, instead of on every claim.
+     */
+    protected void listenToQueue() {
+        final int parallelism = operationsConfig.getBatchParallelism();
+        final Semaphore freeWorkers = new Semaphore(parallelism);
+        final ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        final ScheduledExecutorService stuckBatchChecker = Executors.newSingleThreadScheduledExecutor();
+        stuckBatchChecker.scheduleWithFixedDelay(this::restartStuckBatches, 0, STUCK_BATCH_CHECK_SECONDS, TimeUnit.SECONDS);
+
+        try {
+            while (this.isRunning()) {
+                freeWorkers.acquire();
+                final int available = 1 + freeWorkers.drainPermits();
+                if (!this.isRunning()) {
+                    break;
+                }
+
+                List<JobQueueBatch> batches = List.of();
+                try {
+                    logger.trace("Claiming up to {} batches...", available);
+                    batches = this.queue.claimBatches(this.aggregatorID, available);
+                } catch (Exception e) {
+                    logger.error("Unable to claim batches.", e);
+                }
+                freeWorkers.release(available - batches.size());
+
+                for (JobQueueBatch batch : batches) {
+                    workers.submit(() -> {
+                        try {
+                            processJobBatch(batch);
+                        } finally {
+                            MDC.clear();
+                            freeWorkers.release();
+                        }
+                    });
+                }
+
+                if (batches.isEmpty()) {
+                    // Nothing to do, so wait until new batches are queued
+                    batchesQueued.tryAcquire(LISTEN_FALLBACK_SECONDS, TimeUnit.SECONDS);
+                    batchesQueued.drainPermits();
+                }
+            }
+            onCompleted();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onError(e);
+        } catch (Exception e) {
+            onError(e);
+        } finally {
+            stuckBatchChecker.shutdownNow();
+            shutdownWorkers(workers);
+        }
+    }
+
+    /**
+     * Wait for the batches which are still being worked to finish, or to notice the engine has stopped and pause themselves.
+     * Otherwise they could be left in the running state, until the stuck batch logic restarts them on another aggregator.
+     *
+     * @param workers - {@link ExecutorService} running the batches
+     */
+    private void shutdownWorkers(ExecutorService workers) {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(WORKER_SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Batches did not pause within {} seconds, interrupting them", WORKER_SHUTDOWN_SECONDS);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void restartStuckBatches() {
+        try {
+            this.queue.restartStuckBatches();
+        } catch (Exception e) {
+            logger.error("Unable to restart stuck batches.", e);
+        }
+    }
+
     protected void onError(Throwable error) {
         logger.error("Error processing queue. Exiting...", error);
         queueRunning.set(false);
@@ -162,11 +276,16 @@ public class AggregationEngine implements Runnable {
             logger.info("Processing job, exporting to: {}.", this.operationsConfig.getExportPath());
             logger.info("dpcMetric=queueComplete,jobID={},queueCompleteTime={}",  job.getJobID(), queueCompleteTime);
             logger.debug("Has {} attributed beneficiaries", job.getPatients().size());
+            jobBatchProcessor.prefetchConsent(job);
 
-            Optional<String> nextPatientID = job.fetchNextPatient(aggregatorID);
-            while (nextPatientID.isPresent()) {
-                String patientId = nextPatientID.get();
-                nextPatientID = processPatient(job, patientId);
+            if (this.operationsConfig.getPatientParallelism() > 1) {
+                processPatientsConcurrently(job);
+            } else {
+                Optional<String> nextPatientID = job.fetchNextPatient(aggregatorID);
+                while (nextPatientID.isPresent()) {
+                    String patientId = nextPatientID.get();
+                    nextPatientID = processPatient(job, patientId);
+                }
             }
 
             //Clear last patient seen from MDC
@@ -190,6 +309,10 @@ public class AggregationEngine implements Runnable {
             } catch (Exception failedBatchException) {
                 logger.error("FAILED to mark job {} batch {} as failed. Batch will remain in the running state, and stuck job logic will retry this in 5 minutes...", job.getJobID(), job.getBatchID(), failedBatchException);
             }
+        } finally {
+            // No-op if the files were already closed when calculating the metadata
+            jobBatchProcessor.closeOutputFiles(job);
+            jobBatchProcessor.clearPrefetchedConsent(job);
         }
     }
 
@@ -200,11 +323,97 @@ public class AggregationEngine implements Runnable {
         return this.isRunning() ? job.fetchNextPatient(aggregatorID) : Optional.empty();
     }
 
+    /**
+     * Fetches up to {@link OperationsConfig#getPatientParallelism()} patients from BlueButton at the same time, but writes
+     * their resources and checkpoints the patient index strictly in batch order. This keeps the output files and the
+     * patient_index consistent for pausing and resuming the batch on another aggregator.
+     * <p>
+     * Each patient's resources are streamed to the writer as they're fetched. Patients which are fetched ahead of the one being
+     * written only buffer up to {@link #PATIENT_PREFETCH} resources, after which they stop fetching pages until they're written.
+     *
+     * @param job - the job to process
+     */
+    private void processPatientsConcurrently(JobQueueBatch job) {
+        final List<String> patients = job.getPatients();
+        final List<String> remainingPatients = patients.subList(job.getPatientIndex().orElse(-1) + 1, patients.size());
+        final Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+        final int parallelism = this.operationsConfig.getPatientParallelism();
+        final PublishProcessor<Boolean> finished = PublishProcessor.create();
+
+        final Iterator<PatientItem> items = Flowable.fromIterable(remainingPatients)
+                .takeWhile(patientId -> this.isRunning())
+                // concatMapEager subscribes to several fetches at once, but emits their results in the original order
+                .concatMapEager(patientId -> streamPatient(job, patientId, mdcContext).subscribeOn(Schedulers.io()), parallelism, PATIENT_PREFETCH)
+                .takeUntil(finished)
+                .blockingIterable(PATIENT_PREFETCH)
+                .iterator();
+        try {
+            while (this.isRunning() && items.hasNext()) {
+                final JobBatchProcessor.PatientResources fetched = items.next().getPatient()
+                        .orElseThrow(() -> new JobQueueFailure(job.getJobID(), job.getBatchID(), "Prefetched patient is missing its start"));
+                final String patientId = job.fetchNextPatient(aggregatorID)
+                        .orElseThrow(() -> new JobQueueFailure(job.getJobID(), job.getBatchID(), "Ran out of patients while writing prefetched results"));
+                if (!patientId.equals(fetched.getMbi())) {
+                    throw new JobQueueFailure(job.getJobID(), job.getBatchID(), "Prefetched patient is out of order with the batch");
+                }
+
+                // Pull the patient's resources off the shared stream, up to the end of the patient
+                final Flowable<Resource> resources = Flowable.generate(emitter -> {
+                    final PatientItem item = items.next();
+                    if (item.isEnd()) {
+                        emitter.onComplete();
+                    } else {
+                        emitter.onNext(item.getResource());
+                    }
+                });
+                jobBatchProcessor.writePatientResources(aggregatorID, queue, job,
+                        new JobBatchProcessor.PatientResources(fetched.getMbi(), resources, fetched.getFailReason(), fetched.getStopWatch()));
+            }
+        } finally {
+            // Cancel the fetches of any patients we didn't get to
+            finished.onNext(true);
+        }
 
+        // Keep the update time in sync, the same way the serial loop does when it runs out of patients
+        if (this.isRunning()) {
+            job.fetchNextPatient(aggregatorID);
+        }
+    }
+
+    /**
+     * Runs the checks for a patient, and then streams its resources, between a start and an end item.
+     */
+    private Flowable<PatientItem> streamPatient(JobQueueBatch job, String patientId, Map<String, String> mdcContext) {
+        return Flowable.defer(() -> {
+            if (mdcContext != null) {
+                MDC.setContextMap(mdcContext);
+            }
+            final JobBatchProcessor.PatientResources fetched = jobBatchProcessor.fetchPatientResources(job, patientId);
+            return Flowable.just(PatientItem.start(fetched))
+                    .concatWith(fetched.getResources().map(PatientItem::resource))
+                    .concatWith(Flowable.just(PatientItem.end()));
+        }).doFinally(MDC::clear);
+    }
 
     private void calculateFileMetadata(JobQueueBatch job) {
+        final Map<String, BatchOutputFile> outputFiles = jobBatchProcessor.closeOutputFiles(job);
         job.getJobQueueBatchFiles()
                 .forEach(batchFile -> {
+                    // Use the checksum calculated while writing, if it covers the entire file
+                    final BatchOutputFile outputFile = outputFiles.get(batchFile.getFileName());
+                    if (outputFile != null && outputFile.coversWholeFile()) {
+                        batchFile.setChecksum(outputFile.getChecksum());
+                        batchFile.setFileLength(outputFile.getLength());
+                        batchFile.setChecksumState(null);
+                        return;
+                    }
+                    // Or finish the checksum saved by a previous aggregator, if the file was not written to since
+                    if (outputFile == null && batchFile.getChecksumState() != null) {
+                        batchFile.setChecksum(AggregationUtils.finishChecksum(batchFile.getChecksumState()));
+                        batchFile.setChecksumState(null);
+                        return;
+                    }
+
                     final File file = new File(String.format("%s/%s.ndjson", this.operationsConfig.getExportPath(), batchFile.getFileName()));
                     try {
                         final byte[] checksum = AggregationUtils.generateChecksum(file);
@@ -267,4 +476,43 @@ public class AggregationEngine implements Runnable {
     protected void setSubscribe(Disposable subscribe) {
         this.subscribe = subscribe;
     }
+
+    /**
+     * An item of the stream of concurrently fetched patients. Each patient is a start item, followed by its resources and an end item.
+     */
+    private static final class PatientItem {
+        private static final PatientItem END = new PatientItem(null, null);
+
+        private final JobBatchProcessor.PatientResources patient;
+        private final Resource resource;
+
+        private PatientItem(JobBatchProcessor.PatientResources patient, Resource resource) {
+            this.patient = patient;
+            this.resource = resource;
+        }
+
+        static PatientItem start(JobBatchProcessor.PatientResources patient) {
+            return new PatientItem(patient, null);
+        }
+
+        static PatientItem resource(Resource resource) {
+            return new PatientItem(null, resource);
+        }
+
+        static PatientItem end() {
+            return END;
+        }
+
+        Optional<JobBatchProcessor.PatientResources> getPatient() {
+            return Optional.ofNullable(patient);
+        }
+
+        Resource getResource() {
+            return resource;
+        }
+
+        boolean isEnd() {
+            return this == END;
+        }
+    }
 }
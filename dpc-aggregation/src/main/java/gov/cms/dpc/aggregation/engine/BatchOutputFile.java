@@ -0,0 +1,160 @@
+package gov.cms.dpc.aggregation.engine;
+
+import ca.uhn.fhir.parser.IParser;
+import org.apache.commons.io.output.CloseShieldWriter;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.hl7.fhir.dstu3.model.Resource;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An NDJSON output file that stays open between batches of writes. Resources are encoded straight into a buffered
+ * stream over the file's channel, and the SHA-256 checksum and length of the file are tracked as bytes are written.
+ * <p>
+ * The checksum only covers the whole file if the file was empty when it was opened, or if the digest state saved
+ * by a previous writer was supplied, see {@link #coversWholeFile()}.
+ */
+class BatchOutputFile implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char DELIM = '\n';
+
+    private final FileChannel channel;
+    private final Writer writer;
+    private final SHA256Digest digest;
+    private final boolean coversWholeFile;
+    private long length;
+
+    /**
+     * Open an output file
+     *
+     * @param outputPath - the path of the file
+     * @param append     - {@code true} to append to an existing file, {@code false} to truncate it
+     * @throws IOException - if the file cannot be opened
+     */
+    BatchOutputFile(String outputPath, boolean append) throws IOException {
+        this(outputPath, append, null, 0);
+    }
+
+    /**
+     * Open an output file, continuing the checksum from a previously saved digest state when appending.
+     * <p>
+     * If the file holds more data than the saved length (e.g. an aggregator stopped after writing, but before the
+     * batch progress was saved), the file is truncated back to the saved length, since that data will be written again.
+     *
+     * @param outputPath     - the path of the file
+     * @param append         - {@code true} to append to an existing file, {@code false} to truncate it
+     * @param checksumState  - the encoded digest state saved with the file's progress, may be null
+     * @param checksumLength - the length of the file covered by the saved digest state
+     * @throws IOException - if the file cannot be opened
+     */
+    BatchOutputFile(String outputPath, boolean append, byte[] checksumState, long checksumLength) throws IOException {
+        this.channel = FileChannel.open(Path.of(outputPath),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+
+        final long existingLength = channel.size();
+        if (existingLength > 0 && checksumState != null && existingLength >= checksumLength) {
+            if (existingLength > checksumLength) {
+                channel.truncate(checksumLength);
+            }
+            this.digest = new SHA256Digest(checksumState);
+            this.length = checksumLength;
+            this.coversWholeFile = true;
+        } else {
+            this.digest = new SHA256Digest();
+            this.length = existingLength;
+            this.coversWholeFile = existingLength == 0;
+        }
+
+        final OutputStream digestStream = new DigestingOutputStream(Channels.newOutputStream(channel));
+        this.writer = new OutputStreamWriter(new BufferedOutputStream(digestStream, BUFFER_SIZE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encode a resource as a single line of the file
+     *
+     * @param parser   - the JSON parser to encode with
+     * @param resource - the resource to write
+     * @throws IOException - if the write fails
+     */
+    synchronized void write(IParser parser, Resource resource) throws IOException {
+        // The parser should not close our writer, as we keep it open for the next batch
+        parser.encodeResourceToWriter(resource, CloseShieldWriter.wrap(writer));
+        writer.write(DELIM);
+    }
+
+    /**
+     * Push any buffered data to the file. Called after each batch, so the file on disk matches the progress
+     * recorded in the queue.
+     *
+     * @throws IOException - if the write fails
+     */
+    synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * @return {@code true} if every byte of the file was written through this object
+     */
+    boolean coversWholeFile() {
+        return coversWholeFile;
+    }
+
+    /**
+     * @return the SHA-256 checksum of the bytes written so far
+     */
+    synchronized byte[] getChecksum() {
+        final byte[] checksum = new byte[digest.getDigestSize()];
+        new SHA256Digest(digest).doFinal(checksum, 0);
+        return checksum;
+    }
+
+    /**
+     * @return the encoded state of the running digest, which can be used to continue the checksum later
+     */
+    synchronized byte[] getChecksumState() {
+        return digest.getEncodedState();
+    }
+
+    /**
+     * @return the length of the file in bytes, including any data that was in the file when it was opened
+     */
+    synchronized long getLength() {
+        return length;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Updates the digest and length with every byte that reaches the file
+     */
+    private class DigestingOutputStream extends FilterOutputStream {
+
+        DigestingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            digest.update((byte) b);
+            length++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            digest.update(b, off, len);
+            length += len;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package gov.cms.dpc.aggregation.engine;
+
+import gov.cms.dpc.queue.models.JobQueueBatchFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks the {@link BatchOutputFile}s that are open for each batch, so each output file is opened once per batch
+ * instead of once per write.
+ */
+class BatchOutputFiles {
+    private static final Logger logger = LoggerFactory.getLogger(BatchOutputFiles.class);
+
+    private final Map<UUID, Map<String, BatchOutputFile>> openFiles = new HashMap<>();
+
+    /**
+     * Get the open output file for a batch, opening it if needed.
+     *
+     * @param batchFile  - the {@link JobQueueBatchFile} being written, which holds any saved checksum state
+     * @param outputPath - the path of the file
+     * @param append     - {@code false} if the file is being started over, and any existing data should be truncated
+     * @return the open file
+     * @throws IOException - if the file cannot be opened
+     */
+    synchronized BatchOutputFile open(JobQueueBatchFile batchFile, String outputPath, boolean append) throws IOException {
+        final String fileName = batchFile.getFileName();
+        final Map<String, BatchOutputFile> batchFiles = openFiles.computeIfAbsent(batchFile.getBatchID(), id -> new HashMap<>());
+        final BatchOutputFile existing = batchFiles.get(fileName);
+        if (existing != null) {
+            if (append) {
+                return existing;
+            }
+            existing.close();
+        }
+
+        final BatchOutputFile file = append ?
+                new BatchOutputFile(outputPath, true, batchFile.getChecksumState(), batchFile.getFileLength()) :
+                new BatchOutputFile(outputPath, false);
+        batchFiles.put(fileName, file);
+        return file;
+    }
+
+    /**
+     * Close all the open files of a batch.
+     *
+     * @param batchID - the batch to close files for
+     * @return the closed files, keyed by file name
+     */
+    synchronized Map<String, BatchOutputFile> close(UUID batchID) {
+        final Map<String, BatchOutputFile> batchFiles = openFiles.remove(batchID);
+        if (batchFiles == null) {
+            return Map.of();
+        }
+        batchFiles.forEach((fileName, file) -> {
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.error("Unable to close output file {}", fileName, e);
+            }
+        });
+        return batchFiles;
+    }
+}
@@ -0,0 +1,32 @@
+package gov.cms.dpc.aggregation.engine;
+
+import gov.cms.dpc.queue.models.JobQueueBatch;
+import gov.cms.dpc.queue.service.InProcessJobRunner;
+import org.hl7.fhir.dstu3.model.Resource;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a batch with the same {@link JobBatchProcessor} logic as the {@link AggregationEngine}, but collects the
+ * resources in memory instead of writing them out with {@link ResourceWriter}.
+ */
+public class DirectJobRunner implements InProcessJobRunner {
+
+    private final JobBatchProcessor jobBatchProcessor;
+
+    @Inject
+    public DirectJobRunner(JobBatchProcessor jobBatchProcessor) {
+        this.jobBatchProcessor = jobBatchProcessor;
+    }
+
+    @Override
+    public List<Resource> runBatch(JobQueueBatch batch) {
+        final List<Resource> resources = new ArrayList<>();
+        for (String mbi : batch.getPatients()) {
+            resources.addAll(jobBatchProcessor.collectPatientResources(batch, jobBatchProcessor.fetchPatientResources(batch, mbi)));
+        }
+        return resources;
+    }
+}
@@ -27,6 +27,7 @@ import javax.inject.Inject;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -43,14 +44,18 @@ public class JobBatchProcessor {
     private final Meter operationalOutcomeMeter;
     private final LookBackService lookBackService;
     private final ConsentService consentService;
+    private final OptOutIndex optOutIndex;
+    private final BatchOutputFiles outputFiles = new BatchOutputFiles();
+    private final Map<UUID, Map<String, List<ConsentResult>>> prefetchedConsent = new ConcurrentHashMap<>();
 
     @Inject
-    public JobBatchProcessor(BlueButtonClient bbclient, FhirContext fhirContext, MetricRegistry metricRegistry, OperationsConfig operationsConfig, LookBackService lookBackService, ConsentService consentService) {
+    public JobBatchProcessor(BlueButtonClient bbclient, FhirContext fhirContext, MetricRegistry metricRegistry, OperationsConfig operationsConfig, LookBackService lookBackService, ConsentService consentService, OptOutIndex optOutIndex) {
         this.bbclient = bbclient;
         this.fhirContext = fhirContext;
         this.operationsConfig = operationsConfig;
         this.lookBackService = lookBackService;
         this.consentService = consentService;
+        this.optOutIndex = optOutIndex;
 
         // Metrics
         final var metricFactory = new MetricMaker(metricRegistry, JobBatchProcessor.class);
@@ -68,6 +73,96 @@ public class JobBatchProcessor {
      * @return A list of batch files {@link JobQueueBatchFile}
      */
     public List<JobQueueBatchFile> processJobBatchPartial(UUID aggregatorID, IJobQueue queue, JobQueueBatch job, String mbi) {
+        return writePatientResources(aggregatorID, queue, job, fetchPatientResources(job, mbi));
+    }
+
+    /**
+     * Writes a patient's resources out to the batch files and marks the partial as completed.
+     * Must be called in the order the patients appear in the batch.
+     *
+     * @param aggregatorID the current aggregatorID
+     * @param queue        the queue
+     * @param job          the job to process
+     * @param resources    the {@link PatientResources} to write
+     * @return A list of batch files {@link JobQueueBatchFile}
+     */
+    public List<JobQueueBatchFile> writePatientResources(UUID aggregatorID, IJobQueue queue, JobQueueBatch job, PatientResources resources) {
+        final var results = writeResource(job, resources.getResources())
+                .toList()
+                .blockingGet();
+        queue.completePartialBatch(job, aggregatorID);
+        logExportResult(job, resources);
+        return results;
+    }
+
+    /**
+     * Collects a patient's resources in memory, instead of writing them out to the batch files.
+     * Nothing is written to disk or to the queue, so it can be used for jobs which are never submitted to the queue.
+     *
+     * @param job       the job the patient belongs to
+     * @param resources the {@link PatientResources} to collect
+     * @return A list of the patient's {@link Resource}s, which is a single {@link OperationOutcome} if the patient's data could not be retrieved
+     */
+    public List<Resource> collectPatientResources(JobQueueBatch job, PatientResources resources) {
+        final List<Resource> results = resources.getResources()
+                .doOnNext(resource -> getMeter(DPCResourceType.valueOf(resource.getResourceType().toString())).mark())
+                .toList()
+                .blockingGet();
+        logExportResult(job, resources);
+        return results;
+    }
+
+    /**
+     * Closes the output files that were written for a batch. Should be called once the batch is finished, paused or
+     * failed.
+     *
+     * @param job the job to close files for
+     * @return the closed files, keyed by file name, with the checksum and length of what was written
+     */
+    Map<String, BatchOutputFile> closeOutputFiles(JobQueueBatch job) {
+        return outputFiles.close(job.getBatchID());
+    }
+
+    /**
+     * Fetches the latest consent for every remaining patient of a batch up front, in a few bulk requests, so that each
+     * patient doesn't need its own request to the consent service. If the prefetch fails, or a patient has MBIs that
+     * weren't prefetched, the patient falls back to fetching its own consent.
+     * Nothing is prefetched while the {@link OptOutIndex} is available, since it can answer for every patient.
+     *
+     * @param job the job to prefetch consent for
+     */
+    void prefetchConsent(JobQueueBatch job) {
+        if (optOutIndex.isAvailable()) {
+            return;
+        }
+        final List<String> patients = job.getPatients();
+        final List<String> remainingPatients = patients.subList(job.getPatientIndex().orElse(-1) + 1, patients.size());
+        try {
+            prefetchedConsent.put(job.getBatchID(), consentService.getLatestConsents(remainingPatients));
+        } catch (Exception e) {
+            logger.warn("Unable to prefetch consent for batch, falling back to fetching consent for each patient.", e);
+        }
+    }
+
+    /**
+     * Drops the consent prefetched for a batch. Should be called once the batch is finished, paused or failed.
+     *
+     * @param job the job to drop consent for
+     */
+    void clearPrefetchedConsent(JobQueueBatch job) {
+        prefetchedConsent.remove(job.getBatchID());
+    }
+
+    /**
+     * Runs the patient, consent and look back checks for a patient, and returns the patient's resources as a {@link Flowable}.
+     * The resources are only fetched from BlueButton as the flowable is consumed, a page at a time, so they're never all held in memory.
+     * Nothing is written to disk or to the queue.
+     *
+     * @param job the job to process
+     * @param mbi the patient mbi to fetch resources for
+     * @return The {@link PatientResources}, ready to be passed to {@link #writePatientResources}
+     */
+    public PatientResources fetchPatientResources(JobQueueBatch job, String mbi) {
         StopWatch stopWatch = StopWatch.createStarted();
         Optional<OutcomeReason> failReason = Optional.empty();
         Optional<Flowable<Resource>> flowable = Optional.empty();
@@ -82,7 +177,7 @@ public class JobBatchProcessor {
 
         // Check if the patient has opted out
         if(flowable.isEmpty()) {
-            Optional<Pair<Flowable<Resource>, OutcomeReason>> consentResult = checkForOptOut(optPatient.get());
+            Optional<Pair<Flowable<Resource>, OutcomeReason>> consentResult = checkForOptOut(job, optPatient.get());
             if(consentResult.isPresent()) {
                 flowable = Optional.of(consentResult.get().getLeft());
                 failReason = Optional.of(consentResult.get().getRight());
@@ -122,36 +217,39 @@ public class JobBatchProcessor {
             );
         }
 
-        final var results = writeResource(job, flowable.get())
-                .toList()
-                .blockingGet();
-        queue.completePartialBatch(job, aggregatorID);
-
-        final String resourcesRequested = job.getResourceTypes().stream().map(DPCResourceType::getPath).filter(Objects::nonNull).collect(Collectors.joining(";"));
-        final String failReasonLabel = failReason.map(Enum::name).orElse("NA");
-        stopWatch.stop();
-        logger.info("dpcMetric=DataExportResult,dataRetrieved={},failReason={},resourcesRequested={},duration={}", failReason.isEmpty(), failReasonLabel, resourcesRequested, stopWatch.getDuration());
-        return results;
+        return new PatientResources(mbi, flowable.get(), failReason, stopWatch);
     }
 
     /**
      * Checks the given patient against the consent service and returns any issues if the check doesn't pass.
+     * Patients with a single MBI are checked against the {@link OptOutIndex} instead, when it's available.
+     * @param job       {@link JobQueueBatch} currently running.
      * @param patient   {@link Patient} resource we're checking consent for.
      * @return If there's a problem, it returns a pair of a {@link Flowable} {@link OperationOutcome} and an {@link OutcomeReason}.
      * If the Patient passes the consent check, it returns an empty {@link Optional}s.
      */
-    private Optional<Pair<Flowable<Resource>, OutcomeReason>> checkForOptOut(Patient patient) {
-        final Pair<Optional<List<ConsentResult>>, Optional<OperationOutcome>> consentResult = getConsent(patient);
+    private Optional<Pair<Flowable<Resource>, OutcomeReason>> checkForOptOut(JobQueueBatch job, Patient patient) {
+        final List<String> mbis = getPatientMBIs(patient);
+        final Optional<Boolean> indexedOptOut = mbis.size() == 1 ? optOutIndex.isOptedOut(mbis.get(0)) : Optional.empty();
 
-        if (consentResult.getRight().isPresent()) {
-            // Consent check returned an error
-            return Optional.of(
-                    Pair.of(
-                        Flowable.just(consentResult.getRight().get()),
-                        OutcomeReason.INTERNAL_ERROR
-                    )
-            );
-        } else if (isOptedOut(consentResult.getLeft())) {
+        final boolean optedOut;
+        if (indexedOptOut.isPresent()) {
+            optedOut = indexedOptOut.get();
+        } else {
+            final Pair<Optional<List<ConsentResult>>, Optional<OperationOutcome>> consentResult = getConsent(job, patient);
+            if (consentResult.getRight().isPresent()) {
+                // Consent check returned an error
+                return Optional.of(
+                        Pair.of(
+                            Flowable.just(consentResult.getRight().get()),
+                            OutcomeReason.INTERNAL_ERROR
+                        )
+                );
+            }
+            optedOut = isOptedOut(consentResult.getLeft());
+        }
+
+        if (optedOut) {
             // Enrollee is opted out
             return Optional.of(
                     Pair.of(
@@ -286,7 +384,7 @@ public class JobBatchProcessor {
                         resourceCount.set(file.getCount());
                         sequenceCount.set(file.getSequence());
                     });
-                    final var writer = new ResourceWriter(fhirContext, job, dpcResourceType, operationsConfig);
+                    final var writer = new ResourceWriter(fhirContext, job, dpcResourceType, operationsConfig, outputFiles);
                     return groupedByResourceFlow.compose((upstream) -> bufferAndWrite(upstream, writer, resourceCount, sequenceCount));
                 });
     }
@@ -328,6 +426,15 @@ public class JobBatchProcessor {
                 .map(batch -> writer.writeBatch(sequenceCount, batch));
     }
 
+    private void logExportResult(JobQueueBatch job, PatientResources resources) {
+        final Optional<OutcomeReason> failReason = resources.getFailReason();
+        final String resourcesRequested = job.getResourceTypes().stream().map(DPCResourceType::getPath).filter(Objects::nonNull).collect(Collectors.joining(";"));
+        final String failReasonLabel = failReason.map(Enum::name).orElse("NA");
+        final StopWatch stopWatch = resources.getStopWatch();
+        stopWatch.stop();
+        logger.info("dpcMetric=DataExportResult,dataRetrieved={},failReason={},resourcesRequested={},duration={}", failReason.isEmpty(), failReasonLabel, resourcesRequested, stopWatch.getDuration());
+    }
+
     private Meter getMeter(DPCResourceType resourceType) {
         return DPCResourceType.OperationOutcome == resourceType ? operationalOutcomeMeter : resourceMeter;
     }
@@ -335,13 +442,24 @@ public class JobBatchProcessor {
     /**
      * Returns a {@link List} of {@link ConsentResult}s if successful.  An {@link OperationOutcome} if not.  Only one of
      * the two {@link Optional}s returned will be filled in.
+     * Uses the consent prefetched for the batch, if it covers all the patient's MBIs.
      *
+     * @param job       The {@link JobQueueBatch} the patient belongs to
      * @param patient   A {@link Patient} that we want to get {@link ConsentResult}s for
      * @return          A {@link Pair}
      */
-    private Pair<Optional<List<ConsentResult>>, Optional<OperationOutcome>> getConsent(Patient patient) {
+    private Pair<Optional<List<ConsentResult>>, Optional<OperationOutcome>> getConsent(JobQueueBatch job, Patient patient) {
+        final List<String> mbis = getPatientMBIs(patient);
+        final Map<String, List<ConsentResult>> prefetched = prefetchedConsent.getOrDefault(job.getBatchID(), Map.of());
+        if (!mbis.isEmpty() && prefetched.keySet().containsAll(mbis)) {
+            final List<ConsentResult> results = mbis.stream()
+                    .flatMap(patientMbi -> prefetched.get(patientMbi).stream())
+                    .collect(Collectors.toList());
+            return Pair.of(Optional.of(results), Optional.empty());
+        }
+
         try {
-            return Pair.of(consentService.getConsent(getPatientMBIs(patient)), Optional.empty());
+            return Pair.of(consentService.getConsent(mbis), Optional.empty());
         } catch (Exception e) {
             logger.error("Unable to retrieve consent from consent service.", e);
             OperationOutcome operationOutcome = AggregationUtils.toOperationOutcome(OutcomeReason.INTERNAL_ERROR, getPatientMBI(patient));
@@ -371,4 +489,39 @@ public class JobBatchProcessor {
         return answers.stream()
                 .anyMatch(a -> a.matchDateCriteria() && (a.orgNPIMatchAnyEobNPIs() || a.practitionerNPIMatchAnyEobNPIs()));
     }
+
+    /**
+     * The resources gathered for a single patient of a batch, along with the reason the patient's data could not be
+     * retrieved (if any).
+     */
+    public static class PatientResources {
+        private final String mbi;
+        private final Flowable<Resource> resources;
+        private final Optional<OutcomeReason> failReason;
+        private final StopWatch stopWatch;
+
+        @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+        PatientResources(String mbi, Flowable<Resource> resources, Optional<OutcomeReason> failReason, StopWatch stopWatch) {
+            this.mbi = mbi;
+            this.resources = resources;
+            this.failReason = failReason;
+            this.stopWatch = stopWatch;
+        }
+
+        public String getMbi() {
+            return mbi;
+        }
+
+        public Flowable<Resource> getResources() {
+            return resources;
+        }
+
+        public Optional<OutcomeReason> getFailReason() {
+            return failReason;
+        }
+
+        public StopWatch getStopWatch() {
+            return stopWatch;
+        }
+    }
 }
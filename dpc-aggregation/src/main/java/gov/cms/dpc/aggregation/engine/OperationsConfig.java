@@ -12,9 +12,12 @@ public class OperationsConfig {
     private final int resourcesPerFileCount;
     private final String exportPath;
     private final int pollingFrequency;
-    private int lookBackMonths;
+    private final int lookBackMonths;
     private final YearMonth lookBackDate;
-    private List<String> lookBackExemptOrgs;
+    private final List<String> lookBackExemptOrgs;
+    private final int patientParallelism;
+    private final int batchParallelism;
+    private final boolean listenForBatches;
 
     public OperationsConfig(
             int resourcesPerFileCount,
@@ -25,13 +28,10 @@ public class OperationsConfig {
             YearMonth lookBackDate,
             List<String> lookBackExemptOrgs
     ) {
-        this.retryCount = retryCount;
-        this.resourcesPerFileCount = resourcesPerFileCount;
-        this.exportPath = exportPath;
-        this.pollingFrequency = pollingFrequency;
-        this.lookBackMonths = lookBackMonths;
-        this.lookBackDate = lookBackDate;
-        this.lookBackExemptOrgs = lookBackExemptOrgs;
+        this(builder(resourcesPerFileCount, exportPath, pollingFrequency, lookBackDate)
+                .withRetryCount(retryCount)
+                .withLookBackMonths(lookBackMonths)
+                .withLookBackExemptOrgs(lookBackExemptOrgs));
     }
 
     public OperationsConfig(
@@ -40,11 +40,27 @@ public class OperationsConfig {
             int pollingFrequency,
             YearMonth lookBackDate
     ) {
-        this.retryCount = 3;
-        this.resourcesPerFileCount = resourcesPerFileCount;
-        this.exportPath = exportPath;
-        this.pollingFrequency = pollingFrequency;
-        this.lookBackDate = lookBackDate;
+        this(builder(resourcesPerFileCount, exportPath, pollingFrequency, lookBackDate));
+    }
+
+    private OperationsConfig(Builder builder) {
+        this.retryCount = builder.retryCount;
+        this.resourcesPerFileCount = builder.resourcesPerFileCount;
+        this.exportPath = builder.exportPath;
+        this.pollingFrequency = builder.pollingFrequency;
+        this.lookBackMonths = builder.lookBackMonths;
+        this.lookBackDate = builder.lookBackDate;
+        this.lookBackExemptOrgs = builder.lookBackExemptOrgs;
+        this.patientParallelism = builder.patientParallelism;
+        this.batchParallelism = builder.batchParallelism;
+        this.listenForBatches = builder.listenForBatches;
+    }
+
+    /**
+     * Start building a config with the required settings, every other setting starts at its default.
+     */
+    public static Builder builder(int resourcesPerFileCount, String exportPath, int pollingFrequency, YearMonth lookBackDate) {
+        return new Builder(resourcesPerFileCount, exportPath, pollingFrequency, lookBackDate);
     }
 
     @SuppressWarnings("unused")
@@ -73,4 +89,80 @@ public class OperationsConfig {
     }
 
     public List<String> getLookBackExemptOrgs() { return lookBackExemptOrgs; }
+
+    /**
+     * The number of patients in a batch that may be fetched from BlueButton at the same time.
+     * A value of 1 processes patients serially.
+     */
+    public int getPatientParallelism() {
+        return patientParallelism;
+    }
+
+    /**
+     * The number of batches an aggregator may process at the same time. Only used when listening for batches.
+     */
+    public int getBatchParallelism() {
+        return batchParallelism;
+    }
+
+    /**
+     * Whether the aggregator waits for notifications of newly queued batches, instead of polling the queue.
+     */
+    public boolean isListenForBatches() {
+        return listenForBatches;
+    }
+
+    public static class Builder {
+        private final int resourcesPerFileCount;
+        private final String exportPath;
+        private final int pollingFrequency;
+        private final YearMonth lookBackDate;
+        private int retryCount = 3;
+        private int lookBackMonths;
+        private List<String> lookBackExemptOrgs;
+        private int patientParallelism = 1;
+        private int batchParallelism = 1;
+        private boolean listenForBatches;
+
+        private Builder(int resourcesPerFileCount, String exportPath, int pollingFrequency, YearMonth lookBackDate) {
+            this.resourcesPerFileCount = resourcesPerFileCount;
+            this.exportPath = exportPath;
+            this.pollingFrequency = pollingFrequency;
+            this.lookBackDate = lookBackDate;
+        }
+
+        public Builder withRetryCount(int retryCount) {
+            this.retryCount = retryCount;
+            return this;
+        }
+
+        public Builder withLookBackMonths(int lookBackMonths) {
+            this.lookBackMonths = lookBackMonths;
+            return this;
+        }
+
+        public Builder withLookBackExemptOrgs(List<String> lookBackExemptOrgs) {
+            this.lookBackExemptOrgs = lookBackExemptOrgs;
+            return this;
+        }
+
+        public Builder withPatientParallelism(int patientParallelism) {
+            this.patientParallelism = patientParallelism;
+            return this;
+        }
+
+        public Builder withBatchParallelism(int batchParallelism) {
+            this.batchParallelism = batchParallelism;
+            return this;
+        }
+
+        public Builder withListenForBatches(boolean listenForBatches) {
+            this.listenForBatches = listenForBatches;
+            return this;
+        }
+
+        public OperationsConfig build() {
+            return new OperationsConfig(this);
+        }
+    }
 }
@@ -9,7 +9,9 @@ import gov.cms.dpc.common.MDCConstants;
 import gov.cms.dpc.fhir.DPCIdentifierSystem;
 import gov.cms.dpc.fhir.DPCResourceType;
 import gov.cms.dpc.queue.exceptions.JobQueueFailure;
+import io.reactivex.Emitter;
 import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
 import org.hl7.fhir.dstu3.model.*;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
@@ -27,6 +29,7 @@ import static gov.cms.dpc.fhir.FHIRExtractors.getPatientMBI;
  */
 class ResourceFetcher {
     private static final Logger logger = LoggerFactory.getLogger(ResourceFetcher.class);
+    private static final int PAGE_PREFETCH = 2;
     private final BlueButtonClient blueButtonClient;
     private final UUID jobID;
     private final UUID batchID;
@@ -60,44 +63,63 @@ class ResourceFetcher {
     /**
      * Fetch all the resources for a specific patient. If errors are encountered from BlueButton,
      * a OperationOutcome resource is used.
+     * <p>
+     * Each page of the BlueButton search is emitted as soon as it is fetched. Pages are requested on an IO thread and
+     * at most {@link #PAGE_PREFETCH} pages are buffered, so the next page can be in flight while the previous one is
+     * being written out, without holding every page of the patient in memory.
+     * <p>
+     * Since pages are emitted as they arrive, a failure part way through the search doesn't take back the pages that were already emitted.
+     * The patient's export then contains the resources from those pages, followed by an OperationOutcome for the failure.
      *
      * @param patient {@link Patient} we're fetching resources for
      * @param headers headers
-     * @return a flow with all the resources for specific patient
+     * @return a flow with all the resources for specific patient, one list per page
      */
     Flowable<List<Resource>> fetchResources(Patient patient, Map<String, String> headers) {
-        return Flowable.fromCallable(() -> {
-            String fetchId = UUID.randomUUID().toString();
-            logger.debug("Fetching first {} from BlueButton for {}", resourceType.toString(), fetchId);
-            final Bundle firstFetched = fetchFirst(patient, headers);
-            return fetchAllBundles(firstFetched, fetchId, headers);
-        })
-                .onErrorResumeNext((Throwable error) -> handleError(patient, error));
+        // Set on the calling thread, since the pages themselves are fetched on an IO thread
+        patient.getIdentifier().stream()
+                .filter(i -> i.getSystem().equals(DPCIdentifierSystem.MBI_HASH.getSystem()))
+                .findFirst()
+                .ifPresent(i -> MDC.put(MDCConstants.PATIENT_ID, i.getValue()));
+
+        final String fetchId = UUID.randomUUID().toString();
+        return Flowable.generate(
+                () -> Optional.<Bundle>empty(),
+                (Optional<Bundle> previous, Emitter<List<Resource>> emitter) -> {
+                    final Bundle bundle = fetchNextPage(patient, previous, fetchId, headers);
+                    emitter.onNext(extractResources(bundle));
+                    if (bundle.getLink(Bundle.LINK_NEXT) == null) {
+                        logger.debug("Done fetching bundles {} for {}", resourceType.toString(), fetchId);
+                        emitter.onComplete();
+                    }
+                    return Optional.of(bundle);
+                })
+                .onErrorResumeNext((Throwable error) -> handleError(patient, error))
+                .subscribeOn(Schedulers.io())
+                .observeOn(Schedulers.io(), false, PAGE_PREFETCH);
     }
 
     /**
-     * Given a bundle, return a list of resources in the passed in bundle and all
-     * the resources from the next bundles.
+     * Fetch the page that follows the given bundle, or the first page if there is no previous bundle.
      *
-     * @param firstBundle of resources. Included in the result list
-     * @return a list of all the resources in the first bundle and all next bundles
+     * @param patient  {@link Patient} we're fetching resources for
+     * @param previous the previously fetched bundle, if any
+     * @param fetchId  the id used to correlate the log messages of a fetch
+     * @param headers  headers
+     * @return the next bundle of resources
      */
-    private List<Resource> fetchAllBundles(Bundle firstBundle, String fetchId,  Map<String, String> headers) {
-        final var resources = new ArrayList<Resource>();
-        checkBundleTransactionTime(firstBundle);
-        addResources(resources, firstBundle);
-
-        // Loop until no more next bundles
-        var bundle = firstBundle;
-        while (bundle.getLink(Bundle.LINK_NEXT) != null) {
+    @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+    private Bundle fetchNextPage(Patient patient, Optional<Bundle> previous, String fetchId, Map<String, String> headers) {
+        final Bundle bundle;
+        if (previous.isEmpty()) {
+            logger.debug("Fetching first {} from BlueButton for {}", resourceType.toString(), fetchId);
+            bundle = fetchFirst(patient, headers);
+        } else {
             logger.debug("Fetching next bundle {} from BlueButton for {}", resourceType.toString(), fetchId);
-            bundle = blueButtonClient.requestNextBundleFromServer(bundle, headers);
-            checkBundleTransactionTime(bundle);
-            addResources(resources, bundle);
+            bundle = blueButtonClient.requestNextBundleFromServer(previous.get(), headers);
         }
-
-        logger.debug("Done fetching bundles {} for {}", resourceType.toString(), fetchId);
-        return resources;
+        checkBundleTransactionTime(bundle);
+        return bundle;
     }
 
     /**
@@ -125,11 +147,6 @@ class ResourceFetcher {
      * @return the first bundle of resources
      */
     protected Bundle fetchFirst(Patient patient, Map<String, String> headers) {
-        patient.getIdentifier().stream()
-                .filter(i -> i.getSystem().equals(DPCIdentifierSystem.MBI_HASH.getSystem()))
-                .findFirst()
-                .ifPresent(i -> MDC.put(MDCConstants.PATIENT_ID, i.getValue()));
-
         String patientId = patient.getIdElement().getIdPart();
         DateRangeParam lastUpdated = formLastUpdatedParam();
         switch (resourceType) {
@@ -145,12 +162,13 @@ class ResourceFetcher {
     }
 
     /**
-     * Add resources in a bundle to a list
+     * Extract the resources of a bundle into a list
      *
-     * @param resources - the list to add resources to
      * @param bundle - the bundle to extract resources from
+     * @return the resources in the bundle
      */
-    private void addResources(ArrayList<Resource> resources, Bundle bundle) {
+    private List<Resource> extractResources(Bundle bundle) {
+        final var resources = new ArrayList<Resource>(bundle.getEntry().size());
         bundle.getEntry().forEach((entry) -> {
             final var resource = entry.getResource();
             if (!resource.getResourceType().getPath().equals(resourceType.getPath())) {
@@ -158,6 +176,7 @@ class ResourceFetcher {
             }
             resources.add(resource);
         });
+        return resources;
     }
 
     /**
@@ -9,11 +9,7 @@ import org.hl7.fhir.dstu3.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -23,12 +19,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 class ResourceWriter {
     private static final Logger logger = LoggerFactory.getLogger(ResourceWriter.class);
-    private static final char DELIM = '\n';
 
     private FhirContext fhirContext;
     private OperationsConfig config;
     private JobQueueBatch job;
     private DPCResourceType resourceType;
+    private BatchOutputFiles outputFiles;
 
     /**
      * Form the full file name of an output file
@@ -47,15 +43,18 @@ class ResourceWriter {
      * @param job - the context for logging and reporting
      * @param resourceType - the resource type to fetch
      * @param config - config to use for the engine
+     * @param outputFiles - the output files that are open for the batch
      */
     ResourceWriter(FhirContext fhirContext,
                     JobQueueBatch job,
                     DPCResourceType resourceType,
-                    OperationsConfig config) {
+                    OperationsConfig config,
+                    BatchOutputFiles outputFiles) {
         this.fhirContext = fhirContext;
         this.config = config;
         this.job = job;
         this.resourceType = resourceType;
+        this.outputFiles = outputFiles;
     }
 
     /**
@@ -74,25 +73,25 @@ class ResourceWriter {
      */
     JobQueueBatchFile writeBatch(AtomicInteger counter, List<Resource> batch) {
         try {
-            final var byteStream = new ByteArrayOutputStream();
             final var sequence = counter.getAndIncrement();
             final var jsonParser = fhirContext.newJsonParser();
-            OutputStream writer = byteStream;
             String outputPath = formOutputFilePath(config.getExportPath(), job.getBatchID(), resourceType, sequence);
             JobQueueBatchFile file = job.addJobQueueFile(resourceType, sequence, batch.size());
 
             boolean isStartOfFile = batch.size() == file.getCount();
-            Boolean shouldAppendToFile = !isStartOfFile;
+            final BatchOutputFile outputFile = outputFiles.open(file, outputPath, !isStartOfFile);
 
             logger.debug("Start writing to {}", outputPath);
             for (var resource: batch) {
-                final String str = jsonParser.encodeResourceToString(resource);
-                writer.write(str.getBytes(StandardCharsets.UTF_8));
-                writer.write(DELIM);
+                outputFile.write(jsonParser, resource);
+            }
+            outputFile.flush();
+
+            // Saved with the batch progress, so the checksum can be continued if the batch is resumed elsewhere
+            if (outputFile.coversWholeFile()) {
+                file.setChecksumState(outputFile.getChecksumState());
+                file.setFileLength(outputFile.getLength());
             }
-            writer.flush();
-            writer.close();
-            writeToFile(byteStream.toByteArray(), outputPath, shouldAppendToFile);
             logger.debug("Finished writing to '{}'", outputPath);
 
             return file;
@@ -104,22 +103,4 @@ class ResourceWriter {
             throw new JobQueueFailure(job.getJobID(), job.getBatchID(), "General failure consuming a resource", ex);
         }
     }
-
-    /**
-     * Write a array of bytes to a file. Name the file according to the supplied name
-     *
-     * @param bytes - Bytes to write
-     * @param fileName - The fileName to write too
-     * @param append - If the
-     * @throws IOException - If the write fails
-     */
-    private void writeToFile(byte[] bytes, String fileName, Boolean append) throws IOException {
-        if (bytes.length == 0) {
-            return;
-        }
-        try (final var outputFile = new FileOutputStream(fileName, append)) {
-            outputFile.write(bytes);
-            outputFile.flush();
-        }
-    }
 }
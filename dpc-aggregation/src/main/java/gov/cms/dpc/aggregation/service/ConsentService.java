@@ -1,9 +1,29 @@
 package gov.cms.dpc.aggregation.service;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ConsentService {
     Optional<List<ConsentResult>> getConsent(String mbi);
     Optional<List<ConsentResult>> getConsent(List<String> mbis);
+
+    /**
+     * Fetch the most recent consent for each of the given MBIs, using as few requests to the consent service as possible
+     *
+     * @param mbis - {@link List} of MBIs to fetch consent for
+     * @return - {@link Map} with an entry for every requested MBI, containing its latest {@link ConsentResult} (or nothing, if it has no consent records)
+     */
+    Map<String, List<ConsentResult>> getLatestConsents(List<String> mbis);
+
+    /**
+     * Fetch a page of the most recent consent for each MBI which has had a consent record created or updated since the given time
+     *
+     * @param since    - {@link OffsetDateTime} only include MBIs with a consent record updated after this time
+     * @param afterMbi - {@link String} only include MBIs which sort after this one (an empty string for the first page)
+     * @param count    - maximum number of MBIs to return
+     * @return - {@link Map} of each MBI to its latest {@link ConsentResult}, in MBI order
+     */
+    Map<String, ConsentResult> getLatestConsentsChangedSince(OffsetDateTime since, String afterMbi, int count);
 }
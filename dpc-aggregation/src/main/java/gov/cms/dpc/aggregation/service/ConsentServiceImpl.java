@@ -1,16 +1,27 @@
 package gov.cms.dpc.aggregation.service;
 
 import ca.uhn.fhir.rest.client.api.IGenericClient;
+import ca.uhn.fhir.rest.gclient.IQuery;
+import com.google.common.collect.Lists;
+import gov.cms.dpc.common.Constants;
 import gov.cms.dpc.fhir.DPCIdentifierSystem;
+import gov.cms.dpc.fhir.converters.entities.ConsentEntityConverter;
 import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.fhir.dstu3.model.Consent;
 
 import javax.inject.Named;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class ConsentServiceImpl implements ConsentService {
+    // Keeps the search URL (which contains every MBI in the chunk) well under the usual URL length limits
+    static final int CONSENT_CHUNK_SIZE = 100;
+
     private final IGenericClient consentClient;
 
     public ConsentServiceImpl(@Named("consentClient") IGenericClient consentClient){
@@ -24,33 +35,74 @@ public class ConsentServiceImpl implements ConsentService {
 
     @Override
     public Optional<List<ConsentResult>> getConsent(List<String> mbis) {
-        final Bundle bundle = doConsentSearch(mbis);
+        final Bundle bundle = doConsentSearch(mbis, false);
 
         return Optional.of(
-            bundle.getEntry().stream().map( entry -> {
-                Consent consent = (Consent) entry.getResource();
-
-                ConsentResult consentResult = new ConsentResult();
-                consentResult.setActive(Consent.ConsentState.ACTIVE.equals(consent.getStatus()));
-                consentResult.setConsentDate(consent.getDateTime());
-                consentResult.setConsentId(consent.getId());
-                consentResult.setPolicyType(ConsentResult.PolicyType.fromPolicyUrl(consent.getPolicyRule()));
-                return consentResult;
-            }).collect(Collectors.toList())
+            bundle.getEntry().stream().map( entry -> toConsentResult((Consent) entry.getResource())).collect(Collectors.toList())
         );
     }
 
-    private Bundle doConsentSearch(List<String> mbis){
+    @Override
+    public Map<String, List<ConsentResult>> getLatestConsents(List<String> mbis) {
+        final Map<String, List<ConsentResult>> results = new HashMap<>();
+        for (List<String> chunk : Lists.partition(mbis, CONSENT_CHUNK_SIZE)) {
+            chunk.forEach(mbi -> results.putIfAbsent(mbi, List.of()));
+            doConsentSearch(chunk, true).getEntry().forEach(entry -> {
+                final Consent consent = (Consent) entry.getResource();
+                final String mbi = ConsentEntityConverter.mbiFromPatientReference(consent.getPatient().getReference());
+                if (results.containsKey(mbi)) {
+                    results.put(mbi, List.of(toConsentResult(consent)));
+                }
+            });
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, ConsentResult> getLatestConsentsChangedSince(OffsetDateTime since, String afterMbi, int count) {
+        final Bundle bundle = consentClient
+                .search()
+                .forResource(Consent.class)
+                .encodedJson()
+                .returnBundle(Bundle.class)
+                .whereMap(Map.of(
+                        Constants.ConsentSearch.LATEST_PARAM, List.of("true"),
+                        Constants.ConsentSearch.CHANGED_SINCE_PARAM, List.of(since.toString()),
+                        Constants.ConsentSearch.AFTER_MBI_PARAM, List.of(afterMbi),
+                        Constants.ConsentSearch.COUNT_PARAM, List.of(String.valueOf(count))))
+                .execute();
+
+        final Map<String, ConsentResult> results = new LinkedHashMap<>();
+        bundle.getEntry().forEach(entry -> {
+            final Consent consent = (Consent) entry.getResource();
+            results.put(ConsentEntityConverter.mbiFromPatientReference(consent.getPatient().getReference()), toConsentResult(consent));
+        });
+        return results;
+    }
+
+    private ConsentResult toConsentResult(Consent consent) {
+        ConsentResult consentResult = new ConsentResult();
+        consentResult.setActive(Consent.ConsentState.ACTIVE.equals(consent.getStatus()));
+        consentResult.setConsentDate(consent.getDateTime());
+        consentResult.setConsentId(consent.getId());
+        consentResult.setPolicyType(ConsentResult.PolicyType.fromPolicyUrl(consent.getPolicyRule()));
+        return consentResult;
+    }
+
+    private Bundle doConsentSearch(List<String> mbis, boolean latest){
         List<String> fullMbis = mbis.stream()
                 .map( mbi -> String.format("%s|%s", DPCIdentifierSystem.MBI.getSystem(), mbi) )
                 .collect(Collectors.toList());
 
-        return consentClient
+        IQuery<Bundle> query = consentClient
             .search()
             .forResource(Consent.class)
             .encodedJson()
             .returnBundle(Bundle.class)
-            .where(Consent.PATIENT.hasAnyOfIds(fullMbis))
-            .execute();
+            .where(Consent.PATIENT.hasAnyOfIds(fullMbis));
+        if (latest) {
+            query = query.whereMap(Map.of(Constants.ConsentSearch.LATEST_PARAM, List.of("true")));
+        }
+        return query.execute();
     }
 }
@@ -0,0 +1,284 @@
+package gov.cms.dpc.aggregation.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.primitives.ImmutableLongArray;
+import gov.cms.dpc.common.utils.MetricMaker;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * In-memory set of the MBIs which have opted out, so that the aggregation engine doesn't need to ask the consent service about each patient.
+ * <p>
+ * The index is loaded from the consent service when the application starts, and then refreshed on a schedule by fetching the latest consent
+ * for every MBI with a consent record changed since the previous refresh.
+ * MBIs are stored as base-36 numbers in a sorted {@code long[]}, which keeps millions of them to a few tens of megabytes.
+ * <p>
+ * The index only answers when it's enabled and has been refreshed within the configured staleness bound,
+ * otherwise callers should fall back to asking the consent service.
+ */
+@Singleton
+public class OptOutIndex implements Managed {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptOutIndex.class);
+
+    private static final int MBI_LENGTH = 11;
+    private static final int MBI_RADIX = 36;
+
+    private final ConsentService consentService;
+    private final OptOutIndexConfiguration config;
+    private final Clock clock;
+    private ScheduledExecutorService refresher;
+    private volatile Snapshot snapshot;
+
+    @Inject
+    public OptOutIndex(ConsentService consentService, OptOutIndexConfiguration config, MetricRegistry metricRegistry) {
+        this(consentService, config, Clock.systemUTC());
+
+        final var metricBuilder = new MetricMaker(metricRegistry, OptOutIndex.class);
+        metricBuilder.registerCachedGauge("size", this::size);
+        metricBuilder.registerCachedGauge("stalenessSeconds", this::stalenessSeconds);
+    }
+
+    OptOutIndex(ConsentService consentService, OptOutIndexConfiguration config, Clock clock) {
+        this.consentService = consentService;
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * Create an index which never answers, so every opt-out check goes to the consent service
+     *
+     * @return - disabled {@link OptOutIndex}
+     */
+    public static OptOutIndex disabled() {
+        return new OptOutIndex(null, new OptOutIndexConfiguration(), Clock.systemUTC());
+    }
+
+    @Override
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        logger.info("Starting opt-out index refresh every {} seconds", config.getRefreshIntervalSeconds());
+        refresher = Executors.newSingleThreadScheduledExecutor();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, config.getRefreshIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether the index is currently able to answer opt-out checks
+     *
+     * @return - {@code true} if the index is enabled and has been refreshed within the staleness bound
+     */
+    public boolean isAvailable() {
+        return isFresh(snapshot);
+    }
+
+    /**
+     * Determine whether the given MBI has opted out, using the same rules as a check against the consent service:
+     * the MBI's latest consent must be an active opt-out which has already taken effect.
+     *
+     * @param mbi - {@link String} MBI to check
+     * @return - {@link Optional} answer, empty if the index isn't available
+     */
+    public Optional<Boolean> isOptedOut(String mbi) {
+        final Snapshot current = snapshot;
+        if (!isFresh(current)) {
+            return Optional.empty();
+        }
+        return Optional.of(current.isOptedOut(mbi, Date.from(clock.instant())));
+    }
+
+    /**
+     * Fetch the consent changes since the last refresh (or everything, if the index hasn't been loaded yet) and apply them to the index.
+     * Changes are fetched from a little before the last refresh, since a consent record can be committed after the time it's stamped with.
+     */
+    void refresh() {
+        final Instant started = clock.instant();
+        final Snapshot current = snapshot;
+        final OffsetDateTime since = current == null ? OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC)
+                : OffsetDateTime.ofInstant(current.asOf.minusSeconds(config.getRefreshOverlapSeconds()), ZoneOffset.UTC);
+        final Date now = Date.from(started);
+
+        final Changes changes = new Changes(current != null);
+        String afterMbi = "";
+        Map<String, ConsentResult> page;
+        do {
+            page = consentService.getLatestConsentsChangedSince(since, afterMbi, config.getPageSize());
+            for (Map.Entry<String, ConsentResult> entry : page.entrySet()) {
+                changes.add(entry.getKey(), entry.getValue(), now);
+                afterMbi = entry.getKey();
+            }
+        } while (page.size() >= config.getPageSize());
+
+        snapshot = changes.applyTo(current, started);
+        logger.debug("Refreshed opt-out index with {} changed MBIs since {}, {} MBIs opted out", changes.count, since, snapshot.size());
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // Keep serving the current index until it's too stale, and try again at the next refresh
+            logger.error("Unable to refresh opt-out index.", e);
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return config.isEnabled() && current != null
+                && Duration.between(current.asOf, clock.instant()).compareTo(Duration.ofSeconds(config.getMaxStalenessSeconds())) <= 0;
+    }
+
+    private int size() {
+        final Snapshot current = snapshot;
+        return current == null ? 0 : current.size();
+    }
+
+    private long stalenessSeconds() {
+        final Snapshot current = snapshot;
+        return current == null ? -1 : Duration.between(current.asOf, clock.instant()).toSeconds();
+    }
+
+    /**
+     * Encode an MBI as a base-36 number
+     *
+     * @param mbi - {@link String} MBI to encode
+     * @return - encoded MBI, or -1 if it's not 11 upper case letters and digits
+     */
+    static long encode(String mbi) {
+        if (mbi.length() != MBI_LENGTH) {
+            return -1;
+        }
+        for (int i = 0; i < MBI_LENGTH; i++) {
+            final char c = mbi.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z')) {
+                return -1;
+            }
+        }
+        return Long.parseLong(mbi, MBI_RADIX);
+    }
+
+    private static boolean isOptOut(ConsentResult consent) {
+        return consent.isActive() && ConsentResult.PolicyType.OPT_OUT.equals(consent.getPolicyType());
+    }
+
+    /**
+     * Immutable state of the index, replaced as a whole on each refresh
+     */
+    private static final class Snapshot {
+        // Sorted, encoded MBIs whose latest consent is an opt-out in effect
+        private final long[] optedOut;
+        // MBIs which can't be encoded, whose latest consent is an opt-out in effect
+        private final Set<String> otherOptedOut;
+        // MBIs whose latest consent is an opt-out which hadn't taken effect at the time of the refresh
+        private final Map<String, Date> futureOptOuts;
+        private final Instant asOf;
+
+        Snapshot(long[] optedOut, Set<String> otherOptedOut, Map<String, Date> futureOptOuts, Instant asOf) {
+            this.optedOut = optedOut;
+            this.otherOptedOut = otherOptedOut;
+            this.futureOptOuts = futureOptOuts;
+            this.asOf = asOf;
+        }
+
+        boolean isOptedOut(String mbi, Date now) {
+            final long key = encode(mbi);
+            if (key >= 0 ? Arrays.binarySearch(optedOut, key) >= 0 : otherOptedOut.contains(mbi)) {
+                return true;
+            }
+            final Date effective = futureOptOuts.get(mbi);
+            return effective != null && !effective.after(now);
+        }
+
+        int size() {
+            return optedOut.length + otherOptedOut.size() + futureOptOuts.size();
+        }
+    }
+
+    /**
+     * The latest consent for each MBI changed since the previous refresh
+     */
+    private static final class Changes {
+        // Only needed to remove the changed MBIs from an existing snapshot, so not tracked on the initial load
+        private final boolean trackChanged;
+        private final Set<String> changed = new HashSet<>();
+        private final ImmutableLongArray.Builder optedOut = ImmutableLongArray.builder();
+        private final Set<String> otherOptedOut = new HashSet<>();
+        private final Map<String, Date> futureOptOuts = new HashMap<>();
+        private int count;
+
+        Changes(boolean trackChanged) {
+            this.trackChanged = trackChanged;
+        }
+
+        void add(String mbi, ConsentResult consent, Date now) {
+            count++;
+            if (trackChanged) {
+                changed.add(mbi);
+            }
+            if (!isOptOut(consent)) {
+                return;
+            }
+
+            final Date effective = consent.getConsentDate();
+            final long key = encode(mbi);
+            if (effective != null && effective.after(now)) {
+                futureOptOuts.put(mbi, effective);
+            } else if (key >= 0) {
+                optedOut.add(key);
+            } else {
+                otherOptedOut.add(mbi);
+            }
+        }
+
+        Snapshot applyTo(Snapshot base, Instant asOf) {
+            if (base == null) {
+                final long[] keys = optedOut.build().toArray();
+                Arrays.sort(keys);
+                return new Snapshot(keys, otherOptedOut, futureOptOuts, asOf);
+            }
+
+            final Set<Long> changedKeys = changed.stream()
+                    .map(OptOutIndex::encode)
+                    .filter(key -> key >= 0)
+                    .collect(Collectors.toSet());
+            final long[] keys = LongStream.concat(
+                            Arrays.stream(base.optedOut).filter(key -> !changedKeys.contains(key)),
+                            optedOut.build().stream())
+                    .sorted()
+                    .distinct()
+                    .toArray();
+
+            final Set<String> others = new HashSet<>(base.otherOptedOut);
+            others.removeAll(changed);
+            others.addAll(otherOptedOut);
+
+            final Map<String, Date> future = new HashMap<>(base.futureOptOuts);
+            future.keySet().removeAll(changed);
+            future.putAll(futureOptOuts);
+
+            return new Snapshot(keys, others, future, asOf);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package gov.cms.dpc.aggregation.service;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Used to configure the in-memory {@link OptOutIndex} from an application's config file.
+ */
+public class OptOutIndexConfiguration {
+
+    // Answer opt-out checks from the in-memory index, instead of asking the consent service for each patient
+    private boolean enabled = false;
+
+    // How often to fetch the consent changes since the last refresh
+    @Min(1)
+    private int refreshIntervalSeconds = 300;
+
+    // How old the index can get (e.g. if the consent service is down) before we go back to asking the consent service for each patient
+    @Min(1)
+    private int maxStalenessSeconds = 1800;
+
+    // How far before the last refresh to look for changes, to catch consent records written by transactions which were still open at the time
+    @Min(0)
+    private int refreshOverlapSeconds = 3600;
+
+    // The number of MBIs to fetch from the consent service per request
+    @Min(1)
+    @Max(10000)
+    private int pageSize = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRefreshIntervalSeconds() {
+        return refreshIntervalSeconds;
+    }
+
+    public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+    }
+
+    public int getMaxStalenessSeconds() {
+        return maxStalenessSeconds;
+    }
+
+    public void setMaxStalenessSeconds(int maxStalenessSeconds) {
+        this.maxStalenessSeconds = maxStalenessSeconds;
+    }
+
+    public int getRefreshOverlapSeconds() {
+        return refreshOverlapSeconds;
+    }
+
+    public void setRefreshOverlapSeconds(int refreshOverlapSeconds) {
+        this.refreshOverlapSeconds = refreshOverlapSeconds;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+}
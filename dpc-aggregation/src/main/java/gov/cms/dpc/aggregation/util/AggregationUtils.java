@@ -1,6 +1,7 @@
 package gov.cms.dpc.aggregation.util;
 
 import gov.cms.dpc.aggregation.engine.OutcomeReason;
+import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.bouncycastle.jcajce.provider.digest.SHA256;
 import org.hl7.fhir.dstu3.model.CodeableConcept;
 import org.hl7.fhir.dstu3.model.OperationOutcome;
@@ -23,6 +24,19 @@ public final class AggregationUtils {
         }
     }
 
+    /**
+     * Finish a SHA-256 checksum from the encoded state of a running digest.
+     *
+     * @param checksumState - the encoded digest state, as returned by {@link SHA256Digest#getEncodedState()}
+     * @return the checksum
+     */
+    public static byte[] finishChecksum(byte[] checksumState) {
+        final SHA256Digest digest = new SHA256Digest(checksumState);
+        final byte[] checksum = new byte[digest.getDigestSize()];
+        digest.doFinal(checksum, 0);
+        return checksum;
+    }
+
     public static OperationOutcome toOperationOutcome(OutcomeReason failReason, String patientID) {
         final var patientLocation = List.of(new StringType("Patient"), new StringType("id"), new StringType(patientID));
         final var outcome = new OperationOutcome();
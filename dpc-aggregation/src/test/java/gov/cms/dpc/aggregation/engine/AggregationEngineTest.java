@@ -9,6 +9,7 @@ import gov.cms.dpc.aggregation.service.ConsentResult;
 import gov.cms.dpc.aggregation.service.ConsentService;
 import gov.cms.dpc.aggregation.service.EveryoneGetsDataLookBackServiceImpl;
 import gov.cms.dpc.aggregation.service.LookBackService;
+import gov.cms.dpc.aggregation.service.OptOutIndex;
 import gov.cms.dpc.bluebutton.client.BlueButtonClient;
 import gov.cms.dpc.bluebutton.client.MockBlueButtonClient;
 import gov.cms.dpc.common.utils.NPIUtil;
@@ -35,6 +36,7 @@ import java.nio.file.Path;
 import java.security.GeneralSecurityException;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -80,7 +82,7 @@ class AggregationEngineTest {
         bbclient = Mockito.spy(new MockBlueButtonClient(fhirContext));
         var operationalConfig = new OperationsConfig(1000, exportPath, 500, YearMonth.of(2014, 3));
         lookBackService = Mockito.spy(EveryoneGetsDataLookBackServiceImpl.class);
-        JobBatchProcessor jobBatchProcessor = Mockito.spy(new JobBatchProcessor(bbclient, fhirContext, metricRegistry, operationalConfig, lookBackService, mockConsentService));
+        JobBatchProcessor jobBatchProcessor = Mockito.spy(new JobBatchProcessor(bbclient, fhirContext, metricRegistry, operationalConfig, lookBackService, mockConsentService, OptOutIndex.disabled()));
         engine = Mockito.spy(new AggregationEngine(aggregatorID, queue, operationalConfig, jobBatchProcessor));
         engine.queueRunning.set(true);
         AggregationEngine.setGlobalErrorHandler();
@@ -287,6 +289,124 @@ class AggregationEngineTest {
         });
     }
 
+    /**
+     * Test if the engine can fetch patients concurrently and still write them in batch order
+     */
+    @Test
+    void concurrentPatientJobTest() {
+        final var orgID = UUID.randomUUID();
+        final List<String> mbis = List.of(MockBlueButtonClient.TEST_PATIENT_MBIS.get(0), MockBlueButtonClient.TEST_PATIENT_MBIS.get(1));
+        final var concurrentConfig = OperationsConfig.builder(1000, exportPath, 500, YearMonth.of(2014, 3))
+                .withPatientParallelism(4)
+                .build();
+        final var jobBatchProcessor = new JobBatchProcessor(bbclient, fhirContext, metricRegistry, concurrentConfig, lookBackService, mockConsentService, OptOutIndex.disabled());
+        final var concurrentEngine = new AggregationEngine(aggregatorID, queue, concurrentConfig, jobBatchProcessor);
+        concurrentEngine.queueRunning.set(true);
+
+        final var jobID = queue.createJob(
+                orgID,
+                TEST_ORG_NPI,
+                TEST_PROVIDER_NPI,
+                mbis,
+                Collections.singletonList(DPCResourceType.Patient),
+                null,
+                MockBlueButtonClient.BFD_TRANSACTION_TIME,
+                null, null, true, false);
+
+        // Work the batch
+        queue.claimBatch(concurrentEngine.getAggregatorID())
+                .ifPresent(concurrentEngine::processJobBatch);
+
+        // Look at the result
+        final var completeJob = queue.getJobBatches(jobID).stream().findFirst().orElseThrow();
+        assertEquals(JobStatus.COMPLETED, completeJob.getStatus());
+        assertEquals(2, completeJob.getJobQueueFile(DPCResourceType.Patient).orElseThrow().getCount());
+        verify(queue, times(2)).completePartialBatch(any(JobQueueBatch.class), eq(aggregatorID));
+    }
+
+    /**
+     * Test if the engine works a batch when the queue notifies it, and exits once stopped
+     */
+    @Test
+    void listenToQueueTest() throws InterruptedException {
+        final var orgID = UUID.randomUUID();
+        final var listenConfig = OperationsConfig.builder(1000, exportPath, 500, YearMonth.of(2014, 3))
+                .withBatchParallelism(2)
+                .withListenForBatches(true)
+                .build();
+        final var jobBatchProcessor = new JobBatchProcessor(bbclient, fhirContext, metricRegistry, listenConfig, lookBackService, mockConsentService, OptOutIndex.disabled());
+        final var listeningEngine = new AggregationEngine(aggregatorID, queue, listenConfig, jobBatchProcessor);
+        final var engineThread = new Thread(listeningEngine);
+        engineThread.start();
+
+        final var jobID = queue.createJob(
+                orgID,
+                TEST_ORG_NPI,
+                TEST_PROVIDER_NPI,
+                Collections.singletonList(MockBlueButtonClient.TEST_PATIENT_MBIS.get(0)),
+                Collections.singletonList(DPCResourceType.Patient),
+                null,
+                MockBlueButtonClient.BFD_TRANSACTION_TIME,
+                null, null, true, false);
+
+        // Wait for the engine to pick up the batch
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (queue.getJobBatches(jobID).get(0).getStatus() != JobStatus.COMPLETED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        listeningEngine.stop();
+        engineThread.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertAll(
+                () -> assertEquals(JobStatus.COMPLETED, queue.getJobBatches(jobID).get(0).getStatus()),
+                () -> assertFalse(engineThread.isAlive(), "Engine should exit once stopped"),
+                () -> assertFalse(listeningEngine.isRunning())
+        );
+        verify(queue, atLeastOnce()).claimBatches(eq(aggregatorID), anyInt());
+    }
+
+    /**
+     * Test if the engine waits for the batches it's working to finish, before it exits
+     */
+    @Test
+    void listenToQueueWaitsForWorkersTest() throws InterruptedException {
+        final var listenConfig = OperationsConfig.builder(1000, exportPath, 500, YearMonth.of(2014, 3))
+                .withListenForBatches(true)
+                .build();
+        final var jobBatchProcessor = new JobBatchProcessor(bbclient, fhirContext, metricRegistry, listenConfig, lookBackService, mockConsentService, OptOutIndex.disabled());
+        final var listeningEngine = Mockito.spy(new AggregationEngine(aggregatorID, queue, listenConfig, jobBatchProcessor));
+
+        final var batchStarted = new CountDownLatch(1);
+        final var batchReleased = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            batchStarted.countDown();
+            batchReleased.await();
+            return null;
+        }).when(listeningEngine).processJobBatch(any(JobQueueBatch.class));
+
+        final var engineThread = new Thread(listeningEngine);
+        engineThread.start();
+        queue.createJob(
+                UUID.randomUUID(),
+                TEST_ORG_NPI,
+                TEST_PROVIDER_NPI,
+                Collections.singletonList(MockBlueButtonClient.TEST_PATIENT_MBIS.get(0)),
+                Collections.singletonList(DPCResourceType.Patient),
+                null,
+                MockBlueButtonClient.BFD_TRANSACTION_TIME,
+                null, null, true, false);
+        assertTrue(batchStarted.await(10, TimeUnit.SECONDS), "Engine should pick up the batch");
+
+        listeningEngine.stop();
+        engineThread.join(500);
+        assertTrue(engineThread.isAlive(), "Engine should wait for the batch in flight");
+
+        batchReleased.countDown();
+        engineThread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(engineThread.isAlive(), "Engine should exit once the batch is done");
+    }
+
     /**
      * Test if the engine can split a job into multiple batches
      */
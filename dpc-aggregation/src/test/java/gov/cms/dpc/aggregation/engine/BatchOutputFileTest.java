@@ -0,0 +1,84 @@
+package gov.cms.dpc.aggregation.engine;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import gov.cms.dpc.aggregation.util.AggregationUtils;
+import org.hl7.fhir.dstu3.model.Enumerations;
+import org.hl7.fhir.dstu3.model.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchOutputFileTest {
+
+    private final IParser parser = FhirContext.forDstu3().newJsonParser();
+
+    @Test
+    void testChecksumMatchesFile(@TempDir Path tempDir) throws IOException {
+        final Path path = tempDir.resolve("patients.ndjson");
+
+        try (BatchOutputFile file = new BatchOutputFile(path.toString(), false)) {
+            file.write(parser, new Patient().setGender(Enumerations.AdministrativeGender.FEMALE));
+            file.flush();
+            file.write(parser, new Patient().setActive(true));
+            file.flush();
+
+            assertTrue(file.coversWholeFile());
+            assertEquals(Files.size(path), file.getLength());
+            assertArrayEquals(AggregationUtils.generateChecksum(path.toFile()), file.getChecksum());
+        }
+
+        assertEquals(2, Files.readAllLines(path).size());
+    }
+
+    @Test
+    void testAppendToExistingFile(@TempDir Path tempDir) throws IOException {
+        final Path path = tempDir.resolve("patients.ndjson");
+        Files.writeString(path, "{}\n");
+
+        try (BatchOutputFile file = new BatchOutputFile(path.toString(), true)) {
+            file.write(parser, new Patient().setActive(true));
+            file.flush();
+
+            assertFalse(file.coversWholeFile(), "Checksum should not cover data written before the file was opened");
+            assertEquals(Files.size(path), file.getLength());
+        }
+
+        assertEquals(2, Files.readAllLines(path).size());
+    }
+
+    @Test
+    void testResumeFromChecksumState(@TempDir Path tempDir) throws IOException {
+        final Path path = tempDir.resolve("patients.ndjson");
+
+        final byte[] checksumState;
+        final long checksumLength;
+        try (BatchOutputFile file = new BatchOutputFile(path.toString(), false)) {
+            file.write(parser, new Patient().setActive(true));
+            file.flush();
+            checksumState = file.getChecksumState();
+            checksumLength = file.getLength();
+        }
+
+        // Simulate data that was written, but never recorded as progress in the queue
+        Files.writeString(path, "{\"unsaved\": true}\n", StandardOpenOption.APPEND);
+
+        try (BatchOutputFile file = new BatchOutputFile(path.toString(), true, checksumState, checksumLength)) {
+            file.write(parser, new Patient().setActive(false));
+            file.flush();
+
+            assertTrue(file.coversWholeFile());
+            assertEquals(Files.size(path), file.getLength());
+            assertArrayEquals(AggregationUtils.generateChecksum(path.toFile()), file.getChecksum());
+            assertArrayEquals(file.getChecksum(), AggregationUtils.finishChecksum(file.getChecksumState()));
+        }
+
+        assertEquals(2, Files.readAllLines(path).size(), "Unsaved data should be truncated");
+    }
+}
@@ -6,6 +6,7 @@ import gov.cms.dpc.aggregation.service.ConsentResult;
 import gov.cms.dpc.aggregation.service.ConsentService;
 import gov.cms.dpc.aggregation.service.EveryoneGetsDataLookBackServiceImpl;
 import gov.cms.dpc.aggregation.service.LookBackService;
+import gov.cms.dpc.aggregation.service.OptOutIndex;
 import gov.cms.dpc.bluebutton.client.BlueButtonClient;
 import gov.cms.dpc.bluebutton.client.MockBlueButtonClient;
 import gov.cms.dpc.common.utils.NPIUtil;
@@ -15,6 +16,11 @@ import gov.cms.dpc.queue.MemoryBatchQueue;
 import gov.cms.dpc.queue.models.JobQueueBatch;
 import gov.cms.dpc.queue.models.JobQueueBatchFile;
 import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Coverage;
+import org.hl7.fhir.dstu3.model.ExplanationOfBenefit;
+import org.hl7.fhir.dstu3.model.OperationOutcome;
+import org.hl7.fhir.dstu3.model.Patient;
+import org.hl7.fhir.dstu3.model.Resource;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -419,6 +425,76 @@ class JobBatchProcessorUnitTest {
         assertError(completedJob.getBatchID(), DPCResourceType.Patient);
     }
 
+    @Test
+    public void testPrefetchedConsent() {
+        String mbi = MockBlueButtonClient.TEST_PATIENT_MBIS.get(0);
+
+        OperationsConfig operationsConfig = getOperationsConfig();
+        JobBatchProcessor jobBatchProcessor = getJobBatchProcessor(bbClient, operationsConfig, new EveryoneGetsDataLookBackServiceImpl(), consentService);
+
+        IJobQueue queue = new MemoryBatchQueue();
+        final var jobID = queue.createJob(
+                UUID.randomUUID(),
+                TEST_ORG_NPI,
+                TEST_PROVIDER_NPI,
+                Collections.singletonList(mbi),
+                Collections.singletonList(DPCResourceType.Patient),
+                null,
+                MockBlueButtonClient.BFD_TRANSACTION_TIME,
+                null, null, true, false
+        );
+        List<JobQueueBatch> jobs = queue.getJobBatches(jobID);
+
+        Mockito.when(consentService.getLatestConsents(List.of(mbi))).thenReturn(Map.of(mbi, List.of(optOut)));
+        jobBatchProcessor.prefetchConsent(jobs.get(0));
+
+        List<JobQueueBatchFile> results = jobBatchProcessor.processJobBatchPartial(
+                UUID.randomUUID(),
+                queue,
+                jobs.get(0),
+                mbi
+        );
+
+        assertEquals(1, results.size());
+        assertError(results.get(0).getBatchID(), DPCResourceType.Patient);
+        Mockito.verify(consentService, Mockito.never()).getConsent(Mockito.anyList());
+    }
+
+    @Test
+    public void testOptOutIndex() {
+        String mbi = MockBlueButtonClient.TEST_PATIENT_MBIS.get(0);
+
+        OptOutIndex optOutIndex = Mockito.mock(OptOutIndex.class);
+        JobBatchProcessor jobBatchProcessor = new JobBatchProcessor(bbClient, FhirContext.forDstu3(), metricRegistry, getOperationsConfig(),
+                new EveryoneGetsDataLookBackServiceImpl(), consentService, optOutIndex);
+
+        IJobQueue queue = new MemoryBatchQueue();
+        final var jobID = queue.createJob(
+                UUID.randomUUID(),
+                TEST_ORG_NPI,
+                TEST_PROVIDER_NPI,
+                Collections.singletonList(mbi),
+                Collections.singletonList(DPCResourceType.Patient),
+                null,
+                MockBlueButtonClient.BFD_TRANSACTION_TIME,
+                null, null, true, false
+        );
+        List<JobQueueBatch> jobs = queue.getJobBatches(jobID);
+
+        Mockito.when(optOutIndex.isOptedOut(mbi)).thenReturn(Optional.of(true));
+
+        List<JobQueueBatchFile> results = jobBatchProcessor.processJobBatchPartial(
+                UUID.randomUUID(),
+                queue,
+                jobs.get(0),
+                mbi
+        );
+
+        assertEquals(1, results.size());
+        assertError(results.get(0).getBatchID(), DPCResourceType.Patient);
+        Mockito.verifyNoInteractions(consentService);
+    }
+
     @Test
     public void testFailsLookBackCheck() {
         String mbi = MockBlueButtonClient.TEST_PATIENT_MBIS.get(0);
@@ -493,6 +569,59 @@ class JobBatchProcessorUnitTest {
         assertError(completedJob.getBatchID(), DPCResourceType.Patient);
     }
 
+    @Test
+    public void testRunInProcess() {
+        String mbi = MockBlueButtonClient.TEST_PATIENT_MBIS.get(0);
+
+        JobBatchProcessor jobBatchProcessor = getJobBatchProcessor(bbClient, getOperationsConfig(), new EveryoneGetsDataLookBackServiceImpl(), consentService);
+        JobQueueBatch batch = new JobQueueBatch(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                TEST_ORG_NPI,
+                TEST_PROVIDER_NPI,
+                List.of(mbi),
+                List.of(DPCResourceType.Patient, DPCResourceType.Coverage, DPCResourceType.ExplanationOfBenefit),
+                null,
+                MockBlueButtonClient.BFD_TRANSACTION_TIME,
+                null, null, false
+        );
+
+        Mockito.when(consentService.getConsent(List.of(mbi))).thenReturn(Optional.of(List.of(optIn)));
+
+        List<Resource> resources = new DirectJobRunner(jobBatchProcessor).runBatch(batch);
+
+        assertEquals(1, resources.stream().filter(Patient.class::isInstance).count());
+        assertTrue(resources.stream().anyMatch(Coverage.class::isInstance));
+        assertTrue(resources.stream().anyMatch(ExplanationOfBenefit.class::isInstance));
+        assertTrue(resources.stream().noneMatch(OperationOutcome.class::isInstance));
+        assertFalse(Files.exists(Path.of(ResourceWriter.formOutputFilePath(exportPath, batch.getBatchID(), DPCResourceType.Patient, 0))), "Should not write any files");
+    }
+
+    @Test
+    public void testRunInProcess_OptOut() {
+        String mbi = MockBlueButtonClient.TEST_PATIENT_MBIS.get(0);
+
+        JobBatchProcessor jobBatchProcessor = getJobBatchProcessor(bbClient, getOperationsConfig(), new EveryoneGetsDataLookBackServiceImpl(), consentService);
+        JobQueueBatch batch = new JobQueueBatch(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                TEST_ORG_NPI,
+                TEST_PROVIDER_NPI,
+                List.of(mbi),
+                List.of(DPCResourceType.Patient),
+                null,
+                MockBlueButtonClient.BFD_TRANSACTION_TIME,
+                null, null, false
+        );
+
+        Mockito.when(consentService.getConsent(List.of(mbi))).thenReturn(Optional.of(List.of(optOut)));
+
+        List<Resource> resources = new DirectJobRunner(jobBatchProcessor).runBatch(batch);
+
+        assertEquals(1, resources.size());
+        assertTrue(resources.get(0) instanceof OperationOutcome);
+    }
+
     private JobBatchProcessor getJobBatchProcessor(BlueButtonClient bbClient, OperationsConfig config, LookBackService lookBackSrvc, ConsentService consentSrvc) {
         return new JobBatchProcessor(
                 bbClient,
@@ -500,7 +629,8 @@ class JobBatchProcessorUnitTest {
                 metricRegistry,
                 config,
                 lookBackSrvc,
-                consentSrvc
+                consentSrvc,
+                OptOutIndex.disabled()
         );
     }
 
@@ -67,6 +67,20 @@ class ResourceFetcherUnitTest {
         assertTrue(resources.get(0).getId().contains("carrier-20587716665"));
     }
 
+    @Test
+    public void testHappyPath_EobEmitsEachPage() {
+        ResourceFetcher fetcher = getResourceFetcher(
+                DPCResourceType.ExplanationOfBenefit,
+                MockBlueButtonClient.TEST_LAST_UPDATED.minusDays(1),
+                MockBlueButtonClient.BFD_TRANSACTION_TIME
+        );
+
+        List<List<Resource>> pages = fetcher.fetchResources(testPatient, Map.of()).toList().blockingGet();
+
+        assertTrue(pages.size() > 1, "Expected each BlueButton page to be emitted separately");
+        assertEquals(32, pages.stream().mapToInt(List::size).sum());
+    }
+
     @Test
     public void testHappyPath_coverage() {
         ResourceFetcher fetcher = getResourceFetcher(
@@ -175,6 +189,29 @@ class ResourceFetcherUnitTest {
         assertEquals(String.format("Internal error: %s", exceptionMsg), outcome.getIssueFirstRep().getDetails().getText());
     }
 
+    @Test
+    public void testErrorFetchingLaterPage() {
+        MockBlueButtonClient failingClient = Mockito.spy(new MockBlueButtonClient(FhirContext.forDstu3()));
+        Mockito.doThrow(new FhirClientConnectionException("fhir client exception"))
+                .when(failingClient).requestNextBundleFromServer(any(), any());
+        ResourceFetcher fetcher = getResourceFetcher(
+                DPCResourceType.ExplanationOfBenefit,
+                MockBlueButtonClient.TEST_LAST_UPDATED.minusDays(1),
+                MockBlueButtonClient.BFD_TRANSACTION_TIME,
+                failingClient
+        );
+
+        List<List<Resource>> pages = fetcher.fetchResources(testPatient, Map.of()).toList().blockingGet();
+
+        // The first page has already been emitted, so it's kept along with the error
+        assertEquals(2, pages.size());
+        assertFalse(pages.get(0).isEmpty());
+        assertTrue(pages.get(0).stream().allMatch(ExplanationOfBenefit.class::isInstance), "First page should only have EOBs");
+        assertEquals(1, pages.get(1).size());
+        OperationOutcome outcome = (OperationOutcome) pages.get(1).get(0);
+        assertEquals("Blue Button error fetching ExplanationOfBenefit resource. HTTP return code: 500", outcome.getIssueFirstRep().getDetails().getText());
+    }
+
     @Test
     public void testWrongResourceTypeReturned() {
         // Build EoB bundle
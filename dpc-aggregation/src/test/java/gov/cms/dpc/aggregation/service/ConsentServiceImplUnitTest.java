@@ -13,8 +13,10 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -96,6 +98,62 @@ public class ConsentServiceImplUnitTest {
         assertEquals(0, results.get().size(), "Expected consent results to be an empty list");
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getLatestConsents() {
+        String mbi1 = "0OO0OO0OO00";
+        String mbi2 = "0OO0OO0OO01";
+
+        Bundle returnBundle = new Bundle();
+        returnBundle.addEntry(new Bundle.BundleEntryComponent().setResource(createTestConsent(mbi1)));
+
+        IQuery<IBaseBundle> queryExec = Mockito.mock(IQuery.class, Answers.RETURNS_DEEP_STUBS);
+        IQuery<Bundle> mockQuery = Mockito.mock(IQuery.class);
+        IQuery<Bundle> latestQuery = Mockito.mock(IQuery.class);
+
+        Mockito.when(mockConsentClient.search().forResource(Consent.class).encodedJson()).thenReturn(queryExec);
+        Mockito.when(queryExec.returnBundle(Bundle.class).where(any(ICriterion.class))).thenReturn(mockQuery);
+        Mockito.when(mockQuery.whereMap(Map.of("_latest", List.of("true")))).thenReturn(latestQuery);
+        Mockito.when(latestQuery.execute()).thenReturn(returnBundle);
+
+        Map<String, List<ConsentResult>> results = consentService.getLatestConsents(List.of(mbi1, mbi2));
+
+        assertEquals(2, results.size(), "Expected an entry for each MBI");
+        assertEquals(1, results.get(mbi1).size(), "Expected latest consent for first MBI");
+        assertTrue(results.get(mbi2).isEmpty(), "Expected no consent for second MBI");
+        Mockito.verify(latestQuery, Mockito.times(1)).execute();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getLatestConsentsChangedSince() {
+        String mbi1 = "0OO0OO0OO00";
+        String mbi2 = "0OO0OO0OO01";
+        OffsetDateTime since = OffsetDateTime.parse("2023-01-01T00:00:00Z");
+
+        Bundle returnBundle = new Bundle();
+        returnBundle.addEntry(new Bundle.BundleEntryComponent().setResource(createTestConsent(mbi1)));
+        returnBundle.addEntry(new Bundle.BundleEntryComponent().setResource(createTestConsent(mbi2)));
+
+        IQuery<IBaseBundle> queryExec = Mockito.mock(IQuery.class, Answers.RETURNS_DEEP_STUBS);
+        IQuery<Bundle> mockQuery = Mockito.mock(IQuery.class);
+        IQuery<Bundle> changedQuery = Mockito.mock(IQuery.class);
+
+        Mockito.when(mockConsentClient.search().forResource(Consent.class).encodedJson()).thenReturn(queryExec);
+        Mockito.when(queryExec.returnBundle(Bundle.class)).thenReturn(mockQuery);
+        Mockito.when(mockQuery.whereMap(Map.of(
+                "_latest", List.of("true"),
+                "_changedSince", List.of(since.toString()),
+                "_afterMbi", List.of(""),
+                "_count", List.of("10")))).thenReturn(changedQuery);
+        Mockito.when(changedQuery.execute()).thenReturn(returnBundle);
+
+        Map<String, ConsentResult> results = consentService.getLatestConsentsChangedSince(since, "", 10);
+
+        assertEquals(List.of(mbi1, mbi2), List.copyOf(results.keySet()), "Expected consent for each MBI, in order");
+        assertEquals(ConsentResult.PolicyType.OPT_OUT, results.get(mbi1).getPolicyType());
+    }
+
     private Consent createTestConsent(String mbi){
         Consent consent = new Consent();
 
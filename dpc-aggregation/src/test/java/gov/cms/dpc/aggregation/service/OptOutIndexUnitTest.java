@@ -0,0 +1,146 @@
+package gov.cms.dpc.aggregation.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+class OptOutIndexUnitTest {
+
+    private static final String MBI_1 = "1AA0AA0AA00";
+    private static final String MBI_2 = "2AA0AA0AA00";
+    private static final String MBI_3 = "3AA0AA0AA00";
+    private static final String OTHER_MBI = "not-an-mbi";
+    private static final Instant START = Instant.parse("2023-06-01T00:00:00Z");
+
+    private ConsentService consentService;
+    private Clock clock;
+    private OptOutIndexConfiguration config;
+    private OptOutIndex index;
+
+    @BeforeEach
+    void setup() {
+        consentService = Mockito.mock(ConsentService.class);
+        clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.instant()).thenReturn(START);
+
+        config = new OptOutIndexConfiguration();
+        config.setEnabled(true);
+        config.setPageSize(2);
+        index = new OptOutIndex(consentService, config, clock);
+    }
+
+    @Test
+    void testNotLoaded() {
+        assertFalse(index.isAvailable(), "Should not be available before loading");
+        assertEquals(Optional.empty(), index.isOptedOut(MBI_1));
+    }
+
+    @Test
+    void testDisabled() {
+        final OptOutIndex disabled = OptOutIndex.disabled();
+        disabled.start();
+        assertFalse(disabled.isAvailable(), "Should never be available");
+        assertEquals(Optional.empty(), disabled.isOptedOut(MBI_1));
+    }
+
+    @Test
+    void testInitialLoad() {
+        Mockito.when(consentService.getLatestConsentsChangedSince(eq(OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC)), eq(""), eq(2)))
+                .thenReturn(page(MBI_1, consent(true, START), MBI_2, consent(false, START)));
+        Mockito.when(consentService.getLatestConsentsChangedSince(any(), eq(MBI_2), eq(2)))
+                .thenReturn(page(OTHER_MBI, consent(true, START)));
+
+        index.refresh();
+
+        assertTrue(index.isAvailable(), "Should be available after loading");
+        assertEquals(Optional.of(true), index.isOptedOut(MBI_1));
+        assertEquals(Optional.of(false), index.isOptedOut(MBI_2));
+        assertEquals(Optional.of(false), index.isOptedOut(MBI_3));
+        assertEquals(Optional.of(true), index.isOptedOut(OTHER_MBI), "Should handle MBIs which can't be encoded");
+    }
+
+    @Test
+    void testIncrementalRefresh() {
+        Mockito.when(consentService.getLatestConsentsChangedSince(any(), anyString(), anyInt()))
+                .thenReturn(page(MBI_1, consent(true, START), OTHER_MBI, consent(true, START)))
+                .thenReturn(Map.of());
+        index.refresh();
+
+        final Instant later = START.plus(Duration.ofMinutes(5));
+        Mockito.when(clock.instant()).thenReturn(later);
+        final OffsetDateTime since = OffsetDateTime.ofInstant(START.minusSeconds(config.getRefreshOverlapSeconds()), ZoneOffset.UTC);
+        Mockito.when(consentService.getLatestConsentsChangedSince(eq(since), eq(""), eq(2)))
+                .thenReturn(page(MBI_1, consent(false, later), MBI_2, consent(true, later)));
+        Mockito.when(consentService.getLatestConsentsChangedSince(eq(since), eq(MBI_2), eq(2)))
+                .thenReturn(page(OTHER_MBI, consent(false, later)));
+        index.refresh();
+
+        assertEquals(Optional.of(false), index.isOptedOut(MBI_1), "Should remove MBI which opted back in");
+        assertEquals(Optional.of(true), index.isOptedOut(MBI_2), "Should add MBI which opted out");
+        assertEquals(Optional.of(false), index.isOptedOut(OTHER_MBI), "Should remove MBI which opted back in");
+    }
+
+    @Test
+    void testStaleness() {
+        Mockito.when(consentService.getLatestConsentsChangedSince(any(), anyString(), anyInt()))
+                .thenReturn(page(MBI_1, consent(true, START)));
+        index.refresh();
+        assertEquals(Optional.of(true), index.isOptedOut(MBI_1));
+
+        Mockito.when(clock.instant()).thenReturn(START.plusSeconds(config.getMaxStalenessSeconds() + 1));
+        assertFalse(index.isAvailable(), "Should not be available once stale");
+        assertEquals(Optional.empty(), index.isOptedOut(MBI_1));
+    }
+
+    @Test
+    void testFutureOptOut() {
+        final Instant effective = START.plus(Duration.ofMinutes(1));
+        Mockito.when(consentService.getLatestConsentsChangedSince(any(), anyString(), anyInt()))
+                .thenReturn(page(MBI_1, consent(true, effective)));
+        index.refresh();
+        assertEquals(Optional.of(false), index.isOptedOut(MBI_1), "Should not be opted out before the consent takes effect");
+
+        Mockito.when(clock.instant()).thenReturn(effective);
+        assertEquals(Optional.of(true), index.isOptedOut(MBI_1), "Should be opted out once the consent takes effect");
+    }
+
+    @Test
+    void testEncode() {
+        assertEquals(Long.parseLong("1AA0AA0AA00", 36), OptOutIndex.encode(MBI_1));
+        assertNotEquals(OptOutIndex.encode(MBI_1), OptOutIndex.encode(MBI_2));
+        assertEquals(-1, OptOutIndex.encode(OTHER_MBI));
+        assertEquals(-1, OptOutIndex.encode("1aa0aa0aa00"), "Should only encode upper case MBIs");
+    }
+
+    private static Map<String, ConsentResult> page(Object... entries) {
+        final Map<String, ConsentResult> page = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            page.put((String) entries[i], (ConsentResult) entries[i + 1]);
+        }
+        return page;
+    }
+
+    private static ConsentResult consent(boolean optOut, Instant date) {
+        final ConsentResult consent = new ConsentResult();
+        consent.setActive(true);
+        consent.setConsentDate(Date.from(date));
+        consent.setPolicyType(optOut ? ConsentResult.PolicyType.OPT_OUT : ConsentResult.PolicyType.OPT_IN);
+        return consent;
+    }
+}
@@ -12,9 +12,12 @@ import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.WebApplicationException;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -27,26 +30,57 @@ public class APIHelpers {
     }
 
 
+    /**
+     * Run the entry function (e.g. validation) against each resource of the given type in the bundle, and then submit the bundle to the given client.
+     *
+     * @param clazz          - {@link Class} of resource to submit
+     * @param client         - {@link IGenericClient} to submit the bundle to
+     * @param entryFunction  - {@link Function} to apply to each resource, which returns a {@link WebApplicationException} if the resource is invalid
+     * @param resourceBundle - {@link Bundle} of resources to submit
+     * @param executor       - {@link ExecutorService} to run the entry function on
+     * @return - {@link Bundle} returned by the client
+     * @throws WebApplicationException - if any of the resources are invalid, with the messages for every invalid resource
+     */
     public static <T extends BaseResource> Bundle bulkResourceClient(
         Class<T> clazz,
         IGenericClient client,
         Function<T, Optional<WebApplicationException>> entryFunction,
-        Bundle resourceBundle)
+        Bundle resourceBundle,
+        ExecutorService executor)
     {
-        AtomicReference<WebApplicationException> atomicWae = new AtomicReference<>();
-
-        resourceBundle
+        final List<CompletableFuture<Optional<WebApplicationException>>> results = resourceBundle
             .getEntry()
-            .parallelStream()
+            .stream()
             .filter(Bundle.BundleEntryComponent::hasResource)
             .map(Bundle.BundleEntryComponent::getResource)
             .filter(resource -> resource.getClass().equals(clazz))
             .map(clazz::cast)
-            .forEach(entry -> entryFunction.apply(entry).ifPresent(atomicWae::set));
+            .map(entry -> CompletableFuture.supplyAsync(() -> entryFunction.apply(entry), executor))
+            .collect(Collectors.toList());
+
+        final List<WebApplicationException> errors = new ArrayList<>();
+        for (CompletableFuture<Optional<WebApplicationException>> result : results) {
+            try {
+                result.join().ifPresent(errors::add);
+            } catch (CompletionException e) {
+                // Rethrow whatever the entry function threw
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
 
-        // If any of our threads returned a WebApplicationException, throw it to the caller.
-        if( atomicWae.get() != null ) {
-            throw atomicWae.get();
+        // If any of the entries were invalid, throw all of them to the caller.
+        if (errors.size() == 1) {
+            throw errors.get(0);
+        } else if (!errors.isEmpty()) {
+            final String messages = errors
+                    .stream()
+                    .map(WebApplicationException::getMessage)
+                    .distinct()
+                    .collect(Collectors.joining("; "));
+            throw new WebApplicationException(messages, errors.get(0).getResponse().getStatus());
         }
 
         final Parameters params = new Parameters();
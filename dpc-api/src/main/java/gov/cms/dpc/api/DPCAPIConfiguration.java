@@ -84,6 +84,15 @@ public class DPCAPIConfiguration extends Configuration implements IDPCDatabase,
     @Min(0)
     private int jobTimeoutInSeconds;
 
+    // The number of resources from bulk $submit operations that are validated concurrently
+    @Min(1)
+    private int bulkValidationThreads = 4;
+
+    @Valid
+    @NotNull
+    @JsonProperty("inProcessJobs")
+    private InProcessJobConfiguration inProcessJobConfiguration = new InProcessJobConfiguration();
+
     public TokenPolicy getTokenPolicy() {
         return tokenPolicy;
     }
@@ -175,10 +184,18 @@ public class DPCAPIConfiguration extends Configuration implements IDPCDatabase,
         return this.fhirClientConfiguration;
     }
 
+    public int getBulkValidationThreads() {
+        return bulkValidationThreads;
+    }
+
     public int getJobTimeoutInSeconds() {
         return jobTimeoutInSeconds;
     }
 
+    public InProcessJobConfiguration getInProcessJobConfiguration() {
+        return inProcessJobConfiguration;
+    }
+
     public List<String> getLookBackExemptOrgs() {
         if(lookBackExemptOrgs == null){
             return new ArrayList<>();
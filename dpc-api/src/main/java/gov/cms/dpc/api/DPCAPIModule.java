@@ -3,13 +3,22 @@ package gov.cms.dpc.api;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import ca.uhn.fhir.rest.client.api.ServerValidationModeEnum;
+import ca.uhn.fhir.validation.FhirValidator;
 import com.codahale.metrics.MetricRegistry;
 import com.google.inject.Binder;
 import com.google.inject.Provides;
 import com.google.inject.name.Named;
+import gov.cms.dpc.aggregation.engine.DirectJobRunner;
+import gov.cms.dpc.aggregation.engine.OperationsConfig;
+import gov.cms.dpc.aggregation.service.*;
+import gov.cms.dpc.api.auth.VerifiedTokenCache;
+import gov.cms.dpc.api.auth.jwt.ClientTokenCache;
 import gov.cms.dpc.api.auth.jwt.IJTICache;
+import gov.cms.dpc.api.auth.jwt.PublicKeyCache;
+import gov.cms.dpc.api.auth.macaroonauth.ResourceOwnershipCache;
 import gov.cms.dpc.api.converters.ChecksumConverterProvider;
 import gov.cms.dpc.api.converters.HttpRangeHeaderParamConverterProvider;
+import gov.cms.dpc.api.core.BulkValidator;
 import gov.cms.dpc.api.core.FileManager;
 import gov.cms.dpc.api.jdbi.IpAddressDAO;
 import gov.cms.dpc.api.jdbi.PublicKeyDAO;
@@ -35,6 +44,7 @@ import gov.cms.dpc.macaroons.config.TokenPolicy;
 import gov.cms.dpc.macaroons.thirdparty.IThirdPartyKeyStore;
 import gov.cms.dpc.macaroons.thirdparty.MemoryThirdPartyKeyStore;
 import gov.cms.dpc.queue.service.DataService;
+import gov.cms.dpc.queue.service.InProcessJobRunner;
 import io.dropwizard.hibernate.UnitOfWorkAwareProxyFactory;
 import io.jsonwebtoken.SigningKeyResolverAdapter;
 import org.hibernate.SessionFactory;
@@ -43,6 +53,9 @@ import org.slf4j.LoggerFactory;
 import ru.vyarus.dropwizard.guice.module.support.DropwizardAwareModule;
 
 import javax.inject.Singleton;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.concurrent.ExecutorService;
 
 public class DPCAPIModule extends DropwizardAwareModule<DPCAPIConfiguration> {
 
@@ -85,6 +98,10 @@ public class DPCAPIModule extends DropwizardAwareModule<DPCAPIConfiguration> {
         binder.bind(ChecksumConverterProvider.class);
 
         binder.bind(DataService.class);
+        // Run single patient jobs in process, rather than through the queue
+        if (configuration().getInProcessJobConfiguration().isEnabled()) {
+            binder.bind(InProcessJobRunner.class).to(DirectJobRunner.class);
+        }
 
         // Healthchecks
         // Additional health-checks can be added here.
@@ -96,13 +113,13 @@ public class DPCAPIModule extends DropwizardAwareModule<DPCAPIConfiguration> {
     // Since the KeyResource requires access to the Auth DB, we have to manually do the creation and resource injection,
     // in order to ensure that the @UnitOfWork annotations are tied to the correct SessionFactory
     @Provides
-    public KeyResource provideKeyResource(PublicKeyDAO dao) {
+    public KeyResource provideKeyResource(PublicKeyDAO dao, PublicKeyCache keyCache) {
         return new UnitOfWorkAwareProxyFactory(authHibernateBundle)
-                .create(KeyResource.class, new Class<?>[]{PublicKeyDAO.class}, new Object[]{dao});
+                .create(KeyResource.class, new Class<?>[]{PublicKeyDAO.class, PublicKeyCache.class}, new Object[]{dao, keyCache});
     }
 
     @Provides
-    public TokenResource provideTokenResource(TokenDAO dao, MacaroonBakery bakery, SigningKeyResolverAdapter resolver, IJTICache cache, @APIV1 String publicURL) {
+    public TokenResource provideTokenResource(TokenDAO dao, MacaroonBakery bakery, SigningKeyResolverAdapter resolver, IJTICache cache, VerifiedTokenCache tokenCache, ClientTokenCache clientTokens, @APIV1 String publicURL) {
         return new UnitOfWorkAwareProxyFactory(authHibernateBundle)
                 .create(TokenResource.class,
                         new Class<?>[]{TokenDAO.class,
@@ -110,12 +127,17 @@ public class DPCAPIModule extends DropwizardAwareModule<DPCAPIConfiguration> {
                                 TokenPolicy.class,
                                 SigningKeyResolverAdapter.class,
                                 IJTICache.class,
+                                VerifiedTokenCache.class,
+                                ClientTokenCache.class,
                                 String.class},
                         new Object[]{dao,
                                 bakery,
                                 this.configuration().getTokenPolicy(),
                                 resolver,
-                                cache, publicURL});
+                                cache,
+                                tokenCache,
+                                clientTokens,
+                                publicURL});
     }
 
     @Provides
@@ -192,7 +214,7 @@ public class DPCAPIModule extends DropwizardAwareModule<DPCAPIConfiguration> {
     @Provides
     @Singleton
     @Named("attribution")
-    public IGenericClient provideFHIRClient(@Named("fhirContextAttributionSTU3") FhirContext ctx) {
+    public IGenericClient provideFHIRClient(@Named("fhirContextAttributionSTU3") FhirContext ctx, ResourceOwnershipCache ownershipCache) {
         FHIRClientConfiguration fhirClientConfiguration = configuration().getFhirClientConfiguration();
 
         String attributionUrl = fhirClientConfiguration.getServerBaseUrl();
@@ -204,12 +226,71 @@ public class DPCAPIModule extends DropwizardAwareModule<DPCAPIConfiguration> {
 
         IGenericClient client = ctx.newRestfulGenericClient(attributionUrl);
         client.registerInterceptor(new RequestIdHeaderInterceptor());
+        // Drop the cached ownership of any resource that's deleted or updated
+        client.registerInterceptor(ownershipCache);
         return client;
     }
 
+    @Provides
+    @Singleton
+    public BulkValidator provideBulkValidator(FhirValidator validator, FhirContext ctx, MetricRegistry metricRegistry) {
+        // Managed by the environment, so the validation threads are shut down with the application
+        final int threads = configuration().getBulkValidationThreads();
+        final ExecutorService executor = environment().lifecycle().executorService("bulk-validation-%d")
+                .minThreads(threads)
+                .maxThreads(threads)
+                .build();
+        return new BulkValidator(validator, ctx, metricRegistry, executor);
+    }
+
     @Provides
     @JobTimeout
     public int provideJobTimeoutInSeconds() {
         return configuration().getJobTimeoutInSeconds();
     }
+
+    // The remaining providers are for the JobBatchProcessor used by in process jobs.
+    // They aren't singletons, so nothing is created unless in process jobs are enabled.
+
+    @Provides
+    OperationsConfig provideOperationsConfig() {
+        final var config = configuration();
+
+        // In process jobs don't write any files, so only the look back settings are used
+        return OperationsConfig.builder(1, config.getExportPath(), 0, YearMonth.now(ZoneId.systemDefault()))
+                .withLookBackMonths(config.getInProcessJobConfiguration().getLookBackMonths())
+                .withLookBackExemptOrgs(config.getLookBackExemptOrgs())
+                .build();
+    }
+
+    @Provides
+    LookBackService provideLookBackService(OperationsConfig operationsConfig) {
+        //Configuring to skip look back when look back months is less than 0
+        if (operationsConfig.getLookBackMonths() < 0) {
+            return new EveryoneGetsDataLookBackServiceImpl();
+        }
+        return new LookBackServiceImpl(operationsConfig);
+    }
+
+    @Provides
+    ConsentService provideConsentService() {
+        FHIRClientConfiguration clientConfiguration = configuration().getInProcessJobConfiguration().getConsentClientConfiguration();
+        String serviceUrl = clientConfiguration.getServerBaseUrl();
+
+        logger.info("Connecting to consent server at {}.", serviceUrl);
+        // The client settings are shared by every client of a context, so the consent client gets its own
+        final FhirContext ctx = FhirContext.forDstu3();
+        ctx.getRestfulClientFactory().setServerValidationMode(ServerValidationModeEnum.NEVER);
+        ctx.getRestfulClientFactory().setSocketTimeout(clientConfiguration.getTimeouts().getSocketTimeout());
+        ctx.getRestfulClientFactory().setConnectTimeout(clientConfiguration.getTimeouts().getConnectionTimeout());
+        ctx.getRestfulClientFactory().setConnectionRequestTimeout(clientConfiguration.getTimeouts().getRequestTimeout());
+
+        return new ConsentServiceImpl(ctx.newRestfulGenericClient(serviceUrl));
+    }
+
+    @Provides
+    OptOutIndex provideOptOutIndex() {
+        // Each job only has a single patient, so ask the consent service rather than keeping every opt-out in memory
+        return OptOutIndex.disabled();
+    }
 }
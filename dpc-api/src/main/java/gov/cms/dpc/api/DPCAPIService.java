@@ -25,6 +25,7 @@ import gov.cms.dpc.common.utils.EnvironmentParser;
 import gov.cms.dpc.common.utils.UrlGenerator;
 import gov.cms.dpc.fhir.FHIRModule;
 import gov.cms.dpc.macaroons.BakeryModule;
+import gov.cms.dpc.macaroons.store.IRootKeyStore;
 import gov.cms.dpc.queue.JobQueueModule;
 import io.dropwizard.auth.AuthValueFactoryProvider;
 import io.dropwizard.configuration.EnvironmentVariableSubstitutor;
@@ -34,6 +35,7 @@ import io.dropwizard.core.setup.Bootstrap;
 import io.dropwizard.core.setup.Environment;
 import io.dropwizard.db.DataSourceFactory;
 import io.dropwizard.health.check.http.HttpHealthCheck;
+import io.dropwizard.lifecycle.AutoCloseableManager;
 import io.dropwizard.migrations.MigrationsBundle;
 import org.apache.http.HttpHeaders;
 import ru.vyarus.dropwizard.guice.GuiceBundle;
@@ -104,6 +106,9 @@ public class DPCAPIService extends Application<DPCAPIConfiguration> {
         if (injector.isPresent()) {
             ValidatorFactory validatorFactory = injector.get().getInstance(ValidatorFactory.class);
             environment.setValidator(validatorFactory.getValidator());
+
+            // Delete the root keys which have been provisioned, but not handed out, when we shut down
+            environment.lifecycle().manage(new AutoCloseableManager(injector.get().getInstance(IRootKeyStore.class)));
         }
 
         // Http healthchecks on dependent services
@@ -0,0 +1,56 @@
+package gov.cms.dpc.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import gov.cms.dpc.fhir.configuration.FHIRClientConfiguration;
+import io.dropwizard.validation.ValidationMethod;
+
+import javax.validation.Valid;
+
+/**
+ * Used to configure running single patient jobs (e.g. Patient/$everything) directly in the API, instead of submitting
+ * them to the queue and waiting for the aggregation service to finish them.
+ */
+public class InProcessJobConfiguration {
+
+    // Run single patient jobs in the API, rather than through the queue
+    private boolean enabled = false;
+
+    // The consent service to check opt-outs with, which is required when enabled
+    @Valid
+    @JsonProperty("consentClient")
+    private FHIRClientConfiguration consentClientConfiguration;
+
+    // The number of months to look back for a claim, or a negative number to skip the look back check
+    private int lookBackMonths = 18;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public FHIRClientConfiguration getConsentClientConfiguration() {
+        return consentClientConfiguration;
+    }
+
+    public void setConsentClientConfiguration(FHIRClientConfiguration consentClientConfiguration) {
+        this.consentClientConfiguration = consentClientConfiguration;
+    }
+
+    public int getLookBackMonths() {
+        return lookBackMonths;
+    }
+
+    public void setLookBackMonths(int lookBackMonths) {
+        this.lookBackMonths = lookBackMonths;
+    }
+
+    @JsonIgnore
+    @ValidationMethod(message = "consentClient is required when in process jobs are enabled")
+    public boolean isConsentClientConfigured() {
+        return !enabled || consentClientConfiguration != null;
+    }
+}
@@ -4,10 +4,13 @@ import com.google.inject.Binder;
 import com.google.inject.TypeLiteral;
 import gov.cms.dpc.api.DPCAPIConfiguration;
 import gov.cms.dpc.api.auth.filters.PathAuthorizationFilter;
-import gov.cms.dpc.api.auth.jwt.CaffeineJTICache;
+import gov.cms.dpc.api.auth.jwt.ClientTokenCache;
 import gov.cms.dpc.api.auth.jwt.IJTICache;
 import gov.cms.dpc.api.auth.jwt.JwtKeyResolver;
+import gov.cms.dpc.api.auth.jwt.PostgresJTICache;
+import gov.cms.dpc.api.auth.jwt.PublicKeyCache;
 import gov.cms.dpc.api.auth.macaroonauth.MacaroonsAuthenticator;
+import gov.cms.dpc.api.auth.macaroonauth.ResourceOwnershipCache;
 import gov.cms.dpc.api.auth.staticauth.StaticAuthFactory;
 import gov.cms.dpc.api.auth.staticauth.StaticAuthFilter;
 import gov.cms.dpc.api.auth.staticauth.StaticAuthenticator;
@@ -49,8 +52,16 @@ public class AuthModule extends DropwizardAwareModule<DPCAPIConfiguration> {
             binder.bind(authenticatorTypeLiteral).to(MacaroonsAuthenticator.class);
         }
         binder.bind(DPCAuthDynamicFeature.class);
+        // One listener for the auth database, which guicey registers with the Dropwizard lifecycle
+        binder.bind(AuthNotificationListener.class);
+        binder.bind(VerifiedTokenCache.class);
+        binder.bind(ResourceOwnershipCache.class);
+        binder.bind(PublicKeyCache.class);
+        binder.bind(ClientTokenCache.class);
         binder.bind(SigningKeyResolverAdapter.class).to(JwtKeyResolver.class);
-        binder.bind(IJTICache.class).to(CaffeineJTICache.class);
+        // Bound directly as well, so guicey registers its expiration task with the Dropwizard lifecycle
+        binder.bind(PostgresJTICache.class);
+        binder.bind(IJTICache.class).to(PostgresJTICache.class);
         binder.bind(BakeryKeyPair.class).toProvider(new BakeryKeyPairProvider(this.configuration()));
     }
 }
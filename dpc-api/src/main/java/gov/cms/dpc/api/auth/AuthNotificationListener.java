@@ -0,0 +1,19 @@
+package gov.cms.dpc.api.auth;
+
+import gov.cms.dpc.common.hibernate.PostgresNotificationListener;
+import gov.cms.dpc.common.hibernate.auth.DPCAuthManagedSessionFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * The {@link PostgresNotificationListener} for the auth database, shared by the caches which are invalidated when tokens, keys or JTIs change on another node.
+ */
+@Singleton
+public class AuthNotificationListener extends PostgresNotificationListener {
+
+    @Inject
+    public AuthNotificationListener(DPCAuthManagedSessionFactory factory) {
+        super(factory.getSessionFactory());
+    }
+}
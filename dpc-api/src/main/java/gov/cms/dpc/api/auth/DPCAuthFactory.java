@@ -17,23 +17,25 @@ public class DPCAuthFactory implements AuthFactory {
     private final TokenDAO dao;
     private final Authenticator<DPCAuthCredentials, OrganizationPrincipal> authenticator;
     private final DPCUnauthorizedHandler dpc401handler;
+    private final VerifiedTokenCache tokenCache;
 
     @Inject
-    public DPCAuthFactory(MacaroonBakery bakery, Authenticator<DPCAuthCredentials, OrganizationPrincipal> authenticator, TokenDAO dao, DPCUnauthorizedHandler dpc401handler) {
+    public DPCAuthFactory(MacaroonBakery bakery, Authenticator<DPCAuthCredentials, OrganizationPrincipal> authenticator, TokenDAO dao, DPCUnauthorizedHandler dpc401handler, VerifiedTokenCache tokenCache) {
         this.bakery = bakery;
         this.authenticator = authenticator;
         this.dao = dao;
         this.dpc401handler = dpc401handler;
+        this.tokenCache = tokenCache;
     }
 
     @Override
     public DPCAuthFilter createPathAuthorizer(PathAuthorizer pa) {
-        return new PathAuthorizationFilter(bakery, authenticator, dao, pa, dpc401handler);
+        return new PathAuthorizationFilter(bakery, authenticator, dao, pa, dpc401handler, tokenCache);
     }
 
     @Override
     public DPCAuthFilter createStandardAuthorizer() {
-        return new PrincipalInjectionAuthFilter(bakery, authenticator, dao, dpc401handler);
+        return new PrincipalInjectionAuthFilter(bakery, authenticator, dao, dpc401handler, tokenCache);
     }
 
     @Override
@@ -20,6 +20,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static gov.cms.dpc.api.auth.MacaroonHelpers.BEARER_PREFIX;
@@ -41,13 +42,15 @@ public abstract class DPCAuthFilter extends AuthFilter<DPCAuthCredentials, Organ
     private final TokenDAO dao;
     private final MacaroonBakery bakery;
     private final DPCUnauthorizedHandler dpc401handler;
+    private final VerifiedTokenCache tokenCache;
 
 
-    protected DPCAuthFilter(MacaroonBakery bakery, Authenticator<DPCAuthCredentials, OrganizationPrincipal> auth, TokenDAO dao, DPCUnauthorizedHandler dpc401handler ) {
+    protected DPCAuthFilter(MacaroonBakery bakery, Authenticator<DPCAuthCredentials, OrganizationPrincipal> auth, TokenDAO dao, DPCUnauthorizedHandler dpc401handler, VerifiedTokenCache tokenCache) {
         this.authenticator = auth;
         this.bakery = bakery;
         this.dao = dao;
         this.dpc401handler = dpc401handler;
+        this.tokenCache = tokenCache;
     }
 
     protected abstract DPCAuthCredentials buildCredentials(String macaroon, UUID organizationID, UriInfo uriInfo);
@@ -59,7 +62,7 @@ public abstract class DPCAuthFilter extends AuthFilter<DPCAuthCredentials, Organ
 
         final DPCAuthCredentials dpcAuthCredentials = validateMacaroon(macaroon, uriInfo);
         final String orgId = dpcAuthCredentials.getOrganization().getId();
-        final String resourceRequested = XSSSanitizerUtil.sanitize(uriInfo.getPath());
+        final String resourceRequested = XSSSanitizerUtil.getSanitizedPath(requestContext);
         final String method = requestContext.getMethod();
 
         // TODO Remove this when we want to turn on the IpAddress end point on Prod
@@ -79,6 +82,15 @@ public abstract class DPCAuthFilter extends AuthFilter<DPCAuthCredentials, Organ
 
         logger.trace("Making request to validate token.");
 
+        // If we've already verified this exact token, we don't need to look it up and verify it again
+        final Optional<VerifiedTokenCache.VerifiedToken> verified = this.tokenCache.get(macaroon);
+        if (verified.isPresent()) {
+            final UUID orgID = verified.get().getOrganizationID();
+            MDC.put(MDCConstants.ORGANIZATION_ID, orgID.toString());
+            MDC.put(MDCConstants.TOKEN_ID, verified.get().getTokenID());
+            return buildCredentials(macaroon, orgID, uriInfo);
+        }
+
         final List<Macaroon> m1;
         try {
             m1 = MacaroonBakery.deserializeMacaroon(macaroon);
@@ -102,6 +114,7 @@ public abstract class DPCAuthFilter extends AuthFilter<DPCAuthCredentials, Organ
             throw new WebApplicationException(dpc401handler.buildResponse(BEARER_PREFIX, realm));
         }
 
+        this.tokenCache.put(macaroon, m1, orgID);
         return buildCredentials(macaroon, orgID, uriInfo);
     }
 
@@ -0,0 +1,187 @@
+package gov.cms.dpc.api.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.nitram509.jmacaroons.Macaroon;
+import gov.cms.dpc.api.jdbi.TokenDAO;
+import gov.cms.dpc.macaroons.MacaroonBakery;
+import gov.cms.dpc.macaroons.MacaroonCaveat;
+import gov.cms.dpc.macaroons.MacaroonCondition;
+import org.bouncycastle.util.encoders.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import static gov.cms.dpc.macaroons.caveats.ExpirationCaveatSupplier.EXPIRATION_KEY;
+
+/**
+ * Cache of Macaroons which have already been verified by the {@link DPCAuthFilter}, keyed by a hash of the serialized token.
+ * This avoids looking up the token and the root key in the auth database, and re-verifying the token, on every request.
+ * <p>
+ * Entries expire when the token expires (as given by its expiration caveats), or after {@link #MAX_LIFETIME}, whichever comes first.
+ * Deleting a token invalidates its entries on every API node, via the notification sent by {@link TokenDAO#deleteToken(gov.cms.dpc.api.entities.TokenEntity)}.
+ */
+@Singleton
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+    static final Duration MAX_LIFETIME = Duration.ofMinutes(5);
+
+    private final Cache<String, VerifiedToken> cache;
+
+    @Inject
+    public VerifiedTokenCache(AuthNotificationListener listener) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(new TokenExpiry())
+                .build();
+        listener.listen(TokenDAO.TOKEN_DELETED_CHANNEL, this::onTokenDeleted);
+    }
+
+    /**
+     * Get the previously verified token
+     *
+     * @param macaroon - {@link String} serialized Macaroon, as submitted by the client
+     * @return - {@link Optional} {@link VerifiedToken}, empty if the token has not been verified, or has expired
+     */
+    public Optional<VerifiedToken> get(String macaroon) {
+        return Optional.ofNullable(this.cache.getIfPresent(hashToken(macaroon)));
+    }
+
+    /**
+     * Cache a token which has been successfully verified
+     *
+     * @param macaroon       - {@link String} serialized Macaroon, as submitted by the client
+     * @param macaroons      - {@link List} of deserialized {@link Macaroon}, used to determine when the token expires
+     * @param organizationID - {@link UUID} organization the token was issued to
+     */
+    public void put(String macaroon, List<Macaroon> macaroons, UUID organizationID) {
+        final OffsetDateTime maxExpiration = OffsetDateTime.now(ZoneOffset.UTC).plus(MAX_LIFETIME);
+        final OffsetDateTime expiresAt = getExpiration(macaroons)
+                .filter(expiration -> expiration.isBefore(maxExpiration))
+                .orElse(maxExpiration);
+        this.cache.put(hashToken(macaroon), new VerifiedToken(macaroons.get(0).identifier, organizationID, expiresAt));
+    }
+
+    /**
+     * Remove all the cached entries for the given token
+     *
+     * @param tokenID - {@link String} ID of the token (the identifier of its root Macaroon)
+     */
+    public void invalidateToken(String tokenID) {
+        this.cache.asMap().values().removeIf(token -> token.getTokenID().equals(tokenID));
+    }
+
+    private void onTokenDeleted(String tokenID) {
+        // A null payload means we may have missed some deletions, so we have to start over
+        if (tokenID == null) {
+            logger.debug("Clearing verified tokens after reconnect");
+            this.cache.invalidateAll();
+        } else {
+            invalidateToken(tokenID);
+        }
+    }
+
+    private static Optional<OffsetDateTime> getExpiration(List<Macaroon> macaroons) {
+        return macaroons
+                .stream()
+                .map(MacaroonBakery::getCaveats)
+                .flatMap(List::stream)
+                .filter(caveat -> !caveat.isThirdParty())
+                .map(MacaroonCaveat::getCondition)
+                .filter(condition -> condition.getKey().equals(EXPIRATION_KEY))
+                .map(MacaroonCondition::getValue)
+                .map(VerifiedTokenCache::parseExpiration)
+                .min(OffsetDateTime::compareTo);
+    }
+
+    private static OffsetDateTime parseExpiration(String value) {
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            // Should never happen, since the token was already verified, but expire it immediately if it does
+            return OffsetDateTime.now(ZoneOffset.UTC);
+        }
+    }
+
+    private static String hashToken(String macaroon) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Hex.toHexString(digest.digest(macaroon.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash token", e);
+        }
+    }
+
+    public static class VerifiedToken {
+
+        private final String tokenID;
+        private final UUID organizationID;
+        private final OffsetDateTime expiresAt;
+
+        VerifiedToken(String tokenID, UUID organizationID, OffsetDateTime expiresAt) {
+            this.tokenID = tokenID;
+            this.organizationID = organizationID;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getTokenID() {
+            return tokenID;
+        }
+
+        public UUID getOrganizationID() {
+            return organizationID;
+        }
+
+        public OffsetDateTime getExpiresAt() {
+            return expiresAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof VerifiedToken)) return false;
+            VerifiedToken that = (VerifiedToken) o;
+            return tokenID.equals(that.tokenID) &&
+                    organizationID.equals(that.organizationID) &&
+                    expiresAt.equals(that.expiresAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tokenID, organizationID, expiresAt);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(OffsetDateTime.now(ZoneOffset.UTC), value.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package gov.cms.dpc.api.auth.jwt;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Set of recently seen values, split into one {@link BloomFilter} per minute, so that old values can be dropped without rebuilding the whole filter.
+ * <p>
+ * A value is retained for at least the configured TTL (and at most one minute longer).
+ * Like any Bloom filter, a negative answer is definite, while a positive answer may be a false positive.
+ */
+class BucketedBloomFilter {
+
+    private static final long BUCKET_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final Clock clock;
+    private final long retainedBuckets;
+    private final int expectedPerBucket;
+    private final double falsePositiveRate;
+    private final ConcurrentSkipListMap<Long, BloomFilter<CharSequence>> buckets;
+
+    /**
+     * @param clock             - {@link Clock} used to determine the current bucket
+     * @param ttl               - {@link Duration} to retain each value for
+     * @param expectedPerBucket - expected number of values added each minute
+     * @param falsePositiveRate - acceptable false positive rate for each bucket, when it holds the expected number of values
+     */
+    BucketedBloomFilter(Clock clock, Duration ttl, int expectedPerBucket, double falsePositiveRate) {
+        this.clock = clock;
+        this.retainedBuckets = (ttl.toMillis() + BUCKET_MILLIS - 1) / BUCKET_MILLIS + 1;
+        this.expectedPerBucket = expectedPerBucket;
+        this.falsePositiveRate = falsePositiveRate;
+        this.buckets = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Add the value to the current bucket
+     *
+     * @param value - {@link String} value to add
+     */
+    void put(String value) {
+        this.buckets.computeIfAbsent(currentBucket(), key -> BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), this.expectedPerBucket, this.falsePositiveRate))
+                .put(value);
+    }
+
+    /**
+     * Determine whether the value might have been added within the TTL
+     *
+     * @param value - {@link String} value to check
+     * @return - {@code false} value has definitely not been added. {@code true} value has probably been added
+     */
+    boolean mightContain(String value) {
+        final long oldest = currentBucket() - this.retainedBuckets + 1;
+        for (final BloomFilter<CharSequence> filter : this.buckets.tailMap(oldest).values()) {
+            if (filter.mightContain(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop the buckets which are older than the TTL
+     *
+     * @return - number of buckets which were dropped
+     */
+    int expire() {
+        final Map<Long, BloomFilter<CharSequence>> expired = this.buckets.headMap(currentBucket() - this.retainedBuckets + 1);
+        final int count = expired.size();
+        expired.clear();
+        return count;
+    }
+
+    private long currentBucket() {
+        return this.clock.millis() / BUCKET_MILLIS;
+    }
+}
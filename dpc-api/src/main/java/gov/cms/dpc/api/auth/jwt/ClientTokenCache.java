@@ -0,0 +1,43 @@
+package gov.cms.dpc.api.auth.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.nitram509.jmacaroons.Macaroon;
+import gov.cms.dpc.macaroons.MacaroonBakery;
+
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cache of deserialized client tokens, as submitted in the `iss` and `sub` claims of the JWT used to request an access token.
+ * <p>
+ * Clients use the same client token for every access token request, so this lets the {@link JwtKeyResolver} and the token resource share a single deserialization,
+ * rather than each parsing the token again.
+ * Nothing is trusted because it's in the cache, the token still has to be verified (and the JWT signature checked) on each request.
+ */
+@Singleton
+public class ClientTokenCache {
+
+    static final Duration TTL = Duration.ofMinutes(5);
+
+    private final Cache<String, List<Macaroon>> cache;
+
+    public ClientTokenCache() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(TTL)
+                .build();
+    }
+
+    /**
+     * Deserialize the client token, or return the previously deserialized value
+     *
+     * @param clientToken - {@link String} serialized client token
+     * @return - {@link List} of {@link Macaroon} in the token
+     * @throws gov.cms.dpc.macaroons.exceptions.BakeryException if the token cannot be deserialized
+     */
+    public List<Macaroon> deserialize(String clientToken) {
+        return this.cache.get(clientToken, token -> List.copyOf(MacaroonBakery.deserializeMacaroon(token)));
+    }
+}
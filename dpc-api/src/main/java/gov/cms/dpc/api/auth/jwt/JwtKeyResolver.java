@@ -15,23 +15,31 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.security.Key;
+import java.security.PublicKey;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static gov.cms.dpc.api.auth.MacaroonHelpers.ORGANIZATION_CAVEAT_KEY;
 
+@Singleton
 public class JwtKeyResolver extends SigningKeyResolverAdapter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtKeyResolver.class);
 
     private final PublicKeyDAO dao;
+    private final PublicKeyCache keyCache;
+    private final ClientTokenCache clientTokens;
 
     @Inject
-    public JwtKeyResolver(PublicKeyDAO dao) {
+    public JwtKeyResolver(PublicKeyDAO dao, PublicKeyCache keyCache, ClientTokenCache clientTokens) {
         this.dao = dao;
+        this.keyCache = keyCache;
+        this.clientTokens = clientTokens;
     }
 
     @Override
@@ -46,28 +54,23 @@ public class JwtKeyResolver extends SigningKeyResolverAdapter {
         // Set the MDC values here, since it's the first time we actually know what the organization ID is
         MDC.put(MDCConstants.ORGANIZATION_ID, organizationID.toString());
 
-        final PublicKeyEntity keyEntity;
+        final UUID keyID;
         try {
-            keyEntity = this.dao.fetchPublicKey(organizationID, UUID.fromString(keyId))
-                    .orElseThrow(() -> new WebApplicationException(String.format("Cannot find public key with id: %s", keyId), Response.Status.UNAUTHORIZED));
+            keyID = UUID.fromString(keyId);
         } catch (IllegalArgumentException e) {
             logger.error("Cannot convert '{}' to UUID", keyId, e);
             throw new WebApplicationException("Invalid Public Key ID", Response.Status.UNAUTHORIZED);
         }
 
-        try {
-            return PublicKeyHandler.publicKeyFromEntity(keyEntity);
-        } catch (PublicKeyException e) {
-            logger.error("Cannot convert public key", e);
-            throw new WebApplicationException("Internal server error", Response.Status.INTERNAL_SERVER_ERROR);
-        }
+        return this.keyCache.get(organizationID, keyID, () -> fetchPublicKey(organizationID, keyID))
+                .orElseThrow(() -> new WebApplicationException(String.format("Cannot find public key with id: %s", keyId), Response.Status.UNAUTHORIZED));
     }
 
     protected UUID getOrganizationID(String macaroon) {
         if (macaroon == null || macaroon.isEmpty()) {
             throw new WebApplicationException("JWT must have client_id", Response.Status.UNAUTHORIZED);
         }
-        final List<Macaroon> macaroons = MacaroonBakery.deserializeMacaroon(macaroon);
+        final List<Macaroon> macaroons = this.clientTokens.deserialize(macaroon);
         if (macaroons.isEmpty()) {
             throw new WebApplicationException("JWT must have client_id", Response.Status.UNAUTHORIZED);
         }
@@ -80,4 +83,14 @@ public class JwtKeyResolver extends SigningKeyResolverAdapter {
                 .findAny()
                 .orElseThrow(() -> new WebApplicationException("JWT client token must have organization_id", Response.Status.UNAUTHORIZED));
     }
+
+    private Optional<PublicKey> fetchPublicKey(UUID organizationID, UUID keyID) {
+        final Optional<PublicKeyEntity> keyEntity = this.dao.fetchPublicKey(organizationID, keyID);
+        try {
+            return keyEntity.map(PublicKeyHandler::publicKeyFromEntity);
+        } catch (PublicKeyException e) {
+            logger.error("Cannot convert public key", e);
+            throw new WebApplicationException("Internal server error", Response.Status.INTERNAL_SERVER_ERROR);
+        }
+    }
 }
@@ -0,0 +1,190 @@
+package gov.cms.dpc.api.auth.jwt;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import gov.cms.dpc.api.auth.AuthNotificationListener;
+import gov.cms.dpc.common.hibernate.PostgresNotificationListener;
+import gov.cms.dpc.common.hibernate.auth.DPCAuthManagedSessionFactory;
+import gov.cms.dpc.common.utils.MetricMaker;
+import io.dropwizard.lifecycle.Managed;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IJTICache} which records used JTIs in the auth database, so that a JWT can't be replayed against a different API node,
+ * and entries are never evicted before they expire.
+ * <p>
+ * Each node keeps a {@link BucketedBloomFilter} of the JTIs used in the last {@link #TTL}, fed by a Postgres notification whenever any node records a JTI.
+ * Checking a JTI without persisting it (e.g. when validating a JWT) only goes to the database if the filter thinks the JTI might have been used,
+ * or if the filter may be missing some notifications (at startup, or after the listener reconnects).
+ * Persisting a JTI is always a single atomic insert, since that's the only way to be sure two nodes don't both accept it.
+ * JTIs longer than {@link #MAX_JTI_LENGTH} are rejected outright, since they wouldn't fit in a notification payload.
+ * <p>
+ * Expired rows (and filter buckets) are removed once a minute by a background task, using the index on their expiration time.
+ */
+@Singleton
+public class PostgresJTICache implements IJTICache, Managed {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresJTICache.class);
+
+    static final Duration TTL = Duration.ofMinutes(5);
+    static final String JTI_USED_CHANNEL = "jti_used";
+    // Well under the 8000 byte limit on a Postgres notification payload, even if every character takes 4 bytes
+    static final int MAX_JTI_LENGTH = 256;
+    private static final long EXPIRATION_INTERVAL_SECONDS = 60;
+    private static final int EXPECTED_PER_MINUTE = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private static final String INSERT_JTI = "INSERT INTO used_jtis (jti, expires_at) VALUES (:jti, now() + :ttl * INTERVAL '1 second') " +
+            "ON CONFLICT (jti) DO UPDATE SET expires_at = EXCLUDED.expires_at WHERE used_jtis.expires_at < now()";
+    private static final String SELECT_JTI = "SELECT COUNT(*) FROM used_jtis WHERE jti = :jti AND expires_at >= now()";
+    private static final String DELETE_EXPIRED = "DELETE FROM used_jtis WHERE expires_at < now()";
+
+    private final SessionFactory factory;
+    private final Clock clock;
+    private final BucketedBloomFilter filter;
+    private ScheduledExecutorService expirer;
+    private volatile Instant filterIncompleteUntil;
+
+    private final Meter localHits;
+    private final Meter databaseLookups;
+    private final Meter replays;
+    private final Meter evictions;
+
+    @Inject
+    public PostgresJTICache(DPCAuthManagedSessionFactory factory, AuthNotificationListener listener, MetricRegistry metricRegistry) {
+        this(factory.getSessionFactory(), metricRegistry, Clock.systemUTC());
+        listener.listen(JTI_USED_CHANNEL, this::onJTIUsed);
+    }
+
+    PostgresJTICache(SessionFactory factory, MetricRegistry metricRegistry, Clock clock) {
+        this.factory = factory;
+        this.clock = clock;
+        this.filter = new BucketedBloomFilter(clock, TTL, EXPECTED_PER_MINUTE, FALSE_POSITIVE_RATE);
+        // We haven't seen the JTIs used by other nodes before we started
+        this.filterIncompleteUntil = clock.instant().plus(TTL);
+
+        final var metricBuilder = new MetricMaker(metricRegistry, PostgresJTICache.class);
+        this.localHits = metricBuilder.registerMeter("localHits");
+        this.databaseLookups = metricBuilder.registerMeter("databaseLookups");
+        this.replays = metricBuilder.registerMeter("replays");
+        this.evictions = metricBuilder.registerMeter("evictions");
+        metricBuilder.registerCachedGauge("localHitRate", this::localHitRate);
+    }
+
+    @Override
+    public void start() {
+        expirer = Executors.newSingleThreadScheduledExecutor();
+        expirer.scheduleWithFixedDelay(this::expireEntries, EXPIRATION_INTERVAL_SECONDS, EXPIRATION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (expirer != null) {
+            expirer.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isJTIOk(String jti, boolean persist) {
+        if (jti.length() > MAX_JTI_LENGTH) {
+            logger.warn("Rejecting JTI of length {}", jti.length());
+            return false;
+        }
+
+        final boolean isOk;
+        if (persist) {
+            isOk = recordJTI(jti);
+        } else if (!this.filter.mightContain(jti) && this.clock.instant().isAfter(this.filterIncompleteUntil)) {
+            this.localHits.mark();
+            return true;
+        } else {
+            isOk = !isRecorded(jti);
+        }
+
+        // If the JTI has already been recorded, that means it's being replayed. Which is no go
+        if (!isOk) {
+            logger.warn("JTI {} is being replayed", jti);
+            this.replays.mark();
+        }
+        return isOk;
+    }
+
+    private boolean recordJTI(String jti) {
+        this.databaseLookups.mark();
+        try (final Session session = this.factory.openSession()) {
+            final Transaction tx = session.beginTransaction();
+            try {
+                final int inserted = session.createNativeQuery(INSERT_JTI)
+                        .setParameter("jti", jti)
+                        .setParameter("ttl", TTL.toSeconds())
+                        .executeUpdate();
+                if (inserted > 0) {
+                    PostgresNotificationListener.notify(session, JTI_USED_CHANNEL, jti);
+                }
+                tx.commit();
+                this.filter.put(jti);
+                return inserted > 0;
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private boolean isRecorded(String jti) {
+        this.databaseLookups.mark();
+        try (final Session session = this.factory.openSession()) {
+            final Number count = (Number) session.createNativeQuery(SELECT_JTI)
+                    .setParameter("jti", jti)
+                    .getSingleResult();
+            return count.longValue() > 0;
+        }
+    }
+
+    void expireEntries() {
+        this.filter.expire();
+        try (final Session session = this.factory.openSession()) {
+            final Transaction tx = session.beginTransaction();
+            try {
+                final int deleted = session.createNativeQuery(DELETE_EXPIRED).executeUpdate();
+                tx.commit();
+                this.evictions.mark(deleted);
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            // Not fatal, another node (or the next run) will clean them up, and the scheduler must not see an exception
+            logger.error("Cannot remove expired JTIs", e);
+        }
+    }
+
+    private void onJTIUsed(String jti) {
+        // A null payload means we may have missed some notifications, so we can't trust the filter until they've expired
+        if (jti == null) {
+            logger.debug("JTI filter is incomplete after reconnect");
+            this.filterIncompleteUntil = this.clock.instant().plus(TTL);
+        } else {
+            this.filter.put(jti);
+        }
+    }
+
+    private double localHitRate() {
+        final long hits = this.localHits.getCount();
+        final long total = hits + this.databaseLookups.getCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
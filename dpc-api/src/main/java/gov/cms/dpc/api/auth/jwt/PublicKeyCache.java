@@ -0,0 +1,98 @@
+package gov.cms.dpc.api.auth.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gov.cms.dpc.api.auth.AuthNotificationListener;
+import gov.cms.dpc.api.jdbi.PublicKeyDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the parsed {@link PublicKey}s used by the {@link JwtKeyResolver}, keyed by organization and key ID.
+ * This avoids fetching the key from the auth database, and re-parsing it, every time a client requests an access token.
+ * <p>
+ * Unknown keys are never cached, so a newly uploaded key can be used immediately.
+ * Deleting a key invalidates its entries on every API node, via the notification sent by {@link PublicKeyDAO#deletePublicKey(gov.cms.dpc.api.entities.PublicKeyEntity)}.
+ */
+@Singleton
+public class PublicKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicKeyCache.class);
+    static final Duration TTL = Duration.ofMinutes(15);
+
+    private final Cache<KeyID, PublicKey> cache;
+
+    @Inject
+    public PublicKeyCache(AuthNotificationListener listener) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(TTL)
+                .build();
+        listener.listen(PublicKeyDAO.PUBLIC_KEY_DELETED_CHANNEL, this::onKeyDeleted);
+    }
+
+    /**
+     * Get the public key for the given organization, using the lookup function if it's not already cached
+     *
+     * @param organizationID - {@link UUID} organization which owns the key
+     * @param keyID          - {@link UUID} ID of the key (the JWT `kid` value)
+     * @param lookup         - {@link Supplier} which fetches and parses the key, returning {@link Optional#empty()} if it doesn't exist
+     * @return - {@link Optional} {@link PublicKey}, empty if the organization doesn't have the given key
+     */
+    public Optional<PublicKey> get(UUID organizationID, UUID keyID, Supplier<Optional<PublicKey>> lookup) {
+        return Optional.ofNullable(this.cache.get(new KeyID(organizationID, keyID), key -> lookup.get().orElse(null)));
+    }
+
+    /**
+     * Remove the cached public key with the given ID
+     *
+     * @param keyID - {@link UUID} ID of the key to remove
+     */
+    public void invalidate(UUID keyID) {
+        this.cache.asMap().keySet().removeIf(key -> key.keyID.equals(keyID));
+    }
+
+    private void onKeyDeleted(String keyID) {
+        // A null payload means we may have missed some deletions, so we have to start over
+        if (keyID == null) {
+            logger.debug("Clearing public keys after reconnect");
+            this.cache.invalidateAll();
+        } else {
+            invalidate(UUID.fromString(keyID));
+        }
+    }
+
+    private static class KeyID {
+
+        private final UUID organizationID;
+        private final UUID keyID;
+
+        KeyID(UUID organizationID, UUID keyID) {
+            this.organizationID = organizationID;
+            this.keyID = keyID;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof KeyID)) return false;
+            KeyID that = (KeyID) o;
+            return organizationID.equals(that.organizationID) &&
+                    keyID.equals(that.keyID);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(organizationID, keyID);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package gov.cms.dpc.api.auth.jwt;
 
-import gov.cms.dpc.macaroons.MacaroonBakery;
 import gov.cms.dpc.macaroons.exceptions.BakeryException;
 import io.jsonwebtoken.*;
 
@@ -24,10 +23,12 @@ import java.util.UUID;
 public class ValidatingKeyResolver extends SigningKeyResolverAdapter {
 
     private final IJTICache cache;
+    private final ClientTokenCache clientTokens;
     private final Set<String> audClaim;
 
-    public ValidatingKeyResolver(IJTICache cache, Set<String> audClaim) {
+    public ValidatingKeyResolver(IJTICache cache, ClientTokenCache clientTokens, Set<String> audClaim) {
         this.cache = cache;
+        this.clientTokens = clientTokens;
         this.audClaim = audClaim;
     }
 
@@ -65,7 +66,7 @@ public class ValidatingKeyResolver extends SigningKeyResolverAdapter {
         }
 
         try {
-            MacaroonBakery.deserializeMacaroon(issuer);
+            this.clientTokens.deserialize(issuer);
         } catch (BakeryException e) {
             throw new WebApplicationException("Client token is not formatted correctly", Response.Status.BAD_REQUEST);
         }
@@ -4,16 +4,19 @@ import ca.uhn.fhir.rest.client.api.IGenericClient;
 import com.google.inject.name.Named;
 import gov.cms.dpc.api.auth.DPCAuthCredentials;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
-import gov.cms.dpc.fhir.DPCIdentifierSystem;
+import gov.cms.dpc.common.Constants;
 import gov.cms.dpc.fhir.DPCResourceType;
 import io.dropwizard.auth.Authenticator;
-import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.IdType;
 import org.hl7.fhir.dstu3.model.Organization;
+import org.hl7.fhir.dstu3.model.Parameters;
+import org.hl7.fhir.dstu3.model.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
-import java.util.*;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Implementation of {@link Authenticator} which matches an {@link Organization} to the given Macaroon (base64 encoded string
@@ -24,10 +27,12 @@ public class MacaroonsAuthenticator implements Authenticator<DPCAuthCredentials,
     private static final Logger logger = LoggerFactory.getLogger(MacaroonsAuthenticator.class);
 
     private final IGenericClient client;
+    private final ResourceOwnershipCache ownershipCache;
 
     @Inject
-    public MacaroonsAuthenticator(@Named("attribution") IGenericClient client) {
+    public MacaroonsAuthenticator(@Named("attribution") IGenericClient client, ResourceOwnershipCache ownershipCache) {
         this.client = client;
+        this.ownershipCache = ownershipCache;
     }
 
     @Override
@@ -46,29 +51,52 @@ public class MacaroonsAuthenticator implements Authenticator<DPCAuthCredentials,
             return validateOrganization(principal, credentials);
         }
 
-        // Otherwise, try to lookup the matching resource
-        logger.debug("Looking up resource {} in path authorizer. With value: {}", credentials.getPathAuthorizer().type(), credentials.getPathAuthorizer().pathParam());
-        Map<String, List<String>> searchParams = new HashMap<>();
-        searchParams.put("_id", Collections.singletonList(credentials.getPathValue()));
-        searchParams.put("organization", Collections.singletonList(credentials.getOrganization().getId()));
-
-        // Special handling of Group resources, which use tags instead of resource properties.
-        if (credentials.getPathAuthorizer().type() == DPCResourceType.Group) {
-            searchParams.put("_tag", Collections.singletonList(String.format("%s|%s", DPCIdentifierSystem.DPC.getSystem(), credentials.getOrganization().getId())));
+        // Otherwise, check whether the resource belongs to the organization, unless we've already done so recently
+        final String resourceType = credentials.getPathAuthorizer().type().toString();
+        final String pathValue = credentials.getPathValue();
+        logger.debug("Looking up resource {} in path authorizer. With value: {}", resourceType, credentials.getPathAuthorizer().pathParam());
+        final Optional<UUID> resourceID = parseResourceID(pathValue);
+        if (resourceID.isEmpty()) {
+            return Optional.empty();
         }
-        final Bundle bundle = this.client
-                .search()
-                .forResource(credentials.getPathAuthorizer().type().toString())
-                .whereMap(searchParams)
-                .returnBundle(Bundle.class)
+
+        // Cache by the normalized ID, so the same resource requested with a different case shares an entry
+        final String orgID = credentials.getOrganization().getId();
+        final boolean owned = this.ownershipCache.isOwned(orgID, resourceType, resourceID.get().toString(), () -> checkOwnership(orgID, resourceType, resourceID.get()));
+        return owned ? Optional.of(principal) : Optional.empty();
+    }
+
+    private boolean checkOwnership(String orgID, String resourceType, UUID resourceID) {
+        final Parameters parameters = new Parameters();
+        parameters.addParameter()
+                .setName(Constants.Ownership.ORGANIZATION_PARAM)
+                .setValue(new Reference(orgID));
+        parameters.addParameter()
+                .setName(Constants.Ownership.RESOURCE_PARAM)
+                .setValue(new Reference(new IdType(resourceType, resourceID.toString())));
+
+        final Parameters owned = this.client
+                .operation()
+                .onServer()
+                .named(Constants.Ownership.OPERATION)
+                .withParameters(parameters)
                 .encodedJson()
                 .execute();
 
-        if (bundle.getEntry().isEmpty()) {
+        return owned.getParameter()
+                .stream()
+                .filter(param -> param.getName().equals(Constants.Ownership.OWNED_PARAM))
+                .map(param -> new IdType(((Reference) param.getValue()).getReference()))
+                .map(id -> parseResourceID(id.getIdPart()))
+                .anyMatch(id -> id.isPresent() && id.get().equals(resourceID));
+    }
+
+    private static Optional<UUID> parseResourceID(String value) {
+        try {
+            return Optional.of(UUID.fromString(value));
+        } catch (IllegalArgumentException | NullPointerException e) {
             return Optional.empty();
         }
-
-        return Optional.of(principal);
     }
 
     private Optional<OrganizationPrincipal> validateOrganization(OrganizationPrincipal principal, DPCAuthCredentials credentials) {
@@ -0,0 +1,126 @@
+package gov.cms.dpc.api.auth.macaroonauth;
+
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.client.api.IHttpRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.hl7.fhir.dstu3.model.IdType;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Cache of which resources belong to which organization, as determined by the {@link MacaroonsAuthenticator}.
+ * <p>
+ * Resource IDs are assigned by the attribution service, so ownership rarely changes. But a resource which doesn't exist yet (or doesn't belong to the organization)
+ * is only cached for a short time, and this class is registered as an interceptor on the attribution client, so that deleting or updating a resource drops its entries.
+ */
+@Singleton
+public class ResourceOwnershipCache {
+
+    static final Duration OWNED_TTL = Duration.ofMinutes(5);
+    static final Duration NOT_OWNED_TTL = Duration.ofSeconds(30);
+
+    private final Cache<OwnershipKey, Boolean> cache;
+
+    @Inject
+    public ResourceOwnershipCache() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(new OwnershipExpiry())
+                .build();
+    }
+
+    /**
+     * Determine whether the organization owns the given resource, using the lookup function if we haven't already checked
+     *
+     * @param organizationID - {@link String} organization ID (as given by the credentials)
+     * @param resourceType   - {@link String} FHIR resource type
+     * @param resourceID     - {@link String} resource ID
+     * @param lookup         - {@link Supplier} which determines ownership if it's not cached
+     * @return - {@code true} organization owns the resource, {@code false} it does not
+     */
+    public boolean isOwned(String organizationID, String resourceType, String resourceID, Supplier<Boolean> lookup) {
+        return this.cache.get(new OwnershipKey(organizationID, resourceType, resourceID), key -> lookup.get());
+    }
+
+    /**
+     * Remove the cached ownership of the given resource, for every organization
+     *
+     * @param resourceType - {@link String} FHIR resource type
+     * @param resourceID   - {@link String} resource ID
+     */
+    public void invalidate(String resourceType, String resourceID) {
+        this.cache.asMap().keySet().removeIf(key -> key.resourceType.equals(resourceType) && key.resourceID.equals(resourceID));
+    }
+
+    /**
+     * Invalidate any resource which is deleted or updated through the attribution client
+     *
+     * @param request - {@link IHttpRequest} being sent to the attribution service
+     */
+    @Hook(Pointcut.CLIENT_REQUEST)
+    public void interceptRequest(IHttpRequest request) {
+        final String verb = request.getHttpVerbName();
+        if (!verb.equals("DELETE") && !verb.equals("PUT")) {
+            return;
+        }
+
+        final IdType id = new IdType(URI.create(request.getUri()).getPath());
+        if (id.hasResourceType() && id.hasIdPart()) {
+            invalidate(id.getResourceType(), id.getIdPart());
+        }
+    }
+
+    private static class OwnershipKey {
+
+        private final String organizationID;
+        private final String resourceType;
+        private final String resourceID;
+
+        OwnershipKey(String organizationID, String resourceType, String resourceID) {
+            this.organizationID = organizationID;
+            this.resourceType = resourceType;
+            this.resourceID = resourceID;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof OwnershipKey)) return false;
+            OwnershipKey that = (OwnershipKey) o;
+            return organizationID.equals(that.organizationID) &&
+                    resourceType.equals(that.resourceType) &&
+                    resourceID.equals(that.resourceID);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(organizationID, resourceType, resourceID);
+        }
+    }
+
+    private static class OwnershipExpiry implements Expiry<OwnershipKey, Boolean> {
+
+        @Override
+        public long expireAfterCreate(OwnershipKey key, Boolean owned, long currentTime) {
+            return owned ? OWNED_TTL.toNanos() : NOT_OWNED_TTL.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(OwnershipKey key, Boolean owned, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, owned, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(OwnershipKey key, Boolean owned, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
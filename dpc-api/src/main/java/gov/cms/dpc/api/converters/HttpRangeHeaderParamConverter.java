@@ -18,9 +18,13 @@ import java.util.regex.Pattern;
  */
 class HttpRangeHeaderParamConverter implements ParamConverter<RangeHeader> {
     /**
-     * {@link Pattern} for extracting Range request (e.g. bytes=0-12345)
+     * {@link Pattern} for extracting Range request (e.g. bytes=0-12345), which may contain multiple ranges (e.g. bytes=0-10,20-30)
      */
-    private static final Pattern RANGE_REGEX = Pattern.compile("([a-z]+)=([0-9]+)-([0-9]+)?");
+    private static final Pattern RANGE_REGEX = Pattern.compile("([a-z]+)=([0-9]+-[0-9]*(?:, ?[0-9]+-[0-9]*)*)");
+    /**
+     * {@link Pattern} for extracting a single range from a Range request (e.g. 0-12345)
+     */
+    private static final Pattern SINGLE_RANGE_REGEX = Pattern.compile("([0-9]+)-([0-9]+)?");
     static final String RANGE_MSG_FORMATTER = "%s is not a valid range request";
 
     HttpRangeHeaderParamConverter() {
@@ -37,9 +41,10 @@ class HttpRangeHeaderParamConverter implements ParamConverter<RangeHeader> {
         if (matcher.matches()) {
             final RangeHeader rangeHeader = new RangeHeader();
             rangeHeader.setUnit(matcher.group(1));
-            rangeHeader.setStart(Long.parseLong(matcher.group(2)));
-            if (matcher.group(3) != null) {
-                rangeHeader.setEnd(Long.parseLong(matcher.group(3)));
+            final Matcher rangeMatcher = SINGLE_RANGE_REGEX.matcher(matcher.group(2));
+            while (rangeMatcher.find()) {
+                rangeHeader.addRange(Long.parseLong(rangeMatcher.group(1)),
+                        rangeMatcher.group(2) == null ? null : Long.parseLong(rangeMatcher.group(2)));
             }
             return rangeHeader;
         }
@@ -0,0 +1,90 @@
+package gov.cms.dpc.api.core;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.validation.FhirValidator;
+import ca.uhn.fhir.validation.ValidationOptions;
+import ca.uhn.fhir.validation.ValidationResult;
+import com.codahale.metrics.InstrumentedExecutorService;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import gov.cms.dpc.common.utils.MetricMaker;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Validates the resources of bulk $submit operations against their FHIR profiles.
+ * <p>
+ * Validation runs on its own executor, so a large upload can't starve the common {@link java.util.concurrent.ForkJoinPool} that everything else shares.
+ * Results are cached by the content of the resource, so identical resources (e.g. when a client retries a failed upload) are only validated once.
+ */
+public class BulkValidator {
+
+    static final Duration TTL = Duration.ofHours(1);
+
+    private final FhirValidator validator;
+    private final FhirContext ctx;
+    private final ExecutorService executor;
+    private final Cache<String, ValidationResult> results;
+    private final Meter cacheHits;
+    private final Meter cacheMisses;
+
+    /**
+     * @param validator      - {@link FhirValidator} to validate with
+     * @param ctx            - {@link FhirContext} used to encode resources, to compute their cache key
+     * @param metricRegistry - {@link MetricRegistry} to register the executor and cache metrics with
+     * @param executor       - {@link ExecutorService} to run validations on, whose lifecycle is managed by the caller
+     */
+    public BulkValidator(FhirValidator validator, FhirContext ctx, MetricRegistry metricRegistry, ExecutorService executor) {
+        this.validator = validator;
+        this.ctx = ctx;
+        this.executor = new InstrumentedExecutorService(executor, metricRegistry, MetricRegistry.name(BulkValidator.class, "executor"));
+        this.results = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(TTL)
+                .build();
+
+        final var metricBuilder = new MetricMaker(metricRegistry, BulkValidator.class);
+        this.cacheHits = metricBuilder.registerMeter("cacheHits");
+        this.cacheMisses = metricBuilder.registerMeter("cacheMisses");
+    }
+
+    /**
+     * @return - {@link ExecutorService} to run bulk validations on
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Validate the resource against the given profile, or return the result for an identical resource which has already been validated
+     *
+     * @param resource   - {@link IBaseResource} to validate
+     * @param profileURL - {@link String} URL of the profile to validate against
+     * @return - {@link ValidationResult}
+     */
+    public ValidationResult validateWithResult(IBaseResource resource, String profileURL) {
+        final String key = Hashing.sha256()
+                .newHasher()
+                .putString(profileURL, StandardCharsets.UTF_8)
+                .putString(ctx.newJsonParser().encodeResourceToString(resource), StandardCharsets.UTF_8)
+                .hash()
+                .toString();
+
+        final ValidationResult cached = results.getIfPresent(key);
+        if (cached != null) {
+            cacheHits.mark();
+            return cached;
+        }
+
+        cacheMisses.mark();
+        final ValidationResult result = validator.validateWithResult(resource, new ValidationOptions().addProfile(profileURL));
+        results.put(key, result);
+        return result;
+    }
+}
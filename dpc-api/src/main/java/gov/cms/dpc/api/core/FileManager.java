@@ -1,7 +1,10 @@
 package gov.cms.dpc.api.core;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import gov.cms.dpc.common.annotations.ExportPath;
 import gov.cms.dpc.queue.IJobQueue;
+import gov.cms.dpc.queue.JobStatus;
 import gov.cms.dpc.queue.models.JobQueueBatch;
 import gov.cms.dpc.queue.models.JobQueueBatchFile;
 import org.bouncycastle.util.encoders.Hex;
@@ -9,32 +12,62 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.io.File;
 import java.nio.file.Paths;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+@Singleton
 public class FileManager {
 
     private static final Logger logger = LoggerFactory.getLogger(FileManager.class);
 
     private final String fileLocation;
     private final IJobQueue jobQueue;
+    // Files of completed jobs never change, so clients downloading a file in many ranges only need to look it up once
+    private final Cache<String, FilePointer> completedFiles;
 
     @Inject
     FileManager(@ExportPath String fileLocation, IJobQueue jobQueue) {
         this.fileLocation = fileLocation;
         this.jobQueue = jobQueue;
+        this.completedFiles = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(5, TimeUnit.MINUTES)
+                .build();
     }
 
     public FilePointer getFile(UUID organizationID, String fileID) {
+        final String cacheKey = String.format("%s/%s", organizationID, fileID);
+        final FilePointer cached = this.completedFiles.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        final FilePointer filePointer = lookupFile(organizationID, fileID);
+        if (filePointer.getJobCompleteTime().isPresent()) {
+            this.completedFiles.put(cacheKey, filePointer);
+        }
+        return filePointer;
+    }
+
+    private FilePointer lookupFile(UUID organizationID, String fileID) {
 
         final JobQueueBatchFile batchFile = this.jobQueue.getJobBatchFile(organizationID, fileID)
                 .orElseThrow(() -> new WebApplicationException("Cannot find file", Response.Status.NOT_FOUND));
 
-        final JobQueueBatch jobQueueBatch = this.jobQueue.getBatch(batchFile.getBatchID())
+        // Load all the batches of the job at once, so we can also tell when the job completed
+        final List<JobQueueBatch> jobBatches = this.jobQueue.getJobBatches(batchFile.getJobID());
+        final JobQueueBatch jobQueueBatch = jobBatches
+                .stream()
+                .filter(batch -> batch.getBatchID().equals(batchFile.getBatchID()))
+                .findFirst()
                 .orElseThrow(() -> new WebApplicationException("Cannot export job for file", Response.Status.NOT_FOUND));
 
         final java.nio.file.Path path = Paths.get(String.format("%s/%s.ndjson", fileLocation, batchFile.getFileName()));
@@ -43,22 +76,46 @@ public class FileManager {
                 batchFile.getFileLength(),
                 batchFile.getJobID(),
                 jobQueueBatch.getStartTime().orElseThrow(() -> new IllegalStateException("Cannot find start time of completed job")),
+                getJobCompleteTime(jobBatches).orElse(null),
                 new File(path.toString()));
     }
 
+    /**
+     * Get the time the job finished, which is the latest complete time of its batches
+     *
+     * @param jobBatches - all the batches of the job
+     * @return the complete time of the job, or empty if any of its batches have not completed
+     */
+    private static Optional<OffsetDateTime> getJobCompleteTime(List<JobQueueBatch> jobBatches) {
+        if (jobBatches.stream().anyMatch(batch -> batch.getStatus() != JobStatus.COMPLETED)) {
+            return Optional.empty();
+        }
+        return jobBatches
+                .stream()
+                .map(JobQueueBatch::getCompleteTime)
+                .flatMap(Optional::stream)
+                .max(OffsetDateTime::compareTo);
+    }
+
     public static class FilePointer {
 
         private final String checksum;
         private final long fileSize;
         private final UUID jobID;
         private final OffsetDateTime creationTime;
+        private final OffsetDateTime jobCompleteTime;
         private final File file;
 
         public FilePointer(String checksum, long fileSize, UUID jobID, OffsetDateTime creationTime, File file) {
+            this(checksum, fileSize, jobID, creationTime, null, file);
+        }
+
+        public FilePointer(String checksum, long fileSize, UUID jobID, OffsetDateTime creationTime, OffsetDateTime jobCompleteTime, File file) {
             this.checksum = checksum;
             this.fileSize = fileSize;
             this.jobID = jobID;
             this.creationTime = creationTime;
+            this.jobCompleteTime = jobCompleteTime;
             this.file = file;
         }
 
@@ -78,6 +135,13 @@ public class FileManager {
             return creationTime;
         }
 
+        /**
+         * @return the time the job of this file completed, or empty if some of its batches are still being worked
+         */
+        public Optional<OffsetDateTime> getJobCompleteTime() {
+            return Optional.ofNullable(jobCompleteTime);
+        }
+
         public File getFile() {
             return file;
         }
@@ -2,6 +2,7 @@ package gov.cms.dpc.api.jdbi;
 
 import gov.cms.dpc.api.entities.PublicKeyEntity;
 import gov.cms.dpc.api.entities.PublicKeyEntity_;
+import gov.cms.dpc.common.hibernate.PostgresNotificationListener;
 import gov.cms.dpc.common.hibernate.auth.DPCAuthManagedSessionFactory;
 import io.dropwizard.hibernate.AbstractDAO;
 
@@ -15,6 +16,8 @@ import java.util.UUID;
 
 public class PublicKeyDAO extends AbstractDAO<PublicKeyEntity> {
 
+    public static final String PUBLIC_KEY_DELETED_CHANNEL = "public_key_deleted";
+
     @Inject
     PublicKeyDAO(DPCAuthManagedSessionFactory factory) {
         super(factory.getSessionFactory());
@@ -51,8 +54,14 @@ public class PublicKeyDAO extends AbstractDAO<PublicKeyEntity> {
         return Optional.of(resultList.get(0));
     }
 
+    /**
+     * Delete the given key, and notify the other API nodes (once the transaction commits) so they stop accepting it
+     *
+     * @param keyEntity - {@link PublicKeyEntity} to delete
+     */
     public void deletePublicKey(PublicKeyEntity keyEntity) {
         currentSession().delete(keyEntity);
+        PostgresNotificationListener.notify(currentSession(), PUBLIC_KEY_DELETED_CHANNEL, keyEntity.getId().toString());
     }
 
     public PublicKeyEntity findKeyByLabel(String keyLabel) {
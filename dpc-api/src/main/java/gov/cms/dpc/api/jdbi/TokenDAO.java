@@ -2,6 +2,7 @@ package gov.cms.dpc.api.jdbi;
 
 import gov.cms.dpc.api.entities.TokenEntity;
 import gov.cms.dpc.api.entities.TokenEntity_;
+import gov.cms.dpc.common.hibernate.PostgresNotificationListener;
 import gov.cms.dpc.common.hibernate.auth.DPCAuthManagedSessionFactory;
 import io.dropwizard.hibernate.AbstractDAO;
 import org.hibernate.Session;
@@ -17,6 +18,8 @@ import java.util.UUID;
 
 public class TokenDAO extends AbstractDAO<TokenEntity> {
 
+    public static final String TOKEN_DELETED_CHANNEL = "token_deleted";
+
     private final SessionFactory factory;
 
     @Inject
@@ -72,7 +75,13 @@ public class TokenDAO extends AbstractDAO<TokenEntity> {
         }
     }
 
+    /**
+     * Delete the given token, and notify the other API nodes (once the transaction commits) so they stop accepting it
+     *
+     * @param entity - {@link TokenEntity} to delete
+     */
     public void deleteToken(TokenEntity entity) {
         this.currentSession().delete(entity);
+        PostgresNotificationListener.notify(this.currentSession(), TOKEN_DELETED_CHANNEL, entity.getId());
     }
 }
@@ -1,35 +1,54 @@
 package gov.cms.dpc.api.models;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class RangeHeader implements Serializable {
 
     public static final long serialVersionUID = 42L;
 
     private String unit;
-    private Long start;
-    private Long end;
+    private final List<Range> ranges = new ArrayList<>();
 
     public RangeHeader() {
         // Jackson required
     }
 
+    /**
+     * @return the start of the first requested range
+     */
     public Long getStart() {
-        return start;
+        return ranges.isEmpty() ? null : ranges.get(0).getStart();
     }
 
     public void setStart(Long start) {
-        this.start = start;
+        firstRange().setStart(start);
     }
 
+    /**
+     * @return the end of the first requested range, if one was given
+     */
     public Optional<Long> getEnd() {
-        return Optional.ofNullable(this.end);
+        return ranges.isEmpty() ? Optional.empty() : ranges.get(0).getEnd();
     }
 
     public void setEnd(Long end) {
-        this.end = end;
+        firstRange().setEnd(end);
+    }
+
+    /**
+     * @return all the requested ranges, in the order they were requested
+     */
+    public List<Range> getRanges() {
+        return ranges;
+    }
+
+    public void addRange(Long start, Long end) {
+        this.ranges.add(new Range(start, end));
     }
 
     public String getUnit() {
@@ -40,29 +59,83 @@ public class RangeHeader implements Serializable {
         this.unit = unit;
     }
 
+    private Range firstRange() {
+        if (ranges.isEmpty()) {
+            ranges.add(new Range(null, null));
+        }
+        return ranges.get(0);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof RangeHeader)) return false;
         RangeHeader that = (RangeHeader) o;
         return unit.equals(that.unit) &&
-                start.equals(that.start) &&
-                Objects.equals(end, that.end);
+                ranges.equals(that.ranges);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(unit, start, end);
+        return Objects.hash(unit, ranges);
     }
 
     @Override
     public String toString() {
-        final String endString;
-        if (this.end == null) {
-            endString = "";
-        } else {
-            endString = this.end.toString();
+        return String.format("%s=%s", this.unit, this.ranges.stream().map(Range::toString).collect(Collectors.joining(",")));
+    }
+
+    public static class Range implements Serializable {
+
+        public static final long serialVersionUID = 42L;
+
+        private Long start;
+        private Long end;
+
+        public Range(Long start, Long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public Long getStart() {
+            return start;
+        }
+
+        public void setStart(Long start) {
+            this.start = start;
+        }
+
+        public Optional<Long> getEnd() {
+            return Optional.ofNullable(this.end);
+        }
+
+        public void setEnd(Long end) {
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Range)) return false;
+            Range that = (Range) o;
+            return Objects.equals(start, that.start) &&
+                    Objects.equals(end, that.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end);
+        }
+
+        @Override
+        public String toString() {
+            final String endString;
+            if (this.end == null) {
+                endString = "";
+            } else {
+                endString = this.end.toString();
+            }
+            return String.format("%d-%s", this.start, endString);
         }
-        return String.format("%s=%d-%s", this.unit, this.start, endString);
     }
 }
@@ -8,12 +8,8 @@ import gov.cms.dpc.api.core.FileManager;
 import gov.cms.dpc.api.models.RangeHeader;
 import gov.cms.dpc.api.resources.AbstractDataResource;
 import gov.cms.dpc.common.annotations.NoHtml;
-import gov.cms.dpc.queue.IJobQueue;
-import gov.cms.dpc.queue.JobStatus;
-import gov.cms.dpc.queue.models.JobQueueBatch;
 import io.dropwizard.auth.Auth;
 import io.swagger.annotations.*;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpHeaders;
 import org.eclipse.jetty.http.HttpStatus;
 import org.hl7.fhir.dstu3.model.OperationOutcome;
@@ -25,7 +21,16 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
-import java.io.*;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -33,7 +38,7 @@ import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static gov.cms.dpc.fhir.dropwizard.filters.StreamingContentSizeFilter.X_CONTENT_LENGTH;
@@ -49,14 +54,15 @@ public class DataResource extends AbstractDataResource {
     private static final Logger logger = LoggerFactory.getLogger(DataResource.class);
     private static final int CHUNK_SIZE = 1024 * 1024; // Return a maximum of 1MB chunks, but we can modify this later if we need to
     private static final String ACCEPTED_RANGE_VALUE = "bytes";
+    private static final String NDJSON_TYPE = "application/ndjson";
+    private static final int MAX_RANGES = 16;
+    private static final long TRANSFER_SIZE = 8L * 1024 * 1024;
 
     private final FileManager manager;
-    private final IJobQueue queue;
 
     @Inject
-    public DataResource(FileManager manager, IJobQueue queue) {
+    public DataResource(FileManager manager) {
         this.manager = manager;
-        this.queue = queue;
     }
 
     @Path("/{fileID}.ndjson")
@@ -144,14 +150,9 @@ public class DataResource extends AbstractDataResource {
         final FileManager.FilePointer filePointer = this.manager.getFile(organizationPrincipal.getID(), fileID);
 
         // If job is expired, the files should no longer be accessible
-        List<JobQueueBatch> batches = queue.getJobBatches(filePointer.getJobID());
-        Set<JobStatus> jobStatusSet = batches.stream().map(JobQueueBatch::getStatus).collect(Collectors.toSet());
-        if (jobStatusSet.size() == 1 && jobStatusSet.contains(JobStatus.COMPLETED)) {
-            OffsetDateTime lastCompleteTime = JobResource.getLatestBatchCompleteTime(batches);
-
-            if (lastCompleteTime.isBefore(OffsetDateTime.now(ZoneOffset.UTC).minusHours(JobResource.JOB_EXPIRATION_HOURS))) {
-                return Response.status(Response.Status.GONE).build();
-            }
+        final Optional<OffsetDateTime> jobCompleteTime = filePointer.getJobCompleteTime();
+        if (jobCompleteTime.isPresent() && jobCompleteTime.get().isBefore(OffsetDateTime.now(ZoneOffset.UTC).minusHours(JobResource.JOB_EXPIRATION_HOURS))) {
+            return Response.status(Response.Status.GONE).build();
         }
 
         // If we're provided a file checksum, verify it matches, if so, return a 304
@@ -180,19 +181,12 @@ public class DataResource extends AbstractDataResource {
     }
 
     private Response buildDefaultResponse(String fileID, FileManager.FilePointer filePointer) {
-        final StreamingOutput fileStream = outputStream -> {
-            try (FileInputStream fileInputStream = new FileInputStream(filePointer.getFile())) {
-                // Use the IOUtils copy method, which internally buffers the files
-                IOUtils.copy(fileInputStream, outputStream);
-            } catch (FileNotFoundException e) {
-                throw new WebApplicationException(String.format("Unable to open file `%s`.`.", fileID), e, Response.Status.INTERNAL_SERVER_ERROR);
-            }
-            outputStream.flush();
-        };
+        final File file = filePointer.getFile();
+        final FileChannelStreamer fileStreamer = new FileChannelStreamer(fileID, file, List.of(new FileSegment(new byte[0], 0, file.length())), new byte[0]);
 
         return Response
                 .status(Response.Status.OK)
-                .entity(fileStream)
+                .entity(fileStreamer)
                 .header(HttpHeaders.ETAG, filePointer.getChecksum())
                 .header(HttpHeaders.CONTENT_LENGTH, filePointer.getFileSize())
                 .header(HttpHeaders.LAST_MODIFIED, filePointer.getCreationTime().toInstant().toEpochMilli())
@@ -203,45 +197,79 @@ public class DataResource extends AbstractDataResource {
         if (!range.getUnit().equals(ACCEPTED_RANGE_VALUE)) {
             throw new WebApplicationException("Only `bytes` are acceptable as ranges", Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE);
         }
-        final long rangeStart = range.getStart() < 0 ? 0 : range.getStart();
-        final long rangeEnd = range.getEnd().orElse(rangeStart + CHUNK_SIZE);
-        final long len = rangeEnd - rangeStart;
-
-        // If we have a negative range, throw an exception
-        if (len < 0) {
-            throw new WebApplicationException("Range end cannot be before begin", Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE);
+        if (range.getRanges().size() > MAX_RANGES) {
+            throw new WebApplicationException(String.format("Cannot request more than %d ranges", MAX_RANGES), Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE);
         }
 
-        RandomAccessFile randomAccessFile = null;
-        try {
-            randomAccessFile = new RandomAccessFile(file, "r");
-        } catch (IOException e) {
-            throw new WebApplicationException(String.format("Unable to open file `%s`.`.", fileID), e, Response.Status.INTERNAL_SERVER_ERROR);
-        }
-        try {
-            randomAccessFile.seek(rangeStart);
-        } catch (IOException e) {
-            try {
-                randomAccessFile.close();
-            } catch (IOException e1) {
-                logger.error("Failed to close file after exception", e1);
-            }
-            throw new WebApplicationException(String.format("Unable to read file `%s`.`.", fileID), e, Response.Status.INTERNAL_SERVER_ERROR);
+        final long fileLength = file.length();
+        final List<long[]> bounds = range.getRanges()
+                .stream()
+                .map(r -> rangeBounds(r, fileLength))
+                .collect(Collectors.toList());
+
+        if (bounds.size() == 1) {
+            final long rangeStart = bounds.get(0)[0];
+            final long rangeEnd = bounds.get(0)[1];
+            final FileChannelStreamer fileStreamer = new FileChannelStreamer(fileID, file, List.of(new FileSegment(new byte[0], rangeStart, rangeEnd - rangeStart)), new byte[0]);
+
+            return Response
+                    .status(Response.Status.PARTIAL_CONTENT)
+                    .entity(fileStreamer)
+                    .header(HttpHeaders.ACCEPT_RANGES, ACCEPTED_RANGE_VALUE)
+                    .header(HttpHeaders.CONTENT_RANGE, formatContentRange(rangeStart, rangeEnd, fileLength))
+                    // Set the X-Content-Length header, so we can manually override what Jersey does
+                    .header(X_CONTENT_LENGTH, fileStreamer.getLength())
+                    .build();
         }
 
-        final PartialFileStreamer fileStreamer = new PartialFileStreamer((int) len, randomAccessFile);
+        // Multiple ranges are returned as a multipart/byteranges body, with a part header before each range
+        final String boundary = UUID.randomUUID().toString();
+        final List<FileSegment> segments = bounds
+                .stream()
+                .map(b -> {
+                    final String partHeader = String.format("\r\n--%s\r\n%s: %s\r\n%s: %s\r\n\r\n",
+                            boundary,
+                            HttpHeaders.CONTENT_TYPE, NDJSON_TYPE,
+                            HttpHeaders.CONTENT_RANGE, formatContentRange(b[0], b[1], fileLength));
+                    return new FileSegment(partHeader.getBytes(StandardCharsets.US_ASCII), b[0], b[1] - b[0]);
+                })
+                .collect(Collectors.toList());
+        final byte[] trailer = String.format("\r\n--%s--\r\n", boundary).getBytes(StandardCharsets.US_ASCII);
+        final FileChannelStreamer fileStreamer = new FileChannelStreamer(fileID, file, segments, trailer);
 
-        final String responseRange = String.format("bytes %d-%d/%d", rangeStart, rangeEnd, file.length());
         return Response
                 .status(Response.Status.PARTIAL_CONTENT)
                 .entity(fileStreamer)
+                .type(String.format("multipart/byteranges; boundary=%s", boundary))
                 .header(HttpHeaders.ACCEPT_RANGES, ACCEPTED_RANGE_VALUE)
-                .header(HttpHeaders.CONTENT_RANGE, responseRange)
-                // Set the X-Content-Length header, so we can manually override what Jersey does
                 .header(X_CONTENT_LENGTH, fileStreamer.getLength())
                 .build();
     }
 
+    /**
+     * Resolve a requested range against the file, the end of the range is exclusive.
+     * Open ended ranges return a single chunk, and ranges are clamped to the end of the file.
+     *
+     * @return the start and end of the range
+     */
+    private static long[] rangeBounds(RangeHeader.Range range, long fileLength) {
+        final long rangeStart = range.getStart() < 0 ? 0 : range.getStart();
+        final long rangeEnd = range.getEnd().orElse(rangeStart + CHUNK_SIZE);
+
+        // If we have a negative range, throw an exception
+        if (rangeEnd < rangeStart) {
+            throw new WebApplicationException("Range end cannot be before begin", Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+        if (rangeStart > fileLength) {
+            throw new WebApplicationException("Range begins after the end of the file", Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+        return new long[]{rangeStart, Math.min(rangeEnd, fileLength)};
+    }
+
+    private static String formatContentRange(long rangeStart, long rangeEnd, long fileLength) {
+        return String.format("bytes %d-%d/%d", rangeStart, rangeEnd, fileLength);
+    }
+
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
     private boolean returnCachedValue(FileManager.FilePointer filePointer, Optional<String> checksum, Optional<String> modifiedSince) {
         // If we're provided a file checksum, verify it matches, if so, return a 304
@@ -264,32 +292,74 @@ public class DataResource extends AbstractDataResource {
         return false;
     }
 
-    private static class PartialFileStreamer implements StreamingOutput {
+    /**
+     * A region of a file to stream, preceded by a (possibly empty) header
+     */
+    private static class FileSegment {
 
-        private int length;
-        private RandomAccessFile raf;
-        final byte[] buf = new byte[4096];
+        private final byte[] header;
+        private final long position;
+        private final long length;
 
-        PartialFileStreamer(int length, RandomAccessFile raf) {
+        FileSegment(byte[] header, long position, long length) {
+            this.header = header;
+            this.position = position;
             this.length = length;
-            this.raf = raf;
+        }
+    }
+
+    /**
+     * Streams regions of a file with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which reads from
+     * the file at the given position without seeking or copying through an intermediate buffer of our own.
+     */
+    private static class FileChannelStreamer implements StreamingOutput {
+
+        private final String fileID;
+        private final File file;
+        private final List<FileSegment> segments;
+        private final byte[] trailer;
+
+        FileChannelStreamer(String fileID, File file, List<FileSegment> segments, byte[] trailer) {
+            this.fileID = fileID;
+            this.file = file;
+            this.segments = segments;
+            this.trailer = trailer;
         }
 
         @Override
         public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+            final FileChannel channel;
             try {
-                while (length != 0) {
-                    int read = raf.read(buf, 0, Math.min(buf.length, length));
-                    outputStream.write(buf, 0, read);
-                    length -= read;
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                throw new WebApplicationException(String.format("Unable to open file `%s`.`.", fileID), e, Response.Status.INTERNAL_SERVER_ERROR);
+            }
+
+            try (channel) {
+                final WritableByteChannel target = Channels.newChannel(outputStream);
+                for (FileSegment segment : segments) {
+                    outputStream.write(segment.header);
+                    long position = segment.position;
+                    long remaining = segment.length;
+                    while (remaining > 0) {
+                        final long transferred = channel.transferTo(position, Math.min(remaining, TRANSFER_SIZE), target);
+                        if (transferred <= 0) {
+                            throw new EOFException(String.format("Unexpected end of file `%s`", fileID));
+                        }
+                        position += transferred;
+                        remaining -= transferred;
+                    }
                 }
+                outputStream.write(trailer);
                 outputStream.flush();
-            } finally {
-                raf.close();
             }
         }
 
-        int getLength() {
+        long getLength() {
+            long length = trailer.length;
+            for (FileSegment segment : segments) {
+                length += segment.header.length + segment.length;
+            }
             return length;
         }
     }
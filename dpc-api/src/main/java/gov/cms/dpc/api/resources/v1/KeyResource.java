@@ -5,6 +5,7 @@ import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
 import gov.cms.dpc.api.auth.annotations.Authorizer;
+import gov.cms.dpc.api.auth.jwt.PublicKeyCache;
 import gov.cms.dpc.api.auth.jwt.PublicKeyHandler;
 import gov.cms.dpc.api.entities.PublicKeyEntity;
 import gov.cms.dpc.api.exceptions.PublicKeyException;
@@ -40,11 +41,13 @@ public class KeyResource extends AbstractKeyResource {
     private static final Logger logger = LoggerFactory.getLogger(KeyResource.class);
 
     private final PublicKeyDAO dao;
+    private final PublicKeyCache keyCache;
     private final SecureRandom random;
 
     @Inject
-    public KeyResource(PublicKeyDAO dao) {
+    public KeyResource(PublicKeyDAO dao, PublicKeyCache keyCache) {
         this.dao = dao;
+        this.keyCache = keyCache;
         this.random = new SecureRandom();
     }
 
@@ -104,6 +107,7 @@ public class KeyResource extends AbstractKeyResource {
             throw new WebApplicationException("Cannot find certificate", Response.Status.NOT_FOUND);
         }
         keys.forEach(this.dao::deletePublicKey);
+        this.keyCache.invalidate(keyID);
 
         return Response.ok().build();
     }
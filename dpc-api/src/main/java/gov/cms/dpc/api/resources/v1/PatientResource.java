@@ -4,7 +4,6 @@ import ca.uhn.fhir.rest.api.MethodOutcome;
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import ca.uhn.fhir.validation.FhirValidator;
 import ca.uhn.fhir.validation.ResultSeverityEnum;
-import ca.uhn.fhir.validation.ValidationOptions;
 import ca.uhn.fhir.validation.ValidationResult;
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
@@ -13,6 +12,7 @@ import gov.cms.dpc.api.APIHelpers;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
 import gov.cms.dpc.api.auth.annotations.Authorizer;
 import gov.cms.dpc.api.auth.annotations.PathAuthorizer;
+import gov.cms.dpc.api.core.BulkValidator;
 import gov.cms.dpc.api.resources.AbstractPatientResource;
 import gov.cms.dpc.bluebutton.client.BlueButtonClient;
 import gov.cms.dpc.common.annotations.NoHtml;
@@ -59,13 +59,15 @@ public class PatientResource extends AbstractPatientResource {
 
     private final IGenericClient client;
     private final FhirValidator validator;
+    private final BulkValidator bulkValidator;
     private final DataService dataService;
     private final BlueButtonClient bfdClient;
 
     @Inject
-    public PatientResource(@Named("attribution") IGenericClient client, FhirValidator validator, DataService dataService, BlueButtonClient bfdClient) {
+    public PatientResource(@Named("attribution") IGenericClient client, FhirValidator validator, BulkValidator bulkValidator, DataService dataService, BlueButtonClient bfdClient) {
         this.client = client;
         this.validator = validator;
+        this.bulkValidator = bulkValidator;
         this.dataService = dataService;
         this.bfdClient = bfdClient;
     }
@@ -146,9 +148,9 @@ public class PatientResource extends AbstractPatientResource {
         logger.info("submittedPatients={}", patientBundle.getEntry().size());
 
         final Function<Patient, Optional<WebApplicationException>> entryHandler =
-            patient -> validateAndAddOrg(patient, organization.getOrganization().getId(), validator);
+            patient -> validateAndAddOrg(patient, organization.getOrganization().getId(), bulkValidator);
 
-        return bulkResourceClient(Patient.class, client, entryHandler, patientBundle);
+        return bulkResourceClient(Patient.class, client, entryHandler, patientBundle, bulkValidator.getExecutor());
     }
 
 
@@ -296,10 +298,10 @@ public class PatientResource extends AbstractPatientResource {
         return ValidationHelpers.validateAgainstProfile(this.validator, parameters, PatientProfile.PROFILE_URI);
     }
 
-    private static Optional<WebApplicationException> validateAndAddOrg(Patient patient, String organizationID, FhirValidator validator) {
+    private static Optional<WebApplicationException> validateAndAddOrg(Patient patient, String organizationID, BulkValidator validator) {
         // Set the Managing Org, since we need it for the validation
         patient.setManagingOrganization(new Reference(new IdType("Organization", organizationID)));
-        final ValidationResult result = validator.validateWithResult(patient, new ValidationOptions().addProfile(PatientProfile.PROFILE_URI));
+        final ValidationResult result = validator.validateWithResult(patient, PatientProfile.PROFILE_URI);
         if ((!result.isSuccessful()) && (result.getMessages().get(0).getSeverity() != ResultSeverityEnum.INFORMATION)) {
             return Optional.of(new WebApplicationException(APIHelpers.formatValidationMessages(result.getMessages()), HttpStatus.UNPROCESSABLE_ENTITY_422));
         } else {
@@ -2,7 +2,6 @@ package gov.cms.dpc.api.resources.v1;
 
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import ca.uhn.fhir.validation.FhirValidator;
-import ca.uhn.fhir.validation.ValidationOptions;
 import ca.uhn.fhir.validation.ValidationResult;
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
@@ -11,6 +10,7 @@ import gov.cms.dpc.api.APIHelpers;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
 import gov.cms.dpc.api.auth.annotations.Authorizer;
 import gov.cms.dpc.api.auth.annotations.PathAuthorizer;
+import gov.cms.dpc.api.core.BulkValidator;
 import gov.cms.dpc.api.resources.AbstractPractitionerResource;
 import gov.cms.dpc.common.annotations.NoHtml;
 import gov.cms.dpc.fhir.DPCResourceType;
@@ -44,11 +44,13 @@ public class PractitionerResource extends AbstractPractitionerResource {
     private static final Logger logger = LoggerFactory.getLogger(PractitionerResource.class);
     private final IGenericClient client;
     private final FhirValidator validator;
+    private final BulkValidator bulkValidator;
 
     @Inject
-    PractitionerResource(@Named("attribution") IGenericClient client, FhirValidator validator) {
+    PractitionerResource(@Named("attribution") IGenericClient client, FhirValidator validator, BulkValidator bulkValidator) {
         this.client = client;
         this.validator = validator;
+        this.bulkValidator = bulkValidator;
     }
 
     @GET
@@ -150,10 +152,10 @@ public class PractitionerResource extends AbstractPractitionerResource {
         final Function<Practitioner, Optional<WebApplicationException>> entryHandler =
             resource -> validateProvider(resource,
                 organization.getOrganization().getId(),
-                validator,
+                bulkValidator,
                 PRACTITIONER_PROFILE);
 
-        return bulkResourceClient(Practitioner.class, client, entryHandler, providerBundle);
+        return bulkResourceClient(Practitioner.class, client, entryHandler, providerBundle, bulkValidator.getExecutor());
     }
 
     @DELETE
@@ -203,8 +205,8 @@ public class PractitionerResource extends AbstractPractitionerResource {
         return ValidationHelpers.validateAgainstProfile(this.validator, parameters, PractitionerProfile.PROFILE_URI);
     }
 
-    private static Optional<WebApplicationException> validateProvider(Practitioner provider, String organizationID, FhirValidator validator, String profileURL) {
-        final ValidationResult result = validator.validateWithResult(provider, new ValidationOptions().addProfile(profileURL));
+    private static Optional<WebApplicationException> validateProvider(Practitioner provider, String organizationID, BulkValidator validator, String profileURL) {
+        final ValidationResult result = validator.validateWithResult(provider, profileURL);
         if (!result.isSuccessful()) {
             return Optional.of(new WebApplicationException(APIHelpers.formatValidationMessages(result.getMessages()), HttpStatus.UNPROCESSABLE_ENTITY_422));
         } else {
@@ -5,8 +5,10 @@ import com.codahale.metrics.annotation.Timed;
 import com.github.nitram509.jmacaroons.Macaroon;
 import gov.cms.dpc.api.auth.MacaroonHelpers;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
+import gov.cms.dpc.api.auth.VerifiedTokenCache;
 import gov.cms.dpc.api.auth.annotations.Authorizer;
 import gov.cms.dpc.common.annotations.Public;
+import gov.cms.dpc.api.auth.jwt.ClientTokenCache;
 import gov.cms.dpc.api.auth.jwt.IJTICache;
 import gov.cms.dpc.api.auth.jwt.ValidatingKeyResolver;
 import gov.cms.dpc.api.entities.TokenEntity;
@@ -69,6 +71,8 @@ public class TokenResource extends AbstractTokenResource {
     private final TokenPolicy policy;
     private final SigningKeyResolverAdapter resolver;
     private final IJTICache cache;
+    private final VerifiedTokenCache tokenCache;
+    private final ClientTokenCache clientTokens;
     private final String authURL;
 
     @Inject
@@ -77,12 +81,16 @@ public class TokenResource extends AbstractTokenResource {
                          TokenPolicy policy,
                          SigningKeyResolverAdapter resolver,
                          IJTICache cache,
+                         VerifiedTokenCache tokenCache,
+                         ClientTokenCache clientTokens,
                          @APIV1 String publicURL) {
         this.dao = dao;
         this.bakery = bakery;
         this.policy = policy;
         this.resolver = resolver;
         this.cache = cache;
+        this.tokenCache = tokenCache;
+        this.clientTokens = clientTokens;
         this.authURL = String.format("%s/Token/auth", publicURL);
     }
 
@@ -186,6 +194,8 @@ public class TokenResource extends AbstractTokenResource {
         assert matchedToken.size() == 1 : "Should only have a single matching token";
 
         this.dao.deleteToken(matchedToken.get(0));
+        // The other API nodes are notified by the DAO, but there's no need to wait for the notification on this one
+        this.tokenCache.invalidateToken(matchedToken.get(0).getId());
 
         return Response.noContent().build();
     }
@@ -245,7 +255,7 @@ public class TokenResource extends AbstractTokenResource {
         try {
             Jwts.parser()
                     .requireAudience(this.authURL)
-                    .setSigningKeyResolver(new ValidatingKeyResolver(this.cache, Set.of(this.authURL)))
+                    .setSigningKeyResolver(new ValidatingKeyResolver(this.cache, this.clientTokens, Set.of(this.authURL)))
                     .build()
                     .parseSignedClaims(jwt);
         } catch (IllegalArgumentException | UnsupportedJwtException e) {
@@ -282,9 +292,9 @@ public class TokenResource extends AbstractTokenResource {
                 .build()
                 .parseSignedClaims(jwtBody);
 
-        // Extract the Client Macaroon from the subject field (which is the same as the issuer)
+        // Extract the Client Macaroon from the subject field (which is the same as the issuer, so the resolver has already deserialized it)
         final String clientMacaroon = claims.getPayload().getSubject();
-        final List<Macaroon> macaroons = MacaroonBakery.deserializeMacaroon(clientMacaroon);
+        final List<Macaroon> macaroons = this.clientTokens.deserialize(clientMacaroon);
 
         // Get org id from macaroon caveats
         UUID orgId = MacaroonHelpers.extractOrgIDFromCaveats(macaroons).orElseThrow(() -> {
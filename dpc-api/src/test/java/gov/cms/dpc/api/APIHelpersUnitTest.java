@@ -2,7 +2,9 @@ package gov.cms.dpc.api;
 
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import ca.uhn.fhir.rest.gclient.IOperationUntypedWithInput;
+import com.google.common.util.concurrent.MoreExecutors;
 import gov.cms.dpc.testing.factories.BundleFactory;
+import org.eclipse.jetty.http.HttpStatus;
 import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.fhir.dstu3.model.Patient;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +16,7 @@ import org.mockito.Mockito;
 import javax.ws.rs.WebApplicationException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -29,6 +32,8 @@ class APIHelpersUnitTest {
 	@Mock(answer = Answers.RETURNS_DEEP_STUBS)
 	private IGenericClient client;
 
+	private final ExecutorService executor = MoreExecutors.newDirectExecutorService();
+
 	@BeforeEach
 	public void setUp() {
 		openMocks(this);
@@ -55,7 +60,7 @@ class APIHelpersUnitTest {
 		).thenReturn(bundleOperation);
 		when(bundleOperation.execute()).thenReturn(bundle);
 
-		Bundle returnBundle = APIHelpers.bulkResourceClient(Patient.class, client, entryFunction, bundle);
+		Bundle returnBundle = APIHelpers.bulkResourceClient(Patient.class, client, entryFunction, bundle, executor);
 
 		Mockito.verify(entryFunction, times(2)).apply(any());
 		assertEquals(bundle, returnBundle);
@@ -71,9 +76,34 @@ class APIHelpersUnitTest {
 		when(entryFunction.apply(any())).thenReturn(Optional.of(new WebApplicationException("failed validation")));
 
 		WebApplicationException exception = assertThrows(WebApplicationException.class, () -> {
-			APIHelpers.bulkResourceClient(Patient.class, client, entryFunction, bundle);
+			APIHelpers.bulkResourceClient(Patient.class, client, entryFunction, bundle, executor);
 		});
 
 		assertEquals("failed validation", exception.getMessage());
 	}
+
+	@Test
+	void test_bulkResourceClient_collects_all_errors() {
+		Patient invalidPatient = new Patient();
+		invalidPatient.setId(UUID.randomUUID().toString());
+		Patient otherInvalidPatient = new Patient();
+		otherInvalidPatient.setId(UUID.randomUUID().toString());
+		Bundle bundle = BundleFactory.createBundle(
+			invalidPatient,
+			new Patient().setId(UUID.randomUUID().toString()),
+			otherInvalidPatient
+		);
+
+		when(entryFunction.apply(any())).thenReturn(Optional.empty());
+		when(entryFunction.apply(invalidPatient)).thenReturn(Optional.of(new WebApplicationException("missing name", HttpStatus.UNPROCESSABLE_ENTITY_422)));
+		when(entryFunction.apply(otherInvalidPatient)).thenReturn(Optional.of(new WebApplicationException("missing birth date", HttpStatus.UNPROCESSABLE_ENTITY_422)));
+
+		WebApplicationException exception = assertThrows(WebApplicationException.class, () -> {
+			APIHelpers.bulkResourceClient(Patient.class, client, entryFunction, bundle, executor);
+		});
+
+		assertEquals("missing name; missing birth date", exception.getMessage());
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY_422, exception.getResponse().getStatus());
+		Mockito.verify(entryFunction, times(3)).apply(any());
+	}
 }
@@ -6,6 +6,7 @@ import ca.uhn.fhir.rest.gclient.IQuery;
 import ca.uhn.fhir.rest.gclient.IUntypedQuery;
 import gov.cms.dpc.api.APITestHelpers;
 import gov.cms.dpc.api.auth.macaroonauth.MacaroonsAuthenticator;
+import gov.cms.dpc.api.auth.macaroonauth.ResourceOwnershipCache;
 import gov.cms.dpc.api.core.Capabilities;
 import gov.cms.dpc.api.jdbi.TokenDAO;
 import gov.cms.dpc.api.resources.v1.BaseResource;
@@ -92,7 +93,7 @@ class AuthHandlerTest {
         Mockito.when(sessionFactory.fetchTokens(Mockito.any())).thenAnswer(answer -> "46ac7ad6-7487-4dd0-baa0-6e2c8cae76a0");
 
 
-        final DPCAuthFactory factory = new DPCAuthFactory(bakery, new MacaroonsAuthenticator(client), sessionFactory, dpc401handler);
+        final DPCAuthFactory factory = new DPCAuthFactory(bakery, new MacaroonsAuthenticator(client, new ResourceOwnershipCache()), sessionFactory, dpc401handler, new VerifiedTokenCache(mock(AuthNotificationListener.class)));
         final DPCAuthDynamicFeature dynamicFeature = new DPCAuthDynamicFeature(factory);
 
         final FhirContext ctx = FhirContext.forDstu3();
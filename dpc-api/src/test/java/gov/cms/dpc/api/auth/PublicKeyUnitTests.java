@@ -3,6 +3,7 @@ package gov.cms.dpc.api.auth;
 import ca.uhn.fhir.context.FhirContext;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import gov.cms.dpc.api.APITestHelpers;
+import gov.cms.dpc.api.auth.jwt.PublicKeyCache;
 import gov.cms.dpc.api.auth.staticauth.StaticAuthFactory;
 import gov.cms.dpc.api.auth.staticauth.StaticAuthenticator;
 import gov.cms.dpc.api.entities.PublicKeyEntity;
@@ -121,7 +122,7 @@ class PublicKeyUnitTests {
 
     private static ResourceExtension buildResources() {
         final PublicKeyDAO publicKeyDAO = mockKeyDAO();
-        final KeyResource keyResource = new KeyResource(publicKeyDAO);
+        final KeyResource keyResource = new KeyResource(publicKeyDAO, new PublicKeyCache(mock(AuthNotificationListener.class)));
         final DPCAuthDynamicFeature dpcAuthDynamicFeature = new DPCAuthDynamicFeature(new StaticAuthFactory(new StaticAuthenticator()));
         final FhirContext ctx = FhirContext.forDstu3();
 
@@ -0,0 +1,122 @@
+package gov.cms.dpc.api.auth;
+
+import com.github.nitram509.jmacaroons.Macaroon;
+import gov.cms.dpc.api.jdbi.TokenDAO;
+import gov.cms.dpc.macaroons.MacaroonBakery;
+import gov.cms.dpc.macaroons.MacaroonCaveat;
+import gov.cms.dpc.macaroons.MacaroonCondition;
+import gov.cms.dpc.macaroons.store.MemoryRootKeyStore;
+import gov.cms.dpc.macaroons.thirdparty.MemoryThirdPartyKeyStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static gov.cms.dpc.macaroons.caveats.ExpirationCaveatSupplier.EXPIRATION_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class VerifiedTokenCacheUnitTest {
+
+    private final UUID orgID = UUID.randomUUID();
+    private MacaroonBakery bakery;
+    private AuthNotificationListener listener;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setup() {
+        bakery = new MacaroonBakery.MacaroonBakeryBuilder("http://test.local",
+                new MemoryRootKeyStore(new SecureRandom()),
+                new MemoryThirdPartyKeyStore()).build();
+        listener = mock(AuthNotificationListener.class);
+        cache = new VerifiedTokenCache(listener);
+    }
+
+    @Test
+    void testCachesVerifiedToken() {
+        final Macaroon macaroon = buildMacaroon(OffsetDateTime.now(ZoneOffset.UTC).plusYears(1));
+        final String serialized = serialize(macaroon);
+
+        assertTrue(cache.get(serialized).isEmpty(), "Should not have unverified token");
+        cache.put(serialized, List.of(macaroon), orgID);
+
+        final VerifiedTokenCache.VerifiedToken verified = cache.get(serialized).orElseThrow();
+        assertAll(() -> assertEquals(orgID, verified.getOrganizationID(), "Should have organization"),
+                () -> assertEquals(macaroon.identifier, verified.getTokenID(), "Should have token ID"),
+                () -> assertFalse(verified.getExpiresAt().isAfter(OffsetDateTime.now(ZoneOffset.UTC).plus(VerifiedTokenCache.MAX_LIFETIME)), "Should not be cached longer than max lifetime"));
+    }
+
+    @Test
+    void testExpiresWithToken() {
+        final OffsetDateTime expiration = OffsetDateTime.now(ZoneOffset.UTC).plusSeconds(30);
+        final Macaroon macaroon = buildMacaroon(expiration);
+        final String serialized = serialize(macaroon);
+        cache.put(serialized, List.of(macaroon), orgID);
+
+        assertEquals(expiration, cache.get(serialized).orElseThrow().getExpiresAt(), "Should expire with token");
+    }
+
+    @Test
+    void testDoesNotCacheExpiredToken() {
+        final Macaroon macaroon = buildMacaroon(OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+        final String serialized = serialize(macaroon);
+        cache.put(serialized, List.of(macaroon), orgID);
+
+        assertTrue(cache.get(serialized).isEmpty(), "Should not have expired token");
+    }
+
+    @Test
+    void testInvalidateToken() {
+        final Macaroon macaroon = buildMacaroon(OffsetDateTime.now(ZoneOffset.UTC).plusYears(1));
+        final String serialized = serialize(macaroon);
+        final Macaroon other = buildMacaroon(OffsetDateTime.now(ZoneOffset.UTC).plusYears(1));
+        final String otherSerialized = serialize(other);
+        cache.put(serialized, List.of(macaroon), orgID);
+        cache.put(otherSerialized, List.of(other), orgID);
+
+        cache.invalidateToken(macaroon.identifier);
+
+        assertTrue(cache.get(serialized).isEmpty(), "Should not have deleted token");
+        assertTrue(cache.get(otherSerialized).isPresent(), "Should still have other token");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInvalidatedByNotification() {
+        final ArgumentCaptor<Consumer<String>> callback = ArgumentCaptor.forClass(Consumer.class);
+        verify(listener).listen(eq(TokenDAO.TOKEN_DELETED_CHANNEL), callback.capture());
+
+        final Macaroon macaroon = buildMacaroon(OffsetDateTime.now(ZoneOffset.UTC).plusYears(1));
+        final String serialized = serialize(macaroon);
+        final Macaroon other = buildMacaroon(OffsetDateTime.now(ZoneOffset.UTC).plusYears(1));
+        final String otherSerialized = serialize(other);
+        cache.put(serialized, List.of(macaroon), orgID);
+        cache.put(otherSerialized, List.of(other), orgID);
+
+        callback.getValue().accept(macaroon.identifier);
+        assertTrue(cache.get(serialized).isEmpty(), "Should not have token deleted on another node");
+        assertTrue(cache.get(otherSerialized).isPresent(), "Should still have other token");
+
+        callback.getValue().accept(null);
+        assertTrue(cache.get(otherSerialized).isEmpty(), "Should clear tokens after reconnect");
+    }
+
+    private Macaroon buildMacaroon(OffsetDateTime expiration) {
+        return bakery.createMacaroon(List.of(
+                new MacaroonCaveat(new MacaroonCondition(MacaroonHelpers.ORGANIZATION_CAVEAT_KEY, MacaroonCondition.Operator.EQ, orgID.toString())),
+                new MacaroonCaveat(new MacaroonCondition(EXPIRATION_KEY, MacaroonCondition.Operator.EQ, expiration.toString()))));
+    }
+
+    private String serialize(Macaroon macaroon) {
+        return new String(bakery.serializeMacaroon(macaroon, true), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package gov.cms.dpc.api.auth.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketedBloomFilterUnitTest {
+
+    @Test
+    void testRetainedForTTL() {
+        final TestClock clock = new TestClock();
+        final BucketedBloomFilter filter = new BucketedBloomFilter(clock, Duration.ofMinutes(5), 1000, 0.001);
+
+        filter.put("first");
+        assertTrue(filter.mightContain("first"), "Should contain added value");
+        assertFalse(filter.mightContain("second"), "Should not contain other value");
+
+        clock.advance(Duration.ofMinutes(5));
+        filter.put("second");
+        assertAll(() -> assertTrue(filter.mightContain("first"), "Should retain value for TTL"),
+                () -> assertTrue(filter.mightContain("second"), "Should contain value from newer bucket"));
+
+        clock.advance(Duration.ofMinutes(2));
+        assertAll(() -> assertFalse(filter.mightContain("first"), "Should not contain expired value"),
+                () -> assertTrue(filter.mightContain("second"), "Should retain newer value"));
+    }
+
+    @Test
+    void testExpire() {
+        final TestClock clock = new TestClock();
+        final BucketedBloomFilter filter = new BucketedBloomFilter(clock, Duration.ofMinutes(5), 1000, 0.001);
+
+        filter.put("first");
+        clock.advance(Duration.ofMinutes(1));
+        filter.put("second");
+        assertEquals(0, filter.expire(), "Should not expire live buckets");
+
+        clock.advance(Duration.ofMinutes(6));
+        assertEquals(1, filter.expire(), "Should expire oldest bucket");
+        assertTrue(filter.mightContain("second"), "Should retain newer value");
+    }
+
+    /**
+     * {@link Clock} which only moves when the test tells it to
+     */
+    static class TestClock extends Clock {
+
+        private Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
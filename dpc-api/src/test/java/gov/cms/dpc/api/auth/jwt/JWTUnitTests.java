@@ -4,11 +4,14 @@ import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import com.github.nitram509.jmacaroons.MacaroonVersion;
 import gov.cms.dpc.api.APITestHelpers;
+import gov.cms.dpc.api.auth.AuthNotificationListener;
 import gov.cms.dpc.api.auth.DPCAuthDynamicFeature;
 import gov.cms.dpc.api.auth.DPCAuthFactory;
 import gov.cms.dpc.api.auth.DPCUnauthorizedHandler;
 import gov.cms.dpc.api.auth.MacaroonHelpers;
+import gov.cms.dpc.api.auth.VerifiedTokenCache;
 import gov.cms.dpc.api.auth.macaroonauth.MacaroonsAuthenticator;
+import gov.cms.dpc.api.auth.macaroonauth.ResourceOwnershipCache;
 import gov.cms.dpc.api.entities.PublicKeyEntity;
 import gov.cms.dpc.api.jdbi.PublicKeyDAO;
 import gov.cms.dpc.api.jdbi.TokenDAO;
@@ -759,18 +762,19 @@ class JWTUnitTests {
         final DPCUnauthorizedHandler dpc401handler = mock(DPCUnauthorizedHandler.class);
         Mockito.when(tokenDAO.fetchTokens(Mockito.any())).thenAnswer(answer -> "46ac7ad6-7487-4dd0-baa0-6e2c8cae76a0");
 
-        final JwtKeyResolver resolver = spy(new JwtKeyResolver(publicKeyDAO));
+        final JwtKeyResolver resolver = spy(new JwtKeyResolver(publicKeyDAO, new PublicKeyCache(mock(AuthNotificationListener.class)), new ClientTokenCache()));
         final CaffeineJTICache jtiCache = new CaffeineJTICache();
+        final VerifiedTokenCache tokenCache = new VerifiedTokenCache(mock(AuthNotificationListener.class));
 
         UUID organizationID = UUID.randomUUID();
         doReturn(organizationID).when(resolver).getOrganizationID(Mockito.anyString());
 
         final TokenPolicy tokenPolicy = new TokenPolicy();
 
-        final DPCAuthFactory factory = new DPCAuthFactory(bakery, new MacaroonsAuthenticator(client), tokenDAO, dpc401handler);
+        final DPCAuthFactory factory = new DPCAuthFactory(bakery, new MacaroonsAuthenticator(client, new ResourceOwnershipCache()), tokenDAO, dpc401handler, tokenCache);
         final DPCAuthDynamicFeature dynamicFeature = new DPCAuthDynamicFeature(factory);
 
-        final TokenResource tokenResource = new TokenResource(tokenDAO, bakery, tokenPolicy, resolver, jtiCache, "localhost:3002/v1");
+        final TokenResource tokenResource = new TokenResource(tokenDAO, bakery, tokenPolicy, resolver, jtiCache, tokenCache, new ClientTokenCache(), "localhost:3002/v1");
         final FhirContext ctx = FhirContext.forDstu3();
 
         return APITestHelpers.buildResourceExtension(ctx, List.of(tokenResource), List.of(dynamicFeature), false);
@@ -3,6 +3,7 @@ package gov.cms.dpc.api.auth.jwt;
 import com.github.nitram509.jmacaroons.Macaroon;
 import com.github.nitram509.jmacaroons.MacaroonVersion;
 import com.github.nitram509.jmacaroons.MacaroonsBuilder;
+import gov.cms.dpc.api.auth.AuthNotificationListener;
 import gov.cms.dpc.api.entities.PublicKeyEntity;
 import gov.cms.dpc.api.jdbi.PublicKeyDAO;
 import gov.cms.dpc.testing.APIAuthHelpers;
@@ -74,7 +75,7 @@ class JwtKeyResolverTests {
         Mockito.when(dao.fetchPublicKey(organization1, eccKeyID)).thenReturn(Optional.of(goodECCEntity));
         Mockito.when(dao.fetchPublicKey(organization1, notRealKeyID)).thenReturn(Optional.empty());
         Mockito.when(dao.fetchPublicKey(eq(organization2), Mockito.any())).thenReturn(Optional.empty());
-        resolver = new JwtKeyResolver(dao);
+        resolver = new JwtKeyResolver(dao, new PublicKeyCache(mock(AuthNotificationListener.class)), new ClientTokenCache());
     }
 
     @Test
@@ -0,0 +1,101 @@
+package gov.cms.dpc.api.auth.jwt;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import gov.cms.dpc.api.entities.TokenEntity;
+import gov.cms.dpc.testing.AbstractDAOTest;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The used_jtis table has no entity, so it's created by hand rather than by hibernate
+class PostgresJTICacheTest extends AbstractDAOTest<TokenEntity> {
+
+    private BucketedBloomFilterUnitTest.TestClock clock;
+    private MetricRegistry registry;
+    private PostgresJTICache cache;
+
+    @BeforeEach
+    void setup() {
+        clock = new BucketedBloomFilterUnitTest.TestClock();
+        registry = new MetricRegistry();
+        execute("CREATE TABLE IF NOT EXISTS used_jtis (jti VARCHAR PRIMARY KEY, expires_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        cache = new PostgresJTICache(db.getSessionFactory(), registry, clock);
+    }
+
+    @Test
+    void testReplayIsRejected() {
+        final String jti = UUID.randomUUID().toString();
+        assertTrue(cache.isJTIOk(jti, true), "Should accept new JTI");
+        assertFalse(cache.isJTIOk(jti, true), "Should reject replayed JTI");
+        assertFalse(cache.isJTIOk(jti, false), "Should not validate replayed JTI");
+        assertEquals(2, meter("replays").getCount(), "Should count replays");
+    }
+
+    @Test
+    void testReplayIsRejectedAcrossNodes() {
+        final PostgresJTICache otherNode = new PostgresJTICache(db.getSessionFactory(), new MetricRegistry(), clock);
+        final String jti = UUID.randomUUID().toString();
+
+        assertTrue(otherNode.isJTIOk(jti, true), "Should accept new JTI");
+        assertFalse(cache.isJTIOk(jti, true), "Should reject JTI used on another node");
+    }
+
+    @Test
+    void testValidationDoesNotPersist() {
+        final String jti = UUID.randomUUID().toString();
+        assertTrue(cache.isJTIOk(jti, false), "Should validate new JTI");
+        assertTrue(cache.isJTIOk(jti, true), "Should still accept JTI");
+    }
+
+    @Test
+    void testValidationIsLocalOnceFilterIsComplete() {
+        clock.advance(PostgresJTICache.TTL.plus(Duration.ofSeconds(1)));
+        final long lookups = meter("databaseLookups").getCount();
+
+        assertTrue(cache.isJTIOk(UUID.randomUUID().toString(), false), "Should validate new JTI");
+        assertAll(() -> assertEquals(1, meter("localHits").getCount(), "Should answer from filter"),
+                () -> assertEquals(lookups, meter("databaseLookups").getCount(), "Should not query database"));
+    }
+
+    @Test
+    void testOversizedJTIIsRejected() {
+        final String jti = "a".repeat(PostgresJTICache.MAX_JTI_LENGTH + 1);
+        final long lookups = meter("databaseLookups").getCount();
+
+        assertFalse(cache.isJTIOk(jti, true), "Should reject oversized JTI");
+        assertFalse(cache.isJTIOk(jti, false), "Should not validate oversized JTI");
+        assertEquals(lookups, meter("databaseLookups").getCount(), "Should not query database");
+    }
+
+    @Test
+    void testExpiredJTIIsEvicted() {
+        final String jti = UUID.randomUUID().toString();
+        assertTrue(cache.isJTIOk(jti, true), "Should accept new JTI");
+        execute("UPDATE used_jtis SET expires_at = now() - INTERVAL '1 minute'");
+
+        cache.expireEntries();
+        assertEquals(1, meter("evictions").getCount(), "Should evict expired JTI");
+
+        clock.advance(PostgresJTICache.TTL.plus(Duration.ofMinutes(1)));
+        cache.expireEntries();
+        assertTrue(cache.isJTIOk(jti, true), "Should accept expired JTI");
+    }
+
+    private void execute(String sql) {
+        try (final Session session = db.getSessionFactory().openSession()) {
+            session.beginTransaction();
+            session.createNativeQuery(sql).executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    private Meter meter(String name) {
+        return registry.meter(MetricRegistry.name(PostgresJTICache.class, name));
+    }
+}
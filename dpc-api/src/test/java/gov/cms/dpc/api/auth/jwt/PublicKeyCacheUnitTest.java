@@ -0,0 +1,69 @@
+package gov.cms.dpc.api.auth.jwt;
+
+import gov.cms.dpc.api.auth.AuthNotificationListener;
+import gov.cms.dpc.testing.APIAuthHelpers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PublicKeyCacheUnitTest {
+
+    private final UUID orgID = UUID.randomUUID();
+    private final UUID keyID = UUID.randomUUID();
+
+    private PublicKeyCache cache;
+    private PublicKey publicKey;
+    private AtomicInteger lookups;
+
+    @BeforeEach
+    void setup() throws NoSuchAlgorithmException {
+        cache = new PublicKeyCache(mock(AuthNotificationListener.class));
+        publicKey = APIAuthHelpers.generateKeyPair().getPublic();
+        lookups = new AtomicInteger();
+    }
+
+    @Test
+    void testKeyIsCached() {
+        assertEquals(Optional.of(publicKey), cache.get(orgID, keyID, lookup(Optional.of(publicKey))));
+        assertEquals(Optional.of(publicKey), cache.get(orgID, keyID, lookup(Optional.of(publicKey))));
+        assertEquals(1, lookups.get(), "Should only lookup key once");
+    }
+
+    @Test
+    void testMissingKeyIsNotCached() {
+        assertTrue(cache.get(orgID, keyID, lookup(Optional.empty())).isEmpty(), "Should not have key");
+        assertEquals(Optional.of(publicKey), cache.get(orgID, keyID, lookup(Optional.of(publicKey))), "Should find newly added key");
+        assertEquals(2, lookups.get(), "Should lookup key again");
+    }
+
+    @Test
+    void testKeyIsScopedToOrganization() {
+        cache.get(orgID, keyID, lookup(Optional.of(publicKey)));
+        assertTrue(cache.get(UUID.randomUUID(), keyID, lookup(Optional.empty())).isEmpty(), "Should not return another organization's key");
+    }
+
+    @Test
+    void testInvalidate() {
+        cache.get(orgID, keyID, lookup(Optional.of(publicKey)));
+        cache.invalidate(keyID);
+
+        assertTrue(cache.get(orgID, keyID, lookup(Optional.empty())).isEmpty(), "Should not have deleted key");
+        assertEquals(2, lookups.get(), "Should lookup invalidated key");
+    }
+
+    private Supplier<Optional<PublicKey>> lookup(Optional<PublicKey> result) {
+        return () -> {
+            lookups.incrementAndGet();
+            return result;
+        };
+    }
+}
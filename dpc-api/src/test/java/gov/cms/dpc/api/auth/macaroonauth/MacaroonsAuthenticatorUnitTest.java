@@ -1,15 +1,17 @@
 package gov.cms.dpc.api.auth.macaroonauth;
 
 import ca.uhn.fhir.rest.client.api.IGenericClient;
-import ca.uhn.fhir.rest.gclient.IQuery;
+import ca.uhn.fhir.rest.client.api.IHttpRequest;
+import ca.uhn.fhir.rest.gclient.IOperationUntypedWithInputAndPartialOutput;
 import gov.cms.dpc.api.auth.DPCAuthCredentials;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
 import gov.cms.dpc.api.auth.annotations.PathAuthorizer;
-import gov.cms.dpc.fhir.DPCIdentifierSystem;
+import gov.cms.dpc.common.Constants;
 import gov.cms.dpc.fhir.DPCResourceType;
-import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.IdType;
 import org.hl7.fhir.dstu3.model.Organization;
-import org.hl7.fhir.instance.model.api.IBaseBundle;
+import org.hl7.fhir.dstu3.model.Parameters;
+import org.hl7.fhir.dstu3.model.Reference;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
@@ -22,7 +24,8 @@ class MacaroonsAuthenticatorUnitTest {
 	private IGenericClient client = mock(IGenericClient.class, RETURNS_DEEP_STUBS);
 	private PathAuthorizer pa = mock(PathAuthorizer.class);
 	private Organization org = new Organization();
-	private MacaroonsAuthenticator macaroonsAuthenticator = new MacaroonsAuthenticator(client);
+	private ResourceOwnershipCache ownershipCache = new ResourceOwnershipCache();
+	private MacaroonsAuthenticator macaroonsAuthenticator = new MacaroonsAuthenticator(client, ownershipCache);
 
 	@Test
 	void test_authenticate_no_path_authorizer() {
@@ -57,26 +60,22 @@ class MacaroonsAuthenticatorUnitTest {
 		when(pa.type()).thenReturn(DPCResourceType.Patient);
 		String orgIdBase = UUID.randomUUID().toString();
 		org.setId("Organization/" + orgIdBase);
+		String patientId = UUID.randomUUID().toString();
 
-		DPCAuthCredentials dpcAuthCredentials = new DPCAuthCredentials("macaroon", org, pa, "fakeId");
-		Map<String, List<String>> searchParams = new HashMap<>();
-		searchParams.put("_id", Collections.singletonList(dpcAuthCredentials.getPathValue()));
-		searchParams.put("organization", Collections.singletonList(dpcAuthCredentials.getOrganization().getId()));
+		DPCAuthCredentials dpcAuthCredentials = new DPCAuthCredentials("macaroon", org, pa, patientId);
+		mockOwnership(new IdType("Patient", patientId));
 
-		IQuery<IBaseBundle> searchQuery = mock(IQuery.class);
-		when(client
-			.search()
-			.forResource(DPCResourceType.Patient.name())
-		).thenReturn(searchQuery);
+		assertSame(org, macaroonsAuthenticator.authenticate(dpcAuthCredentials).get().getOrganization());
+	}
 
-		IQuery<IBaseBundle> whereMapQuery = mock(IQuery.class, RETURNS_DEEP_STUBS);
-		when(searchQuery.whereMap(searchParams)).thenReturn(whereMapQuery);
+	@Test
+	void test_authenticate_resource_authorized_ignores_case() {
+		when(pa.type()).thenReturn(DPCResourceType.Patient);
+		org.setId("Organization/" + UUID.randomUUID());
+		String patientId = UUID.randomUUID().toString();
 
-		IQuery<Bundle> bundleQuery = mock(IQuery.class);
-		Bundle bundle = mock(Bundle.class, RETURNS_DEEP_STUBS);
-		when(bundle.getEntry().size()).thenReturn(1);
-		when(whereMapQuery.returnBundle(Bundle.class).encodedJson()).thenReturn(bundleQuery);
-		when(bundleQuery.execute()).thenReturn(bundle);
+		DPCAuthCredentials dpcAuthCredentials = new DPCAuthCredentials("macaroon", org, pa, patientId.toUpperCase(Locale.ROOT));
+		mockOwnership(new IdType("Patient", patientId));
 
 		assertSame(org, macaroonsAuthenticator.authenticate(dpcAuthCredentials).get().getOrganization());
 	}
@@ -87,25 +86,8 @@ class MacaroonsAuthenticatorUnitTest {
 		String orgIdBase = UUID.randomUUID().toString();
 		org.setId("Organization/" + orgIdBase);
 
-		DPCAuthCredentials dpcAuthCredentials = new DPCAuthCredentials("macaroon", org, pa, "fakeId");
-		Map<String, List<String>> searchParams = new HashMap<>();
-		searchParams.put("_id", Collections.singletonList(dpcAuthCredentials.getPathValue()));
-		searchParams.put("organization", Collections.singletonList(dpcAuthCredentials.getOrganization().getId()));
-
-		IQuery<IBaseBundle> searchQuery = mock(IQuery.class);
-		when(client
-			.search()
-			.forResource(DPCResourceType.Patient.name())
-		).thenReturn(searchQuery);
-
-		IQuery<IBaseBundle> whereMapQuery = mock(IQuery.class, RETURNS_DEEP_STUBS);
-		when(searchQuery.whereMap(searchParams)).thenReturn(whereMapQuery);
-
-		IQuery<Bundle> bundleQuery = mock(IQuery.class);
-		Bundle bundle = mock(Bundle.class);
-		when(bundle.getTotal()).thenReturn(0);
-		when(whereMapQuery.returnBundle(Bundle.class).encodedJson()).thenReturn(bundleQuery);
-		when(bundleQuery.execute()).thenReturn(bundle);
+		DPCAuthCredentials dpcAuthCredentials = new DPCAuthCredentials("macaroon", org, pa, UUID.randomUUID().toString());
+		mockOwnership();
 
 		assertTrue(macaroonsAuthenticator.authenticate(dpcAuthCredentials).isEmpty());
 	}
@@ -115,28 +97,64 @@ class MacaroonsAuthenticatorUnitTest {
 		when(pa.type()).thenReturn(DPCResourceType.Group);
 		String orgIdBase = UUID.randomUUID().toString();
 		org.setId("Organization/" + orgIdBase);
+		String groupId = UUID.randomUUID().toString();
+
+		DPCAuthCredentials dpcAuthCredentials = new DPCAuthCredentials("macaroon", org, pa, groupId);
+		mockOwnership(new IdType("Group", groupId));
+
+		assertSame(org, macaroonsAuthenticator.authenticate(dpcAuthCredentials).get().getOrganization());
+	}
+
+	@Test
+	void test_authenticate_resource_invalid_id() {
+		when(pa.type()).thenReturn(DPCResourceType.Patient);
+		org.setId("Organization/" + UUID.randomUUID());
 
 		DPCAuthCredentials dpcAuthCredentials = new DPCAuthCredentials("macaroon", org, pa, "fakeId");
-		Map<String, List<String>> searchParams = new HashMap<>();
-		searchParams.put("_id", Collections.singletonList(dpcAuthCredentials.getPathValue()));
-		searchParams.put("organization", Collections.singletonList(dpcAuthCredentials.getOrganization().getId()));
-		searchParams.put("_tag", Collections.singletonList(String.format("%s|%s", DPCIdentifierSystem.DPC.getSystem(), dpcAuthCredentials.getOrganization().getId())));
 
-		IQuery<IBaseBundle> searchQuery = mock(IQuery.class);
-		when(client
-			.search()
-			.forResource(DPCResourceType.Group.name())
-		).thenReturn(searchQuery);
+		assertTrue(macaroonsAuthenticator.authenticate(dpcAuthCredentials).isEmpty());
+		verify(client, never()).operation();
+	}
 
-		IQuery<IBaseBundle> whereMapQuery = mock(IQuery.class, RETURNS_DEEP_STUBS);
-		when(searchQuery.whereMap(searchParams)).thenReturn(whereMapQuery);
+	@Test
+	void test_authenticate_resource_cached() {
+		when(pa.type()).thenReturn(DPCResourceType.Patient);
+		org.setId("Organization/" + UUID.randomUUID());
+		String patientId = UUID.randomUUID().toString();
 
-		IQuery<Bundle> bundleQuery = mock(IQuery.class);
-		Bundle bundle = mock(Bundle.class, RETURNS_DEEP_STUBS);
-		when(bundle.getEntry().size()).thenReturn(1);
-		when(whereMapQuery.returnBundle(Bundle.class).encodedJson()).thenReturn(bundleQuery);
-		when(bundleQuery.execute()).thenReturn(bundle);
+		DPCAuthCredentials dpcAuthCredentials = new DPCAuthCredentials("macaroon", org, pa, patientId);
+		IOperationUntypedWithInputAndPartialOutput<Parameters> operation = mockOwnership(new IdType("Patient", patientId));
 
-		assertSame(org, macaroonsAuthenticator.authenticate(dpcAuthCredentials).get().getOrganization());
+		assertTrue(macaroonsAuthenticator.authenticate(dpcAuthCredentials).isPresent());
+		assertTrue(macaroonsAuthenticator.authenticate(dpcAuthCredentials).isPresent());
+		verify(operation, times(1)).execute();
+
+		// Deleting the patient through the attribution client should force us to check again
+		IHttpRequest request = mock(IHttpRequest.class);
+		when(request.getHttpVerbName()).thenReturn("DELETE");
+		when(request.getUri()).thenReturn("http://localhost:3500/v1/Patient/" + patientId);
+		ownershipCache.interceptRequest(request);
+
+		assertTrue(macaroonsAuthenticator.authenticate(dpcAuthCredentials).isPresent());
+		verify(operation, times(2)).execute();
+	}
+
+	@SuppressWarnings("unchecked")
+	private IOperationUntypedWithInputAndPartialOutput<Parameters> mockOwnership(IdType... owned) {
+		Parameters response = new Parameters();
+		for (IdType id : owned) {
+			response.addParameter().setName(Constants.Ownership.OWNED_PARAM).setValue(new Reference(id));
+		}
+
+		IOperationUntypedWithInputAndPartialOutput<Parameters> operation = mock(IOperationUntypedWithInputAndPartialOutput.class);
+		when(operation.encodedJson()).thenReturn(operation);
+		when(operation.execute()).thenReturn(response);
+		when(client
+			.operation()
+			.onServer()
+			.named(Constants.Ownership.OPERATION)
+			.withParameters(any(Parameters.class))
+		).thenReturn(operation);
+		return operation;
 	}
 }
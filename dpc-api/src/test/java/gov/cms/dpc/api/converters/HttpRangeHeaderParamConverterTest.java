@@ -35,6 +35,22 @@ class HttpRangeHeaderParamConverterTest {
         assertEquals(rangeValue, converter.toString(header), "Should convert back to string");
     }
 
+    @Test
+    void testMultipleRanges() {
+        final String rangeValue = "bytes=0-10,20-30,40-";
+        final RangeHeader header = converter.fromString(rangeValue);
+
+        assertAll(() -> assertNotNull(header, "Should have header response"),
+                () -> assertEquals(3, header.getRanges().size(), "Should have all the ranges"),
+                () -> assertEquals(0, header.getStart(), "Should have start of first range"),
+                () -> assertEquals(10, header.getEnd().get(), "Should have end of first range"),
+                () -> assertEquals(20, header.getRanges().get(1).getStart(), "Should have correct start"),
+                () -> assertEquals(30, header.getRanges().get(1).getEnd().get(), "Should have correct end"),
+                () -> assertFalse(header.getRanges().get(2).getEnd().isPresent(), "Should not have end range"));
+
+        assertEquals(rangeValue, converter.toString(header), "Should convert back to string");
+    }
+
     @Test
     void testEmptyRequest() {
         assertNull(converter.fromString(""), "Should not have range request");
@@ -0,0 +1,73 @@
+package gov.cms.dpc.api.core;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.validation.FhirValidator;
+import ca.uhn.fhir.validation.ValidationOptions;
+import ca.uhn.fhir.validation.ValidationResult;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.MoreExecutors;
+import gov.cms.dpc.testing.BufferedLoggerHandler;
+import org.hl7.fhir.dstu3.model.HumanName;
+import org.hl7.fhir.dstu3.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(BufferedLoggerHandler.class)
+class BulkValidatorUnitTest {
+
+    private static final String PROFILE = "https://dpc.cms.gov/api/v1/StructureDefinition/dpc-profile-patient";
+    private static final String OTHER_PROFILE = "https://dpc.cms.gov/api/v1/StructureDefinition/dpc-profile-practitioner";
+
+    private FhirValidator fhirValidator;
+    private MetricRegistry metricRegistry;
+    private BulkValidator validator;
+
+    @BeforeEach
+    void setup() {
+        fhirValidator = Mockito.mock(FhirValidator.class);
+        Mockito.when(fhirValidator.validateWithResult(Mockito.any(Patient.class), any(ValidationOptions.class)))
+                .thenAnswer(answer -> Mockito.mock(ValidationResult.class));
+        metricRegistry = new MetricRegistry();
+        validator = new BulkValidator(fhirValidator, FhirContext.forDstu3(), metricRegistry, MoreExecutors.newDirectExecutorService());
+    }
+
+    @Test
+    void testIdenticalResourceIsCached() {
+        final ValidationResult first = validator.validateWithResult(patient("Doe"), PROFILE);
+        final ValidationResult second = validator.validateWithResult(patient("Doe"), PROFILE);
+
+        assertSame(first, second, "Should return the cached result");
+        Mockito.verify(fhirValidator, Mockito.times(1)).validateWithResult(Mockito.any(Patient.class), any(ValidationOptions.class));
+        assertEquals(1, metricRegistry.meter(MetricRegistry.name(BulkValidator.class, "cacheHits")).getCount());
+        assertEquals(1, metricRegistry.meter(MetricRegistry.name(BulkValidator.class, "cacheMisses")).getCount());
+    }
+
+    @Test
+    void testDifferentResourceIsValidated() {
+        final ValidationResult first = validator.validateWithResult(patient("Doe"), PROFILE);
+        final ValidationResult second = validator.validateWithResult(patient("Smith"), PROFILE);
+
+        assertNotSame(first, second, "Should validate a different resource");
+        Mockito.verify(fhirValidator, Mockito.times(2)).validateWithResult(Mockito.any(Patient.class), any(ValidationOptions.class));
+    }
+
+    @Test
+    void testDifferentProfileIsValidated() {
+        final ValidationResult first = validator.validateWithResult(patient("Doe"), PROFILE);
+        final ValidationResult second = validator.validateWithResult(patient("Doe"), OTHER_PROFILE);
+
+        assertNotSame(first, second, "Should validate against a different profile");
+        Mockito.verify(fhirValidator, Mockito.times(2)).validateWithResult(Mockito.any(Patient.class), any(ValidationOptions.class));
+    }
+
+    private static Patient patient(String family) {
+        final Patient patient = new Patient();
+        patient.addName(new HumanName().setFamily(family));
+        return patient;
+    }
+}
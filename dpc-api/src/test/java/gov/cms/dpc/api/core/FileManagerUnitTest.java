@@ -0,0 +1,77 @@
+package gov.cms.dpc.api.core;
+
+import gov.cms.dpc.fhir.DPCResourceType;
+import gov.cms.dpc.queue.IJobQueue;
+import gov.cms.dpc.queue.models.JobQueueBatch;
+import gov.cms.dpc.queue.models.JobQueueBatchFile;
+import gov.cms.dpc.testing.BufferedLoggerHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+
+import javax.ws.rs.WebApplicationException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(BufferedLoggerHandler.class)
+class FileManagerUnitTest {
+
+    private final UUID orgID = UUID.randomUUID();
+    private final UUID aggregatorID = UUID.randomUUID();
+    private IJobQueue queue;
+    private FileManager manager;
+    private JobQueueBatch batch;
+    private JobQueueBatchFile batchFile;
+
+    @BeforeEach
+    void setup() {
+        queue = Mockito.mock(IJobQueue.class);
+        manager = new FileManager("/tmp", queue);
+
+        batch = new JobQueueBatch(UUID.randomUUID(), orgID, null, null, Collections.emptyList(), null, null, null, null, null, true);
+        batch.setRunningStatus(aggregatorID);
+        batchFile = batch.addJobQueueFile(DPCResourceType.Patient, 0, 1);
+        batchFile.setChecksum(new byte[]{1, 2, 3});
+
+        Mockito.when(queue.getJobBatchFile(orgID, batchFile.getFileName())).thenReturn(Optional.of(batchFile));
+        Mockito.when(queue.getJobBatches(batch.getJobID())).thenReturn(List.of(batch));
+    }
+
+    @Test
+    void testCompletedFileIsCached() {
+        batch.setCompletedStatus(aggregatorID);
+
+        final FileManager.FilePointer first = manager.getFile(orgID, batchFile.getFileName());
+        final FileManager.FilePointer second = manager.getFile(orgID, batchFile.getFileName());
+
+        assertAll(() -> assertSame(first, second, "Should return the cached file"),
+                () -> assertEquals(batch.getCompleteTime(), first.getJobCompleteTime(), "Should have job complete time"),
+                () -> assertEquals("010203", first.getChecksum(), "Should have checksum"));
+        Mockito.verify(queue, Mockito.times(1)).getJobBatchFile(orgID, batchFile.getFileName());
+        Mockito.verify(queue, Mockito.times(1)).getJobBatches(batch.getJobID());
+    }
+
+    @Test
+    void testRunningFileIsNotCached() {
+        final FileManager.FilePointer first = manager.getFile(orgID, batchFile.getFileName());
+        manager.getFile(orgID, batchFile.getFileName());
+
+        assertTrue(first.getJobCompleteTime().isEmpty(), "Job should not be complete");
+        Mockito.verify(queue, Mockito.times(2)).getJobBatches(batch.getJobID());
+    }
+
+    @Test
+    void testCacheIsPerOrganization() {
+        batch.setCompletedStatus(aggregatorID);
+        manager.getFile(orgID, batchFile.getFileName());
+
+        final UUID otherOrgID = UUID.randomUUID();
+        Mockito.when(queue.getJobBatchFile(otherOrgID, batchFile.getFileName())).thenReturn(Optional.empty());
+        assertThrows(WebApplicationException.class, () -> manager.getFile(otherOrgID, batchFile.getFileName()), "Should not find another organization's file");
+    }
+}
@@ -10,8 +10,6 @@ import gov.cms.dpc.api.converters.ChecksumConverterProvider;
 import gov.cms.dpc.api.converters.HttpRangeHeaderParamConverterProvider;
 import gov.cms.dpc.api.core.FileManager;
 import gov.cms.dpc.fhir.dropwizard.filters.StreamingContentSizeFilter;
-import gov.cms.dpc.queue.IJobQueue;
-import gov.cms.dpc.queue.models.JobQueueBatch;
 import gov.cms.dpc.testing.BufferedLoggerHandler;
 import io.dropwizard.auth.AuthFilter;
 import io.dropwizard.auth.AuthValueFactoryProvider;
@@ -52,7 +50,6 @@ import static org.junit.jupiter.api.Assertions.*;
 class DataResourceTest {
 
     private static final FileManager manager = Mockito.mock(FileManager.class);
-    private static final IJobQueue queue = Mockito.mock(IJobQueue.class);
     private static final ResourceExtension RESOURCE = buildDataResource();
 
     private DataResourceTest() {
@@ -95,16 +92,9 @@ class DataResourceTest {
             final File tempPath = FileUtils.getTempDirectory();
             final File file = File.createTempFile("test", ".ndjson", tempPath);
             FileUtils.write(file, "This is a test", StandardCharsets.UTF_8);
-            return new FileManager.FilePointer("", file.length(), jobId, OffsetDateTime.now(ZoneOffset.UTC), file);
+            return new FileManager.FilePointer("", file.length(), jobId, OffsetDateTime.now(ZoneOffset.UTC), OffsetDateTime.now().minusHours(25), file);
         });
 
-        UUID aggregatorId = UUID.randomUUID();
-        JobQueueBatch jobQueueBatch = new JobQueueBatch(jobId, null, null, null, Collections.emptyList(), null, null, null, null, null, true);
-        jobQueueBatch.setRunningStatus(aggregatorId);
-        jobQueueBatch.setCompletedStatus(aggregatorId);
-        jobQueueBatch.setCompleteTime(OffsetDateTime.now().minusHours(25));
-        Mockito.when(queue.getJobBatches(jobId)).thenReturn(List.of(jobQueueBatch));
-
         final Response response = RESOURCE.target("/v1/Data/test.ndjson")
                 .request()
                 .get();
@@ -203,6 +193,51 @@ class DataResourceTest {
         assertEquals("{\"code\":416,\"message\":\"Range end cannot be before begin\"}", response.readEntity(String.class), "Should have correct status code");
     }
 
+    @Test
+    void testMultipleRangeRequest() throws IOException {
+        final File tempPath = FileUtils.getTempDirectory();
+        final File file = File.createTempFile("test", ".ndjson", tempPath);
+        FileUtils.write(file, "This is a test", StandardCharsets.UTF_8);
+
+        Mockito.when(manager.getFile(Mockito.any(), Mockito.anyString())).thenReturn(new FileManager.FilePointer("", file.length(), UUID.randomUUID(), OffsetDateTime.now(ZoneOffset.UTC), file));
+
+        final Response response = RESOURCE.target("/v1/Data/test.ndjson")
+                .request()
+                .header(org.apache.http.HttpHeaders.RANGE, "bytes=0-4,10-14")
+                .get();
+
+        final String contentType = response.getHeaderString(HttpHeaders.CONTENT_TYPE);
+        final String body = response.readEntity(String.class);
+        assertAll(() -> assertEquals(HttpStatus.PARTIAL_CONTENT_206, response.getStatus(), "Should have partial content status"),
+                () -> assertTrue(contentType.startsWith("multipart/byteranges; boundary="), "Should be a multipart response"),
+                () -> assertEquals(body.length(), Integer.parseInt(response.getHeaderString(HttpHeaders.CONTENT_LENGTH)), "Should have correct content length"),
+                () -> assertTrue(body.contains("Content-Range: bytes 0-4/14\r\n\r\nThis\r\n"), "Should have first range"),
+                () -> assertTrue(body.contains("Content-Range: bytes 10-14/14\r\n\r\ntest\r\n"), "Should have second range"),
+                () -> assertTrue(body.endsWith(String.format("--%s--\r\n", contentType.substring(contentType.indexOf('=') + 1))), "Should close the multipart body"));
+    }
+
+    @Test
+    void testRangeAfterEndOfFile() throws IOException {
+        final File tempPath = FileUtils.getTempDirectory();
+        final File file = File.createTempFile("test", ".ndjson", tempPath);
+        FileUtils.write(file, "This is a test", StandardCharsets.UTF_8);
+
+        Mockito.when(manager.getFile(Mockito.any(), Mockito.anyString())).thenReturn(new FileManager.FilePointer("", file.length(), UUID.randomUUID(), OffsetDateTime.now(ZoneOffset.UTC), file));
+
+        // Open ended ranges are clamped to the end of the file
+        Response response = RESOURCE.target("/v1/Data/test.ndjson")
+                .request()
+                .header(org.apache.http.HttpHeaders.RANGE, "bytes=5-")
+                .get();
+        assertEquals("is a test", response.readEntity(String.class), "Should return the rest of the file");
+
+        response = RESOURCE.target("/v1/Data/test.ndjson")
+                .request()
+                .header(org.apache.http.HttpHeaders.RANGE, "bytes=50-60")
+                .get();
+        assertEquals(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), response.getStatus());
+    }
+
     @Test
     void testNonByteRange() {
         Mockito.when(manager.getFile(Mockito.any(), Mockito.anyString())).thenAnswer(answer -> {
@@ -320,7 +355,7 @@ class DataResourceTest {
 
     private static ResourceExtension buildDataResource() {
 
-        final DataResource dataResource = new DataResource(manager, queue);
+        final DataResource dataResource = new DataResource(manager);
         final FhirContext ctx = FhirContext.forDstu3();
         final AuthFilter<DPCAuthCredentials, OrganizationPrincipal> staticFilter = new StaticAuthFilter(new StaticAuthenticator());
 
@@ -2,6 +2,7 @@ package gov.cms.dpc.api.resources.v1;
 
 import gov.cms.dpc.api.APITestHelpers;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
+import gov.cms.dpc.api.auth.jwt.PublicKeyCache;
 import gov.cms.dpc.api.entities.PublicKeyEntity;
 import gov.cms.dpc.api.jdbi.PublicKeyDAO;
 import org.apache.http.HttpStatus;
@@ -24,13 +25,15 @@ public class KeyResourceUnitTest {
 
     @Mock
     PublicKeyDAO publicKeyDao;
+    @Mock
+    PublicKeyCache keyCache;
 
     KeyResource resource;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        resource = new KeyResource(publicKeyDao);
+        resource = new KeyResource(publicKeyDao, keyCache);
     }
 
     @Test
@@ -84,6 +87,7 @@ public class KeyResourceUnitTest {
 
         assertEquals(HttpStatus.SC_OK, resource.deletePublicKey(organizationPrincipal, publicKeyUUID).getStatus());
         verify(publicKeyDao).deletePublicKey(publicKeyEntity);
+        verify(keyCache).invalidate(publicKeyUUID);
     }
 
     @Test
@@ -1,13 +1,17 @@
 package gov.cms.dpc.api.resources.v1;
 
+import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.rest.api.MethodOutcome;
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import ca.uhn.fhir.rest.gclient.*;
 import ca.uhn.fhir.validation.FhirValidator;
 import ca.uhn.fhir.validation.ValidationOptions;
 import ca.uhn.fhir.validation.ValidationResult;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.MoreExecutors;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
+import gov.cms.dpc.api.core.BulkValidator;
 import gov.cms.dpc.bluebutton.client.BlueButtonClient;
 import gov.cms.dpc.common.utils.NPIUtil;
 import gov.cms.dpc.fhir.DPCIdentifierSystem;
@@ -56,7 +60,7 @@ public class PatientResourceUnitTest {
     @BeforeEach
     public void setUp() {
         openMocks(this);
-        patientResource = new PatientResource(attributionClient, fhirValidator, dataService, bfdClient);
+        patientResource = new PatientResource(attributionClient, fhirValidator, new BulkValidator(fhirValidator, FhirContext.forDstu3(), new MetricRegistry(), MoreExecutors.newDirectExecutorService()), dataService, bfdClient);
     }
 
     @Test
@@ -2,6 +2,8 @@ package gov.cms.dpc.api.resources.v1;
 
 import com.github.nitram509.jmacaroons.Macaroon;
 import gov.cms.dpc.api.auth.OrganizationPrincipal;
+import gov.cms.dpc.api.auth.VerifiedTokenCache;
+import gov.cms.dpc.api.auth.jwt.ClientTokenCache;
 import gov.cms.dpc.api.auth.jwt.IJTICache;
 import gov.cms.dpc.api.entities.TokenEntity;
 import gov.cms.dpc.api.jdbi.TokenDAO;
@@ -35,6 +37,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public class TokenResourceUnitTest {
     @Mock
     TokenDAO mockTokenDao;
+    @Mock
+    VerifiedTokenCache tokenCache;
 
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private static MacaroonBakery bakery;
@@ -50,7 +54,7 @@ public class TokenResourceUnitTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        this.tokenResource = new TokenResource(mockTokenDao, bakery, policy, resolver, cache, authURL);
+        this.tokenResource = new TokenResource(mockTokenDao, bakery, policy, resolver, cache, tokenCache, new ClientTokenCache(), authURL);
     }
 
     @Test
@@ -158,6 +162,7 @@ public class TokenResourceUnitTest {
         Response actualResponse = tokenResource.deleteOrganizationToken(organizationPrincipal, tokenId);
 
         assertEquals(204, actualResponse.getStatus());
+        Mockito.verify(tokenCache).invalidateToken(tokenId.toString());
     }
 
 }
@@ -0,0 +1,80 @@
+package gov.cms.dpc.attribution.jdbi;
+
+import org.apache.commons.collections4.ListUtils;
+import org.hibernate.Session;
+import org.jooq.*;
+import org.jooq.conf.RenderQuotedNames;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Helpers for writing large numbers of rows with multi-row jOOQ statements, on the connection of the current Hibernate session,
+ * rather than persisting entities one at a time.
+ */
+public class BulkInsertUtils {
+
+    // Same settings as the DSLContext provided by the AttributionAppModule
+    private static final Settings SETTINGS = new Settings().withRenderQuotedNames(RenderQuotedNames.EXPLICIT_DEFAULT_UNQUOTED);
+
+    private BulkInsertUtils() {
+        // Not used
+    }
+
+    /**
+     * Insert the given entities, skipping any which conflict with a row that already exists.
+     * Each chunk is sent as a single INSERT ... ON CONFLICT DO NOTHING RETURNING statement, so the IDs of the inserted rows come back without a round-trip per row.
+     *
+     * @param session   - {@link Session} whose connection and transaction the inserts are run in
+     * @param table     - {@link Table} to insert into
+     * @param idField   - {@link TableField} holding the primary key of the table
+     * @param entities  - {@link List} of entities to insert
+     * @param toRecord  - {@link BiFunction} which converts an entity into a record for the table
+     * @param chunkSize - maximum number of rows to send in each statement
+     * @param <E>       - entity type
+     * @param <R>       - record type of the table
+     * @return - {@link Set} of the IDs of the rows which were actually inserted
+     */
+    static <E, R extends TableRecord<R>> Set<UUID> insertIgnoringConflicts(Session session, Table<R> table, TableField<R, UUID> idField, List<E> entities, BiFunction<DSLContext, E, R> toRecord, int chunkSize) {
+        final Set<UUID> insertedIDs = new HashSet<>();
+        if (entities.isEmpty()) {
+            return insertedIDs;
+        }
+
+        return withSessionContext(session, context -> {
+            for (final List<E> chunk : ListUtils.partition(entities, chunkSize)) {
+                InsertSetMoreStep<R> insert = null;
+                for (final E entity : chunk) {
+                    final R record = toRecord.apply(context, entity);
+                    insert = insert == null ? context.insertInto(table).set(record) : insert.newRecord().set(record);
+                }
+                insert.onConflictDoNothing()
+                        .returning(idField)
+                        .fetch()
+                        .forEach(record -> insertedIDs.add(record.get(idField)));
+            }
+            return insertedIDs;
+        });
+    }
+
+    /**
+     * Run the given statements with a {@link DSLContext} on the connection of the current Hibernate session, so they're part of its transaction.
+     *
+     * @param session - {@link Session} whose connection and transaction the statements are run in
+     * @param work    - {@link Function} which runs the statements
+     * @param <T>     - result type
+     * @return - result of the work
+     */
+    static <T> T withSessionContext(Session session, Function<DSLContext, T> work) {
+        // Make sure anything still pending in the session (e.g. a newly registered organization) is visible to the statements
+        session.flush();
+        // The connection belongs to the session, so it's not closed here
+        return session.doReturningWork(connection -> work.apply(DSL.using(connection, SETTINGS)));
+    }
+}
@@ -1,19 +1,24 @@
 package gov.cms.dpc.attribution.jdbi;
 
 import com.google.inject.name.Named;
+import gov.cms.dpc.attribution.dao.tables.records.PatientsRecord;
 import gov.cms.dpc.common.entities.*;
 import gov.cms.dpc.common.hibernate.attribution.DPCAbstractDAO;
 import gov.cms.dpc.common.hibernate.attribution.DPCManagedSessionFactory;
 import org.apache.commons.collections4.ListUtils;
+import org.jooq.DSLContext;
 
 import javax.inject.Inject;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static gov.cms.dpc.attribution.dao.tables.Patients.PATIENTS;
+
 public class PatientDAO extends DPCAbstractDAO<PatientEntity> {
     private final int queryChunkSize;
 
@@ -27,6 +32,28 @@ public class PatientDAO extends DPCAbstractDAO<PatientEntity> {
         return this.persist(patient);
     }
 
+    /**
+     * Insert the given patients with multi-row inserts, rather than persisting them one at a time.
+     * Any patient whose MBI already exists for its organization is skipped.
+     *
+     * @param patients  - {@link List} of new {@link PatientEntity}s to insert
+     * @param batchSize - maximum number of patients to send in each insert
+     * @return - {@link List} of the {@link PatientEntity}s which were inserted, with their IDs and timestamps set
+     */
+    public List<PatientEntity> bulkInsertPatients(List<PatientEntity> patients, int batchSize) {
+        // The inserts bypass Hibernate, so do what its lifecycle callbacks would have done
+        patients.forEach(patient -> {
+            patient.setID(UUID.randomUUID());
+            patient.setCreation();
+            patient.upperCaseBeneficiaryId();
+        });
+
+        final Set<UUID> insertedIDs = BulkInsertUtils.insertIgnoringConflicts(currentSession(), PATIENTS, PATIENTS.ID, patients, PatientDAO::patientEntityToRecord, batchSize);
+        return patients.stream()
+                .filter(patient -> insertedIDs.contains(patient.getID()))
+                .collect(Collectors.toList());
+    }
+
     public Optional<PatientEntity> getPatient(UUID patientID) {
         return Optional.ofNullable(get(patientID));
     }
@@ -105,6 +132,26 @@ public class PatientDAO extends DPCAbstractDAO<PatientEntity> {
         return results;
     }
 
+    /**
+     * Determine which of the given patients belong to the organization
+     *
+     * @param organizationID - {@link UUID} organization resource ID
+     * @param resourceIDs    - {@link List} of patient resource IDs to check
+     * @return - {@link List} of the resource IDs which are owned by the organization
+     */
+    public List<UUID> findOwnedIDs(UUID organizationID, List<UUID> resourceIDs) {
+        final CriteriaBuilder builder = currentSession().getCriteriaBuilder();
+        final CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+        final Root<PatientEntity> root = query.from(PatientEntity.class);
+
+        query.select(root.get(PersonEntity_.id))
+            .where(builder.and(
+                root.get(PersonEntity_.id).in(resourceIDs),
+                builder.equal(root.get(PatientEntity_.organization).get(OrganizationEntity_.id), organizationID))
+            );
+        return currentSession().createQuery(query).getResultList();
+    }
+
     public boolean deletePatient(UUID patientID) {
         final PatientEntity patientEntity = this.get(patientID);
 
@@ -167,4 +214,15 @@ public class PatientDAO extends DPCAbstractDAO<PatientEntity> {
                 patientEntity.getID()));
         return this.currentSession().createQuery(criteriaDelete).executeUpdate();
     }
+
+    private static PatientsRecord patientEntityToRecord(DSLContext context, PatientEntity entity) {
+        final PatientsRecord record = context.newRecord(PATIENTS, entity);
+        record.setId(entity.getID());
+        record.setOrganizationId(entity.getOrganization().getId());
+        record.setBeneficiaryId(entity.getBeneficiaryID());
+        record.setCreatedAt(entity.getCreatedAt());
+        record.setUpdatedAt(entity.getUpdatedAt());
+        record.setGender(entity.getGender().ordinal());
+        return record;
+    }
 }
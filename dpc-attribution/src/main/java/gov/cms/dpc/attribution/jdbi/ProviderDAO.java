@@ -1,10 +1,12 @@
 package gov.cms.dpc.attribution.jdbi;
 
+import gov.cms.dpc.attribution.dao.tables.records.ProvidersRecord;
 import gov.cms.dpc.common.entities.OrganizationEntity_;
 import gov.cms.dpc.common.entities.ProviderEntity;
 import gov.cms.dpc.common.entities.ProviderEntity_;
 import gov.cms.dpc.common.hibernate.attribution.DPCAbstractDAO;
 import gov.cms.dpc.common.hibernate.attribution.DPCManagedSessionFactory;
+import org.jooq.DSLContext;
 
 import javax.inject.Inject;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -14,7 +16,11 @@ import javax.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static gov.cms.dpc.attribution.dao.tables.Providers.PROVIDERS;
 
 public class ProviderDAO extends DPCAbstractDAO<ProviderEntity> {
 
@@ -27,6 +33,27 @@ public class ProviderDAO extends DPCAbstractDAO<ProviderEntity> {
         return this.persist(provider);
     }
 
+    /**
+     * Insert the given providers with multi-row inserts, rather than persisting them one at a time.
+     * Any provider whose NPI already exists for its organization is skipped.
+     *
+     * @param providers - {@link List} of new {@link ProviderEntity}s to insert
+     * @param batchSize - maximum number of providers to send in each insert
+     * @return - {@link List} of the {@link ProviderEntity}s which were inserted, with their IDs and timestamps set
+     */
+    public List<ProviderEntity> bulkInsertProviders(List<ProviderEntity> providers, int batchSize) {
+        // The inserts bypass Hibernate, so do what its lifecycle callbacks would have done
+        providers.forEach(provider -> {
+            provider.setID(UUID.randomUUID());
+            provider.setCreation();
+        });
+
+        final Set<UUID> insertedIDs = BulkInsertUtils.insertIgnoringConflicts(currentSession(), PROVIDERS, PROVIDERS.ID, providers, ProviderDAO::providerEntityToRecord, batchSize);
+        return providers.stream()
+                .filter(provider -> insertedIDs.contains(provider.getID()))
+                .collect(Collectors.toList());
+    }
+
     public Optional<ProviderEntity> getProvider(UUID providerID) {
         return Optional.ofNullable(get(providerID));
     }
@@ -115,6 +142,26 @@ public class ProviderDAO extends DPCAbstractDAO<ProviderEntity> {
         return list(query);
     }
 
+    /**
+     * Determine which of the given providers belong to the organization
+     *
+     * @param organizationID - {@link UUID} organization resource ID
+     * @param resourceIDs    - {@link List} of provider resource IDs to check
+     * @return - {@link List} of the resource IDs which are owned by the organization
+     */
+    public List<UUID> findOwnedIDs(UUID organizationID, List<UUID> resourceIDs) {
+        final CriteriaBuilder builder = currentSession().getCriteriaBuilder();
+        final CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+        final Root<ProviderEntity> root = query.from(ProviderEntity.class);
+
+        query.select(root.get(ProviderEntity_.id))
+            .where(builder.and(
+                root.get(ProviderEntity_.id).in(resourceIDs),
+                builder.equal(root.get(ProviderEntity_.organization).get(OrganizationEntity_.id), organizationID))
+            );
+        return currentSession().createQuery(query).getResultList();
+    }
+
     private List<Predicate> whereSelectorForProviders(CriteriaBuilder builder,
                                                       Root<ProviderEntity> root,
                                                       UUID providerID,
@@ -141,4 +188,13 @@ public class ProviderDAO extends DPCAbstractDAO<ProviderEntity> {
         }
         return predicates;
     }
+
+    private static ProvidersRecord providerEntityToRecord(DSLContext context, ProviderEntity entity) {
+        final ProvidersRecord record = context.newRecord(PROVIDERS, entity);
+        record.setId(entity.getID());
+        record.setOrganizationId(entity.getOrganization().getId());
+        record.setCreatedAt(entity.getCreatedAt());
+        record.setUpdatedAt(entity.getUpdatedAt());
+        return record;
+    }
 }
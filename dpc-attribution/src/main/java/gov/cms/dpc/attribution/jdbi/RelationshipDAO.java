@@ -1,11 +1,17 @@
 package gov.cms.dpc.attribution.jdbi;
 
+import gov.cms.dpc.attribution.dao.tables.records.AttributionsRecord;
 import gov.cms.dpc.common.entities.AttributionRelationship_;
 import gov.cms.dpc.common.entities.AttributionRelationship;
 import gov.cms.dpc.common.entities.RosterEntity_;
 import gov.cms.dpc.common.entities.PatientEntity_;
 import gov.cms.dpc.common.hibernate.attribution.DPCAbstractDAO;
 import gov.cms.dpc.common.hibernate.attribution.DPCManagedSessionFactory;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertValuesStep6;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,14 +19,26 @@ import javax.inject.Inject;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
 import javax.persistence.criteria.Root;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static gov.cms.dpc.attribution.dao.tables.Attributions.ATTRIBUTIONS;
 
 public class RelationshipDAO extends DPCAbstractDAO<AttributionRelationship> {
 
     private static final Logger logger = LoggerFactory.getLogger(RelationshipDAO.class);
+    // Shared with Hibernate, which reserves blocks of IDs from it, so rows inserted directly take their IDs from it as well
+    private static final Field<Long> NEXT_ATTRIBUTION_ID = DSL.sequence(DSL.name("attributions_id_seq"), SQLDataType.BIGINT).nextval();
+    // Increment of attributions_id_seq, which is also the increment_size of the pooled-lo generator on AttributionRelationship
+    static final int ATTRIBUTION_ID_BLOCK_SIZE = 100;
 
     @Inject
     public RelationshipDAO(DPCManagedSessionFactory sessionFactory) {
@@ -85,6 +103,92 @@ public class RelationshipDAO extends DPCAbstractDAO<AttributionRelationship> {
         this.currentSession().createQuery(query).executeUpdate();
     }
 
+    /**
+     * Remove all {@link AttributionRelationship} for the given attribution roster, except for those of the given patients
+     *
+     * @param rosterID   - {@link UUID} of roster to remove attributions from
+     * @param patientIDs - {@link Collection} of {@link UUID} patients whose attributions are kept
+     */
+    public void removeOtherRosterAttributions(UUID rosterID, Collection<UUID> patientIDs) {
+        if (patientIDs.isEmpty()) {
+            removeRosterAttributions(rosterID);
+            return;
+        }
+
+        final CriteriaBuilder builder = currentSession().getCriteriaBuilder();
+        final CriteriaDelete<AttributionRelationship> query = builder.createCriteriaDelete(AttributionRelationship.class);
+        final Root<AttributionRelationship> root = query.from(AttributionRelationship.class);
+
+        query.where(builder.and(
+                builder.equal(root.get(AttributionRelationship_.roster).get(RosterEntity_.id), rosterID),
+                builder.not(root.get(AttributionRelationship_.patient).get(PatientEntity_.id).in(patientIDs))));
+
+        this.currentSession().createQuery(query).executeUpdate();
+    }
+
+    /**
+     * Attribute each of the given patients to the roster, with a single INSERT ... ON CONFLICT DO UPDATE statement.
+     * Patients who are already attributed are marked active and have their period end extended.
+     *
+     * @param rosterID       - {@link UUID} of roster to attribute the patients to
+     * @param patientIDs     - {@link Collection} of {@link UUID} patients to attribute
+     * @param periodBegin    - {@link OffsetDateTime} start of the attribution period for newly attributed patients
+     * @param periodEnd      - {@link OffsetDateTime} end of the attribution period
+     * @param restartPeriods - {@code true} to start the attribution period over for patients who are already active,
+     *                       otherwise it's only restarted for inactive patients
+     * @return - number of attributions inserted or updated
+     */
+    public int upsertAttributionRelationships(UUID rosterID, Collection<UUID> patientIDs, OffsetDateTime periodBegin, OffsetDateTime periodEnd, boolean restartPeriods) {
+        if (patientIDs.isEmpty()) {
+            return 0;
+        }
+
+        final Field<OffsetDateTime> updatedPeriodBegin = restartPeriods
+                ? excluded(ATTRIBUTIONS.PERIOD_BEGIN)
+                : DSL.case_().when(ATTRIBUTIONS.INACTIVE.isTrue(), excluded(ATTRIBUTIONS.PERIOD_BEGIN)).otherwise(ATTRIBUTIONS.PERIOD_BEGIN);
+
+        return BulkInsertUtils.withSessionContext(currentSession(), context -> {
+            final Iterator<Long> attributionIDs = reserveAttributionIDs(context, patientIDs.size()).iterator();
+            InsertValuesStep6<AttributionsRecord, Long, UUID, UUID, OffsetDateTime, OffsetDateTime, Boolean> insert = context.insertInto(ATTRIBUTIONS,
+                    ATTRIBUTIONS.ID, ATTRIBUTIONS.ROSTER_ID, ATTRIBUTIONS.PATIENT_ID, ATTRIBUTIONS.PERIOD_BEGIN, ATTRIBUTIONS.PERIOD_END, ATTRIBUTIONS.INACTIVE);
+            for (final UUID patientID : patientIDs) {
+                insert = insert.values(DSL.val(attributionIDs.next()), DSL.val(rosterID), DSL.val(patientID), DSL.val(periodBegin), DSL.val(periodEnd), DSL.val(false));
+            }
+            return insert.onConflict(ATTRIBUTIONS.ROSTER_ID, ATTRIBUTIONS.PATIENT_ID)
+                    .doUpdate()
+                    .set(ATTRIBUTIONS.PERIOD_BEGIN, updatedPeriodBegin)
+                    .set(ATTRIBUTIONS.PERIOD_END, excluded(ATTRIBUTIONS.PERIOD_END))
+                    .set(ATTRIBUTIONS.INACTIVE, false)
+                    .execute();
+        });
+    }
+
+    /**
+     * Mark the attributions of the given patients to the roster as inactive, with a single UPDATE statement
+     *
+     * @param rosterID   - {@link UUID} of roster to remove the patients from
+     * @param patientIDs - {@link Collection} of {@link UUID} patients to deactivate
+     * @param periodEnd  - {@link OffsetDateTime} end of the attribution period
+     * @return - number of attributions which were updated
+     */
+    public int deactivateAttributionRelationships(UUID rosterID, Collection<UUID> patientIDs, OffsetDateTime periodEnd) {
+        if (patientIDs.isEmpty()) {
+            return 0;
+        }
+
+        final CriteriaBuilder builder = currentSession().getCriteriaBuilder();
+        final CriteriaUpdate<AttributionRelationship> query = builder.createCriteriaUpdate(AttributionRelationship.class);
+        final Root<AttributionRelationship> root = query.from(AttributionRelationship.class);
+
+        query.set(root.get(AttributionRelationship_.inactive), true)
+                .set(root.get(AttributionRelationship_.periodEnd), periodEnd)
+                .where(builder.and(
+                        builder.equal(root.get(AttributionRelationship_.roster).get(RosterEntity_.id), rosterID),
+                        root.get(AttributionRelationship_.patient).get(PatientEntity_.id).in(patientIDs)));
+
+        return this.currentSession().createQuery(query).executeUpdate();
+    }
+
     /**
      * Update existing {@link AttributionRelationship}. Mostly used to set patients as inactive
      *
@@ -115,4 +219,26 @@ public class RelationshipDAO extends DPCAbstractDAO<AttributionRelationship> {
     public List<AttributionRelationship> getAttributions() {
         return list(query("FROM ATTRIBUTIONS"));
     }
+
+    /**
+     * Reserve IDs for new attributions the same way Hibernate's pooled-lo optimizer does: each call to nextval reserves the block of
+     * {@link #ATTRIBUTION_ID_BLOCK_SIZE} IDs starting at the returned value, so only one call is made per block rather than one per row.
+     *
+     * @param context - {@link DSLContext} to query the sequence with
+     * @param count   - number of IDs needed
+     * @return - {@link List} of at least {@code count} unused IDs
+     */
+    private static List<Long> reserveAttributionIDs(DSLContext context, int count) {
+        final int blocks = (count + ATTRIBUTION_ID_BLOCK_SIZE - 1) / ATTRIBUTION_ID_BLOCK_SIZE;
+        final List<Long> ids = new ArrayList<>(blocks * ATTRIBUTION_ID_BLOCK_SIZE);
+        for (final Long blockStart : context.select(NEXT_ATTRIBUTION_ID).from(DSL.generateSeries(1, blocks)).fetch(NEXT_ATTRIBUTION_ID)) {
+            LongStream.range(blockStart, blockStart + ATTRIBUTION_ID_BLOCK_SIZE).forEach(ids::add);
+        }
+        return ids;
+    }
+
+    // Value the conflicting insert would have written, for use in ON CONFLICT DO UPDATE
+    private static <T> Field<T> excluded(Field<T> field) {
+        return DSL.field(DSL.name("excluded", field.getName()), field.getDataType());
+    }
 }
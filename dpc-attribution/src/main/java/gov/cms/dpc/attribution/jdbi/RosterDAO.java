@@ -7,11 +7,14 @@ import gov.cms.dpc.fhir.FHIRExtractors;
 import org.hibernate.query.Query;
 
 import javax.inject.Inject;
+import javax.persistence.Tuple;
 import javax.persistence.criteria.*;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 public class RosterDAO extends DPCAbstractDAO<RosterEntity> {
 
@@ -28,6 +31,57 @@ public class RosterDAO extends DPCAbstractDAO<RosterEntity> {
         return Optional.ofNullable(this.get(rosterID));
     }
 
+    /**
+     * Build a detached copy of the roster, with just enough set to convert it to FHIR: its ID, the NPI of its provider and its attributions.
+     * The attributions are read with a projection query, rather than loading the roster and each of its attributions and patients into the session.
+     *
+     * @param rosterID - {@link UUID} of roster to fetch
+     * @return - {@link Optional} detached {@link RosterEntity}, empty if the roster doesn't exist
+     */
+    public Optional<RosterEntity> getDetachedRoster(UUID rosterID) {
+        final CriteriaBuilder builder = currentSession().getCriteriaBuilder();
+
+        final CriteriaQuery<String> providerQuery = builder.createQuery(String.class);
+        final Root<RosterEntity> rosterRoot = providerQuery.from(RosterEntity.class);
+        providerQuery.select(rosterRoot.get(RosterEntity_.attributedProvider).get(ProviderEntity_.providerNPI))
+                .where(builder.equal(rosterRoot.get(RosterEntity_.id), rosterID));
+        final List<String> providerNPIs = currentSession().createQuery(providerQuery).getResultList();
+        if (providerNPIs.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final CriteriaQuery<Tuple> attributionQuery = builder.createTupleQuery();
+        final Root<AttributionRelationship> root = attributionQuery.from(AttributionRelationship.class);
+        final Path<UUID> patientID = root.get(AttributionRelationship_.patient).get(PatientEntity_.id);
+        final Path<Boolean> inactive = root.get(AttributionRelationship_.inactive);
+        final Path<OffsetDateTime> periodBegin = root.get(AttributionRelationship_.periodBegin);
+        final Path<OffsetDateTime> periodEnd = root.get(AttributionRelationship_.periodEnd);
+        attributionQuery.multiselect(patientID, inactive, periodBegin, periodEnd)
+                .where(builder.equal(root.get(AttributionRelationship_.roster).get(RosterEntity_.id), rosterID));
+
+        final RosterEntity roster = new RosterEntity();
+        roster.setId(rosterID);
+        final ProviderEntity provider = new ProviderEntity();
+        provider.setProviderNPI(providerNPIs.get(0));
+        roster.setAttributedProvider(provider);
+
+        final List<AttributionRelationship> attributions = currentSession().createQuery(attributionQuery)
+                .getResultList()
+                .stream()
+                .map(tuple -> {
+                    final PatientEntity patient = new PatientEntity();
+                    patient.setID(tuple.get(patientID));
+                    final AttributionRelationship attribution = new AttributionRelationship(roster, patient, tuple.get(periodBegin));
+                    attribution.setInactive(tuple.get(inactive));
+                    attribution.setPeriodEnd(tuple.get(periodEnd));
+                    return attribution;
+                })
+                .collect(Collectors.toList());
+        roster.setAttributions(attributions);
+
+        return Optional.of(roster);
+    }
+
     public List<RosterEntity> findEntities(UUID resourceID, UUID organizationID, String providerNPI, String patientReference) {
 
         // Build a selection query to get records from the database
@@ -76,6 +130,26 @@ public class RosterDAO extends DPCAbstractDAO<RosterEntity> {
         return booleanQuery.getSingleResult();
     }
 
+    /**
+     * Determine which of the given rosters belong to the organization
+     *
+     * @param organizationID - {@link UUID} organization resource ID
+     * @param resourceIDs    - {@link List} of roster resource IDs to check
+     * @return - {@link List} of the resource IDs which are owned by the organization
+     */
+    public List<UUID> findOwnedIDs(UUID organizationID, List<UUID> resourceIDs) {
+        final CriteriaBuilder builder = currentSession().getCriteriaBuilder();
+        final CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+        final Root<RosterEntity> root = query.from(RosterEntity.class);
+
+        query.select(root.get(RosterEntity_.id))
+            .where(builder.and(
+                root.get(RosterEntity_.id).in(resourceIDs),
+                builder.equal(root.get(RosterEntity_.managingOrganization).get(OrganizationEntity_.id), organizationID))
+            );
+        return currentSession().createQuery(query).getResultList();
+    }
+
     public void delete(RosterEntity rosterEntity) {
         currentSession().delete(rosterEntity);
     }
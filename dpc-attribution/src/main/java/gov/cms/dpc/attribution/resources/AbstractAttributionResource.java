@@ -1,8 +1,11 @@
 package gov.cms.dpc.attribution.resources;
 
+import gov.cms.dpc.common.Constants;
 import gov.cms.dpc.common.utils.PropertiesProvider;
+import org.hl7.fhir.dstu3.model.Parameters;
 
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 
 public abstract class AbstractAttributionResource {
@@ -25,6 +28,17 @@ public abstract class AbstractAttributionResource {
     @Path("/Practitioner")
     public abstract AbstractPractitionerResource providerOperations();
 
+    /**
+     * Determine which of the given resources belong to the given organization, in a single request.
+     * Used by the API to authorize path parameters without having to run a search for each resource.
+     *
+     * @param params - {@link Parameters} with an {@link Constants.Ownership#ORGANIZATION_PARAM} reference and a {@link Constants.Ownership#RESOURCE_PARAM} reference for each resource to check
+     * @return - {@link Parameters} with an {@link Constants.Ownership#OWNED_PARAM} reference for each resource owned by the organization
+     */
+    @POST
+    @Path("/" + Constants.Ownership.OPERATION)
+    public abstract Parameters checkOwnership(Parameters params);
+
     @GET
     @Path("/_healthy")
     public boolean checkHealth() {
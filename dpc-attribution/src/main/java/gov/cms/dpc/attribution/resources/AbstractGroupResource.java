@@ -38,14 +38,14 @@ public abstract class AbstractGroupResource {
 
     @PUT
     @Path("/{rosterID}")
-    public abstract Group replaceRoster(UUID rosterID, Group groupUpdate);
+    public abstract Group replaceRoster(UUID rosterID, String prefer, Group groupUpdate);
 
     @POST
     @Path("/{rosterID}/$add")
-    public abstract Group addRosterMembers(UUID rosterID, Group groupUpdate);
+    public abstract Group addRosterMembers(UUID rosterID, String prefer, Group groupUpdate);
     @POST
     @Path("/{rosterID}/$remove")
-    public abstract Group removeRosterMembers(UUID rosterID, Group groupUpdate);
+    public abstract Group removeRosterMembers(UUID rosterID, String prefer, Group groupUpdate);
 
     @DELETE
     @Path("/{rosterID}")
@@ -2,6 +2,7 @@ package gov.cms.dpc.attribution.resources.v1;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
+import com.google.common.collect.Lists;
 import gov.cms.dpc.attribution.DPCAttributionConfiguration;
 import gov.cms.dpc.attribution.jdbi.PatientDAO;
 import gov.cms.dpc.attribution.jdbi.ProviderDAO;
@@ -9,7 +10,6 @@ import gov.cms.dpc.attribution.jdbi.RelationshipDAO;
 import gov.cms.dpc.attribution.jdbi.RosterDAO;
 import gov.cms.dpc.attribution.resources.AbstractGroupResource;
 import gov.cms.dpc.attribution.utils.RESTUtils;
-import gov.cms.dpc.common.entities.AttributionRelationship;
 import gov.cms.dpc.common.entities.PatientEntity;
 import gov.cms.dpc.common.entities.ProviderEntity;
 import gov.cms.dpc.common.entities.RosterEntity;
@@ -34,10 +34,13 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+
+import static gov.cms.dpc.fhir.FHIRHeaders.PREFER_HEADER;
+import static gov.cms.dpc.fhir.FHIRHeaders.PREFER_RETURN_MINIMAL;
 
 public class GroupResource extends AbstractGroupResource {
 
@@ -134,15 +137,12 @@ public class GroupResource extends AbstractGroupResource {
         // We have to do this because Hibernate/Dropwizard gets confused when returning a single type (like String)
         @SuppressWarnings("unchecked") final List<String> patientMBIs = this.patientDAO.fetchPatientMBIByRosterID(rosterID, activeOnly);
 
-        return patientMBIs
-                .stream()
-                .map(mbi -> {
-                    // Generate a fake patient, with only the ID set
-                    final Patient p = new Patient();
-                    p.addIdentifier().setSystem(DPCIdentifierSystem.MBI.getSystem()).setValue(mbi);
-                    return p;
-                })
-                .collect(Collectors.toList());
+        // Lazily generate a fake patient, with only the ID set, as each one is written out
+        return Lists.transform(patientMBIs, mbi -> {
+            final Patient p = new Patient();
+            p.addIdentifier().setSystem(DPCIdentifierSystem.MBI.getSystem()).setValue(mbi);
+            return p;
+        });
     }
 
 
@@ -151,7 +151,7 @@ public class GroupResource extends AbstractGroupResource {
     @FHIR
     @UnitOfWork
     @Override
-    public Group replaceRoster(@PathParam("rosterID") UUID rosterID, Group groupUpdate) {
+    public Group replaceRoster(@PathParam("rosterID") UUID rosterID, @HeaderParam(PREFER_HEADER) String prefer, Group groupUpdate) {
         // Check that the roster exists, that the new roster isn't too big, and that all patients exist
         if (!this.rosterDAO.rosterExists(rosterID)) {
             throw new WebApplicationException(NOT_FOUND_EXCEPTION, Response.Status.NOT_FOUND);
@@ -159,28 +159,16 @@ public class GroupResource extends AbstractGroupResource {
         if (rosterSizeTooBig(config.getPatientLimit(), groupUpdate)) {
             throw TOO_MANY_MEMBERS_EXCEPTION;
         }
-        List<PatientEntity> patientEntities = verifyAndGetMembers(groupUpdate);
-
-        final RosterEntity rosterEntity = new RosterEntity();
-        rosterEntity.setId(rosterID);
-
-        // Remove all roster relationships
-        this.relationshipDAO.removeRosterAttributions(rosterID);
-
-        // Build an attribution for each patient and add them to the roster
-        patientEntities.stream()
-            .map( pe -> {
-                AttributionRelationship attribution = new AttributionRelationship(rosterEntity, pe, OffsetDateTime.now(ZoneOffset.UTC));
-                attribution.setPeriodEnd(generateExpirationTime());
-                return attribution;
-                })
-            .forEach(relationshipDAO::addAttributionRelationship);
+        final List<UUID> patientIds = verifyAndGetMembers(groupUpdate)
+            .stream()
+            .map(PatientEntity::getID)
+            .collect(Collectors.toList());
 
-        final RosterEntity rosterEntity1 = rosterDAO.getEntity(rosterID)
-                .orElseThrow(() -> NOT_FOUND_EXCEPTION);
-        this.rosterDAO.refresh(rosterEntity1);
+        // Remove the patients who are no longer part of the roster, then attribute everyone in the update as of today
+        this.relationshipDAO.removeOtherRosterAttributions(rosterID, patientIds);
+        this.relationshipDAO.upsertAttributionRelationships(rosterID, patientIds, OffsetDateTime.now(ZoneOffset.UTC), generateExpirationTime(), true);
 
-        return converter.toFHIR(Group.class, rosterEntity1);
+        return buildUpdatedRoster(rosterID, prefer);
     }
 
     @POST
@@ -188,9 +176,9 @@ public class GroupResource extends AbstractGroupResource {
     @FHIR
     @UnitOfWork
     @Override
-    public Group addRosterMembers(@PathParam("rosterID") UUID rosterID, @FHIRParameter Group groupUpdate) {
+    public Group addRosterMembers(@PathParam("rosterID") UUID rosterID, @HeaderParam(PREFER_HEADER) String prefer, @FHIRParameter Group groupUpdate) {
         // Get the roster if it exists, if not return NOT_FOUND
-        final RosterEntity rosterEntity = this.rosterDAO.getEntity(rosterID)
+        final RosterEntity rosterEntity = this.rosterDAO.getDetachedRoster(rosterID)
                 .orElseThrow(() -> new WebApplicationException(NOT_FOUND_EXCEPTION, Response.Status.NOT_FOUND));
 
         if (rosterSizeTooBig(config.getPatientLimit(), converter.toFHIR(Group.class, rosterEntity), groupUpdate)) {
@@ -204,43 +192,10 @@ public class GroupResource extends AbstractGroupResource {
             .map(PatientEntity::getID)
             .collect(Collectors.toList());
 
-        // Check which patients are already part of the roster and mark them active as of today
-        OffsetDateTime periodBegin = OffsetDateTime.now(ZoneOffset.UTC);
-        OffsetDateTime periodEnd = generateExpirationTime();
-
-        List<AttributionRelationship> existingAttributions = relationshipDAO.lookupAttributionRelationships(rosterID, patientIds);
-        existingAttributions.forEach(attribution -> {
-            if (attribution.isInactive()) {
-                attribution.setPeriodBegin(periodBegin);
-            }
-            attribution.setInactive(false);
-            attribution.setPeriodEnd(periodEnd);
-        });
-
-        // Build attributions for the new patients
-        List<UUID> existingPatientIds = existingAttributions.stream()
-            .map(AttributionRelationship::getPatient)
-            .map(PatientEntity::getID)
-            .collect(Collectors.toList());
-
-        List<AttributionRelationship> newAttributions = patientEntities.stream()
-            .filter( patient -> !existingPatientIds.contains(patient.getID()))
-            .map( patient -> {
-                AttributionRelationship attribution = new AttributionRelationship(rosterEntity, patient, periodBegin);
-                attribution.setPeriodEnd(periodEnd);
-                return attribution;
-            })
-            .collect(Collectors.toList());
-
-        // Last but not least, save our changes
-        Stream.concat(existingAttributions.stream(), newAttributions.stream())
-            .forEach(relationshipDAO::addAttributionRelationship);
-
-        this.rosterDAO.refresh(rosterEntity);
-        final RosterEntity rosterEntity1 = this.rosterDAO.getEntity(rosterID)
-                .orElseThrow(() -> NOT_FOUND_EXCEPTION);
+        // Attribute the new patients, and mark any which are already part of the roster active as of today
+        this.relationshipDAO.upsertAttributionRelationships(rosterID, patientIds, OffsetDateTime.now(ZoneOffset.UTC), generateExpirationTime(), false);
 
-        return converter.toFHIR(Group.class, rosterEntity1);
+        return buildUpdatedRoster(rosterID, prefer);
     }
 
     @POST
@@ -248,32 +203,26 @@ public class GroupResource extends AbstractGroupResource {
     @FHIR
     @UnitOfWork
     @Override
-    public Group removeRosterMembers(@PathParam("rosterID") UUID rosterID, @FHIRParameter Group groupUpdate) {
+    public Group removeRosterMembers(@PathParam("rosterID") UUID rosterID, @HeaderParam(PREFER_HEADER) String prefer, @FHIRParameter Group groupUpdate) {
         if (!this.rosterDAO.rosterExists(rosterID)) {
             throw new WebApplicationException(NOT_FOUND_EXCEPTION, Response.Status.NOT_FOUND);
         }
 
-        groupUpdate
+        final List<UUID> patientIds = groupUpdate
                 .getMember()
                 .stream()
                 .map(Group.GroupMemberComponent::getEntity)
-                .map(entity -> {
-                    final PatientEntity patientEntity = new PatientEntity();
-                    final UUID patientID = UUID.fromString(new IdType(entity.getReference()).getIdPart());
-                    patientEntity.setID(patientID);
-                    return this.relationshipDAO.lookupAttributionRelationship(rosterID, patientID);
-                })
-                .map(rOptional -> rOptional.orElseThrow(() -> new WebApplicationException("Cannot find attribution relationship.", Response.Status.BAD_REQUEST)))
-                .peek(relationship -> {
-                    relationship.setInactive(true);
-                    relationship.setPeriodEnd(OffsetDateTime.now(ZoneOffset.UTC));
-                })
-                .forEach(this.relationshipDAO::updateAttributionRelationship);
+                .map(entity -> UUID.fromString(new IdType(entity.getReference()).getIdPart()))
+                .distinct()
+                .collect(Collectors.toList());
 
-        final RosterEntity rosterEntity = this.rosterDAO.getEntity(rosterID)
-                .orElseThrow(() -> NOT_FOUND_EXCEPTION);
+        // Every patient has to be part of the roster, otherwise the whole update is rolled back
+        final int deactivated = this.relationshipDAO.deactivateAttributionRelationships(rosterID, patientIds, OffsetDateTime.now(ZoneOffset.UTC));
+        if (deactivated != patientIds.size()) {
+            throw new WebApplicationException("Cannot find attribution relationship.", Response.Status.BAD_REQUEST);
+        }
 
-        return this.converter.toFHIR(Group.class, rosterEntity);
+        return buildUpdatedRoster(rosterID, prefer);
     }
 
     @DELETE
@@ -306,6 +255,35 @@ public class GroupResource extends AbstractGroupResource {
         return converter.toFHIR(Group.class, rosterEntity);
     }
 
+    /**
+     * Build the response to a change in a roster's membership.
+     * If the client sent {@code Prefer: return=minimal} there's no body, otherwise the roster is built from a projection of its attributions,
+     * rather than reloading the roster and every one of its patients.
+     *
+     * @param rosterID - {@link UUID} of roster which was updated
+     * @param prefer   - {@link String} value of the Prefer header, may be null
+     * @return - updated {@link Group}, or null (which is sent as 204 No Content) if a minimal response was requested
+     */
+    private Group buildUpdatedRoster(UUID rosterID, String prefer) {
+        if (prefersMinimalReturn(prefer)) {
+            return null;
+        }
+
+        final RosterEntity rosterEntity = this.rosterDAO.getDetachedRoster(rosterID)
+                .orElseThrow(() -> NOT_FOUND_EXCEPTION);
+        return this.converter.toFHIR(Group.class, rosterEntity);
+    }
+
+    private static boolean prefersMinimalReturn(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        // The header can carry several comma separated preferences
+        return Arrays.stream(prefer.split(","))
+                .map(String::trim)
+                .anyMatch(PREFER_RETURN_MINIMAL::equalsIgnoreCase);
+    }
+
     private OffsetDateTime generateExpirationTime() {
         return OffsetDateTime.now(ZoneOffset.UTC).plus(config.getExpirationThreshold());
     }
@@ -3,7 +3,6 @@ package gov.cms.dpc.attribution.resources.v1;
 import com.google.inject.name.Named;
 import gov.cms.dpc.attribution.jdbi.PatientDAO;
 import gov.cms.dpc.attribution.resources.AbstractPatientResource;
-import gov.cms.dpc.attribution.utils.RESTUtils;
 import gov.cms.dpc.common.entities.PatientEntity;
 import gov.cms.dpc.fhir.DPCIdentifierSystem;
 import gov.cms.dpc.fhir.FHIRExtractors;
@@ -21,8 +20,12 @@ import org.hl7.fhir.dstu3.model.Patient;
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -130,33 +133,47 @@ public class PatientResource extends AbstractPatientResource {
         }
         final UUID orgId = FHIRExtractors.getEntityUUID(firstPat.get().getManagingOrganization().getReference());
 
-        // Get MBIs of submitted patients
-        final List<String> mbis = FHIRExtractors.getResourceStream(params, Patient.class)
-            .map(FHIRExtractors::getPatientMBI)
-            .collect(Collectors.toList());
+        // Key the submitted patients by MBI, dropping any duplicates within the submission
+        final Map<String, Patient> submittedPatients = new LinkedHashMap<>();
+        FHIRExtractors.getResourceStream(params, Patient.class)
+            .forEach(patient -> submittedPatients.putIfAbsent(FHIRExtractors.getPatientMBI(patient).toUpperCase(), patient));
 
         // Get patients that already exist in the DB
-        final List<PatientEntity> existingPatientEntities = dao.bulkPatientSearchByMbi(orgId, mbis);
+        final List<PatientEntity> existingPatientEntities = new ArrayList<>(dao.bulkPatientSearchByMbi(orgId, new ArrayList<>(submittedPatients.keySet())));
 
         // Extract mbis of patients that already exist in the DB
-        final List<String> existingMbis = existingPatientEntities.stream()
+        final Set<String> existingMbis = existingPatientEntities.stream()
             .map(PatientEntity::getBeneficiaryID)
-            .collect(Collectors.toList());
+            .collect(Collectors.toSet());
 
         // Insert the patients that don't already exist
-        List<Patient> insertedPatients = RESTUtils.bulkResourceHandler(
-            FHIRExtractors.getResourceStream(params, Patient.class)
-                .filter(patient -> ! existingMbis.contains(FHIRExtractors.getPatientMBI(patient).toUpperCase())),
-            this::insertPatient,
-            dao,
-            dbBatchSize
-        );
+        final List<PatientEntity> newPatientEntities = submittedPatients.entrySet().stream()
+            .filter(entry -> !existingMbis.contains(entry.getKey()))
+            .map(entry -> toPatientEntity(entry.getValue()))
+            .collect(Collectors.toList());
+        final List<PatientEntity> insertedPatientEntities;
+        try {
+            insertedPatientEntities = dao.bulkInsertPatients(newPatientEntities, dbBatchSize);
+        } catch (Exception e) {
+            throw new WebApplicationException("Could not insert resource", e);
+        }
+
+        // Anything we couldn't insert was created by a concurrent request after we searched, so return what's there now
+        if (insertedPatientEntities.size() < newPatientEntities.size()) {
+            final Set<String> insertedMbis = insertedPatientEntities.stream()
+                .map(PatientEntity::getBeneficiaryID)
+                .collect(Collectors.toSet());
+            final List<String> conflictingMbis = newPatientEntities.stream()
+                .map(PatientEntity::getBeneficiaryID)
+                .filter(mbi -> !insertedMbis.contains(mbi))
+                .collect(Collectors.toList());
+            existingPatientEntities.addAll(dao.bulkPatientSearchByMbi(orgId, conflictingMbis));
+        }
 
         // Return both inserted and pre-existing patients
-        return Stream.concat(
-            insertedPatients.stream(),
-            existingPatientEntities.stream().map(entity -> this.converter.toFHIR(Patient.class, entity))
-        ).collect(Collectors.toList());
+        return Stream.concat(insertedPatientEntities.stream(), existingPatientEntities.stream())
+            .map(entity -> this.converter.toFHIR(Patient.class, entity))
+            .collect(Collectors.toList());
     }
 
     @DELETE
@@ -191,6 +208,14 @@ public class PatientResource extends AbstractPatientResource {
         }
     }
 
+    private PatientEntity toPatientEntity(Patient patient) {
+        try {
+            return this.converter.fromFHIR(PatientEntity.class, patient);
+        } catch (Exception e) {
+            throw new WebApplicationException("Could not insert resource", e);
+        }
+    }
+
     private Patient insertPatient(Patient patient) {
         PatientEntity patientEntity = this.converter.fromFHIR(PatientEntity.class, patient);
         patientEntity.setID(null);
@@ -5,7 +5,6 @@ import com.codahale.metrics.annotation.Timed;
 import gov.cms.dpc.attribution.DPCAttributionConfiguration;
 import gov.cms.dpc.attribution.jdbi.ProviderDAO;
 import gov.cms.dpc.attribution.resources.AbstractPractitionerResource;
-import gov.cms.dpc.attribution.utils.RESTUtils;
 import gov.cms.dpc.common.entities.ProviderEntity;
 import gov.cms.dpc.fhir.FHIRExtractors;
 import gov.cms.dpc.fhir.annotations.BundleReturnProperties;
@@ -21,8 +20,12 @@ import javax.inject.Inject;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -115,30 +118,42 @@ public class PractitionerResource extends AbstractPractitionerResource {
         }
         final UUID orgId = FHIRExtractors.getEntityUUID(FHIRExtractors.getOrganizationID(firstPractitioner.get()));
 
-        // Get NPIs of practitioners that already exist in the DB
-        final List<String> npis = FHIRExtractors.getResourceStream(params, Practitioner.class)
-            .map(FHIRExtractors::getProviderNPI)
-            .collect(Collectors.toList());
+        // Key the submitted practitioners by NPI, dropping any duplicates within the submission
+        final Map<String, Practitioner> submittedPractitioners = new LinkedHashMap<>();
+        FHIRExtractors.getResourceStream(params, Practitioner.class)
+            .forEach(practitioner -> submittedPractitioners.putIfAbsent(FHIRExtractors.getProviderNPI(practitioner), practitioner));
 
         // Get practitioners that already exist in the DB
-        final List<ProviderEntity> existingProviderEntities = dao.bulkProviderSearch(orgId, npis);
+        final List<ProviderEntity> existingProviderEntities = new ArrayList<>(dao.bulkProviderSearch(orgId, new ArrayList<>(submittedPractitioners.keySet())));
 
         // Extract NPIs of practitioners that already exist in the DB
-        final List<String> existingNpis = existingProviderEntities.stream().map(ProviderEntity::getProviderNPI).collect(Collectors.toList());
+        final Set<String> existingNpis = existingProviderEntities.stream().map(ProviderEntity::getProviderNPI).collect(Collectors.toSet());
 
         // Insert the practitioners that don't already exist
-        List<Practitioner> insertedPractitioners = RESTUtils.bulkResourceHandler(
-            FHIRExtractors.getResourceStream(params, Practitioner.class)
-                .filter(practitioner -> ! existingNpis.contains(FHIRExtractors.getProviderNPI(practitioner))),
-            this::insertPractitioner,
-            dao,
-            dbBatchSize
-        );
-
-        return Stream.concat(
-            insertedPractitioners.stream(),
-            existingProviderEntities.stream().map(entity -> this.converter.toFHIR(Practitioner.class, entity))
-        ).collect(Collectors.toList());
+        final List<ProviderEntity> newProviderEntities = submittedPractitioners.entrySet().stream()
+            .filter(entry -> !existingNpis.contains(entry.getKey()))
+            .map(entry -> toProviderEntity(entry.getValue()))
+            .collect(Collectors.toList());
+        final List<ProviderEntity> insertedProviderEntities;
+        try {
+            insertedProviderEntities = dao.bulkInsertProviders(newProviderEntities, dbBatchSize);
+        } catch (Exception e) {
+            throw new WebApplicationException("Could not insert resource", e);
+        }
+
+        // Anything we couldn't insert was created by a concurrent request after we searched, so return what's there now
+        if (insertedProviderEntities.size() < newProviderEntities.size()) {
+            final Set<String> insertedNpis = insertedProviderEntities.stream().map(ProviderEntity::getProviderNPI).collect(Collectors.toSet());
+            final List<String> conflictingNpis = newProviderEntities.stream()
+                .map(ProviderEntity::getProviderNPI)
+                .filter(npi -> !insertedNpis.contains(npi))
+                .collect(Collectors.toList());
+            existingProviderEntities.addAll(dao.bulkProviderSearch(orgId, conflictingNpis));
+        }
+
+        return Stream.concat(insertedProviderEntities.stream(), existingProviderEntities.stream())
+            .map(entity -> this.converter.toFHIR(Practitioner.class, entity))
+            .collect(Collectors.toList());
     }
 
     @DELETE
@@ -171,6 +186,14 @@ public class PractitionerResource extends AbstractPractitionerResource {
         return this.converter.toFHIR(Practitioner.class, this.dao.updateProvider(providerID, providerEntity));
     }
 
+    private ProviderEntity toProviderEntity(Practitioner practitioner) {
+        try {
+            return this.converter.fromFHIR(ProviderEntity.class, practitioner);
+        } catch (Exception e) {
+            throw new WebApplicationException("Could not insert resource", e);
+        }
+    }
+
     private Practitioner insertPractitioner(Practitioner practitioner) {
         ProviderEntity providerEntity = this.converter.fromFHIR(ProviderEntity.class, practitioner);
         providerEntity.setID(null);
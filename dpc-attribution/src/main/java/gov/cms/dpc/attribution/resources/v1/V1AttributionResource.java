@@ -1,9 +1,28 @@
 package gov.cms.dpc.attribution.resources.v1;
 
+import gov.cms.dpc.attribution.jdbi.PatientDAO;
+import gov.cms.dpc.attribution.jdbi.ProviderDAO;
+import gov.cms.dpc.attribution.jdbi.RosterDAO;
 import gov.cms.dpc.attribution.resources.*;
+import gov.cms.dpc.common.Constants;
+import gov.cms.dpc.fhir.DPCResourceType;
+import gov.cms.dpc.fhir.FHIRExtractors;
+import gov.cms.dpc.fhir.annotations.FHIR;
+import io.dropwizard.hibernate.UnitOfWork;
+import org.hl7.fhir.dstu3.model.IdType;
+import org.hl7.fhir.dstu3.model.Parameters;
+import org.hl7.fhir.dstu3.model.Reference;
 
 import javax.inject.Inject;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 @Path("/v1")
 public class V1AttributionResource extends AbstractAttributionResource {
@@ -12,16 +31,25 @@ public class V1AttributionResource extends AbstractAttributionResource {
     private final OrganizationResource or;
     private final PatientResource par;
     private final PractitionerResource pr;
+    private final PatientDAO patientDAO;
+    private final ProviderDAO providerDAO;
+    private final RosterDAO rosterDAO;
 
     @Inject
     public V1AttributionResource(GroupResource gr,
                                  OrganizationResource or,
                                  PatientResource par,
-                                 PractitionerResource pr) {
+                                 PractitionerResource pr,
+                                 PatientDAO patientDAO,
+                                 ProviderDAO providerDAO,
+                                 RosterDAO rosterDAO) {
         this.gr = gr;
         this.or = or;
         this.par = par;
         this.pr = pr;
+        this.patientDAO = patientDAO;
+        this.providerDAO = providerDAO;
+        this.rosterDAO = rosterDAO;
     }
 
     @Override
@@ -43,4 +71,53 @@ public class V1AttributionResource extends AbstractAttributionResource {
     public AbstractPractitionerResource providerOperations() {
         return this.pr;
     }
+
+    @POST
+    @Path("/" + Constants.Ownership.OPERATION)
+    @FHIR
+    @UnitOfWork
+    @Override
+    public Parameters checkOwnership(Parameters params) {
+        final UUID organizationID = params.getParameter()
+                .stream()
+                .filter(param -> param.getName().equals(Constants.Ownership.ORGANIZATION_PARAM))
+                .map(param -> parseReference(param.getValue()))
+                .map(FHIRExtractors::getEntityUUID)
+                .findFirst()
+                .orElseThrow(() -> new WebApplicationException("Must provide organization", Response.Status.BAD_REQUEST));
+
+        // Group the requested resources by type, so that we only need a single query for each
+        final Map<String, List<UUID>> requested = params.getParameter()
+                .stream()
+                .filter(param -> param.getName().equals(Constants.Ownership.RESOURCE_PARAM))
+                .map(param -> new IdType(parseReference(param.getValue())))
+                .collect(Collectors.groupingBy(IdType::getResourceType,
+                        Collectors.mapping(id -> FHIRExtractors.getEntityUUID(id.getIdPart()), Collectors.toList())));
+
+        final Parameters response = new Parameters();
+        requested.forEach((resourceType, resourceIDs) -> lookupOwner(resourceType)
+                .apply(organizationID, resourceIDs)
+                .forEach(id -> response.addParameter()
+                        .setName(Constants.Ownership.OWNED_PARAM)
+                        .setValue(new Reference(new IdType(resourceType, id.toString())))));
+        return response;
+    }
+
+    private BiFunction<UUID, List<UUID>, List<UUID>> lookupOwner(String resourceType) {
+        if (DPCResourceType.Patient.name().equals(resourceType)) {
+            return this.patientDAO::findOwnedIDs;
+        } else if (DPCResourceType.Practitioner.name().equals(resourceType)) {
+            return this.providerDAO::findOwnedIDs;
+        } else if (DPCResourceType.Group.name().equals(resourceType)) {
+            return this.rosterDAO::findOwnedIDs;
+        }
+        throw new WebApplicationException(String.format("Cannot check ownership of %s resources", resourceType), Response.Status.BAD_REQUEST);
+    }
+
+    private static String parseReference(Object value) {
+        if (!(value instanceof Reference) || !((Reference) value).hasReference()) {
+            throw new WebApplicationException("Must provide resource references", Response.Status.BAD_REQUEST);
+        }
+        return ((Reference) value).getReference();
+    }
 }
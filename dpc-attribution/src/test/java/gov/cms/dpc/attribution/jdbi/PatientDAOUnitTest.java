@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -73,6 +74,25 @@ class PatientDAOUnitTest extends AbstractAttributionDAOTest {
 		assertFalse(patients.contains(pat3));
 	}
 
+	@Test
+	void test_findOwnedIDs_only_finds_correct_org() {
+		OrganizationEntity goodOrg = AttributionTestHelpers.createOrganizationEntity();
+		OrganizationEntity badOrg = AttributionTestHelpers.createOrganizationEntity();
+		PatientEntity pat1 = AttributionTestHelpers.createPatientEntity(goodOrg);
+		PatientEntity pat2 = AttributionTestHelpers.createPatientEntity(badOrg);
+
+		db.inTransaction(() -> {
+			organizationDAO.registerOrganization(goodOrg);
+			organizationDAO.registerOrganization(badOrg);
+			patientDAO.persistPatient(pat1);
+			patientDAO.persistPatient(pat2);
+		});
+
+		List<UUID> owned = db.inTransaction(() -> patientDAO.findOwnedIDs(goodOrg.getId(), List.of(pat1.getID(), pat2.getID(), UUID.randomUUID())));
+
+		assertEquals(List.of(pat1.getID()), owned);
+	}
+
 	@Test
 	void test_batch_patientSearchByMbi_happy_path() {
 		OrganizationEntity org = AttributionTestHelpers.createOrganizationEntity();
@@ -144,4 +164,43 @@ class PatientDAOUnitTest extends AbstractAttributionDAOTest {
 		assertEquals(1, patients.size());
 		assertTrue(patients.contains(patientEntity));
 	}
+
+	@Test
+	void test_bulkInsertPatients_skips_existing_patients() {
+		OrganizationEntity org = AttributionTestHelpers.createOrganizationEntity();
+		PatientEntity existing = AttributionTestHelpers.createPatientEntity(org);
+
+		db.inTransaction(() -> {
+			organizationDAO.registerOrganization(org);
+			patientDAO.persistPatient(existing);
+		});
+
+		PatientEntity pat1 = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity pat2 = AttributionTestHelpers.createPatientEntity(org);
+		String pat2Mbi = pat2.getBeneficiaryID();
+		pat2.setBeneficiaryID(pat2Mbi.toLowerCase());
+		PatientEntity duplicate = AttributionTestHelpers.createPatientEntity(org);
+		duplicate.setBeneficiaryID(existing.getBeneficiaryID());
+
+		// Batch size of 2 so the inserts are split across statements
+		List<PatientEntity> inserted = db.inTransaction(() -> patientDAO.bulkInsertPatients(List.of(pat1, pat2, duplicate), 2));
+
+		assertEquals(List.of(pat1, pat2), inserted);
+		assertEquals(pat2Mbi.toUpperCase(), pat2.getBeneficiaryID());
+		inserted.forEach(patient -> {
+			assertNotNull(patient.getID());
+			assertNotNull(patient.getCreatedAt());
+		});
+
+		List<PatientEntity> patients = patientDAO.bulkPatientSearchByMbi(org.getId(), List.of(pat1.getBeneficiaryID(), pat2Mbi, existing.getBeneficiaryID()));
+		assertEquals(3, patients.size());
+		assertTrue(patients.stream().anyMatch(patient -> patient.getID().equals(pat1.getID())));
+		assertTrue(patients.stream().anyMatch(patient -> patient.getID().equals(existing.getID())));
+		assertFalse(patients.stream().anyMatch(patient -> patient.getID().equals(duplicate.getID())));
+	}
+
+	@Test
+	void test_bulkInsertPatients_handles_empty_list() {
+		assertTrue(db.inTransaction(() -> patientDAO.bulkInsertPatients(List.of(), 2)).isEmpty());
+	}
 }
@@ -70,4 +70,32 @@ class ProviderDAOUnitTest extends AbstractAttributionDAOTest {
 		assertTrue(providers.contains(provider2));
 		assertFalse(providers.contains(provider3));
 	}
+
+	@Test
+	void test_bulkInsertProviders_skips_existing_providers() {
+		OrganizationEntity org = AttributionTestHelpers.createOrganizationEntity();
+		ProviderEntity existing = AttributionTestHelpers.createProviderEntity(org);
+
+		db.inTransaction(() -> {
+			organizationDAO.registerOrganization(org);
+			providerDAO.persistProvider(existing);
+		});
+
+		ProviderEntity provider1 = AttributionTestHelpers.createProviderEntity(org);
+		ProviderEntity provider2 = AttributionTestHelpers.createProviderEntity(org);
+		ProviderEntity duplicate = AttributionTestHelpers.createProviderEntity(org);
+		duplicate.setProviderNPI(existing.getProviderNPI());
+
+		// Batch size of 2 so the inserts are split across statements
+		List<ProviderEntity> inserted = db.inTransaction(() -> providerDAO.bulkInsertProviders(List.of(provider1, provider2, duplicate), 2));
+		assertEquals(List.of(provider1, provider2), inserted);
+
+		List<ProviderEntity> providers = providerDAO.bulkProviderSearch(org.getId(), List.of(
+			provider1.getProviderNPI(), provider2.getProviderNPI(), existing.getProviderNPI()
+		));
+		assertEquals(3, providers.size());
+		assertTrue(providers.stream().anyMatch(provider -> provider.getID().equals(provider1.getID())));
+		assertTrue(providers.stream().anyMatch(provider -> provider.getID().equals(existing.getID())));
+		assertFalse(providers.stream().anyMatch(provider -> provider.getID().equals(duplicate.getID())));
+	}
 }
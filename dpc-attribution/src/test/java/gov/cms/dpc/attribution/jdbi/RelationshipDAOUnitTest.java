@@ -12,6 +12,9 @@ import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
 import java.math.BigInteger;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
 
@@ -116,6 +119,153 @@ class RelationshipDAOUnitTest extends AbstractAttributionDAOTest {
 		assertFalse(attributions.contains(attribution3));
 	}
 
+	@Test
+	public void test_upsertAttributionRelationships() {
+		OrganizationEntity org = AttributionTestHelpers.createOrganizationEntity();
+
+		PatientEntity activePatient = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity inactivePatient = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity newPatient = AttributionTestHelpers.createPatientEntity(org);
+
+		ProviderEntity provider = AttributionTestHelpers.createProviderEntity(org);
+		RosterEntity roster = AttributionTestHelpers.createRosterEntity(org, provider);
+
+		AttributionRelationship activeAttribution = AttributionTestHelpers.createAttributionRelationship(roster, activePatient);
+		AttributionRelationship inactiveAttribution = AttributionTestHelpers.createAttributionRelationship(roster, inactivePatient);
+		inactiveAttribution.setInactive(true);
+		OffsetDateTime originalBegin = activeAttribution.getPeriodBegin();
+
+		db.inTransaction(() -> {
+			organizationDAO.registerOrganization(org);
+			patientDAO.persistPatient(activePatient);
+			patientDAO.persistPatient(inactivePatient);
+			patientDAO.persistPatient(newPatient);
+			providerDAO.persistProvider(provider);
+			rosterDAO.persistEntity(roster);
+			relationshipDAO.addAttributionRelationship(activeAttribution);
+			relationshipDAO.addAttributionRelationship(inactiveAttribution);
+		});
+
+		OffsetDateTime begin = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+		OffsetDateTime end = begin.plusDays(90);
+		int upserted = db.inTransaction(() -> relationshipDAO.upsertAttributionRelationships(
+			roster.getId(), List.of(activePatient.getID(), inactivePatient.getID(), newPatient.getID()), begin, end, false));
+		assertEquals(3, upserted);
+
+		// Make sure we read back what's in the DB, not what's cached in the session
+		db.getSessionFactory().getCurrentSession().clear();
+
+		AttributionRelationship active = relationshipDAO.lookupAttributionRelationship(roster.getId(), activePatient.getID()).orElseThrow();
+		assertEquals(activeAttribution.getAttributionID(), active.getAttributionID());
+		assertFalse(active.isInactive());
+		assertTrue(originalBegin.truncatedTo(ChronoUnit.SECONDS).isEqual(active.getPeriodBegin().truncatedTo(ChronoUnit.SECONDS)), "Active patients should keep their period begin");
+		assertTrue(end.isEqual(active.getPeriodEnd()));
+
+		AttributionRelationship reactivated = relationshipDAO.lookupAttributionRelationship(roster.getId(), inactivePatient.getID()).orElseThrow();
+		assertFalse(reactivated.isInactive());
+		assertTrue(begin.isEqual(reactivated.getPeriodBegin()), "Inactive patients should start a new period");
+		assertTrue(end.isEqual(reactivated.getPeriodEnd()));
+
+		AttributionRelationship added = relationshipDAO.lookupAttributionRelationship(roster.getId(), newPatient.getID()).orElseThrow();
+		assertNotNull(added.getAttributionID());
+		assertFalse(added.isInactive());
+		assertTrue(begin.isEqual(added.getPeriodBegin()));
+		assertTrue(end.isEqual(added.getPeriodEnd()));
+
+		// Restarting periods applies to active patients as well
+		db.inTransaction(() -> relationshipDAO.upsertAttributionRelationships(roster.getId(), List.of(activePatient.getID()), begin, end, true));
+		db.getSessionFactory().getCurrentSession().clear();
+		active = relationshipDAO.lookupAttributionRelationship(roster.getId(), activePatient.getID()).orElseThrow();
+		assertTrue(begin.isEqual(active.getPeriodBegin()));
+	}
+
+	@Test
+	public void test_upsertAttributionRelationships_reserves_id_blocks() {
+		OrganizationEntity org = AttributionTestHelpers.createOrganizationEntity();
+		PatientEntity pat1 = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity pat2 = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity pat3 = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity pat4 = AttributionTestHelpers.createPatientEntity(org);
+		ProviderEntity provider = AttributionTestHelpers.createProviderEntity(org);
+		RosterEntity roster = AttributionTestHelpers.createRosterEntity(org, provider);
+
+		db.inTransaction(() -> {
+			organizationDAO.registerOrganization(org);
+			patientDAO.persistPatient(pat1);
+			patientDAO.persistPatient(pat2);
+			patientDAO.persistPatient(pat3);
+			patientDAO.persistPatient(pat4);
+			providerDAO.persistProvider(provider);
+			rosterDAO.persistEntity(roster);
+		});
+
+		OffsetDateTime begin = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+		long before = nextAttributionSequenceValue();
+		db.inTransaction(() -> relationshipDAO.upsertAttributionRelationships(roster.getId(), List.of(pat1.getID(), pat2.getID(), pat3.getID()), begin, begin.plusDays(90), false));
+		long after = nextAttributionSequenceValue();
+		assertEquals(2L * RelationshipDAO.ATTRIBUTION_ID_BLOCK_SIZE, after - before, "Should only reserve a single block of IDs");
+
+		// IDs come from the reserved block, which Hibernate won't hand out again
+		db.getSessionFactory().getCurrentSession().clear();
+		AttributionRelationship hibernateAttribution = AttributionTestHelpers.createAttributionRelationship(roster, pat4);
+		db.inTransaction(() -> relationshipDAO.addAttributionRelationship(hibernateAttribution));
+		for (PatientEntity patient : List.of(pat1, pat2, pat3)) {
+			long id = relationshipDAO.lookupAttributionRelationship(roster.getId(), patient.getID()).orElseThrow().getAttributionID();
+			assertTrue(id > before && id < after, "Should use an ID from the reserved block");
+			assertNotEquals(hibernateAttribution.getAttributionID().longValue(), id);
+		}
+	}
+
+	@Test
+	public void test_deactivate_and_remove_AttributionRelationships() {
+		OrganizationEntity org = AttributionTestHelpers.createOrganizationEntity();
+
+		PatientEntity pat1 = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity pat2 = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity unattributed = AttributionTestHelpers.createPatientEntity(org);
+
+		ProviderEntity provider = AttributionTestHelpers.createProviderEntity(org);
+		RosterEntity roster = AttributionTestHelpers.createRosterEntity(org, provider);
+
+		AttributionRelationship attribution1 = AttributionTestHelpers.createAttributionRelationship(roster, pat1);
+		AttributionRelationship attribution2 = AttributionTestHelpers.createAttributionRelationship(roster, pat2);
+
+		db.inTransaction(() -> {
+			organizationDAO.registerOrganization(org);
+			patientDAO.persistPatient(pat1);
+			patientDAO.persistPatient(pat2);
+			patientDAO.persistPatient(unattributed);
+			providerDAO.persistProvider(provider);
+			rosterDAO.persistEntity(roster);
+			relationshipDAO.addAttributionRelationship(attribution1);
+			relationshipDAO.addAttributionRelationship(attribution2);
+		});
+
+		OffsetDateTime end = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+		int deactivated = db.inTransaction(() -> relationshipDAO.deactivateAttributionRelationships(roster.getId(), List.of(pat1.getID(), unattributed.getID()), end));
+		assertEquals(1, deactivated, "Should only update patients in the roster");
+
+		db.getSessionFactory().getCurrentSession().clear();
+		AttributionRelationship inactive = relationshipDAO.lookupAttributionRelationship(roster.getId(), pat1.getID()).orElseThrow();
+		assertTrue(inactive.isInactive());
+		assertTrue(end.isEqual(inactive.getPeriodEnd()));
+		assertFalse(relationshipDAO.lookupAttributionRelationship(roster.getId(), pat2.getID()).orElseThrow().isInactive());
+
+		db.inTransaction(() -> relationshipDAO.removeOtherRosterAttributions(roster.getId(), List.of(pat1.getID())));
+		db.getSessionFactory().getCurrentSession().clear();
+		assertTrue(relationshipDAO.lookupAttributionRelationship(roster.getId(), pat1.getID()).isPresent());
+		assertTrue(relationshipDAO.lookupAttributionRelationship(roster.getId(), pat2.getID()).isEmpty());
+
+		db.inTransaction(() -> relationshipDAO.removeOtherRosterAttributions(roster.getId(), List.of()));
+		db.getSessionFactory().getCurrentSession().clear();
+		assertTrue(relationshipDAO.lookupAttributionRelationship(roster.getId(), pat1.getID()).isEmpty());
+	}
+
+	private long nextAttributionSequenceValue() {
+		return db.inTransaction(() -> ((BigInteger) db.getSessionFactory().getCurrentSession()
+			.createNativeQuery("select nextval('attributions_id_seq')").getSingleResult()).longValue());
+	}
+
 	// If the Hibernate sequence generator increment size and the DB sequence increment don't match we'll start getting
 	// failed inserts for duplicate keys.  Check that here to prevent someone from accidentally changing one and not the
 	// other.
@@ -138,5 +288,6 @@ class RelationshipDAOUnitTest extends AbstractAttributionDAOTest {
 		int dbIncrement = ((BigInteger) session.createNativeQuery(sql).getSingleResult()).intValue();
 
 		assertEquals(hibernateIncrement, dbIncrement);
+		assertEquals(RelationshipDAO.ATTRIBUTION_ID_BLOCK_SIZE, dbIncrement);
 	}
 }
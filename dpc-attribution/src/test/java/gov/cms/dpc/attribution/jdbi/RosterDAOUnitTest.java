@@ -0,0 +1,94 @@
+package gov.cms.dpc.attribution.jdbi;
+
+import gov.cms.dpc.attribution.AbstractAttributionDAOTest;
+import gov.cms.dpc.attribution.AttributionTestHelpers;
+import gov.cms.dpc.common.entities.*;
+import gov.cms.dpc.common.hibernate.attribution.DPCManagedSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterDAOUnitTest extends AbstractAttributionDAOTest {
+	private RosterDAO rosterDAO;
+	private RelationshipDAO relationshipDAO;
+	private PatientDAO patientDAO;
+	private OrganizationDAO organizationDAO;
+	private ProviderDAO providerDAO;
+
+	@BeforeEach
+	public void setup() {
+		DPCManagedSessionFactory dpcManagedSessionFactory = new DPCManagedSessionFactory(db.getSessionFactory());
+		rosterDAO = new RosterDAO(dpcManagedSessionFactory);
+		relationshipDAO = new RelationshipDAO(dpcManagedSessionFactory);
+		patientDAO = new PatientDAO(dpcManagedSessionFactory, 1);
+		organizationDAO = new OrganizationDAO(dpcManagedSessionFactory);
+		providerDAO = new ProviderDAO(dpcManagedSessionFactory);
+	}
+
+	@Test
+	void test_getDetachedRoster() {
+		OrganizationEntity org = AttributionTestHelpers.createOrganizationEntity();
+		PatientEntity pat1 = AttributionTestHelpers.createPatientEntity(org);
+		PatientEntity pat2 = AttributionTestHelpers.createPatientEntity(org);
+		ProviderEntity provider = AttributionTestHelpers.createProviderEntity(org);
+		RosterEntity roster = AttributionTestHelpers.createRosterEntity(org, provider);
+
+		AttributionRelationship attribution1 = AttributionTestHelpers.createAttributionRelationship(roster, pat1);
+		AttributionRelationship attribution2 = AttributionTestHelpers.createAttributionRelationship(roster, pat2);
+		attribution2.setInactive(true);
+
+		db.inTransaction(() -> {
+			organizationDAO.registerOrganization(org);
+			patientDAO.persistPatient(pat1);
+			patientDAO.persistPatient(pat2);
+			providerDAO.persistProvider(provider);
+			rosterDAO.persistEntity(roster);
+			relationshipDAO.addAttributionRelationship(attribution1);
+			relationshipDAO.addAttributionRelationship(attribution2);
+		});
+		db.getSessionFactory().getCurrentSession().clear();
+
+		RosterEntity detached = rosterDAO.getDetachedRoster(roster.getId()).orElseThrow();
+
+		assertEquals(roster.getId(), detached.getId());
+		assertEquals(provider.getProviderNPI(), detached.getAttributedProvider().getProviderNPI());
+		assertEquals(2, detached.getAttributions().size());
+
+		AttributionRelationship detached2 = detached.getAttributions()
+			.stream()
+			.filter(attribution -> attribution.getPatient().getID().equals(pat2.getID()))
+			.findFirst()
+			.orElseThrow();
+		assertTrue(detached2.isInactive());
+		assertEquals(attribution2.getPeriodBegin().toEpochSecond(), detached2.getPeriodBegin().toEpochSecond());
+		assertEquals(attribution2.getPeriodEnd().toEpochSecond(), detached2.getPeriodEnd().toEpochSecond());
+
+		assertFalse(db.getSessionFactory().getCurrentSession().contains(detached), "Roster should not be loaded into the session");
+	}
+
+	@Test
+	void test_getDetachedRoster_empty_roster() {
+		OrganizationEntity org = AttributionTestHelpers.createOrganizationEntity();
+		ProviderEntity provider = AttributionTestHelpers.createProviderEntity(org);
+		RosterEntity roster = AttributionTestHelpers.createRosterEntity(org, provider);
+
+		db.inTransaction(() -> {
+			organizationDAO.registerOrganization(org);
+			providerDAO.persistProvider(provider);
+			rosterDAO.persistEntity(roster);
+		});
+
+		RosterEntity detached = rosterDAO.getDetachedRoster(roster.getId()).orElseThrow();
+		assertTrue(detached.getAttributions().isEmpty());
+	}
+
+	@Test
+	void test_getDetachedRoster_missing_roster() {
+		Optional<RosterEntity> detached = rosterDAO.getDetachedRoster(UUID.randomUUID());
+		assertTrue(detached.isEmpty());
+	}
+}
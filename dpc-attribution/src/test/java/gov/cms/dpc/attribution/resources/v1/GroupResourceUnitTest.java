@@ -20,9 +20,11 @@ import org.mockito.MockitoAnnotations;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -122,6 +124,88 @@ class GroupResourceUnitTest {
         assertThrows(WebApplicationException.class, () -> groupResource.createRoster(group), "Expected and exception if an invalid patient was added");
     }
 
+    @Test
+    void testRemoveRosterMembersNotInRoster(){
+        //Arrange
+        final UUID rosterId = UUID.randomUUID();
+        final UUID patientId = UUID.randomUUID();
+
+        final Group group = FHIRGroupBuilder
+                .newBuild()
+                .attributedTo(NPIUtil.generateNPI())
+                .withPatients(patientId, patientId, UUID.randomUUID())
+                .withOrgTag(UUID.randomUUID())
+                .build();
+
+        Mockito.when(rosterDAO.rosterExists(rosterId)).thenReturn(true);
+        Mockito.when(relationshipDAO.deactivateAttributionRelationships(eq(rosterId), anyList(), any(OffsetDateTime.class))).thenReturn(1);
+
+        //Act & Assert
+        WebApplicationException exception = assertThrows(WebApplicationException.class, () -> groupResource.removeRosterMembers(rosterId, null, group));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), exception.getResponse().getStatus());
+        Mockito.verify(relationshipDAO).deactivateAttributionRelationships(eq(rosterId), argThat(ids -> ids.size() == 2), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void testRemoveRosterMembersMinimalReturn(){
+        //Arrange
+        final UUID rosterId = UUID.randomUUID();
+
+        final Group group = FHIRGroupBuilder
+                .newBuild()
+                .attributedTo(NPIUtil.generateNPI())
+                .withPatients(UUID.randomUUID())
+                .withOrgTag(UUID.randomUUID())
+                .build();
+
+        Mockito.when(rosterDAO.rosterExists(rosterId)).thenReturn(true);
+        Mockito.when(relationshipDAO.deactivateAttributionRelationships(eq(rosterId), anyList(), any(OffsetDateTime.class))).thenReturn(1);
+
+        //Act
+        final Group response = groupResource.removeRosterMembers(rosterId, "respond-async, return=minimal", group);
+
+        //Assert
+        assertNull(response, "Should not have built a response body");
+        Mockito.verify(rosterDAO, Mockito.never()).getDetachedRoster(any());
+        Mockito.verify(rosterDAO, Mockito.never()).getEntity(any());
+    }
+
+    @Test
+    void testAddRosterMembersBuildsDetachedRoster(){
+        //Arrange
+        final UUID orgId = UUID.randomUUID();
+        final UUID rosterId = UUID.randomUUID();
+        final String providerNpi = NPIUtil.generateNPI();
+        final Map<UUID,Patient> patientBank = makeTestPatients(2);
+
+        final Group group = FHIRGroupBuilder
+                .newBuild()
+                .attributedTo(providerNpi)
+                .withPatients(patientBank.keySet().toArray(UUID[]::new))
+                .withOrgTag(orgId)
+                .build();
+
+        final ProviderEntity provider = new ProviderEntity();
+        provider.setProviderNPI(providerNpi);
+        final RosterEntity roster = new RosterEntity();
+        roster.setId(rosterId);
+        roster.setAttributedProvider(provider);
+        roster.setAttributions(List.of());
+
+        configuration.setPatientLimit(10);
+        configuration.setExpirationThreshold(10);
+        Mockito.when(rosterDAO.getDetachedRoster(rosterId)).thenReturn(Optional.of(roster));
+        Mockito.when(patientDAO.bulkPatientSearchById(eq(orgId), any(List.class))).thenReturn(Collections.nCopies(2, new PatientEntity()));
+
+        //Act
+        final Group response = groupResource.addRosterMembers(rosterId, null, group);
+
+        //Assert
+        assertEquals(rosterId.toString(), response.getIdElement().getIdPart());
+        Mockito.verify(relationshipDAO).upsertAttributionRelationships(eq(rosterId), anyList(), any(OffsetDateTime.class), any(OffsetDateTime.class), eq(false));
+        Mockito.verify(rosterDAO, Mockito.never()).getEntity(any());
+    }
+
     private Map<UUID,Patient> makeTestPatients(int count){
         if(count>88){
             throw new IllegalStateException("Don't support building more than 88 patients..yet (need a better mbi generator)");
@@ -0,0 +1,86 @@
+package gov.cms.dpc.attribution.resources.v1;
+
+import gov.cms.dpc.attribution.jdbi.PatientDAO;
+import gov.cms.dpc.attribution.jdbi.ProviderDAO;
+import gov.cms.dpc.attribution.jdbi.RosterDAO;
+import gov.cms.dpc.common.Constants;
+import org.hl7.fhir.dstu3.model.IdType;
+import org.hl7.fhir.dstu3.model.Parameters;
+import org.hl7.fhir.dstu3.model.Reference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.ws.rs.WebApplicationException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class V1AttributionResourceUnitTest {
+	@InjectMocks
+	V1AttributionResource attributionResource;
+
+	@Mock
+	PatientDAO patientDAO;
+	@Mock
+	ProviderDAO providerDAO;
+	@Mock
+	RosterDAO rosterDAO;
+
+	private final UUID orgID = UUID.randomUUID();
+
+	@BeforeEach
+	public void setup() {
+		MockitoAnnotations.openMocks(this);
+	}
+
+	@Test
+	public void testCheckOwnership() {
+		UUID ownedPatient = UUID.randomUUID();
+		UUID otherPatient = UUID.randomUUID();
+		UUID ownedGroup = UUID.randomUUID();
+		when(patientDAO.findOwnedIDs(orgID, List.of(ownedPatient, otherPatient))).thenReturn(List.of(ownedPatient));
+		when(rosterDAO.findOwnedIDs(orgID, List.of(ownedGroup))).thenReturn(List.of(ownedGroup));
+
+		Parameters params = buildParameters(new IdType("Patient", ownedPatient.toString()), new IdType("Patient", otherPatient.toString()), new IdType("Group", ownedGroup.toString()));
+		Set<String> owned = attributionResource.checkOwnership(params)
+			.getParameter()
+			.stream()
+			.filter(param -> param.getName().equals(Constants.Ownership.OWNED_PARAM))
+			.map(param -> ((Reference) param.getValue()).getReference())
+			.collect(Collectors.toSet());
+
+		assertEquals(Set.of("Patient/" + ownedPatient, "Group/" + ownedGroup), owned);
+		verify(patientDAO, times(1)).findOwnedIDs(any(), any());
+		verifyNoInteractions(providerDAO);
+	}
+
+	@Test
+	public void testCheckOwnershipRequiresOrganization() {
+		Parameters params = new Parameters();
+		params.addParameter().setName(Constants.Ownership.RESOURCE_PARAM).setValue(new Reference("Patient/" + UUID.randomUUID()));
+		assertThrows(WebApplicationException.class, () -> attributionResource.checkOwnership(params));
+	}
+
+	@Test
+	public void testCheckOwnershipUnsupportedResource() {
+		Parameters params = buildParameters(new IdType("Endpoint", UUID.randomUUID().toString()));
+		assertThrows(WebApplicationException.class, () -> attributionResource.checkOwnership(params));
+	}
+
+	private Parameters buildParameters(IdType... resources) {
+		Parameters params = new Parameters();
+		params.addParameter().setName(Constants.Ownership.ORGANIZATION_PARAM).setValue(new Reference(new IdType("Organization", orgID.toString())));
+		for (IdType resource : resources) {
+			params.addParameter().setName(Constants.Ownership.RESOURCE_PARAM).setValue(new Reference(resource));
+		}
+		return params;
+	}
+}
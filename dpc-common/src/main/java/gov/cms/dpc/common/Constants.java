@@ -15,4 +15,21 @@ public final class Constants {
         public static final String APPLICATION_NAME_HEADER = "BlueButton-Application";
         public static final String APPLICATION_NAME_DESC = "DPC";
     }
-}
\ No newline at end of file
+    public  abstract interface Ownership {
+        public static final String OPERATION = "$owned";
+        public static final String ORGANIZATION_PARAM = "organization";
+        public static final String RESOURCE_PARAM = "resource";
+        public static final String OWNED_PARAM = "owned";
+    }
+    public  abstract interface ConsentSearch {
+        // Only return the most recent Consent for each patient, rather than their full history
+        public static final String LATEST_PARAM = "_latest";
+        // With _latest, return the latest Consent for every patient who has had a Consent created or updated since the given time
+        public static final String CHANGED_SINCE_PARAM = "_changedSince";
+        // Paging cursor for _changedSince, only return patients whose MBI sorts after this one
+        public static final String AFTER_MBI_PARAM = "_afterMbi";
+        public static final String COUNT_PARAM = "_count";
+        public static final int DEFAULT_COUNT = 1000;
+        public static final int MAX_COUNT = 10000;
+    }
+}
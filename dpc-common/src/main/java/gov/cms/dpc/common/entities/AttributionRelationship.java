@@ -12,6 +12,7 @@ import java.time.ZoneOffset;
 import java.util.Objects;
 
 @Entity(name = "attributions")
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"roster_id", "patient_id"}))
 public class AttributionRelationship implements Serializable {
 
     public static final long serialVersionUID = 42L;
@@ -0,0 +1,207 @@
+package gov.cms.dpc.common.hibernate;
+
+import io.dropwizard.lifecycle.Managed;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Listens for Postgres notifications (see LISTEN/NOTIFY) on a single dedicated connection, and passes the payload of
+ * each notification to the callbacks registered for its channel.
+ * <p>
+ * Notifications are not delivered while the connection is down. When the connection is re-established, every callback
+ * is called with a null payload, so listeners know to re-check whatever they are waiting on.
+ * <p>
+ * Each connection held by a listener is taken from the application's pool, so there should only be one listener per database,
+ * bound as a singleton, which Dropwizard stops (closing the connection) when the application shuts down.
+ */
+public class PostgresNotificationListener implements Managed, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresNotificationListener.class);
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final SessionFactory factory;
+    private final Map<String, List<Consumer<String>>> callbacks = new ConcurrentHashMap<>();
+    private Connection connection;
+    private Thread thread;
+    private volatile boolean running;
+    private boolean closed;
+
+    public PostgresNotificationListener(SessionFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Send a notification on the given channel. The notification is only delivered once the session's transaction
+     * commits.
+     *
+     * @param session - the active database session
+     * @param channel - the channel to notify
+     * @param payload - the payload of the notification
+     */
+    public static void notify(Session session, String channel, String payload) {
+        session.createNativeQuery("SELECT pg_notify(:channel, :payload)")
+                .setParameter("channel", channel)
+                .setParameter("payload", payload)
+                .getResultList();
+    }
+
+    /**
+     * Register a callback for notifications on the given channel. Starts listening, if this is the first callback.
+     *
+     * @param channel  - the channel to listen on
+     * @param callback - called with the payload of each notification, or null after a reconnect
+     */
+    public synchronized void listen(String channel, Consumer<String> callback) {
+        callbacks.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(callback);
+        if (closed) {
+            logger.warn("Not listening on channel {}, the listener has been closed", channel);
+        } else if (!running) {
+            running = true;
+            thread = new Thread(this::run, "postgres-notification-listener");
+            thread.setDaemon(true);
+            thread.start();
+        } else if (connection != null) {
+            try {
+                executeListen(connection, channel);
+            } catch (SQLException e) {
+                logger.error("Unable to listen on channel {}, will retry on reconnect", channel, e);
+                closeConnection();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        // Nothing to do, we start listening when the first callback is registered
+    }
+
+    @Override
+    public void stop() {
+        close();
+    }
+
+    /**
+     * Stop listening, and wait for the listening thread to release its connection.
+     */
+    @Override
+    public void close() {
+        final Thread listenerThread;
+        synchronized (this) {
+            closed = true;
+            running = false;
+            listenerThread = thread;
+        }
+        // The thread needs the lock to close its connection, so we can't hold it while we wait
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            try {
+                listenerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (listenerThread.isAlive()) {
+                logger.warn("Notification listener did not stop within {}ms", SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Whether the listener currently holds an open connection. Exposed for testing.
+     *
+     * @return - {@code true} if the listener is connected
+     */
+    synchronized boolean isConnected() {
+        return connection != null;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                final PGConnection pgConnection = connect();
+                final PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                if (notifications != null) {
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getName(), notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                logger.error("Lost connection while listening for notifications", e);
+                closeConnection();
+                sleepBeforeReconnect();
+            }
+        }
+        closeConnection();
+    }
+
+    private synchronized PGConnection connect() throws SQLException {
+        if (connection == null) {
+            final ConnectionProvider provider = factory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(ConnectionProvider.class);
+            final Connection newConnection = provider.getConnection();
+            newConnection.setAutoCommit(true);
+            for (String channel : callbacks.keySet()) {
+                executeListen(newConnection, channel);
+            }
+            connection = newConnection;
+
+            // We may have missed notifications while we were not connected
+            callbacks.keySet().forEach(channel -> dispatch(channel, null));
+        }
+        return connection.unwrap(PGConnection.class);
+    }
+
+    private static void executeListen(Connection connection, String channel) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // Channel names are identifiers, and cannot be passed as parameters
+            statement.execute(String.format("LISTEN \"%s\"", channel.replace("\"", "")));
+        }
+    }
+
+    private void dispatch(String channel, String payload) {
+        callbacks.getOrDefault(channel, List.of()).forEach(callback -> {
+            try {
+                callback.accept(payload);
+            } catch (Exception e) {
+                logger.error("Notification callback failed for channel {}", channel, e);
+            }
+        });
+    }
+
+    private synchronized void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Unable to close notification connection", e);
+            }
+            connection = null;
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package gov.cms.dpc.common.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits {@code key1=value1, key2=value2} log messages into their keys and values, in a single pass over the message.
+ * <p>
+ * Entries are separated by commas, and '\' can be used to escape a comma within a value.
+ * Only the first line of the message is parsed, keys and values have surrounding whitespace removed,
+ * and anything after a second '=' in an entry is ignored.
+ */
+final class KeyValueTokenizer {
+
+    private static final char ENTRY_SEPARATOR = ',';
+    private static final char KEY_VALUE_SEPARATOR = '=';
+    private static final char ESCAPE = '\\';
+
+    private KeyValueTokenizer() {
+        // Not used
+    }
+
+    /**
+     * Split the given message into a map of its keys and values
+     *
+     * @param message - {@link String} message to split
+     * @return - {@link Map} of keys to values, or {@code null} if the message isn't made up of unique key/value pairs
+     */
+    static Map<String, String> tokenize(String message) {
+        // Most messages aren't key/value pairs, so don't bother allocating anything for them
+        if (message.indexOf(KEY_VALUE_SEPARATOR) < 0) {
+            return null;
+        }
+
+        final Map<String, String> entries = new HashMap<>();
+        final StringBuilder entry = new StringBuilder();
+        final int length = message.length();
+        int i = 0;
+        boolean endOfLine = false;
+        while (!endOfLine) {
+            entry.setLength(0);
+            endOfLine = true;
+            while (i < length) {
+                final char c = message.charAt(i++);
+                if (c == ENTRY_SEPARATOR) {
+                    endOfLine = false;
+                    break;
+                } else if (c == '\n' || c == '\r') {
+                    break;
+                } else if (c == ESCAPE) {
+                    if (i == length) {
+                        return null;
+                    }
+                    unescape(entry, message.charAt(i++));
+                } else {
+                    entry.append(c);
+                }
+            }
+
+            if (!addEntry(entries, entry)) {
+                return null;
+            }
+        }
+        return entries;
+    }
+
+    private static void unescape(StringBuilder entry, char c) {
+        switch (c) {
+            case 'r':
+                entry.append('\r');
+                break;
+            case 'n':
+                entry.append('\n');
+                break;
+            case 't':
+                entry.append('\t');
+                break;
+            case 'b':
+                entry.append('\b');
+                break;
+            case 'f':
+                entry.append('\f');
+                break;
+            case ENTRY_SEPARATOR:
+            case ESCAPE:
+            case '\r':
+            case '\n':
+            case '\t':
+            case '\b':
+            case '\f':
+                entry.append(c);
+                break;
+            default:
+                // Not an escape sequence, so keep it as it was
+                entry.append(ESCAPE).append(c);
+        }
+    }
+
+    private static boolean addEntry(Map<String, String> entries, StringBuilder entry) {
+        final int separator = indexOf(entry, KEY_VALUE_SEPARATOR, 0);
+        if (separator < 0 || onlySeparators(entry, separator + 1)) {
+            return false;
+        }
+        final int valueEnd = indexOf(entry, KEY_VALUE_SEPARATOR, separator + 1);
+        final String key = strip(entry, 0, separator);
+        final String value = strip(entry, separator + 1, valueEnd < 0 ? entry.length() : valueEnd);
+        return entries.putIfAbsent(key, value) == null;
+    }
+
+    private static int indexOf(StringBuilder entry, char c, int start) {
+        for (int i = start; i < entry.length(); i++) {
+            if (entry.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * An entry with nothing but separators after its key (e.g. {@code key=}) doesn't have a value
+     */
+    private static boolean onlySeparators(StringBuilder entry, int start) {
+        for (int i = start; i < entry.length(); i++) {
+            if (entry.charAt(i) != KEY_VALUE_SEPARATOR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String strip(StringBuilder entry, int start, int end) {
+        while (start < end && Character.isWhitespace(entry.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(entry.charAt(end - 1))) {
+            end--;
+        }
+        return entry.substring(start, end);
+    }
+}
@@ -0,0 +1,139 @@
+package gov.cms.dpc.common.logging;
+
+/**
+ * Masks MBIs and Postgres error details in log messages, in a single pass over the message.
+ * <p>
+ * Gives the same result as replacing each of the following patterns, in order:
+ * <ol>
+ *     <li>MBIs: {@code \d[a-zA-Z][a-zA-Z0-9]\d[a-zA-Z][a-zA-Z0-9]\d[a-zA-Z]{2}\d{2}}</li>
+ *     <li>Postgres details: {@code Detail:.*}</li>
+ *     <li>Postgres batch entries: {@code Batch entry \d+.*?was aborted}</li>
+ * </ol>
+ * Messages without anything to mask are returned as-is, without copying.
+ */
+final class LogMessageMasker {
+
+    static final String MBI_MASK = "***MBI?***";
+    static final String DATABASE_INFO_MASK = "**********";
+
+    private static final int MBI_LENGTH = 11;
+    private static final String DETAIL = "Detail:";
+    private static final String BATCH_ENTRY = "Batch entry ";
+    private static final String WAS_ABORTED = "was aborted";
+
+    private LogMessageMasker() {
+        // Not used
+    }
+
+    /**
+     * Mask the given message
+     *
+     * @param message - {@link String} message to mask
+     * @param maskMBI - {@code true} to mask MBIs as well as Postgres error details
+     * @return - {@link String} masked message
+     */
+    static String mask(String message, boolean maskMBI) {
+        final int length = message.length();
+        StringBuilder masked = null;
+        int copied = 0;
+        int i = 0;
+        while (i < length) {
+            final char c = message.charAt(i);
+            final int end;
+            final String mask;
+            if (c == 'D' && message.startsWith(DETAIL, i)) {
+                end = lineEnd(message, i);
+                mask = DATABASE_INFO_MASK;
+            } else if (c == 'B' && message.startsWith(BATCH_ENTRY, i)) {
+                end = batchEntryEnd(message, i + BATCH_ENTRY.length(), maskMBI);
+                mask = DATABASE_INFO_MASK;
+            } else if (maskMBI && isMBI(message, i)) {
+                end = i + MBI_LENGTH;
+                mask = MBI_MASK;
+            } else {
+                end = -1;
+                mask = null;
+            }
+
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            if (masked == null) {
+                masked = new StringBuilder(length);
+            }
+            masked.append(message, copied, i).append(mask);
+            i = end;
+            copied = end;
+        }
+
+        if (masked == null) {
+            return message;
+        }
+        return masked.append(message, copied, length).toString();
+    }
+
+    /**
+     * Find the end of a Postgres batch entry, which must be a number followed by {@code was aborted} on the same line.
+     * Details are masked before batch entries, so the batch entry must also end before any details on its line.
+     *
+     * @return - index after the batch entry, or -1 if this isn't one
+     */
+    private static int batchEntryEnd(String message, int start, boolean maskMBI) {
+        // The entry number would have been masked if it's the start of an MBI
+        if (start >= message.length() || !isDigit(message.charAt(start)) || (maskMBI && isMBI(message, start))) {
+            return -1;
+        }
+
+        final int lineEnd = lineEnd(message, start);
+        final int detail = message.indexOf(DETAIL, start);
+        final int limit = detail >= 0 && detail < lineEnd ? detail : lineEnd;
+        final int aborted = message.indexOf(WAS_ABORTED, start + 1);
+        if (aborted < 0 || aborted + WAS_ABORTED.length() > limit) {
+            return -1;
+        }
+        return aborted + WAS_ABORTED.length();
+    }
+
+    /**
+     * @return - index of the first line terminator (as matched by the regex {@code .}) at or after the start, or the length of the message
+     */
+    private static int lineEnd(String message, int start) {
+        for (int i = start; i < message.length(); i++) {
+            final char c = message.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return i;
+            }
+        }
+        return message.length();
+    }
+
+    private static boolean isMBI(String message, int start) {
+        if (start + MBI_LENGTH > message.length()) {
+            return false;
+        }
+        return isDigit(message.charAt(start))
+                && isLetter(message.charAt(start + 1))
+                && isLetterOrDigit(message.charAt(start + 2))
+                && isDigit(message.charAt(start + 3))
+                && isLetter(message.charAt(start + 4))
+                && isLetterOrDigit(message.charAt(start + 5))
+                && isDigit(message.charAt(start + 6))
+                && isLetter(message.charAt(start + 7))
+                && isLetter(message.charAt(start + 8))
+                && isDigit(message.charAt(start + 9))
+                && isDigit(message.charAt(start + 10));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || isDigit(c);
+    }
+}
@@ -28,7 +28,7 @@ public class GenerateRequestIdFilter implements ContainerRequestFilter {
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
-        String resourceRequested = XSSSanitizerUtil.sanitize(requestContext.getUriInfo().getPath());
+        String resourceRequested = XSSSanitizerUtil.getSanitizedPath(requestContext);
         String method = requestContext.getMethod();
         String mediaType = requestContext.getMediaType() == null
                 ? null
@@ -23,7 +23,7 @@ public class LogResponseFilter implements ContainerResponseFilter{
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext){
         String requestId = MDC.get(MDCConstants.DPC_REQUEST_ID);
-        String resourceRequested = XSSSanitizerUtil.sanitize(requestContext.getUriInfo().getPath());
+        String resourceRequested = XSSSanitizerUtil.getSanitizedPath(requestContext);
         String mediaType = requestContext.getMediaType() == null
                 ? null
                 : requestContext.getMediaType().toString();
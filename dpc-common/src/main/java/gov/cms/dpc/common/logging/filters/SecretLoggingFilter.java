@@ -35,15 +35,17 @@ public class SecretLoggingFilter implements FilterFactory<ILoggingEvent> {
 	public Filter<ILoggingEvent> build() {
 		// Clean the secrets list
         List<String> containsSecrets = secrets.stream().filter(envVars::containsKey).collect(Collectors.toList());
+		// Check for all of them in a single pass over each message
+		SecretMatcher matcher = new SecretMatcher(containsSecrets.stream().map(envVars::get).collect(Collectors.toList()));
 
 		return new Filter<>() {
 			@Override
 			public FilterReply decide(ILoggingEvent event) {
-				for (String secretName : containsSecrets) {
-					if (event.getFormattedMessage().contains(envVars.get(secretName))) {
-                        logger.warn("Suppressing log, attempted to write {} in {}", secretName, event.getLoggerName());
-						return FilterReply.DENY;
-					}
+				String message = event.getFormattedMessage();
+				int found = message == null ? -1 : matcher.find(message);
+				if (found >= 0) {
+                    logger.warn("Suppressing log, attempted to write {} in {}", containsSecrets.get(found), event.getLoggerName());
+					return FilterReply.DENY;
 				}
 				return FilterReply.NEUTRAL;
 			}
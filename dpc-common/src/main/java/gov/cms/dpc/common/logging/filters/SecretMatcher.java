@@ -0,0 +1,121 @@
+package gov.cms.dpc.common.logging.filters;
+
+import java.util.*;
+
+/**
+ * Finds any of a fixed set of strings in a message with a single pass over it, using the Aho-Corasick algorithm,
+ * so the cost of checking a log message doesn't grow with the number of secrets.
+ */
+final class SecretMatcher {
+
+    private static final int ROOT = 0;
+
+    // Sorted characters which lead out of each state, and the states they lead to
+    private final char[][] transitionChars;
+    private final int[][] transitionStates;
+    // State to fall back to (the longest proper suffix which is also in the trie) when there's no transition for the next character
+    private final int[] failure;
+    // Index of a pattern which ends at each state, either directly or through its failure states, or -1
+    private final int[] match;
+
+    /**
+     * @param patterns - {@link List} of {@link String}s to search for
+     */
+    SecretMatcher(List<String> patterns) {
+        final List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        final List<Integer> matches = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        matches.add(-1);
+        for (int pattern = 0; pattern < patterns.size(); pattern++) {
+            int state = ROOT;
+            for (final char c : patterns.get(pattern).toCharArray()) {
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new TreeMap<>());
+                    matches.add(-1);
+                }
+                state = next;
+            }
+            if (matches.get(state) < 0) {
+                matches.set(state, pattern);
+            }
+        }
+
+        final int states = trie.size();
+        this.transitionChars = new char[states][];
+        this.transitionStates = new int[states][];
+        this.failure = new int[states];
+        this.match = new int[states];
+        for (int state = 0; state < states; state++) {
+            final TreeMap<Character, Integer> transitions = trie.get(state);
+            this.transitionChars[state] = new char[transitions.size()];
+            this.transitionStates[state] = new int[transitions.size()];
+            int i = 0;
+            for (final Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                this.transitionChars[state][i] = transition.getKey();
+                this.transitionStates[state][i] = transition.getValue();
+                i++;
+            }
+            this.match[state] = matches.get(state);
+        }
+
+        // Breadth first, so the failure states of shallower states are known before they're needed
+        final Deque<Integer> queue = new ArrayDeque<>();
+        for (final int child : this.transitionStates[ROOT]) {
+            this.failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.remove();
+            for (int i = 0; i < this.transitionChars[state].length; i++) {
+                final char c = this.transitionChars[state][i];
+                final int child = this.transitionStates[state][i];
+
+                int fallback = this.failure[state];
+                while (fallback != ROOT && transition(fallback, c) < 0) {
+                    fallback = this.failure[fallback];
+                }
+                final int next = transition(fallback, c);
+                this.failure[child] = next < 0 ? ROOT : next;
+                if (this.match[child] < 0) {
+                    this.match[child] = this.match[this.failure[child]];
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Search the given text for any of the patterns
+     *
+     * @param text - {@link CharSequence} to search
+     * @return - index of the first pattern found in the text, or -1 if none of them are in it
+     */
+    int find(CharSequence text) {
+        // An empty pattern is in everything
+        if (this.match[ROOT] >= 0) {
+            return this.match[ROOT];
+        }
+
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            int next;
+            while ((next = transition(state, c)) < 0 && state != ROOT) {
+                state = this.failure[state];
+            }
+            state = next < 0 ? ROOT : next;
+            if (this.match[state] >= 0) {
+                return this.match[state];
+            }
+        }
+        return -1;
+    }
+
+    private int transition(int state, char c) {
+        final int i = Arrays.binarySearch(this.transitionChars[state], c);
+        return i < 0 ? -1 : this.transitionStates[state][i];
+    }
+}
@@ -4,8 +4,15 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.safety.Safelist;
 
+import javax.ws.rs.container.ContainerRequestContext;
+
 public final class XSSSanitizerUtil {
 
+    /**
+     * Request property holding the sanitized path of the request, so each filter doesn't need to sanitize it again
+     */
+    public static final String SANITIZED_PATH_PROPERTY = "gov.cms.dpc.sanitizedPath";
+
     private XSSSanitizerUtil() {
         //util class
     }
@@ -14,4 +21,38 @@ public final class XSSSanitizerUtil {
         String s1 = unsanitized.replaceAll("(\\s&\\s)", "   ");
         return Jsoup.clean(s1, "", Safelist.none(), new Document.OutputSettings().prettyPrint(false));
     }
+
+    /**
+     * Sanitize a URI path.
+     * Paths made up of only printable ASCII characters, other than markup characters ({@code <}, {@code >} and {@code &}) and whitespace,
+     * are already safe and returned as-is, anything else goes through {@link #sanitize(String)}.
+     *
+     * @param path - {@link String} path to sanitize
+     * @return - {@link String} sanitized path
+     */
+    public static String sanitizePath(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            final char c = path.charAt(i);
+            if (c <= ' ' || c > '~' || c == '<' || c == '>' || c == '&') {
+                return sanitize(path);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Get the sanitized path of the request, sanitizing it and storing it in the {@link #SANITIZED_PATH_PROPERTY} request property if that hasn't been done yet
+     *
+     * @param requestContext - {@link ContainerRequestContext} of the request
+     * @return - {@link String} sanitized path
+     */
+    public static String getSanitizedPath(ContainerRequestContext requestContext) {
+        final Object existing = requestContext.getProperty(SANITIZED_PATH_PROPERTY);
+        if (existing instanceof String) {
+            return (String) existing;
+        }
+        final String sanitized = sanitizePath(requestContext.getUriInfo().getPath());
+        requestContext.setProperty(SANITIZED_PATH_PROPERTY, sanitized);
+        return sanitized;
+    }
 }
@@ -17,4 +17,9 @@ public class FHIRHeaders {
      * Header value required for $export operations
      */
     public static final String PREFER_RESPOND_ASYNC = "respond-async";
+
+    /**
+     * Header value for updates whose response body isn't needed
+     */
+    public static final String PREFER_RETURN_MINIMAL = "return=minimal";
 }
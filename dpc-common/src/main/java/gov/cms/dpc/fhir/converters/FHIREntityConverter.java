@@ -1,7 +1,8 @@
 package gov.cms.dpc.fhir.converters;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
 import gov.cms.dpc.fhir.converters.exceptions.DataTranslationException;
 import gov.cms.dpc.fhir.converters.exceptions.FHIRConverterException;
 import gov.cms.dpc.fhir.converters.exceptions.MissingConverterException;
@@ -17,19 +18,22 @@ import java.util.stream.Collectors;
 /**
  * Conversion engine which handles converting between Java {@link Object} and their corresponding FHIR {@link org.hl7.fhir.dstu3.model.Resource} types.
  * Converters, which implement the {@link FHIRConverter} interface are loaded via the corresponding {@link ServiceLoader}.
+ * <p>
+ * Converters are looked up in an immutable dispatch table, keyed by (source class, target class), so conversions never contend on a lock.
+ * Registering a converter replaces the whole table.
  */
 public class FHIREntityConverter {
 
     private static final Logger logger = LoggerFactory.getLogger(FHIREntityConverter.class);
 
-    private final Multimap<Class<? extends Base>, FHIRConverter<?, ?>> fhirResourceMap;
-    private final Multimap<Class<?>, FHIRConverter<?, ?>> javaClassMap;
-    private final Set<Integer> converterHash;
+    // FHIR resource class -> Java class -> converter
+    private volatile ImmutableTable<Class<?>, Class<?>, FHIRConverter<?, ?>> fhirResourceTable;
+    // Java class -> FHIR resource class -> converter
+    private volatile ImmutableTable<Class<?>, Class<?>, FHIRConverter<?, ?>> javaClassTable;
 
     FHIREntityConverter() {
-        this.fhirResourceMap = ArrayListMultimap.create();
-        this.javaClassMap = ArrayListMultimap.create();
-        this.converterHash = new HashSet<>();
+        this.fhirResourceTable = ImmutableTable.of();
+        this.javaClassTable = ImmutableTable.of();
     }
 
     /**
@@ -38,18 +42,8 @@ public class FHIREntityConverter {
      * @param converter - {@link FHIRConverter} to register
      * @throws FHIRConverterException if a converter is already registered for the given FHIR/Java class pair
      */
-    public synchronized void addConverter(FHIRConverter<?, ?> converter) {
-        logger.debug("Attempting to add converter: {}", converter);
-        // See if we already have something like this
-        final int hash = Objects.hash(converter.getFHIRResource(), converter.getJavaClass());
-        if (this.converterHash.contains(hash)) {
-            throw new FHIRConverterException(String.format("Existing converter for %s and %s", converter.getFHIRResource().getName(), converter.getJavaClass().getName()));
-        }
-
-        this.fhirResourceMap.put(converter.getFHIRResource(), converter);
-        this.javaClassMap.put(converter.getJavaClass(), converter);
-
-        this.converterHash.add(hash);
+    public void addConverter(FHIRConverter<?, ?> converter) {
+        addConverters(List.of(converter));
     }
 
     /**
@@ -66,14 +60,9 @@ public class FHIREntityConverter {
     @SuppressWarnings("unchecked")
     public <T, S extends Base> T fromFHIR(Class<T> targetClass, S resource) {
         logger.debug("Finding converter from {} to {}", resource, targetClass);
-        final FHIRConverter<S, T> converter;
-        synchronized (this) {
-            converter = this.fhirResourceMap.get(resource.getClass())
-                    .stream()
-                    .filter(c -> c.getJavaClass().isAssignableFrom(targetClass))
-                    .map(c -> (FHIRConverter<S, T>) c)
-                    .findAny()
-                    .orElseThrow(() -> new MissingConverterException(resource.getClass(), targetClass));
+        final FHIRConverter<S, T> converter = (FHIRConverter<S, T>) findConverter(this.fhirResourceTable, resource.getClass(), targetClass);
+        if (converter == null) {
+            throw new MissingConverterException(resource.getClass(), targetClass);
         }
 
         return handleConversion(() -> converter.fromFHIR(this, resource));
@@ -93,14 +82,9 @@ public class FHIREntityConverter {
     @SuppressWarnings("unchecked")
     public <T extends Base, S> T toFHIR(Class<T> fhirClass, S source) {
         logger.debug("Finding converter from {} to {}", source, fhirClass);
-        final FHIRConverter<T, S> converter;
-        synchronized (this) {
-            converter = this.javaClassMap.get(source.getClass())
-                    .stream()
-                    .filter(c -> c.getFHIRResource().isAssignableFrom(fhirClass))
-                    .map(c -> (FHIRConverter<T, S>) c)
-                    .findAny()
-                    .orElseThrow(() -> new MissingConverterException(source.getClass(), fhirClass));
+        final FHIRConverter<T, S> converter = (FHIRConverter<T, S>) findConverter(this.javaClassTable, source.getClass(), fhirClass);
+        if (converter == null) {
+            throw new MissingConverterException(source.getClass(), fhirClass);
         }
 
         return handleConversion(() -> converter.toFHIR(this, source));
@@ -129,11 +113,44 @@ public class FHIREntityConverter {
     static FHIREntityConverter initialize(Collection<FHIRConverter<?, ?>> converters) {
         final FHIREntityConverter converter = new FHIREntityConverter();
 
-        converters
-                .forEach(converter::addConverter);
+        converter.addConverters(converters);
         return converter;
     }
 
+    private synchronized void addConverters(Collection<FHIRConverter<?, ?>> converters) {
+        final Table<Class<?>, Class<?>, FHIRConverter<?, ?>> fhirResources = HashBasedTable.create(this.fhirResourceTable);
+        final Table<Class<?>, Class<?>, FHIRConverter<?, ?>> javaClasses = HashBasedTable.create(this.javaClassTable);
+
+        for (final FHIRConverter<?, ?> converter : converters) {
+            logger.debug("Attempting to add converter: {}", converter);
+            // See if we already have something like this
+            if (fhirResources.contains(converter.getFHIRResource(), converter.getJavaClass())) {
+                throw new FHIRConverterException(String.format("Existing converter for %s and %s", converter.getFHIRResource().getName(), converter.getJavaClass().getName()));
+            }
+            fhirResources.put(converter.getFHIRResource(), converter.getJavaClass(), converter);
+            javaClasses.put(converter.getJavaClass(), converter.getFHIRResource(), converter);
+        }
+
+        this.fhirResourceTable = ImmutableTable.copyOf(fhirResources);
+        this.javaClassTable = ImmutableTable.copyOf(javaClasses);
+    }
+
+    /**
+     * Find the converter for the given source class whose target is the given class, or a supertype of it
+     */
+    private static FHIRConverter<?, ?> findConverter(ImmutableTable<Class<?>, Class<?>, FHIRConverter<?, ?>> table, Class<?> sourceClass, Class<?> targetClass) {
+        final FHIRConverter<?, ?> converter = table.get(sourceClass, targetClass);
+        if (converter != null) {
+            return converter;
+        }
+        for (final Map.Entry<Class<?>, FHIRConverter<?, ?>> entry : table.row(sourceClass).entrySet()) {
+            if (entry.getKey().isAssignableFrom(targetClass)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
     private static <T> T handleConversion(Supplier<T> converter) {
         try {
             return converter.get();
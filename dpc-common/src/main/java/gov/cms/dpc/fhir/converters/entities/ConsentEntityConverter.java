@@ -113,7 +113,13 @@ public class ConsentEntityConverter {
         return coding.getCode();
     }
 
-    private static String mbiFromPatientReference(String patientRefStr) {
+    /**
+     * Extract the MBI from a Consent patient reference, as generated by {@link #toFhir(ConsentEntity, String)}
+     *
+     * @param patientRefStr - {@link String} patient reference
+     * @return - {@link String} MBI, or an empty string if the reference doesn't contain one
+     */
+    public static String mbiFromPatientReference(String patientRefStr) {
         String mbi = "";
         Pattern patientIdPattern = Pattern.compile("/Patient\\?identity=\\|(?<mbi>\\d[a-zA-Z][a-zA-Z0-9]\\d[a-zA-Z][a-zA-Z0-9]\\d[a-zA-Z]{2}\\d{2})");
         Matcher matcher = patientIdPattern.matcher(patientRefStr);
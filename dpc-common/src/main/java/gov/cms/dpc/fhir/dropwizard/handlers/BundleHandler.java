@@ -21,12 +21,11 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * {@link MessageBodyWriter} implementation that creates {@link Bundle} resources from a given {@link Collection} of {@link Resource}es.
+ * The bundle is streamed to the client one entry at a time (see {@link FHIRHandler#writeBundleTo}), so the collection is only iterated once, and may be a lazy view.
  * This uses Guava's {@link TypeToken} to handle the runtime type reflection.
  */
 @Provider
@@ -54,17 +53,7 @@ public class BundleHandler implements MessageBodyWriter<Collection<Resource>> {
     @Override
     public void writeTo(Collection<Resource> baseResources, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
         final Bundle bundle = generateBaseBundle(annotations, baseResources.size());
-        final List<Bundle.BundleEntryComponent> entries = baseResources
-                .stream()
-                .map(resource -> {
-                    final Bundle.BundleEntryComponent bundleEntryComponent = new Bundle.BundleEntryComponent();
-                    bundleEntryComponent.setResource(resource);
-                    return bundleEntryComponent;
-                })
-                .collect(Collectors.toList());
-
-        bundle.setEntry(entries);
-        this.handler.writeTo(bundle, type, genericType, annotations, mediaType, httpHeaders, entityStream);
+        this.handler.writeBundleTo(bundle, baseResources, entityStream);
     }
 
     private Bundle generateBaseBundle(Annotation[] annotations, int entryCount) {
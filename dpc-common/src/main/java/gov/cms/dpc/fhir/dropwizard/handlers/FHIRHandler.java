@@ -7,6 +7,8 @@ import gov.cms.dpc.fhir.FHIRMediaTypes;
 import gov.cms.dpc.fhir.annotations.FHIR;
 import org.eclipse.jetty.http.HttpStatus;
 import org.hl7.fhir.dstu3.model.BaseResource;
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Resource;
 
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
@@ -21,6 +23,7 @@ import java.io.*;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 
 @Provider
 @FHIR
@@ -29,10 +32,13 @@ import java.nio.charset.StandardCharsets;
 public class FHIRHandler implements MessageBodyReader<BaseResource>, MessageBodyWriter<BaseResource> {
 
     private final FhirContext ctx;
+    // Parsers aren't thread safe, but are safe to reuse, so each request thread keeps its own
+    private final ThreadLocal<IParser> writeParser;
 
     @Inject
     public FHIRHandler(FhirContext context) {
         this.ctx = context;
+        this.writeParser = ThreadLocal.withInitial(context::newJsonParser);
     }
 
     @Override
@@ -67,7 +73,66 @@ public class FHIRHandler implements MessageBodyReader<BaseResource>, MessageBody
 
     @Override
     public void writeTo(BaseResource baseResource, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
-        final IParser parser = ctx.newJsonParser();
-        parser.encodeResourceToWriter(baseResource, new OutputStreamWriter(entityStream, StandardCharsets.UTF_8));
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(entityStream, StandardCharsets.UTF_8));
+        writeParser.get().encodeResourceToWriter(baseResource, new NonClosingWriter(writer));
+        writer.flush();
+    }
+
+    /**
+     * Write a {@link Bundle} containing the given resources, without ever building the full bundle (or its encoded form) in memory.
+     * The envelope is encoded first, followed by each entry in turn, so only a single resource is being encoded at any time.
+     *
+     * @param envelope     - {@link Bundle} with everything except the entries
+     * @param resources    - {@link Iterable} of {@link Resource} to add as entries, iterated exactly once
+     * @param entityStream - {@link OutputStream} to write to
+     * @throws IOException - if the bundle can't be written
+     */
+    public void writeBundleTo(Bundle envelope, Iterable<? extends Resource> resources, OutputStream entityStream) throws IOException {
+        final IParser parser = writeParser.get();
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(entityStream, StandardCharsets.UTF_8));
+        final Writer entryWriter = new NonClosingWriter(writer);
+
+        if (envelope.hasEntry()) {
+            throw new IllegalArgumentException("Bundle envelope cannot have entries");
+        }
+        final String encodedEnvelope = parser.encodeResourceToString(envelope);
+        final Iterator<? extends Resource> iterator = resources.iterator();
+        if (!iterator.hasNext()) {
+            writer.write(encodedEnvelope);
+        } else {
+            // Re-open the envelope object, so we can append the entries
+            writer.write(encodedEnvelope, 0, encodedEnvelope.lastIndexOf('}'));
+            writer.write(",\"entry\":[");
+            boolean first = true;
+            while (iterator.hasNext()) {
+                writer.write(first ? "{\"resource\":" : ",{\"resource\":");
+                parser.encodeResourceToWriter(iterator.next(), entryWriter);
+                writer.write('}');
+                first = false;
+            }
+            writer.write("]}");
+        }
+        writer.flush();
+    }
+
+    /**
+     * The parser flushes and closes the writer once it's done encoding a resource, which would also close the response stream,
+     * and would push a partly filled buffer to the client after every entry. The caller flushes once, when the whole response has been written.
+     */
+    private static class NonClosingWriter extends FilterWriter {
+
+        NonClosingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void flush() {
+            // Not flushed until the caller is done
+        }
+
+        @Override
+        public void close() {
+            // Not closed, the caller owns the underlying writer
+        }
     }
 }
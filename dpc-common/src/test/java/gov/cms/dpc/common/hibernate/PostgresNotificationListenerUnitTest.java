@@ -0,0 +1,125 @@
+package gov.cms.dpc.common.hibernate;
+
+import gov.cms.dpc.common.consent.entities.OptOutFileEntity;
+import gov.cms.dpc.testing.AbstractDAOTest;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgresNotificationListenerUnitTest extends AbstractDAOTest<OptOutFileEntity> {
+	private static final String CHANNEL = "test_channel";
+	private static final String OTHER_CHANNEL = "other_test_channel";
+
+	private PostgresNotificationListener listener;
+
+	@BeforeEach
+	void setup() {
+		listener = new PostgresNotificationListener(db.getSessionFactory());
+	}
+
+	@AfterEach
+	void tearDown() {
+		listener.stop();
+	}
+
+	@Test
+	void testDeliversNotifications() throws InterruptedException {
+		final Recorder recorder = new Recorder(1);
+		listener.listen(CHANNEL, recorder);
+		assertTrue(recorder.connected.await(10, TimeUnit.SECONDS), "Should connect");
+
+		sendNotification(CHANNEL, "payload");
+		assertTrue(recorder.received.await(10, TimeUnit.SECONDS), "Should receive notification");
+		assertEquals(List.of("payload"), recorder.payloads);
+	}
+
+	@Test
+	void testListensOnChannelAddedAfterConnecting() throws InterruptedException {
+		final Recorder first = new Recorder(1);
+		listener.listen(CHANNEL, first);
+		assertTrue(first.connected.await(10, TimeUnit.SECONDS), "Should connect");
+
+		final Recorder second = new Recorder(1);
+		listener.listen(OTHER_CHANNEL, second);
+		sendNotification(OTHER_CHANNEL, "other");
+
+		assertTrue(second.received.await(10, TimeUnit.SECONDS), "Should receive notification on new channel");
+		assertAll(() -> assertEquals(List.of("other"), second.payloads),
+				() -> assertTrue(first.payloads.isEmpty(), "Should not receive notifications for other channels"));
+	}
+
+	@Test
+	void testDoesNotDeliverRolledBackNotifications() throws InterruptedException {
+		final Recorder recorder = new Recorder(1);
+		listener.listen(CHANNEL, recorder);
+		assertTrue(recorder.connected.await(10, TimeUnit.SECONDS), "Should connect");
+
+		try (final Session session = db.getSessionFactory().openSession()) {
+			final Transaction tx = session.beginTransaction();
+			PostgresNotificationListener.notify(session, CHANNEL, "rolled-back");
+			tx.rollback();
+		}
+		sendNotification(CHANNEL, "committed");
+
+		assertTrue(recorder.received.await(10, TimeUnit.SECONDS), "Should receive notification");
+		assertEquals(List.of("committed"), recorder.payloads);
+	}
+
+	@Test
+	void testStopReleasesConnection() throws InterruptedException {
+		final Recorder recorder = new Recorder(1);
+		listener.listen(CHANNEL, recorder);
+		assertTrue(recorder.connected.await(10, TimeUnit.SECONDS), "Should connect");
+		assertTrue(listener.isConnected());
+
+		listener.stop();
+		assertFalse(listener.isConnected(), "Should close connection when stopped");
+
+		// Registering a callback must not start listening again
+		final Recorder late = new Recorder(1);
+		listener.listen(OTHER_CHANNEL, late);
+		assertFalse(late.connected.await(1, TimeUnit.SECONDS), "Should not reconnect after being stopped");
+		assertFalse(listener.isConnected());
+	}
+
+	private void sendNotification(String channel, String payload) {
+		try (final Session session = db.getSessionFactory().openSession()) {
+			final Transaction tx = session.beginTransaction();
+			PostgresNotificationListener.notify(session, channel, payload);
+			tx.commit();
+		}
+	}
+
+	/**
+	 * Records the payloads it's called with. A null payload means the listener has (re)connected.
+	 */
+	private static class Recorder implements Consumer<String> {
+		private final CountDownLatch connected = new CountDownLatch(1);
+		private final CountDownLatch received;
+		private final List<String> payloads = new CopyOnWriteArrayList<>();
+
+		Recorder(int expected) {
+			this.received = new CountDownLatch(expected);
+		}
+
+		@Override
+		public void accept(String payload) {
+			if (payload == null) {
+				connected.countDown();
+			} else {
+				payloads.add(payload);
+				received.countDown();
+			}
+		}
+	}
+}
@@ -197,4 +197,41 @@ public class DPCJsonLayoutUnitTest {
         assertEquals("value1", map.get("key1"));
         assertEquals("value2a,value2b", map.get("key2"));
     }
+
+    @Test
+    void testMessagesNotParsableAsMap() {
+        List.of("key1=value1, key1=value2", "key1=value1,", "key1=, key2=value2", "key1=value1\\").forEach(message -> {
+            when(loggingEvent.getFormattedMessage()).thenReturn(message);
+            Map<String, Object> map = dpcJsonLayout.toJsonMap(loggingEvent);
+            assertEquals(message, map.get("message"));
+        });
+    }
+
+    @Test
+    void testOnlyFirstValueIsKept() {
+        String message = "key1==value1, key2=value2=value3";
+
+        when(loggingEvent.getFormattedMessage()).thenReturn(message);
+        Map<String, Object> map = dpcJsonLayout.toJsonMap(loggingEvent);
+        assertFalse(map.containsKey("message"));
+        assertEquals("", map.get("key1"));
+        assertEquals("value2", map.get("key2"));
+    }
+
+    @Test
+    void testMaskingOrder() {
+        Map<String,String> inputOutputMap = Maps.newHashMap();
+        inputOutputMap.put("Detail: Batch entry 1 was aborted", "**********");
+        inputOutputMap.put("Batch entry 1 Detail: was aborted", "Batch entry 1 **********");
+        inputOutputMap.put("Batch entry 1\nwas aborted", "Batch entry 1\nwas aborted");
+        inputOutputMap.put("Batch entry 1SQ3F00AA00 was aborted", "Batch entry ***MBI?*** was aborted");
+        inputOutputMap.put("Batch entry 11SQ3F00AA00 was aborted", "**********");
+        inputOutputMap.put("Batch entry 0 was aborted, Batch entry 1 was aborted", "**********, **********");
+
+        inputOutputMap.forEach((unMaskedMessage, expectedMaskedMessage) -> {
+            when(loggingEvent.getFormattedMessage()).thenReturn(unMaskedMessage);
+            Map<String, Object> map = dpcJsonLayout.toJsonMap(loggingEvent);
+            assertEquals(expectedMaskedMessage, map.get("message"));
+        });
+    }
 }
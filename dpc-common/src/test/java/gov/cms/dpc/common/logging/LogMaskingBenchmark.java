@@ -0,0 +1,86 @@
+package gov.cms.dpc.common.logging;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compares the single pass {@link LogMessageMasker} and {@link KeyValueTokenizer} against the regex and CSV parser based
+ * pipeline {@link DPCJsonLayout} used previously, for the kinds of messages we log most often.
+ * <p>
+ * Not run as part of the test suite, run {@link #main(String[])} after compiling the test classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogMaskingBenchmark {
+
+    private static final Pattern MBI_PATTERN = Pattern.compile("\\d[a-zA-Z][a-zA-Z0-9]\\d[a-zA-Z][a-zA-Z0-9]\\d[a-zA-Z]{2}\\d{2}");
+    private static final Pattern PSQL_BATCH_ENTRY_EXCEPTION_PATTERN = Pattern.compile("Batch entry \\d+.*?was aborted");
+    private static final Pattern PSQL_DETAIL_EXCEPTION_PATTERN = Pattern.compile("Detail:.*");
+
+    @Param({
+            "dpcMetric=DataExportResult, dataRetrieved=true, jobID=1a2b3c4d-0000-0000-0000-000000000000, batchID=5e6f7a8b-0000-0000-0000-000000000000, resourceType=Patient, mbi=1SQ3F00AA00",
+            "Finished processing batch 5e6f7a8b-0000-0000-0000-000000000000 for job 1a2b3c4d-0000-0000-0000-000000000000",
+            "Wrapped by: java.sql.BatchUpdateException: Batch entry 0 insert into organizations (id) values ('d2fcd068-a818-4874-9fc2-fd9633b073a2'::uuid) was aborted: ERROR: duplicate key\n  Detail: Key (id_system, id_value)=(1, 1111111112) already exists."
+    })
+    public String message;
+
+    @Benchmark
+    public Object singlePass() {
+        final String masked = LogMessageMasker.mask(message, true);
+        final Map<String, String> entries = KeyValueTokenizer.tokenize(masked);
+        return entries == null ? masked : entries;
+    }
+
+    @Benchmark
+    public Object regexAndCSV() {
+        String masked = MBI_PATTERN.matcher(message).replaceAll(LogMessageMasker.MBI_MASK);
+        masked = PSQL_DETAIL_EXCEPTION_PATTERN.matcher(masked).replaceAll(LogMessageMasker.DATABASE_INFO_MASK);
+        masked = PSQL_BATCH_ENTRY_EXCEPTION_PATTERN.matcher(masked).replaceAll(LogMessageMasker.DATABASE_INFO_MASK);
+        try {
+            return splitToMap(masked);
+        } catch (Exception e) {
+            return masked;
+        }
+    }
+
+    private static Map<String, String> splitToMap(String in) throws IOException {
+        CSVFormat csvFormat = CSVFormat.newFormat(',').builder()
+                .setSkipHeaderRecord(true)
+                .setEscape('\\')
+                .build();
+
+        CSVRecord rec = csvFormat.parse(new StringReader(in)).getRecords().get(0);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rec.iterator(), 0), false)
+                .map(field -> field.split("="))
+                .collect(Collectors.toMap(
+                        array -> StringUtils.strip(array[0]),
+                        array -> StringUtils.strip(array[1])
+                ));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LogMaskingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,65 @@
+package gov.cms.dpc.common.logging.filters;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares searching log messages for secrets with a {@link SecretMatcher} against calling {@link String#contains(CharSequence)} for each secret,
+ * which is what {@link SecretLoggingFilter} did previously.
+ * <p>
+ * Not run as part of the test suite, run {@link #main(String[])} after compiling the test classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecretMatcherBenchmark {
+
+    private static final String MESSAGE = "dpcMetric=DataExportResult, dataRetrieved=true, jobID=1a2b3c4d-0000-0000-0000-000000000000, batchID=5e6f7a8b-0000-0000-0000-000000000000, resourceType=Patient";
+
+    @Param({"1", "5", "20"})
+    public int secretCount;
+
+    private List<String> secrets;
+    private SecretMatcher matcher;
+
+    @Setup
+    public void setup() {
+        secrets = IntStream.range(0, secretCount)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .collect(Collectors.toList());
+        matcher = new SecretMatcher(secrets);
+    }
+
+    @Benchmark
+    public int matcher() {
+        return matcher.find(MESSAGE);
+    }
+
+    @Benchmark
+    public int contains() {
+        for (int i = 0; i < secrets.size(); i++) {
+            if (MESSAGE.contains(secrets.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SecretMatcherBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
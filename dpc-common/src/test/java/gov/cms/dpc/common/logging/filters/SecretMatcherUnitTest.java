@@ -0,0 +1,45 @@
+package gov.cms.dpc.common.logging.filters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SecretMatcherUnitTest {
+
+	@Test
+	void test_findsEachPattern() {
+		SecretMatcher matcher = new SecretMatcher(List.of("he", "she", "his", "hers"));
+
+		assertEquals(0, matcher.find("ahe"));
+		assertEquals(1, matcher.find("ushe"));
+		assertEquals(2, matcher.find("this"));
+		assertEquals(0, matcher.find("hers"));
+		assertEquals(-1, matcher.find("hs hi sh"));
+	}
+
+	@Test
+	void test_followsFailureLinks() {
+		SecretMatcher matcher = new SecretMatcher(List.of("abcd", "bce"));
+
+		assertEquals(1, matcher.find("abce"), "Should fall back to the suffix of a partial match");
+		assertEquals(0, matcher.find("ababcd"));
+		assertEquals(-1, matcher.find("abcabc"));
+	}
+
+	@Test
+	void test_findsNestedPatterns() {
+		SecretMatcher matcher = new SecretMatcher(List.of("secret_value_long", "value"));
+
+		assertEquals(1, matcher.find("the_value"));
+		assertEquals(1, matcher.find("secret_value_long"), "Should find the nested pattern which ends first");
+		assertEquals(0, new SecretMatcher(List.of("secret_value", "value")).find("secret_value"));
+	}
+
+	@Test
+	void test_handlesEmptyPatterns() {
+		assertEquals(-1, new SecretMatcher(List.of()).find("anything"));
+		assertEquals(0, new SecretMatcher(List.of("")).find("anything"), "An empty pattern is in everything");
+	}
+}
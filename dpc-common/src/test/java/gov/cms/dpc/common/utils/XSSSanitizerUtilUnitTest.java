@@ -0,0 +1,51 @@
+package gov.cms.dpc.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.UriInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class XSSSanitizerUtilUnitTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "v1/Patient",
+            "v1/Group/1a2b3c4d-0000-0000-0000-000000000000/$export",
+            "v1/Patient?_id=1,2;x='y'\"z\"",
+            "v1/Patient/<script>alert(1)</script>",
+            "v1/Patient/a & b",
+            "v1/Patient/&amp;",
+            "v1/Patient/a b",
+            "v1/Patient/é"
+    })
+    void testSanitizePathMatchesSanitize(String path) {
+        assertEquals(XSSSanitizerUtil.sanitize(path), XSSSanitizerUtil.sanitizePath(path));
+    }
+
+    @Test
+    void testSafePathIsNotCopied() {
+        final String path = "v1/Patient/$everything";
+        assertSame(path, XSSSanitizerUtil.sanitizePath(path));
+    }
+
+    @Test
+    void testSanitizedPathIsStoredOnRequest() {
+        final ContainerRequestContext requestContext = Mockito.mock(ContainerRequestContext.class);
+        final UriInfo uriInfo = Mockito.mock(UriInfo.class);
+        Mockito.when(requestContext.getUriInfo()).thenReturn(uriInfo);
+        Mockito.when(uriInfo.getPath()).thenReturn("v1/<b>Patient</b>");
+
+        assertEquals("v1/Patient", XSSSanitizerUtil.getSanitizedPath(requestContext));
+        Mockito.verify(requestContext).setProperty(XSSSanitizerUtil.SANITIZED_PATH_PROPERTY, "v1/Patient");
+
+        Mockito.when(requestContext.getProperty(XSSSanitizerUtil.SANITIZED_PATH_PROPERTY)).thenReturn("v1/Patient");
+        assertEquals("v1/Patient", XSSSanitizerUtil.getSanitizedPath(requestContext));
+        Mockito.verify(uriInfo, Mockito.times(1)).getPath();
+    }
+}
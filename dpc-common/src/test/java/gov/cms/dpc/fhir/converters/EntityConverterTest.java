@@ -13,8 +13,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -108,6 +114,39 @@ public class EntityConverterTest {
         assertEquals("Existing converter for org.hl7.fhir.dstu3.model.Patient and gov.cms.dpc.fhir.converters.EntityConverterTest$PatientGenderConverter$PatientGender", exception.getMessage(), "Should have correct error message");
     }
 
+    @Test
+    void testDuplicateConvertersOnInitialize() {
+        final List<FHIRConverter<?, ?>> converters = List.of(new PatientGenderConverter(), new PatientBirthDateConverter(), new PatientGenderConverter());
+        assertThrows(FHIRConverterException.class, () -> FHIREntityConverter.initialize(converters));
+    }
+
+    @Test
+    void testConcurrentConversion() throws InterruptedException, ExecutionException {
+        converter.addConverter(new PatientGenderConverter());
+
+        final Patient patient = new Patient();
+        patient.setGender(Enumerations.AdministrativeGender.FEMALE);
+        patient.setId(UUID.randomUUID().toString());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Patient>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> {
+                    final PatientGenderConverter.PatientGender patientGender = converter.fromFHIR(PatientGenderConverter.PatientGender.class, patient);
+                    return converter.toFHIR(Patient.class, patientGender);
+                }));
+            }
+            // Registering a converter while others are converting shouldn't affect them
+            converter.addConverter(new PatientBirthDateConverter());
+            for (final Future<Patient> result : results) {
+                assertTrue(patient.equalsDeep(result.get()), "conversion should be symmetric");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 
     static class PatientGenderConverter implements FHIRConverter<Patient, PatientGenderConverter.PatientGender> {
 
@@ -0,0 +1,69 @@
+package gov.cms.dpc.fhir.converters;
+
+import gov.cms.dpc.common.entities.OrganizationEntity;
+import gov.cms.dpc.common.entities.PatientEntity;
+import org.hl7.fhir.dstu3.model.Enumerations;
+import org.hl7.fhir.dstu3.model.Patient;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link FHIREntityConverter} when many request threads convert entities at the same time,
+ * which is how the attribution service uses it when returning large rosters and patient listings.
+ * <p>
+ * Not run as part of the test suite, run {@link #main(String[])} after compiling the test classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class FHIREntityConverterBenchmark {
+
+    private FHIREntityConverter converter;
+    private PatientEntity patientEntity;
+    private Patient patient;
+
+    @Setup
+    public void setup() {
+        converter = FHIREntityConverter.initialize();
+
+        final OrganizationEntity organization = new OrganizationEntity();
+        organization.setId(UUID.randomUUID());
+        patientEntity = new PatientEntity();
+        patientEntity.setID(UUID.randomUUID());
+        patientEntity.setFirstName("Bob");
+        patientEntity.setLastName("Jones");
+        patientEntity.setGender(Enumerations.AdministrativeGender.MALE);
+        patientEntity.setDob(LocalDate.of(1950, 2, 11));
+        patientEntity.setOrganization(organization);
+        patientEntity.setBeneficiaryID("1aa2aa3aa44");
+
+        patient = converter.toFHIR(Patient.class, patientEntity);
+    }
+
+    @Benchmark
+    public Patient toFHIR() {
+        return converter.toFHIR(Patient.class, patientEntity);
+    }
+
+    @Benchmark
+    public PatientEntity fromFHIR() {
+        return converter.fromFHIR(PatientEntity.class, patient);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FHIREntityConverterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -5,8 +5,10 @@ import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import org.apache.commons.io.IOUtils;
 import org.eclipse.jetty.http.HttpStatus;
 import org.hl7.fhir.dstu3.model.BaseResource;
+import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.fhir.dstu3.model.Group;
 import org.hl7.fhir.dstu3.model.Patient;
+import org.hl7.fhir.dstu3.model.Practitioner;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -19,6 +21,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -86,5 +89,40 @@ public class FHIRHandlerTest {
             final Patient p2 = ctx.newJsonParser().parseResource(Patient.class, bis);
             assertTrue(patient.equalsDeep(p2), "Should be equal");
         }
+
+        @Test
+        void testBundleWrite() throws IOException {
+            final Patient patient = new Patient();
+            patient.setId("test-patient");
+            patient.addIdentifier().setSystem("http://test.local").setValue("test-patient");
+            final Practitioner practitioner = new Practitioner();
+            practitioner.setId("test-practitioner");
+            practitioner.addName().setFamily("Doe");
+
+            final Bundle expected = new Bundle();
+            expected.setType(Bundle.BundleType.SEARCHSET);
+            expected.setTotal(2);
+            expected.addEntry().setResource(patient);
+            expected.addEntry().setResource(practitioner);
+
+            final Bundle envelope = new Bundle();
+            envelope.setType(Bundle.BundleType.SEARCHSET);
+            envelope.setTotal(2);
+
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            handler.writeBundleTo(envelope, List.of(patient, practitioner), bos);
+            assertEquals(ctx.newJsonParser().encodeResourceToString(expected), bos.toString(StandardCharsets.UTF_8), "Should match the encoded bundle");
+        }
+
+        @Test
+        void testEmptyBundleWrite() throws IOException {
+            final Bundle envelope = new Bundle();
+            envelope.setType(Bundle.BundleType.SEARCHSET);
+            envelope.setTotal(0);
+
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            handler.writeBundleTo(envelope, List.of(), bos);
+            assertEquals(ctx.newJsonParser().encodeResourceToString(envelope), bos.toString(StandardCharsets.UTF_8), "Should match the encoded bundle");
+        }
     }
 }
@@ -8,6 +8,9 @@ import javax.inject.Inject;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -43,4 +46,57 @@ public class ConsentDAO extends AbstractDAO<ConsentEntity> {
 
         return this.list(query);
     }
+
+    public final List<ConsentEntity> findBy(String field, Collection<String> values) {
+        final CriteriaBuilder builder = currentSession().getCriteriaBuilder();
+        final CriteriaQuery<ConsentEntity> query = builder.createQuery(ConsentEntity.class);
+        final Root<ConsentEntity> root = query.from(ConsentEntity.class);
+
+        query.select(root).where(root.get(field).in(values));
+
+        return this.list(query);
+    }
+
+    /**
+     * Find the most recent consent record (by effective date) for each of the given MBIs, in a single query
+     *
+     * @param mbis - {@link Collection} of MBIs to search for
+     * @return - {@link List} of {@link ConsentEntity}, at most one per MBI
+     */
+    public final List<ConsentEntity> findLatestByMbis(Collection<String> mbis) {
+        return currentSession()
+                .createNativeQuery("SELECT DISTINCT ON (mbi) * FROM consent WHERE mbi IN (:mbis) " +
+                        "ORDER BY mbi, effective_date DESC, created_at DESC NULLS LAST", ConsentEntity.class)
+                .setParameterList("mbis", mbis)
+                .getResultList();
+    }
+
+    /**
+     * Find the most recent consent record (by effective date) for each MBI which has had any of its consent records created or updated since the given time.
+     * Results are ordered by MBI, so the caller can page through them by passing the last MBI it received as the next {@code afterMbi}.
+     * A {@code since} at or before the epoch is a full load, which returns every MBI without looking at the update times, so each page only reads the rows it returns.
+     *
+     * @param since    - {@link OffsetDateTime} only include MBIs with a consent record updated after this time
+     * @param afterMbi - {@link String} only include MBIs which sort after this one (use an empty string to start from the beginning)
+     * @param limit    - maximum number of records to return
+     * @return - {@link List} of {@link ConsentEntity}, at most one per MBI
+     */
+    public final List<ConsentEntity> findLatestChangedSince(OffsetDateTime since, String afterMbi, int limit) {
+        if (!since.toInstant().isAfter(Instant.EPOCH)) {
+            return currentSession()
+                    .createNativeQuery("SELECT DISTINCT ON (mbi) * FROM consent WHERE mbi > :after " +
+                            "ORDER BY mbi, effective_date DESC, created_at DESC NULLS LAST LIMIT :limit", ConsentEntity.class)
+                    .setParameter("after", afterMbi)
+                    .setParameter("limit", limit)
+                    .getResultList();
+        }
+        return currentSession()
+                .createNativeQuery("SELECT DISTINCT ON (mbi) * FROM consent " +
+                        "WHERE mbi > :after AND mbi IN (SELECT mbi FROM consent WHERE updated_at > :since) " +
+                        "ORDER BY mbi, effective_date DESC, created_at DESC NULLS LAST LIMIT :limit", ConsentEntity.class)
+                .setParameter("since", since)
+                .setParameter("after", afterMbi)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
 }
@@ -4,6 +4,7 @@ import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
 import com.google.common.base.Splitter;
 import com.google.inject.name.Named;
+import gov.cms.dpc.common.Constants;
 import gov.cms.dpc.common.consent.entities.ConsentEntity;
 import gov.cms.dpc.consent.jdbi.ConsentDAO;
 import gov.cms.dpc.fhir.DPCIdentifierSystem;
@@ -23,11 +24,11 @@ import org.hl7.fhir.dstu3.model.Identifier;
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @Path("v1/Consent")
 public class ConsentResource {
@@ -61,12 +62,19 @@ public class ConsentResource {
     @ExceptionMetered
     @UnitOfWork
     @ApiOperation(value = "Search for Consent Entries", notes = "Search for Consent records. " +
-            "<p>Must provide ONE OF Consent ID as an _id or identifier, or a patient MBI or HICN to search for.", response = Bundle.class)
+            "<p>Must provide ONE OF Consent ID as an _id or identifier, or a patient MBI or HICN to search for." +
+            "<p>When searching by patient, `_latest=true` only returns the most recent Consent for each MBI." +
+            "<p>Alternatively, `_latest=true` with `_changedSince` returns the most recent Consent for every MBI with a Consent created or updated since that time, " +
+            "ordered by MBI. Pages of `_count` results are fetched by passing the last MBI received as `_afterMbi`.", response = Bundle.class)
     @ApiResponses(@ApiResponse(code = 400, message = "Must provide Consent or Patient id"))
     public List<Consent> search(
             @ApiParam(value = "Consent resource _id") @QueryParam(Consent.SP_RES_ID) Optional<UUID> id,
             @ApiParam(value = "Consent resource identifier") @QueryParam(Consent.SP_IDENTIFIER) Optional<UUID> identifier,
-            @ApiParam(value = "Patient Identifier") @QueryParam(Consent.SP_PATIENT) Optional<String> patientId) {
+            @ApiParam(value = "Patient Identifier") @QueryParam(Consent.SP_PATIENT) Optional<String> patientId,
+            @ApiParam(value = "Only return the latest Consent for each patient") @QueryParam(Constants.ConsentSearch.LATEST_PARAM) boolean latest,
+            @ApiParam(value = "Only return patients with a Consent changed since this time (ISO-8601)") @QueryParam(Constants.ConsentSearch.CHANGED_SINCE_PARAM) Optional<String> changedSince,
+            @ApiParam(value = "Only return patients whose MBI sorts after this one") @QueryParam(Constants.ConsentSearch.AFTER_MBI_PARAM) Optional<String> afterMbi,
+            @ApiParam(value = "Maximum number of results") @QueryParam(Constants.ConsentSearch.COUNT_PARAM) Optional<Integer> count) {
 
         List<ConsentEntity> entities = new ArrayList<>();
 
@@ -81,10 +89,13 @@ public class ConsentResource {
             entities = consentEntity.map(List::of).orElse(entities);
 
         } else if (patientId.isPresent()) {
-            for (String pId : Splitter.on(',').split(patientId.get())) {
-                final Identifier patientIdentifier = FHIRExtractors.parseIDFromQueryParam(pId);
-                entities.addAll(getEntitiesByPatient(patientIdentifier));
-            }
+            final List<Identifier> patientIdentifiers = StreamSupport.stream(Splitter.on(',').split(patientId.get()).spliterator(), false)
+                    .map(FHIRExtractors::parseIDFromQueryParam)
+                    .collect(Collectors.toList());
+            entities = getEntitiesByPatients(patientIdentifiers, latest);
+
+        } else if (latest && changedSince.isPresent()) {
+            entities = this.dao.findLatestChangedSince(parseChangedSince(changedSince.get()), afterMbi.orElse(""), getCount(count));
 
         } else {
             throw new WebApplicationException("Must have some form of Consent Resource ID or Patient ID", Response.Status.BAD_REQUEST);
@@ -128,22 +139,52 @@ public class ConsentResource {
         return ConsentEntityConverter.toFhir(entity, fhirReferenceURL);
     }
 
-    private List<ConsentEntity> getEntitiesByPatient(Identifier patientIdentifier) {
-        String field;
+    private List<ConsentEntity> getEntitiesByPatients(List<Identifier> patientIdentifiers, boolean latest) {
+        // we have been asked to search for patient ids defined by one among two (soon three!) coding systems
+        // we need to determine which database field each system's values are stored in, so we can query each field once
+        final Map<String, Set<String>> valuesByField = new LinkedHashMap<>();
+        for (Identifier patientIdentifier : patientIdentifiers) {
+            valuesByField.computeIfAbsent(getPatientField(patientIdentifier), field -> new LinkedHashSet<>()).add(patientIdentifier.getValue());
+        }
+
+        final List<ConsentEntity> entities = new ArrayList<>();
+        valuesByField.forEach((field, values) -> {
+            if (latest && field.equals("mbi")) {
+                entities.addAll(this.dao.findLatestByMbis(values));
+            } else if (latest) {
+                throw new WebApplicationException("Can only search for latest Consent by MBI", Response.Status.BAD_REQUEST);
+            } else {
+                entities.addAll(this.dao.findBy(field, values));
+            }
+        });
+        return entities;
+    }
+
+    private static OffsetDateTime parseChangedSince(String changedSince) {
+        try {
+            return OffsetDateTime.parse(changedSince);
+        } catch (DateTimeParseException e) {
+            throw new WebApplicationException("Invalid changed since time", Response.Status.BAD_REQUEST);
+        }
+    }
 
-        // we have been asked to search for a patient id defined by one among two (soon three!) coding systems
-        // we need to determine which database field that system's value is stored in
+    @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+    private static int getCount(Optional<Integer> count) {
+        final int value = count.orElse(Constants.ConsentSearch.DEFAULT_COUNT);
+        if (value < 1 || value > Constants.ConsentSearch.MAX_COUNT) {
+            throw new WebApplicationException(String.format("Count must be between 1 and %d", Constants.ConsentSearch.MAX_COUNT), Response.Status.BAD_REQUEST);
+        }
+        return value;
+    }
+
+    private static String getPatientField(Identifier patientIdentifier) {
         switch (DPCIdentifierSystem.fromString(patientIdentifier.getSystem())) {
             case MBI:
-                field = "mbi";
-                break;
+                return "mbi";
             case HICN:
-                field = "hicn";
-                break;
+                return "hicn";
             default:
                 throw new WebApplicationException("Unknown Patient ID code system", Response.Status.BAD_REQUEST);
         }
-
-        return this.dao.findBy(field, patientIdentifier.getValue());
     }
 }
@@ -8,10 +8,15 @@ import gov.cms.dpc.testing.utils.MBIUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ConsentDAOUnitTest extends AbstractMultipleDAOTest {
 	public ConsentDAOUnitTest() {
@@ -65,6 +70,74 @@ class ConsentDAOUnitTest extends AbstractMultipleDAOTest {
 		assertEquals(consentEntity.getId(), returnedList.get(0).getId());
 	}
 
+	@Test
+	void test_ConsentDAO_findLatestByMbis() {
+		ConsentEntity oldConsent = createConsentEntity();
+		oldConsent.setEffectiveDate(LocalDate.now().minusDays(10));
+		ConsentEntity newConsent = createConsentEntity();
+		newConsent.setMbi(oldConsent.getMbi());
+		ConsentEntity otherConsent = createConsentEntity();
+
+		db.inTransaction(() -> {
+			consentDAO.persistConsent(oldConsent);
+			consentDAO.persistConsent(newConsent);
+			consentDAO.persistConsent(otherConsent);
+			consentDAO.persistConsent(createConsentEntity());
+		});
+
+		List<ConsentEntity> returnedList = consentDAO.findLatestByMbis(Set.of(oldConsent.getMbi(), otherConsent.getMbi()));
+		assertEquals(2, returnedList.size());
+		assertEquals(Set.of(newConsent.getId(), otherConsent.getId()), Set.of(returnedList.get(0).getId(), returnedList.get(1).getId()));
+	}
+
+	@Test
+	void test_ConsentDAO_findLatestChangedSince() {
+		ConsentEntity oldConsent = createConsentEntity();
+		oldConsent.setEffectiveDate(LocalDate.now().minusDays(10));
+		ConsentEntity newConsent = createConsentEntity();
+		newConsent.setMbi(oldConsent.getMbi());
+		ConsentEntity otherConsent = createConsentEntity();
+
+		db.inTransaction(() -> {
+			consentDAO.persistConsent(oldConsent);
+			consentDAO.persistConsent(newConsent);
+			consentDAO.persistConsent(otherConsent);
+		});
+
+		final OffsetDateTime before = OffsetDateTime.now(ZoneOffset.UTC).minusHours(1);
+		List<ConsentEntity> returnedList = consentDAO.findLatestChangedSince(before, "", 10);
+		assertEquals(2, returnedList.size());
+		assertEquals(Set.of(newConsent.getId(), otherConsent.getId()), Set.of(returnedList.get(0).getId(), returnedList.get(1).getId()));
+		assertTrue(returnedList.get(0).getMbi().compareTo(returnedList.get(1).getMbi()) < 0, "Should be ordered by MBI");
+
+		List<ConsentEntity> firstPage = consentDAO.findLatestChangedSince(before, "", 1);
+		List<ConsentEntity> secondPage = consentDAO.findLatestChangedSince(before, firstPage.get(0).getMbi(), 1);
+		assertEquals(returnedList.get(1).getId(), secondPage.get(0).getId(), "Should page by MBI");
+
+		assertTrue(consentDAO.findLatestChangedSince(OffsetDateTime.now(ZoneOffset.UTC).plusHours(1), "", 10).isEmpty(), "Should not find unchanged MBIs");
+	}
+
+	@Test
+	void test_ConsentDAO_findLatestChangedSince_full_load() {
+		ConsentEntity oldConsent = createConsentEntity();
+		oldConsent.setEffectiveDate(LocalDate.now().minusDays(10));
+		ConsentEntity newConsent = createConsentEntity();
+		newConsent.setMbi(oldConsent.getMbi());
+		ConsentEntity otherConsent = createConsentEntity();
+
+		db.inTransaction(() -> {
+			consentDAO.persistConsent(oldConsent);
+			consentDAO.persistConsent(newConsent);
+			consentDAO.persistConsent(otherConsent);
+		});
+
+		final OffsetDateTime epoch = OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+		List<ConsentEntity> firstPage = consentDAO.findLatestChangedSince(epoch, "", 1);
+		List<ConsentEntity> secondPage = consentDAO.findLatestChangedSince(epoch, firstPage.get(0).getMbi(), 1);
+		assertEquals(Set.of(newConsent.getId(), otherConsent.getId()), Set.of(firstPage.get(0).getId(), secondPage.get(0).getId()));
+		assertTrue(consentDAO.findLatestChangedSince(epoch, secondPage.get(0).getMbi(), 1).isEmpty(), "Should run out of MBIs");
+	}
+
 	private ConsentEntity createConsentEntity() {
 		ConsentEntity consentEntity = new ConsentEntity();
 		consentEntity.setMbi(MBIUtil.generateMBI());
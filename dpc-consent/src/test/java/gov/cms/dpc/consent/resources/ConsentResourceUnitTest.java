@@ -3,6 +3,7 @@ package gov.cms.dpc.consent.resources;
 import com.squarespace.jersey2.guice.JerseyGuiceUtils;
 import gov.cms.dpc.common.consent.entities.ConsentEntity;
 import gov.cms.dpc.consent.jdbi.ConsentDAO;
+import gov.cms.dpc.fhir.DPCIdentifierSystem;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
 import org.eclipse.jetty.http.HttpStatus;
@@ -11,17 +12,19 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import javax.ws.rs.core.Response;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static gov.cms.dpc.fhir.FHIRMediaTypes.FHIR_JSON;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * Tests ConsentResource using a mocked DAO, making it possible to run these tests with a database running.
@@ -38,6 +41,7 @@ public class ConsentResourceUnitTest {
     private static final String TEST_HICN = "this_is_a_placeholder_hicn";
     private static final String TEST_MBI = "this_is_a_placeholder_mbi";
     private static final UUID TEST_ID = UUID.randomUUID();
+    private static final OffsetDateTime TEST_SINCE = OffsetDateTime.parse("2023-01-01T00:00:00Z");
 
     private static final ConsentDAO mockedDAO = mock(ConsentDAO.class);
     private static final GrizzlyWebTestContainerFactory testContainer = new GrizzlyWebTestContainerFactory();
@@ -57,8 +61,68 @@ public class ConsentResourceUnitTest {
         List<ConsentEntity> goodRecordList = List.of(goodRecord);
         when(mockedDAO.getConsent(null)).thenThrow(new IllegalArgumentException("empty"));
         when(mockedDAO.getConsent(TEST_ID)).thenReturn(Optional.of(goodRecord));
-        when(mockedDAO.findBy("mbi", TEST_MBI)).thenReturn(goodRecordList);
-        when(mockedDAO.findBy("hicn", TEST_HICN)).thenReturn(goodRecordList);
+        when(mockedDAO.findBy("mbi", Set.of(TEST_MBI))).thenReturn(goodRecordList);
+        when(mockedDAO.findBy("hicn", Set.of(TEST_HICN))).thenReturn(goodRecordList);
+        when(mockedDAO.findLatestByMbis(Set.of(TEST_MBI))).thenReturn(goodRecordList);
+        when(mockedDAO.findLatestChangedSince(TEST_SINCE, TEST_MBI, 10)).thenReturn(goodRecordList);
+    }
+
+    @Test
+    final void search_forLatestConsent_usesSingleQuery() {
+        try (Response response = resource.target("/v1/Consent")
+                .queryParam("patient", String.format("%s|%s", DPCIdentifierSystem.MBI.getSystem(), TEST_MBI))
+                .queryParam("_latest", true)
+                .request()
+                .accept(FHIR_JSON)
+                .get()) {
+
+            assertEquals(HttpStatus.OK_200, response.getStatus(), "should find latest record for test mbi");
+        }
+        verify(mockedDAO).findLatestByMbis(Set.of(TEST_MBI));
+    }
+
+    @Test
+    final void search_forLatestConsent_byHicn_isInvalid() {
+        try (Response response = resource.target("/v1/Consent")
+                .queryParam("patient", String.format("%s|%s", DPCIdentifierSystem.HICN.getSystem(), TEST_HICN))
+                .queryParam("_latest", true)
+                .request()
+                .accept(FHIR_JSON)
+                .get()) {
+
+            assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus(), "should only support latest search by mbi");
+        }
+    }
+
+    @Test
+    final void search_forLatestConsent_changedSince() {
+        try (Response response = resource.target("/v1/Consent")
+                .queryParam("_latest", true)
+                .queryParam("_changedSince", TEST_SINCE.toString())
+                .queryParam("_afterMbi", TEST_MBI)
+                .queryParam("_count", 10)
+                .request()
+                .accept(FHIR_JSON)
+                .get()) {
+
+            assertEquals(HttpStatus.OK_200, response.getStatus(), "should find records changed since the given time");
+        }
+        verify(mockedDAO).findLatestChangedSince(TEST_SINCE, TEST_MBI, 10);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"yesterday,10", "2023-01-01T00:00:00Z,0", "2023-01-01T00:00:00Z,10001"})
+    final void search_forLatestConsent_changedSince_isInvalid(String changedSince, int count) {
+        try (Response response = resource.target("/v1/Consent")
+                .queryParam("_latest", true)
+                .queryParam("_changedSince", changedSince)
+                .queryParam("_count", count)
+                .request()
+                .accept(FHIR_JSON)
+                .get()) {
+
+            assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus(), "should reject invalid changed since search");
+        }
     }
 
     @Test
@@ -0,0 +1,55 @@
+package gov.cms.dpc.macaroons.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * {@link IRootKeyStore} which keeps the root keys it has seen in memory, so that verifying a Macaroon doesn't require a trip to the underlying store.
+ * <p>
+ * Root keys never change once they're created, so the only thing the TTL guards against is a key which has been removed from the underlying store (e.g. because it expired).
+ * Unknown IDs are always passed through to the underlying store, since the key may have been created by another node.
+ */
+public class CachingRootKeyStore implements IRootKeyStore {
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(15);
+
+    private final IRootKeyStore store;
+    private final Cache<String, String> cache;
+
+    public CachingRootKeyStore(IRootKeyStore store) {
+        this(store, DEFAULT_TTL);
+    }
+
+    public CachingRootKeyStore(IRootKeyStore store, Duration ttl) {
+        this.store = store;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public IDKeyPair create() {
+        final IDKeyPair pair = this.store.create();
+        // Tokens are usually used shortly after they're minted, so we might as well keep the key around
+        this.cache.put(pair.getId(), pair.getKey());
+        return pair;
+    }
+
+    @Override
+    public String get(String macaroonID) {
+        return this.cache.get(macaroonID, this.store::get);
+    }
+
+    @Override
+    public String generateKey() {
+        return this.store.generateKey();
+    }
+
+    @Override
+    public void close() {
+        this.store.close();
+    }
+}
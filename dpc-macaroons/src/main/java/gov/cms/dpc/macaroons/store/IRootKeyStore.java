@@ -3,7 +3,7 @@ package gov.cms.dpc.macaroons.store;
 /**
  * Interface for managing Macaroon root keys
  */
-public interface IRootKeyStore {
+public interface IRootKeyStore extends AutoCloseable {
 
     /**
      * Create a new ID/RootKey pair and persist the root key
@@ -27,4 +27,12 @@ public interface IRootKeyStore {
      * @return - {@link Byte} of key
      */
     String generateKey();
+
+    /**
+     * Release anything held by the store, such as root keys which have been created but never handed out
+     */
+    @Override
+    default void close() {
+        // Nothing to release by default
+    }
 }
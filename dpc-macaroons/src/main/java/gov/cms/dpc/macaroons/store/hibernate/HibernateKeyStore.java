@@ -10,10 +10,16 @@ import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * DB backed {@link IRootKeyStore} using Hibernate as the underlying ORM
@@ -21,36 +27,85 @@ import java.util.UUID;
  * By default, it generates RootKeys that are valid for 1 year, but that will eventually be changed
  * This store assumes that the required tables and triggers are already setup.
  * Currently, we do the migration in the dpc-attribution module, but that will probably need to be improved.
+ * <p>
+ * Rather than committing a transaction for every new Macaroon, keys are inserted in bulk into an in-memory pool, which {@link #create()} draws from.
+ * Pooled keys are only handed out for {@link #MAX_POOL_AGE} after they're inserted. Keys which are never handed out are deleted,
+ * either when they're dropped from the pool or when the store is closed, so they don't stay valid in the database.
  */
+@Singleton
 public class HibernateKeyStore implements IRootKeyStore {
 
+    public static final int DEFAULT_POOL_SIZE = 16;
+    static final Duration MAX_POOL_AGE = Duration.ofHours(1);
+
     private final SessionFactory factory;
     private final SecureRandom random;
+    private final int poolSize;
+    private final Queue<PooledKey> pool = new ConcurrentLinkedQueue<>();
 
     @Inject
     public HibernateKeyStore(SessionFactory factory, SecureRandom random) {
+        this(factory, random, DEFAULT_POOL_SIZE);
+    }
+
+    public HibernateKeyStore(SessionFactory factory, SecureRandom random, int poolSize) {
         this.factory = factory;
         this.random = random;
+        this.poolSize = poolSize;
     }
 
     @Override
     public IDKeyPair create() {
-        final UUID id = UUID.randomUUID();
-        final String rootKey = SecretHelpers.generateSecretKey(this.random);
+        final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        final List<String> staleIDs = new ArrayList<>();
+        IDKeyPair pair = null;
+        PooledKey pooled;
+        while (pair == null && (pooled = this.pool.poll()) != null) {
+            if (pooled.getProvisioned().plus(MAX_POOL_AGE).isAfter(now)) {
+                pair = pooled.getPair();
+            } else {
+                staleIDs.add(pooled.getPair().getId());
+            }
+        }
+        // Stale keys have never been used to mint a Macaroon, so nothing can depend on them
+        deleteKeys(staleIDs);
+        if (pair != null) {
+            return pair;
+        }
+
+        // Pool is empty, so provision a new batch, keeping the first key for ourselves
+        final List<IDKeyPair> provisioned = provisionKeys(this.poolSize);
+        provisioned.subList(1, provisioned.size()).forEach(key -> this.pool.add(new PooledKey(key, now)));
+        return provisioned.get(0);
+    }
 
-        final RootKeyEntity entity = new RootKeyEntity();
-        final String idString = id.toString();
-        entity.setId(idString);
-        entity.setRootKey(rootKey);
+    /**
+     * Insert the given number of new root keys in a single transaction
+     *
+     * @param count - number of keys to create (always at least one)
+     * @return - {@link List} of {@link IDKeyPair} which have been persisted
+     */
+    public List<IDKeyPair> provisionKeys(int count) {
         final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
-        entity.setCreated(now);
-        // TODO: Make this configurable. DPC-284
-        entity.setExpires(now.plusYears(1));
+        final List<IDKeyPair> pairs = new ArrayList<>();
 
         try (final Session session = this.factory.openSession()) {
+            session.setJdbcBatchSize(Math.max(1, count));
             final Transaction tx = session.beginTransaction();
             try {
-                session.persist(entity);
+                for (int i = 0; i < Math.max(1, count); i++) {
+                    final String idString = UUID.randomUUID().toString();
+                    final String rootKey = SecretHelpers.generateSecretKey(this.random);
+
+                    final RootKeyEntity entity = new RootKeyEntity();
+                    entity.setId(idString);
+                    entity.setRootKey(rootKey);
+                    entity.setCreated(now);
+                    // TODO: Make this configurable. DPC-284
+                    entity.setExpires(now.plusYears(1));
+                    session.persist(entity);
+                    pairs.add(new IDKeyPair(idString, rootKey));
+                }
                 tx.commit();
             } catch (Exception e) {
                 tx.rollback();
@@ -58,7 +113,39 @@ public class HibernateKeyStore implements IRootKeyStore {
             }
         }
 
-        return new IDKeyPair(idString, rootKey);
+        return pairs;
+    }
+
+    /**
+     * Delete the keys which are still in the pool, since they'll never be handed out.
+     */
+    @Override
+    public void close() {
+        final List<String> pooledIDs = new ArrayList<>();
+        PooledKey pooled;
+        while ((pooled = this.pool.poll()) != null) {
+            pooledIDs.add(pooled.getPair().getId());
+        }
+        deleteKeys(pooledIDs);
+    }
+
+    private void deleteKeys(List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try (final Session session = this.factory.openSession()) {
+            final Transaction tx = session.beginTransaction();
+            try {
+                session.createQuery("delete from root_keys where id in (:ids)")
+                        .setParameterList("ids", ids)
+                        .executeUpdate();
+                tx.commit();
+            } catch (Exception e) {
+                tx.rollback();
+                throw new BakeryException(String.format("Cannot delete unused keys from database. %s", e.getMessage()));
+            }
+        }
     }
 
     @Override
@@ -78,4 +165,22 @@ public class HibernateKeyStore implements IRootKeyStore {
         }
     }
 
+    private static class PooledKey {
+
+        private final IDKeyPair pair;
+        private final OffsetDateTime provisioned;
+
+        PooledKey(IDKeyPair pair, OffsetDateTime provisioned) {
+            this.pair = pair;
+            this.provisioned = provisioned;
+        }
+
+        IDKeyPair getPair() {
+            return pair;
+        }
+
+        OffsetDateTime getProvisioned() {
+            return provisioned;
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package gov.cms.dpc.macaroons.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachingStoreTest extends AbstractStoreTest {
+
+    private static final AtomicInteger lookups = new AtomicInteger();
+
+    CachingStoreTest() {
+        super(new CachingRootKeyStore(new CountingStore(new MemoryRootKeyStore(new SecureRandom()))));
+    }
+
+    @Test
+    void testCachedAfterCreate() {
+        final IDKeyPair idKeyPair = store.create();
+        final int before = lookups.get();
+        assertEquals(idKeyPair.getKey(), store.get(idKeyPair.getId()), "Keys should be equal");
+        assertEquals(before, lookups.get(), "Should not lookup newly created key");
+    }
+
+    @Override
+    protected void teardown() {
+        // Not used
+    }
+
+    private static class CountingStore implements IRootKeyStore {
+
+        private final IRootKeyStore store;
+
+        CountingStore(IRootKeyStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public IDKeyPair create() {
+            return store.create();
+        }
+
+        @Override
+        public String get(String macaroonID) {
+            lookups.incrementAndGet();
+            return store.get(macaroonID);
+        }
+
+        @Override
+        public String generateKey() {
+            return store.generateKey();
+        }
+    }
+}
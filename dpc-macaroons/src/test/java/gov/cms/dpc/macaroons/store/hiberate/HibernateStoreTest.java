@@ -1,14 +1,23 @@
 package gov.cms.dpc.macaroons.store.hiberate;
 
 import gov.cms.dpc.macaroons.store.AbstractStoreTest;
+import gov.cms.dpc.macaroons.store.IDKeyPair;
 import gov.cms.dpc.macaroons.store.hibernate.HibernateKeyStore;
+import gov.cms.dpc.macaroons.store.hibernate.entities.RootKeyEntity;
 import gov.cms.dpc.testing.IntegrationTest;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.Test;
 
 import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @IntegrationTest
 class HibernateStoreTest extends AbstractStoreTest {
@@ -22,6 +31,56 @@ class HibernateStoreTest extends AbstractStoreTest {
         return conf.configure().buildSessionFactory();
     }
 
+    @Test
+    void testCreateFromPool() {
+        final HibernateKeyStore keyStore = new HibernateKeyStore(buildSessionFactory(), new SecureRandom(), 4);
+        final Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            final IDKeyPair pair = keyStore.create();
+            assertEquals(pair.getKey(), keyStore.get(pair.getId()), "Pooled key should be persisted");
+            ids.add(pair.getId());
+        }
+        assertEquals(6, ids.size(), "Should not reuse pooled keys");
+    }
+
+    @Test
+    void testPooledKeyExpiration() {
+        final SessionFactory sessionFactory = buildSessionFactory();
+        final HibernateKeyStore keyStore = new HibernateKeyStore(sessionFactory, new SecureRandom(), 4);
+        final IDKeyPair pair = keyStore.create();
+
+        try (Session session = sessionFactory.openSession()) {
+            final RootKeyEntity entity = session.get(RootKeyEntity.class, pair.getId());
+            assertTrue(entity.getCreated().plusYears(1).isEqual(entity.getExpires()), "Pooled key should expire a year after it's created");
+        }
+    }
+
+    @Test
+    void testCloseDeletesPooledKeys() {
+        final SessionFactory sessionFactory = buildSessionFactory();
+        final HibernateKeyStore keyStore = new HibernateKeyStore(sessionFactory, new SecureRandom(), 4);
+        final IDKeyPair pair = keyStore.create();
+        final long before = countKeys(sessionFactory);
+
+        keyStore.close();
+        assertEquals(before - 3, countKeys(sessionFactory), "Should delete the keys left in the pool");
+        assertEquals(pair.getKey(), keyStore.get(pair.getId()), "Should keep the key which was handed out");
+    }
+
+    @Test
+    void testProvisionKeys() {
+        final HibernateKeyStore keyStore = (HibernateKeyStore) this.store;
+        final List<IDKeyPair> pairs = keyStore.provisionKeys(10);
+        assertEquals(10, pairs.size(), "Should provision all keys");
+        pairs.forEach(pair -> assertEquals(pair.getKey(), keyStore.get(pair.getId()), "Keys should be equal"));
+    }
+
+    private static long countKeys(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            return ((Number) session.createNativeQuery("SELECT COUNT(*) FROM root_keys").getSingleResult()).longValue();
+        }
+    }
+
     @Override
     protected void teardown() {
         try (SessionFactory sessionFactory = buildSessionFactory()) {
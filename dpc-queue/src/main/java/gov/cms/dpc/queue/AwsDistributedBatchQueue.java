@@ -19,13 +19,14 @@ public class AwsDistributedBatchQueue extends DistributedBatchQueue {
 	@Inject
 	public AwsDistributedBatchQueue(
 		DPCQueueManagedSessionFactory factory,
+		QueueNotificationListener notificationListener,
 		@QueueBatchSize int batchSize,
 		MetricRegistry metricRegistry,
 		@Named("QueueAge") ScheduledReporter ageReporter,
 		@Named("QueueSize") ScheduledReporter sizeReporter,
 		DPCAwsQueueConfiguration awsConfig
 	) {
-		super(factory, batchSize, metricRegistry);
+		super(factory, notificationListener, batchSize, metricRegistry);
 
 		// Setup queue size metric
 		DimensionedName queueSizeName = DimensionedName
@@ -2,6 +2,7 @@ package gov.cms.dpc.queue;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import gov.cms.dpc.common.hibernate.PostgresNotificationListener;
 import gov.cms.dpc.common.hibernate.queue.DPCQueueManagedSessionFactory;
 import gov.cms.dpc.common.utils.MetricMaker;
 import gov.cms.dpc.queue.annotations.QueueBatchSize;
@@ -14,6 +15,7 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
+import org.hibernate.type.IntegerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,10 +29,13 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -42,9 +47,12 @@ public class DistributedBatchQueue extends JobQueueCommon {
     private static final Logger logger = LoggerFactory.getLogger(DistributedBatchQueue.class);
     private static final String DB_UNHEALTHY = "Database cluster is not responding";
     private static final String JOB_UNHEALTHY = "Aggregator is not making progress on the queue";
+    static final String BATCHES_QUEUED_CHANNEL = "job_queue_batch_queued";
+    static final String BATCH_FINISHED_CHANNEL = "job_queue_batch_finished";
 
     // Object variables
     private final SessionFactory factory;
+    private final PostgresNotificationListener notificationListener;
 
     // Metrics
     private final Timer waitTimer; // The wait time for a job to start
@@ -56,12 +64,14 @@ public class DistributedBatchQueue extends JobQueueCommon {
     @Inject
     public DistributedBatchQueue(
             DPCQueueManagedSessionFactory factory,
+            QueueNotificationListener notificationListener,
             @QueueBatchSize int batchSize,
             MetricRegistry metricRegistry
     ) {
         super(batchSize);
 
         this.factory = factory.getSessionFactory();
+        this.notificationListener = notificationListener;
 
         // Metrics
         final var metricBuilder = new MetricMaker(metricRegistry, DistributedBatchQueue.class);
@@ -89,6 +99,7 @@ public class DistributedBatchQueue extends JobQueueCommon {
                 for ( JobQueueBatch batch : jobBatches ) {
                     session.persist(batch);
                 }
+                PostgresNotificationListener.notify(session, BATCHES_QUEUED_CHANNEL, firstBatch.getJobID().toString());
                 tx.commit();
             } catch (Exception e) {
                 logger.error("Cannot add job batches to database", e);
@@ -165,6 +176,42 @@ public class DistributedBatchQueue extends JobQueueCommon {
         }
     }
 
+    @Override
+    public List<JobQueueBatch> claimBatches(UUID aggregatorID, int maxBatches) {
+        try (final Session session = this.factory.openSession()) {
+            final Transaction tx = session.beginTransaction();
+            try {
+                return this.claimBatchesFromDatabase(session, aggregatorID, maxBatches);
+            } finally {
+                tx.commit();
+            }
+        }
+    }
+
+    @Override
+    public void restartStuckBatches() {
+        try (final Session session = this.factory.openSession()) {
+            final Transaction tx = session.beginTransaction();
+            try {
+                this.restartStuckBatches(session);
+            } finally {
+                tx.commit();
+            }
+        }
+    }
+
+    @Override
+    public boolean addBatchesQueuedListener(Runnable callback) {
+        this.notificationListener.listen(BATCHES_QUEUED_CHANNEL, payload -> callback.run());
+        return true;
+    }
+
+    @Override
+    public boolean addBatchFinishedListener(Consumer<UUID> callback) {
+        this.notificationListener.listen(BATCH_FINISHED_CHANNEL, payload -> callback.accept(payload == null ? null : UUID.fromString(payload)));
+        return true;
+    }
+
     /**
      * Looks for any job batches that have stopped processing and are stuck in a running state. Restart those batches
      * so they can be picked up again.
@@ -192,6 +239,7 @@ public class DistributedBatchQueue extends JobQueueCommon {
                 stuckJob.restartBatch();
                 session.merge(stuckJob);
             }
+            PostgresNotificationListener.notify(session, BATCHES_QUEUED_CHANNEL, "");
         }
     }
 
@@ -203,31 +251,60 @@ public class DistributedBatchQueue extends JobQueueCommon {
      * @param aggregatorID - The ID of the aggregator processing the job
      * @return the claimed job batch
      */
-    @SuppressWarnings("unchecked")
     private Optional<JobQueueBatch> claimBatchFromDatabase(Session session, UUID aggregatorID) {
-        // Claim a new batch
-        Optional<String> batchID = session.createNativeQuery("SELECT Cast(batch_id as varchar) batch_id FROM job_queue_batch WHERE status = 0 ORDER BY priority ASC, submit_time ASC LIMIT 1 FOR UPDATE SKIP LOCKED")
-                .uniqueResultOptional();
+        return claimBatchesFromDatabase(session, aggregatorID, 1).stream().findFirst();
+    }
+
+    /**
+     * Claim up to the given number of batches to process from the database, locking them with a single statement
+     *
+     * @param session - The active database session
+     * @param aggregatorID - The ID of the aggregator processing the jobs
+     * @param maxBatches - The maximum number of batches to claim
+     * @return the claimed job batches, in priority order
+     */
+    @SuppressWarnings("unchecked")
+    private List<JobQueueBatch> claimBatchesFromDatabase(Session session, UUID aggregatorID, int maxBatches) {
+        // Claim new batches
+        final List<UUID> batchIDs = ((List<String>) session.createNativeQuery("SELECT Cast(batch_id as varchar) batch_id FROM job_queue_batch WHERE status = 0 ORDER BY priority ASC, submit_time ASC LIMIT :maxBatches FOR UPDATE SKIP LOCKED")
+                .setParameter("maxBatches", maxBatches)
+                .getResultList())
+                .stream()
+                .map(UUID::fromString)
+                .collect(Collectors.toList());
+
+        if ( batchIDs.isEmpty() ) {
+            return List.of();
+        }
 
-        if ( batchID.isPresent() ) {
-            JobQueueBatch batch = session.get(JobQueueBatch.class, UUID.fromString(batchID.get()));
+        final CriteriaBuilder builder = session.getCriteriaBuilder();
+        final CriteriaQuery<JobQueueBatch> query = builder.createQuery(JobQueueBatch.class);
+        final Root<JobQueueBatch> root = query.from(JobQueueBatch.class);
+        query.select(root);
+        query.where(root.get("batchID").in(batchIDs));
+        final List<JobQueueBatch> batches = session.createQuery(query).getResultList()
+                .stream()
+                .distinct()
+                .sorted(Comparator.comparingInt(batch -> batchIDs.indexOf(batch.getBatchID())))
+                .collect(Collectors.toList());
+
+        final List<JobQueueBatch> claimed = new ArrayList<>(batches.size());
+        for ( JobQueueBatch batch : batches ) {
             try {
                 batch.setRunningStatus(aggregatorID);
             } catch (Exception e) {
                 logger.error("Failed to mark job as running. Marking the job as failed", e);
                 batch.setFailedStatus();
-                return Optional.empty();
+                continue;
             } finally {
                 session.merge(batch);
             }
 
             final var delay = Duration.between(batch.getStartTime().orElseThrow(), batch.getUpdateTime().orElseThrow());
             waitTimer.update(delay.toMillis(), TimeUnit.MILLISECONDS);
-
-            return Optional.of(batch);
-        } else {
-            return Optional.empty();
+            claimed.add(batch);
         }
+        return claimed;
     }
 
     @Override
@@ -237,6 +314,7 @@ public class DistributedBatchQueue extends JobQueueCommon {
             try {
                 job.setPausedStatus(aggregatorID);
                 session.merge(job);
+                PostgresNotificationListener.notify(session, BATCHES_QUEUED_CHANNEL, job.getJobID().toString());
             } finally {
                 tx.commit();
             }
@@ -250,8 +328,17 @@ public class DistributedBatchQueue extends JobQueueCommon {
             try {
                 final Optional<OffsetDateTime> lastUpdate = job.getUpdateTime();
 
-                // We just need to persist the job, as any results will be attached to the job and cascade
-                session.merge(job);
+                // Only the progress of the batch changes between patients, so avoid merging the entire batch.
+                // The files are accumulated on the batch, and saved along with it when it's paused or completed.
+                final int updated = session.createQuery("update job_queue_batch set patientIndex = :patientIndex, updateTime = :updateTime where batchID = :batchID and aggregatorID = :aggregatorID")
+                        .setParameter("patientIndex", job.getPatientIndex().orElse(null), IntegerType.INSTANCE)
+                        .setParameter("updateTime", job.getUpdateTime().orElseThrow())
+                        .setParameter("batchID", job.getBatchID())
+                        .setParameter("aggregatorID", aggregatorID)
+                        .executeUpdate();
+                if (updated == 0) {
+                    throw new JobQueueFailure(job.getJobID(), job.getBatchID(), "Cannot save progress. Batch is not claimed by this aggregator");
+                }
 
                 final var delay = Duration.between(lastUpdate.orElseThrow(), job.getUpdateTime().orElseThrow());
                 partialTimer.update(delay.toMillis(), TimeUnit.MILLISECONDS);
@@ -272,6 +359,7 @@ public class DistributedBatchQueue extends JobQueueCommon {
             try {
                 job.setCompletedStatus(aggregatorID);
                 session.merge(job);
+                PostgresNotificationListener.notify(session, BATCH_FINISHED_CHANNEL, job.getJobID().toString());
 
                 final var delay = Duration.between(job.getStartTime().orElseThrow(), job.getCompleteTime().orElseThrow());
                 successTimer.update(delay.toMillis(), TimeUnit.MILLISECONDS);
@@ -288,6 +376,7 @@ public class DistributedBatchQueue extends JobQueueCommon {
             try {
                 job.setFailedStatus();
                 session.merge(job);
+                PostgresNotificationListener.notify(session, BATCH_FINISHED_CHANNEL, job.getJobID().toString());
 
                 final var delay = Duration.between(job.getStartTime().orElseThrow(), job.getUpdateTime().orElseThrow());
                 failureTimer.update(delay.toMillis(), TimeUnit.MILLISECONDS);
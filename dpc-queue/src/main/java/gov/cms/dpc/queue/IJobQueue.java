@@ -5,9 +5,11 @@ import gov.cms.dpc.queue.models.JobQueueBatch;
 import gov.cms.dpc.queue.models.JobQueueBatchFile;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Interface for submitting/retrieving export jobs to a backing queue.
@@ -76,6 +78,56 @@ public interface IJobQueue {
      */
     Optional<JobQueueBatch> claimBatch(UUID aggregatorID);
 
+    /**
+     * Find up to the given number of jobs that are ready to run, and alter their {@link JobStatus} to `RUNNING`.
+     * Unlike {@link #claimBatch(UUID)}, this does not look for stuck batches, see {@link #restartStuckBatches()}.
+     *
+     * @param aggregatorID - the current aggregator working the jobs
+     * @param maxBatches   - the maximum number of batches to claim
+     * @return The jobs to work, in priority order. Empty if there are none.
+     */
+    default List<JobQueueBatch> claimBatches(UUID aggregatorID, int maxBatches) {
+        final List<JobQueueBatch> batches = new ArrayList<>();
+        while (batches.size() < maxBatches) {
+            final Optional<JobQueueBatch> batch = claimBatch(aggregatorID);
+            if (batch.isEmpty()) {
+                break;
+            }
+            batches.add(batch.get());
+        }
+        return batches;
+    }
+
+    /**
+     * Find any batches that have stopped making progress in the running state, and re-queue them.
+     */
+    default void restartStuckBatches() {
+        // Not supported by default
+    }
+
+    /**
+     * Register a callback that is run whenever batches become ready to claim (e.g. a job is submitted, or a batch is
+     * paused or restarted). Callbacks may be called spuriously, so callers should always re-check the queue.
+     *
+     * @param callback - the callback to run
+     * @return {@code true} if the queue supports notifications. {@code false} if callers need to poll instead.
+     */
+    default boolean addBatchesQueuedListener(Runnable callback) {
+        return false;
+    }
+
+    /**
+     * Register a callback that is run whenever a batch of a job is completed or failed, with the ID of the job.
+     * The callback is run with {@code null} if notifications may have been missed (e.g. after reconnecting), in which
+     * case callers should re-check all the jobs they are waiting on.
+     *
+     * @param callback - the callback to run
+     * @return {@code true} if the queue supports notifications. {@code false} if callers need to poll instead.
+     */
+    default boolean addBatchFinishedListener(Consumer<UUID> callback) {
+        return false;
+    }
+
     /**
      * Pauses the current progress and allows another aggregator to pick up the batch.
      *
@@ -86,6 +138,7 @@ public interface IJobQueue {
 
     /**
      * Alter the job's {@link JobStatus} to passed status. Called when the job batch is finished partially processing.
+     * Only the progress is saved, the batch's files are saved when it's paused or completed.
      *
      * @param job          - the job to add progress to
      * @param aggregatorID - the current aggregator working the job
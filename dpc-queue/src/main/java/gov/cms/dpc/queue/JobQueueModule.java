@@ -59,6 +59,11 @@ public class JobQueueModule<T extends Configuration & DPCQueueConfig> extends Dr
                 .in(Scopes.SINGLETON);
         }
 
+        if (!this.inMemory) {
+            // One listener for the queue database, which guicey registers with the Dropwizard lifecycle
+            binder.bind(QueueNotificationListener.class);
+        }
+
         // Bind the healthcheck
         binder.bind(JobQueueHealthCheck.class);
         binder.bind(DataService.class);
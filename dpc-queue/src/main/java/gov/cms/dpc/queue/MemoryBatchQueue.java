@@ -7,6 +7,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +19,8 @@ public class MemoryBatchQueue extends JobQueueCommon {
     private static Logger logger = LoggerFactory.getLogger(MemoryBatchQueue.class);
 
     private final Map<UUID, JobQueueBatch> queue;
+    private final List<Runnable> queuedListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<UUID>> finishedListeners = new CopyOnWriteArrayList<>();
 
     public MemoryBatchQueue() {
         this(100);
@@ -34,6 +38,7 @@ public class MemoryBatchQueue extends JobQueueCommon {
             this.queue.put(batch.getBatchID(), batch);
             batch.setUpdateTime();
         });
+        queuedListeners.forEach(Runnable::run);
     }
 
     @Override
@@ -80,10 +85,23 @@ public class MemoryBatchQueue extends JobQueueCommon {
         return first;
     }
 
+    @Override
+    public synchronized boolean addBatchesQueuedListener(Runnable callback) {
+        queuedListeners.add(callback);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean addBatchFinishedListener(Consumer<UUID> callback) {
+        finishedListeners.add(callback);
+        return true;
+    }
+
     @Override
     public synchronized void pauseBatch(JobQueueBatch job, UUID aggregatorID) {
         job.setPausedStatus(aggregatorID);
         job.setUpdateTime();
+        queuedListeners.forEach(Runnable::run);
     }
 
     @Override
@@ -98,11 +116,13 @@ public class MemoryBatchQueue extends JobQueueCommon {
         } else {
             throw new JobQueueFailure("Empty job passed");
         }
+        finishedListeners.forEach(listener -> listener.accept(job.getJobID()));
     }
 
     @Override
     public synchronized void failBatch(JobQueueBatch job, UUID aggregatorID) {
         job.setFailedStatus();
+        finishedListeners.forEach(listener -> listener.accept(job.getJobID()));
     }
 
     @Override
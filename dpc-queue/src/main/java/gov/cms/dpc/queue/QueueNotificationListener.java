@@ -0,0 +1,19 @@
+package gov.cms.dpc.queue;
+
+import gov.cms.dpc.common.hibernate.PostgresNotificationListener;
+import gov.cms.dpc.common.hibernate.queue.DPCQueueManagedSessionFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * The {@link PostgresNotificationListener} for the queue database, shared by everything in the application which waits on the queue.
+ */
+@Singleton
+public class QueueNotificationListener extends PostgresNotificationListener {
+
+    @Inject
+    public QueueNotificationListener(DPCQueueManagedSessionFactory factory) {
+        super(factory.getSessionFactory());
+    }
+}
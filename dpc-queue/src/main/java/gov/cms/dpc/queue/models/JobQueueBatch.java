@@ -92,10 +92,11 @@ public class JobQueueBatch implements Serializable {
     private Integer priority;
 
     /**
-     * The list of patient-ids for the specified provider from the attribution server
+     * The list of patient-ids for the specified provider from the attribution server.
+     * Fixed once the batch is submitted, so it is never rewritten when the batch is updated.
      */
     @Convert(converter = StringListConverter.class)
-    @Column(name = "patients", columnDefinition = "text")
+    @Column(name = "patients", columnDefinition = "text", updatable = false)
     List<String> patients;
 
     /**
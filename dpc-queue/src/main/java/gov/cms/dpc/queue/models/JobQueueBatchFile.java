@@ -107,6 +107,13 @@ public class JobQueueBatchFile implements Serializable {
     @Column(name = "file_length")
     private long fileLength;
 
+    /**
+     * The encoded state of the running SHA-256 digest of the file, as of the last write.
+     * Allows another aggregator to continue the checksum when it resumes the batch, rather than re-reading the file.
+     */
+    @Column(name = "checksum_state")
+    private byte[] checksumState;
+
     public JobQueueBatchFile() {
         // for hibernate
     }
@@ -166,6 +173,14 @@ public class JobQueueBatchFile implements Serializable {
         this.fileLength = fileLength;
     }
 
+    public byte[] getChecksumState() {
+        return checksumState;
+    }
+
+    public void setChecksumState(byte[] checksumState) {
+        this.checksumState = checksumState;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
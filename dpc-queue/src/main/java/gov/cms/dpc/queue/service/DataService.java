@@ -16,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -24,20 +25,33 @@ import java.nio.file.Paths;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+@Singleton
 public class DataService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DataService.class);
+    // How often to check the job when the queue can't notify us
+    private static final long POLL_MILLIS = 250;
+    // How often to check the job when the queue notifies us, in case a notification is lost
+    private static final long NOTIFIED_RECHECK_MILLIS = 5000;
+    // Jobs with at most this many patients are run directly, when an InProcessJobRunner is available
+    private static final int IN_PROCESS_MAX_PATIENTS = 1;
 
     private final IJobQueue queue;
     private final String exportPath;
     private final FhirContext fhirContext;
     private final int jobTimeoutInSeconds;
+    private final Map<UUID, Semaphore> waitingJobs = new ConcurrentHashMap<>();
+    private Boolean notificationsSupported;
+    private InProcessJobRunner inProcessJobRunner;
 
     @Inject
     public DataService(IJobQueue queue, FhirContext fhirContext, @ExportPath String exportPath, @JobTimeout int jobTimeoutInSeconds) {
@@ -47,6 +61,16 @@ public class DataService {
         this.jobTimeoutInSeconds = jobTimeoutInSeconds;
     }
 
+    /**
+     * Run small jobs directly with the given runner, instead of through the queue. Only injected if a runner is bound.
+     *
+     * @param inProcessJobRunner - the {@link InProcessJobRunner} to use
+     */
+    @com.google.inject.Inject(optional = true)
+    public void setInProcessJobRunner(InProcessJobRunner inProcessJobRunner) {
+        this.inProcessJobRunner = inProcessJobRunner;
+    }
+
     public Resource retrieveData(UUID organizationId, String orgNPI, String providerNPI, List<String> patientIds, DPCResourceType... resourceTypes) {
         return retrieveData(organizationId, orgNPI, providerNPI, patientIds, null, OffsetDateTime.now(ZoneOffset.UTC), null, null, resourceTypes);
     }
@@ -72,6 +96,10 @@ public class DataService {
                                  OffsetDateTime since,
                                  OffsetDateTime transactionTime,
                                  String requestingIP, String requestUrl, DPCResourceType... resourceTypes) {
+        if (this.inProcessJobRunner != null && patientMBIs.size() <= IN_PROCESS_MAX_PATIENTS) {
+            return runInProcess(organizationID, orgNPI, providerNPI, patientMBIs, since, transactionTime, requestingIP, requestUrl, resourceTypes);
+        }
+
         UUID jobID = this.queue.createJob(organizationID, orgNPI, providerNPI, patientMBIs, List.of(resourceTypes), since, transactionTime, requestingIP, requestUrl, false, false);
         LOGGER.info("Patient everything export job created with job_id={} _since={} from requestUrl={}", jobID.toString(), since, requestUrl);
         final String eventTime = SplunkTimestamp.getSplunkTimestamp();
@@ -103,30 +131,110 @@ public class DataService {
         throw new DataRetrievalException("Failed to retrieve data"); 
     }
 
-    private Optional<List<JobQueueBatch>> waitForJobToComplete(UUID jobID, UUID organizationID, IJobQueue queue) {
-        CompletableFuture<Optional<List<JobQueueBatch>>> dataFuture = new CompletableFuture<>();
-        final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor();
-        final ScheduledFuture<?> task = poller.scheduleAtFixedRate(() -> {
-            try {
-                List<JobQueueBatch> batches = getJobBatch(jobID, organizationID, queue);
-                dataFuture.complete(Optional.of(batches));
-            } catch (DataRetrievalRetryException e) {
-                //retrying
-            }
-        }, 0, 250, TimeUnit.MILLISECONDS);
+    /**
+     * Run a small job directly, skipping the queue and the output files, and build the response from the resources
+     * in memory.
+     */
+    private Resource runInProcess(UUID organizationID,
+                                  String orgNPI,
+                                  String providerNPI,
+                                  List<String> patientMBIs,
+                                  OffsetDateTime since,
+                                  OffsetDateTime transactionTime,
+                                  String requestingIP, String requestUrl, DPCResourceType... resourceTypes) {
+        if (resourceTypes == null || resourceTypes.length == 0) {
+            throw new DataRetrievalException("Need to pass in resource types");
+        }
+
+        final UUID jobID = UUID.randomUUID();
+        final JobQueueBatch batch = new JobQueueBatch(jobID, organizationID, orgNPI, providerNPI, patientMBIs, List.of(resourceTypes), since, transactionTime, requestingIP, requestUrl, false);
+        LOGGER.info("Patient everything export job running in process with job_id={} _since={} from requestUrl={}", jobID.toString(), since, requestUrl);
+
+        final List<Resource> resources = this.inProcessJobRunner.runBatch(batch);
+        if (!resources.isEmpty() && resources.stream().allMatch(OperationOutcome.class::isInstance)) {
+            // An OperationOutcome (ERROR) was returned
+            final String jobTime = SplunkTimestamp.getSplunkTimestamp();
+            LOGGER.info("dpcMetric=jobFail,completionResult={},jobID={},jobCompleteTime={}", "FAILED", jobID, jobTime);
+            final OperationOutcome outcome = new OperationOutcome();
+            resources.stream()
+                    .map(OperationOutcome.class::cast)
+                    .map(OperationOutcome::getIssue)
+                    .flatMap(List::stream)
+                    .forEach(outcome::addIssue);
+            return outcome;
+        }
+
+        final String jobTime = SplunkTimestamp.getSplunkTimestamp();
+        LOGGER.info("dpcMetric=jobComplete,completionResult={},jobID={},jobCompleteTime={}", "COMPLETE", jobID, jobTime);
+        final List<DPCResourceType> requestedTypes = List.of(resourceTypes);
+        final Bundle bundle = new Bundle().setType(Bundle.BundleType.SEARCHSET);
+        resources.stream()
+                .filter(resource -> requestedTypes.contains(DPCResourceType.valueOf(resource.getResourceType().toString())))
+                .forEach(resource -> bundle.addEntry().setResource(resource));
+        bundle.setId(UUID.randomUUID().toString());
+        return bundle.setTotal(bundle.getEntry().size());
+    }
 
-        // this timeout value should probably be adjusted according to the number of types being requested
-        // In the case of the /Patient/*/$everything endpoint - we're getting all types back which may take longer than nother requests
-        // Experimenting with increasing this threshold from 30 to 60
-        dataFuture.completeOnTimeout(Optional.empty(), jobTimeoutInSeconds, TimeUnit.SECONDS);
+    /**
+     * Wait for all the batches of a job to finish. Rather than polling, the caller sleeps until the queue notifies us
+     * that a batch of the job finished, and only then re-checks the job. Queues without notifications are polled.
+     */
+    private Optional<List<JobQueueBatch>> waitForJobToComplete(UUID jobID, UUID organizationID, IJobQueue queue) {
+        final long recheckMillis = listenForFinishedBatches() ? NOTIFIED_RECHECK_MILLIS : POLL_MILLIS;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(jobTimeoutInSeconds);
 
+        // Register before the first check, so we can't miss a notification that arrives in between
+        final Semaphore batchFinished = new Semaphore(0);
+        this.waitingJobs.put(jobID, batchFinished);
         try {
-            return dataFuture.get();
-        } catch (InterruptedException | ExecutionException e) {
+            while (true) {
+                try {
+                    return Optional.of(getJobBatch(jobID, organizationID, queue));
+                } catch (DataRetrievalRetryException e) {
+                    //retrying
+                } catch (DataRetrievalException e) {
+                    throw e;
+                } catch (Exception e) {
+                    LOGGER.error("Unable to check status of job, jobID: {}", jobID, e);
+                }
+
+                final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    return Optional.empty();
+                }
+                batchFinished.tryAcquire(Math.min(remainingMillis, recheckMillis), TimeUnit.MILLISECONDS);
+                batchFinished.drainPermits();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return Optional.empty();
         } finally {
-            task.cancel(true);
-            poller.shutdown();
+            this.waitingJobs.remove(jobID);
+        }
+    }
+
+    /**
+     * Register for notifications of finished batches the first time we wait on a job, so all waiting callers share
+     * the same listener.
+     *
+     * @return {@code true} if the queue will notify us, {@code false} if we need to poll
+     */
+    private synchronized boolean listenForFinishedBatches() {
+        if (this.notificationsSupported == null) {
+            this.notificationsSupported = this.queue.addBatchFinishedListener(this::onBatchFinished);
+        }
+        return this.notificationsSupported;
+    }
+
+    private void onBatchFinished(UUID jobID) {
+        if (jobID == null) {
+            // We may have missed notifications, so wake everyone up to re-check their jobs
+            this.waitingJobs.values().forEach(Semaphore::release);
+            return;
+        }
+        final Semaphore batchFinished = this.waitingJobs.get(jobID);
+        if (batchFinished != null) {
+            batchFinished.release();
         }
     }
 
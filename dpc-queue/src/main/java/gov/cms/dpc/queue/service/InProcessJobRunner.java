@@ -0,0 +1,22 @@
+package gov.cms.dpc.queue.service;
+
+import gov.cms.dpc.queue.models.JobQueueBatch;
+import org.hl7.fhir.dstu3.model.Resource;
+
+import java.util.List;
+
+/**
+ * Runs small jobs directly in the calling process, rather than submitting them to the queue and waiting for an
+ * aggregator to write them out to disk.
+ */
+public interface InProcessJobRunner {
+
+    /**
+     * Fetch the resources for every patient of a batch. No output files are written, and the queue is not updated.
+     *
+     * @param batch - the batch to run, which has not been submitted to the queue
+     * @return the resources of the batch, with an {@link org.hl7.fhir.dstu3.model.OperationOutcome} for each patient
+     * whose data could not be retrieved
+     */
+    List<Resource> runBatch(JobQueueBatch batch);
+}
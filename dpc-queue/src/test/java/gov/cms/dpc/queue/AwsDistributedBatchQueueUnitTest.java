@@ -35,6 +35,7 @@ class AwsDistributedBatchQueueUnitTest {
 
 		queue = new AwsDistributedBatchQueue(
 			new DPCQueueManagedSessionFactory(sessionFactory),
+			mock(QueueNotificationListener.class),
 			100,
 			metricRegistry,
 			ageReporter,
@@ -4,6 +4,7 @@ import com.codahale.metrics.MetricRegistry;
 import gov.cms.dpc.common.hibernate.queue.DPCQueueManagedSessionFactory;
 import gov.cms.dpc.common.utils.NPIUtil;
 import gov.cms.dpc.fhir.DPCResourceType;
+import gov.cms.dpc.queue.exceptions.JobQueueFailure;
 import gov.cms.dpc.queue.exceptions.JobQueueUnhealthy;
 import gov.cms.dpc.queue.models.JobQueueBatch;
 import gov.cms.dpc.testing.BufferedLoggerHandler;
@@ -38,7 +39,8 @@ public class DistributedBatchQueueTest {
     void setUp() {
         final Configuration conf = new Configuration();
         sessionFactory = conf.configure().buildSessionFactory();
-        queue = new DistributedBatchQueue(new DPCQueueManagedSessionFactory(sessionFactory), 100, new MetricRegistry());
+        final DPCQueueManagedSessionFactory managedSessionFactory = new DPCQueueManagedSessionFactory(sessionFactory);
+        queue = new DistributedBatchQueue(managedSessionFactory, new QueueNotificationListener(managedSessionFactory), 100, new MetricRegistry());
     }
 
     @AfterEach
@@ -81,6 +83,42 @@ public class DistributedBatchQueueTest {
         });
     }
 
+    @Test
+    void saveBatchProgress() {
+        final UUID orgID = UUID.randomUUID();
+        queue.createJob(orgID,
+                NPIUtil.generateNPI(),
+                NPIUtil.generateNPI(),
+                List.of("test-patient-1", "test-patient-2"),
+                Collections.singletonList(DPCResourceType.Patient),
+                null,
+                OffsetDateTime.now(ZoneOffset.UTC), null, null, true, false);
+
+        final JobQueueBatch workBatch = queue.claimBatch(aggregatorID).orElseThrow();
+        workBatch.fetchNextPatient(aggregatorID);
+        workBatch.addJobQueueFile(DPCResourceType.Patient, 0, 1);
+        queue.completePartialBatch(workBatch, aggregatorID);
+
+        // Progress is saved, while the patients are untouched, and the files wait for the batch to finish
+        final JobQueueBatch savedBatch = queue.getBatch(workBatch.getBatchID()).orElseThrow();
+        assertEquals(0, savedBatch.getPatientIndex().orElseThrow());
+        assertTrue(savedBatch.getJobQueueBatchFiles().isEmpty(), "Should not save files for every patient");
+        assertEquals(List.of("test-patient-1", "test-patient-2"), savedBatch.getPatients());
+
+        // Another aggregator cannot save progress on the batch
+        assertThrows(JobQueueFailure.class, () -> queue.completePartialBatch(workBatch, UUID.randomUUID()));
+
+        // The files are saved once, with the counts for the whole batch, when it completes
+        workBatch.fetchNextPatient(aggregatorID);
+        workBatch.getJobQueueFile(DPCResourceType.Patient).orElseThrow().appendCount(1);
+        queue.completePartialBatch(workBatch, aggregatorID);
+        queue.completeBatch(workBatch, aggregatorID);
+
+        final JobQueueBatch completedBatch = queue.getBatch(workBatch.getBatchID()).orElseThrow();
+        assertEquals(1, completedBatch.getJobQueueBatchFiles().size(), "Should have 1 file on the completed job");
+        assertEquals(2, completedBatch.getJobQueueFile(DPCResourceType.Patient).orElseThrow().getCount());
+    }
+
     @Test
     void validateHealthyQueue() {
         // This test is kind of crappy, since there is nothing to assert
@@ -118,9 +156,14 @@ public class DistributedBatchQueueTest {
         assertTrue(workBatch.isPresent(), "Should have a job to work");
         final UUID firstBatchID = workBatch.orElseThrow().getBatchID();
 
-        // Add a file on the batch
+        // Add a file on the batch, and pause it so the file is saved
         workBatch.get().addJobQueueFile(DPCResourceType.Patient, 0, 1);
         queue.completePartialBatch(workBatch.get(), aggregatorID);
+        queue.pauseBatch(workBatch.get(), aggregatorID);
+
+        // Resume the batch
+        workBatch = queue.claimBatch(aggregatorID);
+        assertEquals(firstBatchID, workBatch.orElseThrow().getBatchID(), "Should resume the paused batch");
 
         // Check that the persisted job is RUNNING
         final Optional<JobQueueBatch> runningJobOptional = queue.getBatch(firstBatchID);
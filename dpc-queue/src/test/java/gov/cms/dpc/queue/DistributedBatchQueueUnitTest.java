@@ -30,7 +30,7 @@ class DistributedBatchQueueUnitTest extends AbstractMultipleDAOTest {
 	@BeforeEach
 	void setup() {
 		sessionFactory = new DPCQueueManagedSessionFactory(db.getSessionFactory());
-		queue = new DistributedBatchQueue(sessionFactory, 100, new MetricRegistry());
+		queue = new DistributedBatchQueue(sessionFactory, new QueueNotificationListener(sessionFactory), 100, new MetricRegistry());
 		session = sessionFactory.getSessionFactory().openSession();
 	}
 
@@ -47,7 +47,7 @@ public class QueueHealthTest {
         when(query.uniqueResult())
                 .thenReturn(0L);
 
-        final DistributedBatchQueue queue = new DistributedBatchQueue(managedSessionFactory, 100, metrics);
+        final DistributedBatchQueue queue = new DistributedBatchQueue(managedSessionFactory, Mockito.mock(QueueNotificationListener.class), 100, metrics);
         assertDoesNotThrow(() -> queue.assertHealthy(UUID.randomUUID()), "Queue should be healthy");
 
         // Healthcheck should pass
@@ -60,7 +60,7 @@ public class QueueHealthTest {
         when(query.uniqueResult())
                 .thenReturn(2L);
 
-        final DistributedBatchQueue queue = new DistributedBatchQueue(managedSessionFactory, 100, metrics);
+        final DistributedBatchQueue queue = new DistributedBatchQueue(managedSessionFactory, Mockito.mock(QueueNotificationListener.class), 100, metrics);
         assertThrows(JobQueueUnhealthy.class, () -> queue.assertHealthy(UUID.randomUUID()), "Queue should be unhealthy");
 
         // Healthcheck should pass
@@ -58,7 +58,8 @@ class QueueTest {
                         // Create the session factory
                         final Configuration conf = new Configuration();
                         sessionFactory = conf.configure().buildSessionFactory();
-                        return new DistributedBatchQueue(new DPCQueueManagedSessionFactory(sessionFactory), 100, new MetricRegistry());
+                        final DPCQueueManagedSessionFactory managedSessionFactory = new DPCQueueManagedSessionFactory(sessionFactory);
+                        return new DistributedBatchQueue(managedSessionFactory, new QueueNotificationListener(managedSessionFactory), 100, new MetricRegistry());
                     } else if(queueName.equals("aws")) {
                         MetricRegistry metricRegistry = new MetricRegistry();
 
@@ -82,8 +83,10 @@ class QueueTest {
                         final Configuration conf = new Configuration();
                         sessionFactory = conf.configure().buildSessionFactory();
 
+                        final DPCQueueManagedSessionFactory managedSessionFactory = new DPCQueueManagedSessionFactory(sessionFactory);
                         return new AwsDistributedBatchQueue(
-                            new DPCQueueManagedSessionFactory(sessionFactory),
+                            managedSessionFactory,
+                            new QueueNotificationListener(managedSessionFactory),
                             100,
                             metricRegistry,
                             reporter1,
@@ -100,7 +103,8 @@ class QueueTest {
                     final DynamicTest third = DynamicTest.dynamicTest(nameGenerator.apply(queue, "EOB Submission"), () -> testPatientAndEOBSubmission(queue));
                     final DynamicTest fourth = DynamicTest.dynamicTest(nameGenerator.apply(queue, "Invalid batch on queue"), () -> testInvalidJobBatch(queue));
                     final DynamicTest fifth = DynamicTest.dynamicTest(nameGenerator.apply(queue, "since equal transaction time"), () -> testSinceEqualTransactionTime(queue));
-                    return List.of(first, second, third, fourth, fifth);
+                    final DynamicTest sixth = DynamicTest.dynamicTest(nameGenerator.apply(queue, "Bulk claim"), () -> testClaimBatches(queue));
+                    return List.of(first, second, third, fourth, fifth, sixth);
                 })
                 .flatMap(Collection::stream);
     }
@@ -197,6 +201,28 @@ class QueueTest {
         assertEquals(0, queue.queueSize(), "Worked all jobs in the queue, but the queue is not empty");
     }
 
+    void testClaimBatches(JobQueueCommon queue) {
+        final List<UUID> jobIDs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            jobIDs.add(queue.createJob(orgID, orgNPI, providerNPI, patientMBIs, Collections.singletonList(DPCResourceType.Patient), null, OffsetDateTime.now(ZoneOffset.UTC), null, null, true, false));
+        }
+        assertEquals(3, queue.queueSize(), "Should have 3 jobs");
+
+        // Claim more than one batch at a time
+        final List<JobQueueBatch> claimed = queue.claimBatches(aggregatorID, 2);
+        assertEquals(2, claimed.size(), "Should claim the requested number of batches");
+        claimed.forEach(batch -> {
+            assertEquals(JobStatus.RUNNING, queue.getBatch(batch.getBatchID()).orElseThrow().getStatus(), "Claimed batch should be running");
+            assertEquals(aggregatorID, batch.getAggregatorID().orElseThrow());
+        });
+
+        // Only the remaining batch is left to claim
+        final List<JobQueueBatch> remaining = queue.claimBatches(aggregatorID, 5);
+        assertEquals(1, remaining.size(), "Should only claim the remaining batch");
+        assertTrue(queue.claimBatches(aggregatorID, 5).isEmpty(), "The queue should not have ANY ready items");
+        assertEquals(0, queue.queueSize(), "Claimed all jobs in the queue, but the queue is not empty");
+    }
+
     void testPatientAndEOBSubmission(JobQueueCommon queue) {
         // Add a job with a EOB resource
         final var jobID = queue.createJob(orgID, orgNPI, providerNPI, patientMBIs,
@@ -8,7 +8,10 @@ import gov.cms.dpc.queue.exceptions.DataRetrievalException;
 import gov.cms.dpc.queue.models.JobQueueBatch;
 import org.assertj.core.util.Files;
 import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.CodeableConcept;
+import org.hl7.fhir.dstu3.model.ExplanationOfBenefit;
 import org.hl7.fhir.dstu3.model.OperationOutcome;
+import org.hl7.fhir.dstu3.model.Patient;
 import org.hl7.fhir.dstu3.model.Resource;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -22,6 +25,9 @@ import java.io.File;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class DataServiceTest {
 
@@ -97,6 +103,57 @@ public class DataServiceTest {
         Assertions.assertThrows(DataRetrievalException.class, () -> dataService.retrieveData(orgID, orgNPI, providerNPI, List.of(patientID.toString())));
     }
 
+    @Test
+    public void whenRunningSinglePatientJobInProcess() {
+        DPCResourceType resourceType = DPCResourceType.ExplanationOfBenefit;
+        dataService.setInProcessJobRunner(batch -> List.of(new ExplanationOfBenefit(), new Patient()));
+
+        Resource resource = dataService.retrieveData(orgID, orgNPI, providerNPI, List.of(patientID.toString()), resourceType);
+        Assertions.assertTrue(resource instanceof Bundle);
+        Assertions.assertEquals(1, ((Bundle) resource).getTotal(), "Should only have the requested resource type");
+        Mockito.verify(queue, Mockito.never()).createJob(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void whenRunningSinglePatientJobInProcessReturnsOperationOutcome() {
+        DPCResourceType resourceType = DPCResourceType.ExplanationOfBenefit;
+        final OperationOutcome outcome = new OperationOutcome();
+        outcome.addIssue().setDetails(new CodeableConcept().setText("error"));
+        dataService.setInProcessJobRunner(batch -> List.of(outcome));
+
+        Resource resource = dataService.retrieveData(orgID, orgNPI, providerNPI, List.of(patientID.toString()), resourceType);
+        Assertions.assertTrue(resource instanceof OperationOutcome);
+        Assertions.assertEquals(1, ((OperationOutcome) resource).getIssue().size());
+    }
+
+    @Test
+    public void whenJobCompletesLaterWaitsForNotification() throws InterruptedException {
+        DPCResourceType resourceType = DPCResourceType.ExplanationOfBenefit;
+
+        // Work the job in the background, after the service has started waiting on it
+        final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor();
+        try {
+            worker.schedule(() -> {
+                final JobQueueBatch workBatch = queue.claimBatch(aggregatorID).orElseThrow();
+                while (workBatch.fetchNextPatient(aggregatorID).isPresent()) {
+                    queue.completePartialBatch(workBatch, aggregatorID);
+                }
+                tmpFile = Files.newFile(String.format("%s/%s-%s.%s.ndjson", exportPath, workBatch.getBatchID().toString(), 0, resourceType.getPath()));
+                workBatch.addJobQueueFile(resourceType, 0, 1);
+                queue.completeBatch(workBatch, aggregatorID);
+            }, 600, TimeUnit.MILLISECONDS);
+
+            Resource resource = dataService.retrieveData(orgID, orgNPI, providerNPI, List.of(patientID.toString()), resourceType);
+            Assertions.assertTrue(resource instanceof Bundle);
+        } finally {
+            worker.shutdown();
+            worker.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        // Checked once when the job was submitted, and once when the batch finished, rather than polling in between
+        Mockito.verify(queue, Mockito.times(2)).getJobBatches(Mockito.any());
+    }
+
     @SuppressWarnings("OptionalGetWithoutIsPresent")
     private void workJob(boolean failBatch, DPCResourceType resourceType) {
         Mockito.doAnswer((mock) -> {